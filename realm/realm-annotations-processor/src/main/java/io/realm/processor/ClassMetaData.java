@@ -38,6 +38,7 @@ import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
 import io.realm.annotations.Ignore;
+import io.realm.annotations.FullText;
 import io.realm.annotations.Index;
 import io.realm.annotations.PrimaryKey;
 import io.realm.annotations.Required;
@@ -54,6 +55,7 @@ public class ClassMetaData {
     private VariableElement primaryKey; // Reference to field used as primary key, if any.
     private List<VariableElement> fields = new ArrayList<VariableElement>(); // List of all fields in the class except those @Ignored.
     private List<VariableElement> indexedFields = new ArrayList<VariableElement>(); // list of all fields marked @Index.
+    private List<VariableElement> fullTextFields = new ArrayList<VariableElement>(); // list of all fields marked @FullText.
     private Set<VariableElement> nullableFields = new HashSet<VariableElement>(); // Set of fields which can be nullable
     private boolean containsToString;
     private boolean containsEquals;
@@ -245,6 +247,16 @@ public class ClassMetaData {
                     }
                 }
 
+                if (variableElement.getAnnotation(FullText.class) != null) {
+                    // The field has the @FullText annotation. It's only valid for String fields.
+                    if (Utils.isString(variableElement)) {
+                        fullTextFields.add(variableElement);
+                    } else {
+                        Utils.error("@FullText is not applicable to this field " + element + ".");
+                        return false;
+                    }
+                }
+
                 if (variableElement.getAnnotation(Required.class) == null) {
                     // The field doesn't have the @Required annotation.
                     // Without @Required annotation, boxed types/RealmObject/Date/String/bytes should be added to
@@ -352,6 +364,10 @@ public class ClassMetaData {
         return indexedFields;
     }
 
+    public List<VariableElement> getFullTextFields() {
+        return fullTextFields;
+    }
+
     public boolean hasPrimaryKey() {
         return primaryKey != null;
     }
@@ -94,6 +94,7 @@ import io.realm.annotations.RealmClass;
 @SupportedAnnotationTypes({
         "io.realm.annotations.RealmClass",
         "io.realm.annotations.Ignore",
+        "io.realm.annotations.FullText",
         "io.realm.annotations.Index",
         "io.realm.annotations.PrimaryKey",
         "io.realm.annotations.RealmModule",
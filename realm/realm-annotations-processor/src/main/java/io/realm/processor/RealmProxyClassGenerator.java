@@ -138,34 +138,88 @@ public class RealmProxyClassGenerator {
                 "ColumnInfo")                                // base class
                 .emitEmptyLine();
 
+        // field ordinals and the compile time hash table used by ColumnInfo.getColumnIndex(String)
+        List<VariableElement> fields = metadata.getFields();
+        List<String> ordinalNames = columnOrdinalNames(fields);
+        String[] columnNames = new String[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            columnNames[i] = fields.get(i).getSimpleName().toString();
+            writer.emitField("int", ordinalNames.get(i), EnumSet.of(Modifier.STATIC, Modifier.FINAL),
+                    Integer.toString(i));
+        }
+        StringBuilder names = new StringBuilder("new String[] {");
+        for (int i = 0; i < columnNames.length; i++) {
+            names.append(i == 0 ? "" : ", ").append('"').append(columnNames[i]).append('"');
+        }
+        names.append('}');
+        writer.emitField("String[]", "COLUMN_NAMES", EnumSet.of(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL),
+                names.toString());
+        StringBuilder slots = new StringBuilder("new int[] {");
+        int[] columnSlots = Utils.createFieldSlots(columnNames);
+        for (int i = 0; i < columnSlots.length; i++) {
+            slots.append(i == 0 ? "" : ", ").append(columnSlots[i]);
+        }
+        slots.append('}');
+        writer.emitField("int[]", "COLUMN_NAME_SLOTS", EnumSet.of(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL),
+                slots.toString());
+        writer.emitEmptyLine();
+
         // fields
-        for (VariableElement variableElement : metadata.getFields()) {
+        for (VariableElement variableElement : fields) {
             writer.emitField("long", columnIndexVarName(variableElement),
                     EnumSet.of(Modifier.PUBLIC, Modifier.FINAL));
         }
         writer.emitEmptyLine();
 
-        // constructor
+        // constructors
         writer.beginConstructor(EnumSet.noneOf(Modifier.class),
                 "String", "path",
                 "Table", "table");
-        writer.emitStatement("final Map<String, Long> indicesMap = new HashMap<String, Long>(%s)",
-                metadata.getFields().size());
-        for (VariableElement variableElement : metadata.getFields()) {
-            final String columnName = variableElement.getSimpleName().toString();
-            final String columnIndexVarName = columnIndexVarName(variableElement);
-            writer.emitStatement("this.%s = getValidColumnIndex(path, table, \"%s\", \"%s\")",
-                    columnIndexVarName, simpleClassName, columnName);
-            writer.emitStatement("indicesMap.put(\"%s\", this.%s)", columnName, columnIndexVarName);
-            writer.emitEmptyLine();
+        writer.emitStatement("this(getValidColumnIndices(path, table, \"%s\", COLUMN_NAMES))", simpleClassName);
+        writer.endConstructor();
+        writer.emitEmptyLine();
+
+        writer.beginConstructor(EnumSet.of(Modifier.PRIVATE), "long[]", "indices");
+        writer.emitStatement("super(COLUMN_NAMES, COLUMN_NAME_SLOTS, indices)");
+        for (int i = 0; i < fields.size(); i++) {
+            writer.emitStatement("this.%s = indices[%s]", columnIndexVarName(fields.get(i)), ordinalNames.get(i));
+        }
+        for (VariableElement field : metadata.getFullTextFields()) {
+            writer.emitStatement("setFullText(%s)", ordinalNames.get(fields.indexOf(field)));
         }
-        writer.emitStatement("setIndicesMap(indicesMap)");
         writer.endConstructor();
 
         writer.endType();
         writer.emitEmptyLine();
     }
 
+    // FOO_BAR_ORDINAL for a field named fooBar, or ORDINAL_<n> for all fields if two names would clash.
+    private static List<String> columnOrdinalNames(List<VariableElement> fields) {
+        List<String> ordinalNames = new ArrayList<String>(fields.size());
+        for (VariableElement field : fields) {
+            String name = field.getSimpleName().toString();
+            StringBuilder constantName = new StringBuilder();
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(name.charAt(i - 1))
+                        && name.charAt(i - 1) != '_') {
+                    constantName.append('_');
+                }
+                constantName.append(Character.toUpperCase(c));
+            }
+            String ordinalName = constantName.append("_ORDINAL").toString();
+            if (ordinalNames.contains(ordinalName)) {
+                ordinalNames.clear();
+                for (int i = 0; i < fields.size(); i++) {
+                    ordinalNames.add("ORDINAL_" + i);
+                }
+                return ordinalNames;
+            }
+            ordinalNames.add(ordinalName);
+        }
+        return ordinalNames;
+    }
+
     private void emitClassFields(JavaWriter writer) throws IOException {
         writer.emitField(columnInfoClassName(), "columnInfo", EnumSet.of(Modifier.PRIVATE, Modifier.FINAL));
         writer.emitField("ProxyState", "proxyState", EnumSet.of(Modifier.PRIVATE, Modifier.FINAL));
@@ -23,12 +23,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
 import javax.tools.JavaFileObject;
 
 import io.realm.annotations.RealmModule;
@@ -40,6 +42,8 @@ public class RealmProxyMediatorGenerator {
     private ProcessingEnvironment processingEnvironment;
     private List<String> qualifiedModelClasses = new ArrayList<String>();
     private List<String> qualifiedProxyClasses = new ArrayList<String>();
+    private List<String> qualifiedColumnInfoClasses = new ArrayList<String>();
+    private final long schemaFingerprint;
 
     public RealmProxyMediatorGenerator(ProcessingEnvironment processingEnvironment,
                                        String className, Set<ClassMetaData> classesToValidate) {
@@ -50,7 +54,10 @@ public class RealmProxyMediatorGenerator {
             String simpleName = metadata.getSimpleClassName();
             qualifiedModelClasses.add(metadata.getFullyQualifiedClassName());
             qualifiedProxyClasses.add(REALM_PACKAGE_NAME + "." + getProxyClassName(simpleName));
+            qualifiedColumnInfoClasses.add(REALM_PACKAGE_NAME + "." + getProxyClassName(simpleName) + "." +
+                    simpleName + "ColumnInfo");
         }
+        schemaFingerprint = calculateSchemaFingerprint(classesToValidate);
     }
 
     public void generate() throws IOException {
@@ -95,6 +102,8 @@ public class RealmProxyMediatorGenerator {
         emitFields(writer);
         emitCreateTableMethod(writer);
         emitValidateTableMethod(writer);
+        emitCreateColumnInfoMethod(writer);
+        emitGetSchemaFingerprintMethod(writer);
         emitGetFieldNamesMethod(writer);
         emitGetTableNameMethod(writer);
         emitNewInstanceMethod(writer);
@@ -159,6 +168,37 @@ public class RealmProxyMediatorGenerator {
         writer.emitEmptyLine();
     }
 
+    private void emitCreateColumnInfoMethod(JavaWriter writer) throws IOException {
+        writer.emitAnnotation("Override");
+        writer.beginMethod(
+                "ColumnInfo",
+                "createColumnInfo",
+                EnumSet.of(Modifier.PUBLIC),
+                "Class<? extends RealmModel>", "clazz", "SharedRealm", "sharedRealm"
+        );
+        emitMediatorSwitch(new ProxySwitchStatement() {
+            @Override
+            public void emitStatement(int i, JavaWriter writer) throws IOException {
+                writer.emitStatement("return new %s(sharedRealm.getPath(), sharedRealm.getTable(%s.getTableName()))",
+                        qualifiedColumnInfoClasses.get(i), qualifiedProxyClasses.get(i));
+            }
+        }, writer);
+        writer.endMethod();
+        writer.emitEmptyLine();
+    }
+
+    private void emitGetSchemaFingerprintMethod(JavaWriter writer) throws IOException {
+        writer.emitAnnotation("Override");
+        writer.beginMethod(
+                "long",
+                "getSchemaFingerprint",
+                EnumSet.of(Modifier.PUBLIC)
+        );
+        writer.emitStatement("return %dL", schemaFingerprint);
+        writer.endMethod();
+        writer.emitEmptyLine();
+    }
+
     private void emitGetFieldNamesMethod(JavaWriter writer) throws IOException {
         writer.emitAnnotation("Override");
         writer.beginMethod(
@@ -456,6 +496,45 @@ public class RealmProxyMediatorGenerator {
         }
     }
 
+    // Hash of everything validateTable() checks: the classes and the name, type, nullability, index and primary key of
+    // each field. Classes are sorted so the value doesn't depend on the iteration order of the module.
+    private static long calculateSchemaFingerprint(Set<ClassMetaData> classes) {
+        List<ClassMetaData> sortedClasses = new ArrayList<ClassMetaData>(classes);
+        Collections.sort(sortedClasses, new Comparator<ClassMetaData>() {
+            @Override
+            public int compare(ClassMetaData lhs, ClassMetaData rhs) {
+                return lhs.getFullyQualifiedClassName().compareTo(rhs.getFullyQualifiedClassName());
+            }
+        });
+
+        StringBuilder descriptor = new StringBuilder();
+        for (ClassMetaData metadata : sortedClasses) {
+            descriptor.append(metadata.getFullyQualifiedClassName()).append('{');
+            for (VariableElement field : metadata.getFields()) {
+                descriptor.append(field.getSimpleName()).append(':').append(field.asType());
+                if (metadata.isNullable(field)) {
+                    descriptor.append('?');
+                }
+                if (metadata.getIndexedFields().contains(field)) {
+                    descriptor.append('#');
+                }
+                if (field.equals(metadata.getPrimaryKey())) {
+                    descriptor.append('!');
+                }
+                descriptor.append(';');
+            }
+            descriptor.append('}');
+        }
+
+        // 64 bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < descriptor.length(); i++) {
+            hash ^= descriptor.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
     private String getProxyClassName(String clazz) {
         return clazz + Constants.PROXY_SUFFIX;
     }
@@ -1,5 +1,6 @@
 package io.realm.processor;
 
+import java.util.Arrays;
 import java.util.List;
 
 import javax.annotation.processing.Messager;
@@ -231,4 +232,56 @@ public class Utils {
     public static String getProxyInterfaceName(String className) {
         return className + Constants.INTERFACE_SUFFIX;
     }
+
+    /**
+     * Builds the hash table of field ordinals used by {@code io.realm.internal.ColumnInfo#getColumnIndex(String)}.
+     * The smallest power of two size (up to 4 times the minimum) for which no field names collide is used, so lookups
+     * never probe. If there is none, colliding names are resolved with linear probing in the minimum size table, which
+     * is how {@code ColumnInfo#getColumnIndex(String)} looks them up. This is the only place the table is built.
+     *
+     * @param fieldNames the field names by ordinal.
+     * @return the table, with {@code -1} in empty slots.
+     */
+    public static int[] createFieldSlots(String[] fieldNames) {
+        int minSize = 1;
+        while (minSize < fieldNames.length * 2) {
+            minSize <<= 1;
+        }
+        for (int size = minSize; size <= minSize * 4; size <<= 1) {
+            int[] slots = newFieldSlots(size);
+            boolean perfect = true;
+            for (int ordinal = 0; ordinal < fieldNames.length && perfect; ordinal++) {
+                int slot = fieldSlot(fieldNames[ordinal], size - 1);
+                if (slots[slot] != -1) {
+                    perfect = false;
+                }
+                slots[slot] = ordinal;
+            }
+            if (perfect) {
+                return slots;
+            }
+        }
+
+        int[] slots = newFieldSlots(minSize);
+        for (int ordinal = 0; ordinal < fieldNames.length; ordinal++) {
+            int slot = fieldSlot(fieldNames[ordinal], minSize - 1);
+            while (slots[slot] != -1) {
+                slot = (slot + 1) & (minSize - 1);
+            }
+            slots[slot] = ordinal;
+        }
+        return slots;
+    }
+
+    private static int[] newFieldSlots(int size) {
+        int[] slots = new int[size];
+        Arrays.fill(slots, -1);
+        return slots;
+    }
+
+    // Must match ColumnInfo.hashSlot() in the library.
+    private static int fieldSlot(String fieldName, int mask) {
+        int hash = fieldName.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
 }
@@ -299,6 +299,33 @@ public class RealmProcessorTest {
         }
     }
 
+    // Supported "FullText" annotation types
+    @Test
+    public void compileFullTextTypes() throws IOException {
+        TestRealmObjectFileObject javaFileObject =
+                TestRealmObjectFileObject.getSingleFieldInstance("ValidFullTextType", "FullText", "String", "testField");
+        ASSERT.about(javaSource())
+                .that(javaFileObject)
+                .processedWith(new RealmProcessor())
+                .compilesWithoutError();
+    }
+
+    // Unsupported "FullText" annotation types
+    @Test
+    public void compileInvalidFullTextTypes() throws IOException {
+        final String[] invalidFullTextFieldTypes = {"byte", "int", "long", "boolean", "java.util.Date", "byte[]",
+                "Simple", "RealmList", "Integer", "Double"};
+
+        for (String fieldType : invalidFullTextFieldTypes) {
+            TestRealmObjectFileObject javaFileObject = TestRealmObjectFileObject.getSingleFieldInstance(
+                    "InvalidFullTextType", "FullText", fieldType, "testField");
+            ASSERT.about(javaSource())
+                    .that(javaFileObject)
+                    .processedWith(new RealmProcessor())
+                    .failsToCompile();
+        }
+    }
+
     // Supported "PrimaryKey" annotation types
     @Test
     public void compilePrimaryKeyTypes() throws IOException {
@@ -31,6 +31,18 @@ public class AllTypesRealmProxy extends some.test.AllTypes
 
     static final class AllTypesColumnInfo extends ColumnInfo {
 
+        static final int COLUMN_STRING_ORDINAL = 0;
+        static final int COLUMN_LONG_ORDINAL = 1;
+        static final int COLUMN_FLOAT_ORDINAL = 2;
+        static final int COLUMN_DOUBLE_ORDINAL = 3;
+        static final int COLUMN_BOOLEAN_ORDINAL = 4;
+        static final int COLUMN_DATE_ORDINAL = 5;
+        static final int COLUMN_BINARY_ORDINAL = 6;
+        static final int COLUMN_OBJECT_ORDINAL = 7;
+        static final int COLUMN_REALM_LIST_ORDINAL = 8;
+        private static final String[] COLUMN_NAMES = new String[] {"columnString", "columnLong", "columnFloat", "columnDouble", "columnBoolean", "columnDate", "columnBinary", "columnObject", "columnRealmList"};
+        private static final int[] COLUMN_NAME_SLOTS = new int[] {-1, 0, -1, -1, 4, -1, -1, 7, -1, -1, -1, -1, -1, -1, -1, 1, 3, 6, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 2, 5, -1};
+
         public final long columnStringIndex;
         public final long columnLongIndex;
         public final long columnFloatIndex;
@@ -42,35 +54,20 @@ public class AllTypesRealmProxy extends some.test.AllTypes
         public final long columnRealmListIndex;
 
         AllTypesColumnInfo(String path, Table table) {
-            final Map<String, Long> indicesMap = new HashMap<String, Long>(9);
-            this.columnStringIndex = getValidColumnIndex(path, table, "AllTypes", "columnString");
-            indicesMap.put("columnString", this.columnStringIndex);
-
-            this.columnLongIndex = getValidColumnIndex(path, table, "AllTypes", "columnLong");
-            indicesMap.put("columnLong", this.columnLongIndex);
-
-            this.columnFloatIndex = getValidColumnIndex(path, table, "AllTypes", "columnFloat");
-            indicesMap.put("columnFloat", this.columnFloatIndex);
-
-            this.columnDoubleIndex = getValidColumnIndex(path, table, "AllTypes", "columnDouble");
-            indicesMap.put("columnDouble", this.columnDoubleIndex);
-
-            this.columnBooleanIndex = getValidColumnIndex(path, table, "AllTypes", "columnBoolean");
-            indicesMap.put("columnBoolean", this.columnBooleanIndex);
-
-            this.columnDateIndex = getValidColumnIndex(path, table, "AllTypes", "columnDate");
-            indicesMap.put("columnDate", this.columnDateIndex);
-
-            this.columnBinaryIndex = getValidColumnIndex(path, table, "AllTypes", "columnBinary");
-            indicesMap.put("columnBinary", this.columnBinaryIndex);
-
-            this.columnObjectIndex = getValidColumnIndex(path, table, "AllTypes", "columnObject");
-            indicesMap.put("columnObject", this.columnObjectIndex);
-
-            this.columnRealmListIndex = getValidColumnIndex(path, table, "AllTypes", "columnRealmList");
-            indicesMap.put("columnRealmList", this.columnRealmListIndex);
+            this(getValidColumnIndices(path, table, "AllTypes", COLUMN_NAMES));
+        }
 
-            setIndicesMap(indicesMap);
+        private AllTypesColumnInfo(long[] indices) {
+            super(COLUMN_NAMES, COLUMN_NAME_SLOTS, indices);
+            this.columnStringIndex = indices[COLUMN_STRING_ORDINAL];
+            this.columnLongIndex = indices[COLUMN_LONG_ORDINAL];
+            this.columnFloatIndex = indices[COLUMN_FLOAT_ORDINAL];
+            this.columnDoubleIndex = indices[COLUMN_DOUBLE_ORDINAL];
+            this.columnBooleanIndex = indices[COLUMN_BOOLEAN_ORDINAL];
+            this.columnDateIndex = indices[COLUMN_DATE_ORDINAL];
+            this.columnBinaryIndex = indices[COLUMN_BINARY_ORDINAL];
+            this.columnObjectIndex = indices[COLUMN_OBJECT_ORDINAL];
+            this.columnRealmListIndex = indices[COLUMN_REALM_LIST_ORDINAL];
         }
     }
 
@@ -31,26 +31,28 @@ public class BooleansRealmProxy extends some.test.Booleans
 
     static final class BooleansColumnInfo extends ColumnInfo {
 
+        static final int DONE_ORDINAL = 0;
+        static final int IS_READY_ORDINAL = 1;
+        static final int M_COMPLETED_ORDINAL = 2;
+        static final int ANOTHER_BOOLEAN_ORDINAL = 3;
+        private static final String[] COLUMN_NAMES = new String[] {"done", "isReady", "mCompleted", "anotherBoolean"};
+        private static final int[] COLUMN_NAME_SLOTS = new int[] {3, -1, -1, -1, -1, 0, 2, 1};
+
         public final long doneIndex;
         public final long isReadyIndex;
         public final long mCompletedIndex;
         public final long anotherBooleanIndex;
 
         BooleansColumnInfo(String path, Table table) {
-            final Map<String, Long> indicesMap = new HashMap<String, Long>(4);
-            this.doneIndex = getValidColumnIndex(path, table, "Booleans", "done");
-            indicesMap.put("done", this.doneIndex);
-
-            this.isReadyIndex = getValidColumnIndex(path, table, "Booleans", "isReady");
-            indicesMap.put("isReady", this.isReadyIndex);
-
-            this.mCompletedIndex = getValidColumnIndex(path, table, "Booleans", "mCompleted");
-            indicesMap.put("mCompleted", this.mCompletedIndex);
-
-            this.anotherBooleanIndex = getValidColumnIndex(path, table, "Booleans", "anotherBoolean");
-            indicesMap.put("anotherBoolean", this.anotherBooleanIndex);
+            this(getValidColumnIndices(path, table, "Booleans", COLUMN_NAMES));
+        }
 
-            setIndicesMap(indicesMap);
+        private BooleansColumnInfo(long[] indices) {
+            super(COLUMN_NAMES, COLUMN_NAME_SLOTS, indices);
+            this.doneIndex = indices[DONE_ORDINAL];
+            this.isReadyIndex = indices[IS_READY_ORDINAL];
+            this.mCompletedIndex = indices[M_COMPLETED_ORDINAL];
+            this.anotherBooleanIndex = indices[ANOTHER_BOOLEAN_ORDINAL];
         }
     }
 
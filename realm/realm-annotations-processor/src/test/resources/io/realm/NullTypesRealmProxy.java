@@ -31,6 +31,30 @@ public class NullTypesRealmProxy extends some.test.NullTypes
 
     static final class NullTypesColumnInfo extends ColumnInfo {
 
+        static final int FIELD_STRING_NOT_NULL_ORDINAL = 0;
+        static final int FIELD_STRING_NULL_ORDINAL = 1;
+        static final int FIELD_BOOLEAN_NOT_NULL_ORDINAL = 2;
+        static final int FIELD_BOOLEAN_NULL_ORDINAL = 3;
+        static final int FIELD_BYTES_NOT_NULL_ORDINAL = 4;
+        static final int FIELD_BYTES_NULL_ORDINAL = 5;
+        static final int FIELD_BYTE_NOT_NULL_ORDINAL = 6;
+        static final int FIELD_BYTE_NULL_ORDINAL = 7;
+        static final int FIELD_SHORT_NOT_NULL_ORDINAL = 8;
+        static final int FIELD_SHORT_NULL_ORDINAL = 9;
+        static final int FIELD_INTEGER_NOT_NULL_ORDINAL = 10;
+        static final int FIELD_INTEGER_NULL_ORDINAL = 11;
+        static final int FIELD_LONG_NOT_NULL_ORDINAL = 12;
+        static final int FIELD_LONG_NULL_ORDINAL = 13;
+        static final int FIELD_FLOAT_NOT_NULL_ORDINAL = 14;
+        static final int FIELD_FLOAT_NULL_ORDINAL = 15;
+        static final int FIELD_DOUBLE_NOT_NULL_ORDINAL = 16;
+        static final int FIELD_DOUBLE_NULL_ORDINAL = 17;
+        static final int FIELD_DATE_NOT_NULL_ORDINAL = 18;
+        static final int FIELD_DATE_NULL_ORDINAL = 19;
+        static final int FIELD_OBJECT_NULL_ORDINAL = 20;
+        private static final String[] COLUMN_NAMES = new String[] {"fieldStringNotNull", "fieldStringNull", "fieldBooleanNotNull", "fieldBooleanNull", "fieldBytesNotNull", "fieldBytesNull", "fieldByteNotNull", "fieldByteNull", "fieldShortNotNull", "fieldShortNull", "fieldIntegerNotNull", "fieldIntegerNull", "fieldLongNotNull", "fieldLongNull", "fieldFloatNotNull", "fieldFloatNull", "fieldDoubleNotNull", "fieldDoubleNull", "fieldDateNotNull", "fieldDateNull", "fieldObjectNull"};
+        private static final int[] COLUMN_NAME_SLOTS = new int[] {7, -1, -1, 20, -1, 11, 17, -1, 13, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 4, -1, 19, 0, 12, -1, 10, 6, 14, 15, 16, 18, -1, -1, 3, 9, -1, -1, -1, -1, -1, -1, -1, 5, -1, -1, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, -1, 8, -1, -1};
+
         public final long fieldStringNotNullIndex;
         public final long fieldStringNullIndex;
         public final long fieldBooleanNotNullIndex;
@@ -54,71 +78,32 @@ public class NullTypesRealmProxy extends some.test.NullTypes
         public final long fieldObjectNullIndex;
 
         NullTypesColumnInfo(String path, Table table) {
-            final Map<String, Long> indicesMap = new HashMap<String, Long>(21);
-            this.fieldStringNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldStringNotNull");
-            indicesMap.put("fieldStringNotNull", this.fieldStringNotNullIndex);
-
-            this.fieldStringNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldStringNull");
-            indicesMap.put("fieldStringNull", this.fieldStringNullIndex);
-
-            this.fieldBooleanNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldBooleanNotNull");
-            indicesMap.put("fieldBooleanNotNull", this.fieldBooleanNotNullIndex);
-
-            this.fieldBooleanNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldBooleanNull");
-            indicesMap.put("fieldBooleanNull", this.fieldBooleanNullIndex);
-
-            this.fieldBytesNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldBytesNotNull");
-            indicesMap.put("fieldBytesNotNull", this.fieldBytesNotNullIndex);
-
-            this.fieldBytesNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldBytesNull");
-            indicesMap.put("fieldBytesNull", this.fieldBytesNullIndex);
-
-            this.fieldByteNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldByteNotNull");
-            indicesMap.put("fieldByteNotNull", this.fieldByteNotNullIndex);
-
-            this.fieldByteNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldByteNull");
-            indicesMap.put("fieldByteNull", this.fieldByteNullIndex);
-
-            this.fieldShortNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldShortNotNull");
-            indicesMap.put("fieldShortNotNull", this.fieldShortNotNullIndex);
-
-            this.fieldShortNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldShortNull");
-            indicesMap.put("fieldShortNull", this.fieldShortNullIndex);
-
-            this.fieldIntegerNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldIntegerNotNull");
-            indicesMap.put("fieldIntegerNotNull", this.fieldIntegerNotNullIndex);
-
-            this.fieldIntegerNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldIntegerNull");
-            indicesMap.put("fieldIntegerNull", this.fieldIntegerNullIndex);
-
-            this.fieldLongNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldLongNotNull");
-            indicesMap.put("fieldLongNotNull", this.fieldLongNotNullIndex);
-
-            this.fieldLongNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldLongNull");
-            indicesMap.put("fieldLongNull", this.fieldLongNullIndex);
-
-            this.fieldFloatNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldFloatNotNull");
-            indicesMap.put("fieldFloatNotNull", this.fieldFloatNotNullIndex);
-
-            this.fieldFloatNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldFloatNull");
-            indicesMap.put("fieldFloatNull", this.fieldFloatNullIndex);
-
-            this.fieldDoubleNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldDoubleNotNull");
-            indicesMap.put("fieldDoubleNotNull", this.fieldDoubleNotNullIndex);
-
-            this.fieldDoubleNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldDoubleNull");
-            indicesMap.put("fieldDoubleNull", this.fieldDoubleNullIndex);
-
-            this.fieldDateNotNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldDateNotNull");
-            indicesMap.put("fieldDateNotNull", this.fieldDateNotNullIndex);
-
-            this.fieldDateNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldDateNull");
-            indicesMap.put("fieldDateNull", this.fieldDateNullIndex);
-
-            this.fieldObjectNullIndex = getValidColumnIndex(path, table, "NullTypes", "fieldObjectNull");
-            indicesMap.put("fieldObjectNull", this.fieldObjectNullIndex);
-
-            setIndicesMap(indicesMap);
+            this(getValidColumnIndices(path, table, "NullTypes", COLUMN_NAMES));
+        }
+
+        private NullTypesColumnInfo(long[] indices) {
+            super(COLUMN_NAMES, COLUMN_NAME_SLOTS, indices);
+            this.fieldStringNotNullIndex = indices[FIELD_STRING_NOT_NULL_ORDINAL];
+            this.fieldStringNullIndex = indices[FIELD_STRING_NULL_ORDINAL];
+            this.fieldBooleanNotNullIndex = indices[FIELD_BOOLEAN_NOT_NULL_ORDINAL];
+            this.fieldBooleanNullIndex = indices[FIELD_BOOLEAN_NULL_ORDINAL];
+            this.fieldBytesNotNullIndex = indices[FIELD_BYTES_NOT_NULL_ORDINAL];
+            this.fieldBytesNullIndex = indices[FIELD_BYTES_NULL_ORDINAL];
+            this.fieldByteNotNullIndex = indices[FIELD_BYTE_NOT_NULL_ORDINAL];
+            this.fieldByteNullIndex = indices[FIELD_BYTE_NULL_ORDINAL];
+            this.fieldShortNotNullIndex = indices[FIELD_SHORT_NOT_NULL_ORDINAL];
+            this.fieldShortNullIndex = indices[FIELD_SHORT_NULL_ORDINAL];
+            this.fieldIntegerNotNullIndex = indices[FIELD_INTEGER_NOT_NULL_ORDINAL];
+            this.fieldIntegerNullIndex = indices[FIELD_INTEGER_NULL_ORDINAL];
+            this.fieldLongNotNullIndex = indices[FIELD_LONG_NOT_NULL_ORDINAL];
+            this.fieldLongNullIndex = indices[FIELD_LONG_NULL_ORDINAL];
+            this.fieldFloatNotNullIndex = indices[FIELD_FLOAT_NOT_NULL_ORDINAL];
+            this.fieldFloatNullIndex = indices[FIELD_FLOAT_NULL_ORDINAL];
+            this.fieldDoubleNotNullIndex = indices[FIELD_DOUBLE_NOT_NULL_ORDINAL];
+            this.fieldDoubleNullIndex = indices[FIELD_DOUBLE_NULL_ORDINAL];
+            this.fieldDateNotNullIndex = indices[FIELD_DATE_NOT_NULL_ORDINAL];
+            this.fieldDateNullIndex = indices[FIELD_DATE_NULL_ORDINAL];
+            this.fieldObjectNullIndex = indices[FIELD_OBJECT_NULL_ORDINAL];
         }
     }
 
@@ -51,6 +51,22 @@ class DefaultRealmModuleMediator extends RealmProxyMediator {
         }
     }
 
+    @Override
+    public ColumnInfo createColumnInfo(Class<? extends RealmModel> clazz, SharedRealm sharedRealm) {
+        checkClass(clazz);
+
+        if (clazz.equals(some.test.AllTypes.class)) {
+            return new io.realm.AllTypesRealmProxy.AllTypesColumnInfo(sharedRealm.getPath(), sharedRealm.getTable(io.realm.AllTypesRealmProxy.getTableName()));
+        } else {
+            throw getMissingProxyClassException(clazz);
+        }
+    }
+
+    @Override
+    public long getSchemaFingerprint() {
+        return 3711620067182203709L;
+    }
+
     @Override
     public List<String> getFieldNames(Class<? extends RealmModel> clazz) {
         checkClass(clazz);
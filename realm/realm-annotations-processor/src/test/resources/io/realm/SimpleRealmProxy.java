@@ -31,18 +31,22 @@ public class SimpleRealmProxy extends some.test.Simple
 
     static final class SimpleColumnInfo extends ColumnInfo {
 
+        static final int NAME_ORDINAL = 0;
+        static final int AGE_ORDINAL = 1;
+        private static final String[] COLUMN_NAMES = new String[] {"name", "age"};
+        private static final int[] COLUMN_NAME_SLOTS = new int[] {0, -1, 1, -1};
+
         public final long nameIndex;
         public final long ageIndex;
 
         SimpleColumnInfo(String path, Table table) {
-            final Map<String, Long> indicesMap = new HashMap<String, Long>(2);
-            this.nameIndex = getValidColumnIndex(path, table, "Simple", "name");
-            indicesMap.put("name", this.nameIndex);
-
-            this.ageIndex = getValidColumnIndex(path, table, "Simple", "age");
-            indicesMap.put("age", this.ageIndex);
+            this(getValidColumnIndices(path, table, "Simple", COLUMN_NAMES));
+        }
 
-            setIndicesMap(indicesMap);
+        private SimpleColumnInfo(long[] indices) {
+            super(COLUMN_NAMES, COLUMN_NAME_SLOTS, indices);
+            this.nameIndex = indices[NAME_ORDINAL];
+            this.ageIndex = indices[AGE_ORDINAL];
         }
     }
 
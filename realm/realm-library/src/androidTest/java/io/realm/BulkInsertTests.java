@@ -42,6 +42,7 @@ import io.realm.entities.CyclicTypePrimaryKey;
 import io.realm.entities.Dog;
 import io.realm.entities.DogPrimaryKey;
 import io.realm.entities.HumanModule;
+import io.realm.entities.NoPrimaryKeyNullTypes;
 import io.realm.entities.NoPrimaryKeyWithPrimaryKeyObjectRelation;
 import io.realm.entities.NullTypes;
 import io.realm.entities.PrimaryKeyAsBoxedShort;
@@ -911,4 +912,89 @@ public class BulkInsertTests {
     public void insertOrUpdate_object_notInTransaction() {
         realm.insert(new AllTypes());
     }
+
+    @Test
+    public void bulkInsert() {
+        final int count = 1000;
+        long[] longs = new long[count];
+        boolean[] booleans = new boolean[count];
+        float[] floats = new float[count];
+        double[] doubles = new double[count];
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            longs[i] = i;
+            booleans[i] = (i % 2) == 0;
+            floats[i] = 1.5f + i;
+            doubles[i] = 3.1415 + i;
+            strings[i] = "String " + i;
+        }
+
+        realm.beginTransaction();
+        realm.bulkInsert(AllTypes.class, count)
+                .setLongs(AllTypes.FIELD_LONG, longs)
+                .setBooleans(AllTypes.FIELD_BOOLEAN, booleans)
+                .setFloats(AllTypes.FIELD_FLOAT, floats)
+                .setDoubles(AllTypes.FIELD_DOUBLE, doubles)
+                .setStrings(AllTypes.FIELD_STRING, strings)
+                .insert();
+        realm.commitTransaction();
+
+        RealmResults<AllTypes> results = realm.where(AllTypes.class).findAllSorted(AllTypes.FIELD_LONG);
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; i++) {
+            AllTypes object = results.get(i);
+            assertEquals(i, object.getColumnLong());
+            assertEquals((i % 2) == 0, object.isColumnBoolean());
+            assertEquals(1.5f + i, object.getColumnFloat(), 0F);
+            assertEquals(3.1415 + i, object.getColumnDouble(), 0D);
+            assertEquals("String " + i, object.getColumnString());
+        }
+    }
+
+    @Test
+    public void bulkInsert_nullableString() {
+        realm.beginTransaction();
+        realm.bulkInsert(NoPrimaryKeyNullTypes.class, 2)
+                .setStrings(NoPrimaryKeyNullTypes.FIELD_STRING_NULL, new String[] {null, "foo"})
+                .setStrings(NoPrimaryKeyNullTypes.FIELD_STRING_NOT_NULL, new String[] {"bar", "baz"})
+                .insert();
+        realm.commitTransaction();
+
+        assertEquals(1, realm.where(NoPrimaryKeyNullTypes.class)
+                .isNull(NoPrimaryKeyNullTypes.FIELD_STRING_NULL).count());
+    }
+
+    @Test
+    public void bulkInsert_nullForRequiredStringThrows() {
+        realm.beginTransaction();
+        BulkInserter<NoPrimaryKeyNullTypes> inserter = realm.bulkInsert(NoPrimaryKeyNullTypes.class, 1)
+                .setStrings(NoPrimaryKeyNullTypes.FIELD_STRING_NOT_NULL, new String[] {null});
+        try {
+            inserter.insert();
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        } finally {
+            realm.cancelTransaction();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bulkInsert_wrongFieldType() {
+        realm.bulkInsert(AllTypes.class, 1).setLongs(AllTypes.FIELD_STRING, new long[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bulkInsert_wrongNumberOfValues() {
+        realm.bulkInsert(AllTypes.class, 2).setLongs(AllTypes.FIELD_LONG, new long[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bulkInsert_primaryKeyThrows() {
+        realm.bulkInsert(PrimaryKeyAsLong.class, 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void bulkInsert_notInTransaction() {
+        realm.bulkInsert(AllTypes.class, 1).setLongs(AllTypes.FIELD_LONG, new long[1]).insert();
+    }
 }
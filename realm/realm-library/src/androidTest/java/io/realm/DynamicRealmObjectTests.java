@@ -25,6 +25,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 
+import java.nio.ByteBuffer;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Date;
@@ -127,6 +128,19 @@ public class DynamicRealmObjectTests {
         new DynamicRealmObject(new AllTypes());
     }
 
+    @Test
+    public void setBlobBuffer_wrongFieldTypeThrows() {
+        realm.beginTransaction();
+        try {
+            dObjTyped.setBlobBuffer(AllJavaTypes.FIELD_STRING, ByteBuffer.allocateDirect(1));
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        } finally {
+            realm.cancelTransaction();
+        }
+        assertEquals("str", dObjTyped.getString(AllJavaTypes.FIELD_STRING));
+    }
+
     // Test that all getters fail if given invalid field name
     @Test
     public void typedGetter_illegalFieldNameThrows() {
@@ -1374,4 +1374,57 @@ public class NotificationsTest {
         } catch (IllegalStateException ignored) {
         }
     }
+
+    // Changes arriving within the coalescing window after a delivery are merged into a single notification.
+    @Test
+    @RunTestInLooperThread
+    public void notificationCoalescingWindow_mergesChanges() {
+        final RealmConfiguration config = looperThread.createConfigurationBuilder()
+                .name("coalescing.realm")
+                .notificationCoalescingWindow(1, TimeUnit.SECONDS)
+                .build();
+        final Realm realm = Realm.getInstance(config);
+        final AtomicInteger listenerCalled = new AtomicInteger(0);
+        looperThread.keepStrongReference.add(realm);
+
+        realm.addChangeListener(new RealmChangeListener<Realm>() {
+            @Override
+            public void onChange(Realm element) {
+                int count = listenerCalled.incrementAndGet();
+                if (count == 1) {
+                    // First change is delivered right away, now commit a burst within the window.
+                    new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Realm bgRealm = Realm.getInstance(config);
+                            for (int i = 0; i < 5; i++) {
+                                bgRealm.beginTransaction();
+                                bgRealm.createObject(AllTypes.class);
+                                bgRealm.commitTransaction();
+                            }
+                            bgRealm.close();
+                        }
+                    }).start();
+                } else if (element.where(AllTypes.class).count() == 6) {
+                    // Six commits, but the burst was merged.
+                    assertTrue(count < 6);
+                    assertEquals(count, realm.getDeliveredChangeCount());
+                    assertTrue(realm.getMergedChangeCount() > 0);
+                    realm.close();
+                    looperThread.testComplete();
+                }
+            }
+        });
+
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Realm bgRealm = Realm.getInstance(config);
+                bgRealm.beginTransaction();
+                bgRealm.createObject(AllTypes.class);
+                bgRealm.commitTransaction();
+                bgRealm.close();
+            }
+        }).start();
+    }
 }
@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -170,6 +171,197 @@ public class RealmAsyncQueryTests {
         });
     }
 
+    // Grouped async transactions are committed together, a failing one only fails itself.
+    // The async query refreshed by the transaction keeps a pooled instance of the file open in a worker thread, which
+    // must not prevent compacting the file once the Realm is closed.
+    @Test
+    @RunTestInLooperThread
+    public void compactRealm_afterAsyncTransaction() throws Throwable {
+        final RealmConfiguration config = looperThread.createConfigurationBuilder()
+                .name("compact_after_async.realm")
+                .build();
+        final Realm realm = Realm.getInstance(config);
+        looperThread.keepStrongReference.add(realm);
+        final RealmResults<Owner> owners = realm.where(Owner.class).findAllAsync();
+        looperThread.keepStrongReference.add(owners);
+        owners.addChangeListener(new RealmChangeListener<RealmResults<Owner>>() {
+            @Override
+            public void onChange(RealmResults<Owner> results) {
+                if (results.size() == 1) {
+                    realm.close();
+                    assertTrue(Realm.compactRealm(config));
+                    looperThread.testComplete();
+                }
+            }
+        });
+
+        realm.executeTransactionAsync(new Realm.Transaction() {
+            @Override
+            public void execute(Realm realm) {
+                realm.createObject(Owner.class).setName("Owner");
+            }
+        });
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void executeTransactionAsync_grouped() throws Throwable {
+        final int TRANSACTIONS = 10;
+        final int FAILING_TRANSACTION = 4;
+        final RealmConfiguration config = looperThread.createConfigurationBuilder()
+                .name("grouped.realm")
+                .groupAsyncTransactions(TRANSACTIONS, 10, TimeUnit.SECONDS)
+                .build();
+        final Realm realm = Realm.getInstance(config);
+        looperThread.keepStrongReference.add(realm);
+        final AtomicInteger successes = new AtomicInteger(0);
+        final AtomicInteger errors = new AtomicInteger(0);
+        final Runnable checkDone = new Runnable() {
+            @Override
+            public void run() {
+                if (successes.get() + errors.get() == TRANSACTIONS) {
+                    assertEquals(TRANSACTIONS - 1, successes.get());
+                    assertEquals(1, errors.get());
+                    assertEquals(TRANSACTIONS - 1, realm.where(Owner.class).count());
+                    realm.close();
+                    looperThread.testComplete();
+                }
+            }
+        };
+
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            final int index = i;
+            realm.executeTransactionAsync(new Realm.Transaction() {
+                @Override
+                public void execute(Realm realm) {
+                    if (index == FAILING_TRANSACTION) {
+                        throw new RuntimeException("Boom");
+                    }
+                    Owner owner = realm.createObject(Owner.class);
+                    owner.setName("Owner " + index);
+                }
+            }, new Realm.Transaction.OnSuccess() {
+                @Override
+                public void onSuccess() {
+                    successes.incrementAndGet();
+                    checkDone.run();
+                }
+            }, new Realm.Transaction.OnError() {
+                @Override
+                public void onError(Throwable error) {
+                    assertEquals("Boom", error.getMessage());
+                    errors.incrementAndGet();
+                    checkDone.run();
+                }
+            });
+        }
+    }
+
+    // A failing transaction in a batch only makes the transactions before it run again.
+    @Test
+    @RunTestInLooperThread
+    public void executeTransactionAsync_groupedFailureOnlyRetriesPrefix() throws Throwable {
+        final int TRANSACTIONS = 6;
+        final int FAILING_TRANSACTION = 2;
+        final RealmConfiguration config = looperThread.createConfigurationBuilder()
+                .name("grouped_retry.realm")
+                .groupAsyncTransactions(TRANSACTIONS, 10, TimeUnit.SECONDS)
+                .build();
+        final Realm realm = Realm.getInstance(config);
+        looperThread.keepStrongReference.add(realm);
+        final AtomicInteger[] executions = new AtomicInteger[TRANSACTIONS];
+        final AtomicInteger completed = new AtomicInteger(0);
+        final Runnable checkDone = new Runnable() {
+            @Override
+            public void run() {
+                if (completed.incrementAndGet() == TRANSACTIONS) {
+                    for (int i = 0; i < TRANSACTIONS; i++) {
+                        assertEquals("Transaction " + i, i < FAILING_TRANSACTION ? 2 : 1, executions[i].get());
+                    }
+                    assertEquals(TRANSACTIONS - 1, realm.where(Owner.class).count());
+                    realm.close();
+                    looperThread.testComplete();
+                }
+            }
+        };
+
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            final int index = i;
+            executions[i] = new AtomicInteger(0);
+            realm.executeTransactionAsync(new Realm.Transaction() {
+                @Override
+                public void execute(Realm realm) {
+                    executions[index].incrementAndGet();
+                    if (index == FAILING_TRANSACTION) {
+                        throw new RuntimeException("Boom");
+                    }
+                    realm.createObject(Owner.class).setName("Owner " + index);
+                }
+            }, new Realm.Transaction.OnSuccess() {
+                @Override
+                public void onSuccess() {
+                    checkDone.run();
+                }
+            }, new Realm.Transaction.OnError() {
+                @Override
+                public void onError(Throwable error) {
+                    checkDone.run();
+                }
+            });
+        }
+    }
+
+    // Batches waiting to fill up don't hold write threads, so they can't starve transactions on other Realm files.
+    @Test
+    @RunTestInLooperThread
+    public void executeTransactionAsync_groupedBatchesDontBlockOtherRealmFiles() throws Throwable {
+        final int GROUPED_REALMS = 3; // More than the write threads of the default executor
+        final List<String> completionOrder = new ArrayList<String>();
+        final Runnable checkDone = new Runnable() {
+            @Override
+            public void run() {
+                if (completionOrder.size() == GROUPED_REALMS + 1) {
+                    assertEquals("ungrouped", completionOrder.get(0));
+                    looperThread.testComplete();
+                }
+            }
+        };
+
+        for (int i = 0; i < GROUPED_REALMS; i++) {
+            final Realm groupedRealm = Realm.getInstance(looperThread.createConfigurationBuilder()
+                    .name("grouped_" + i + ".realm")
+                    .groupAsyncTransactions(10, 2, TimeUnit.SECONDS)
+                    .build());
+            looperThread.keepStrongReference.add(groupedRealm);
+            groupedRealm.executeTransactionAsync(new Realm.Transaction() {
+                @Override
+                public void execute(Realm realm) {
+                    realm.createObject(Owner.class);
+                }
+            }, new Realm.Transaction.OnSuccess() {
+                @Override
+                public void onSuccess() {
+                    completionOrder.add(groupedRealm.getConfiguration().getRealmFileName());
+                    groupedRealm.close();
+                    checkDone.run();
+                }
+            }, null);
+        }
+
+        looperThread.realm.executeTransactionAsync(new Realm.Transaction() {
+            @Override
+            public void execute(Realm realm) {
+                realm.createObject(Owner.class);
+            }
+        }, new Realm.Transaction.OnSuccess() {
+            @Override
+            public void onSuccess() {
+                completionOrder.add("ungrouped");
+                checkDone.run();
+            }
+        }, null);
+    }
+
     // Test that an async transaction that throws an exception propagate it properly to the user.
     @Test
     @RunTestInLooperThread
@@ -1630,15 +1822,20 @@ public class RealmAsyncQueryTests {
         final long numberOfObjects = 10; // must be greater than 1
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
 
-        for (String fieldName : new String[]{"Boolean", "Long", "Date", "String"}) {
-            try {
-                realm.where(AnnotationIndexTypes.class).distinctAsync("notIndex" + fieldName);
-                fail("notIndex" + fieldName);
-            } catch (IllegalArgumentException ignored) {
-            }
+        final AtomicInteger changeListenerCalled = new AtomicInteger(4);
+        for (final String fieldName : new String[]{"Boolean", "Long", "Date", "String"}) {
+            final RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class).distinctAsync("notIndex" + fieldName);
+            looperThread.keepStrongReference.add(distinct);
+            distinct.addChangeListener(new RealmChangeListener<RealmResults<AnnotationIndexTypes>>() {
+                @Override
+                public void onChange(RealmResults<AnnotationIndexTypes> object) {
+                    assertEquals("notIndex" + fieldName, fieldName.equals("Boolean") ? 2 : numberOfBlocks, distinct.size());
+                    if (changeListenerCalled.decrementAndGet() == 0) {
+                        looperThread.testComplete();
+                    }
+                }
+            });
         }
-
-        looperThread.testComplete();
     }
 
     @Test
@@ -2166,6 +2363,256 @@ public class RealmAsyncQueryTests {
         looperThread.keepStrongReference.add(results);
     }
 
+    // **************************************
+    // ***       async aggregates         ***
+    // **************************************
+
+    @Test
+    @RunTestInLooperThread
+    public void countAsync() throws Throwable {
+        Realm realm = looperThread.realm;
+        populateTestRealm(realm, 10);
+        final RealmAsyncAggregate<Long> count = realm.where(AllTypes.class)
+                .between("columnLong", 0, 4)
+                .countAsync();
+
+        looperThread.keepStrongReference.add(count);
+        count.addChangeListener(new RealmChangeListener<RealmAsyncAggregate<Long>>() {
+            @Override
+            public void onChange(RealmAsyncAggregate<Long> object) {
+                assertTrue(count.isLoaded());
+                assertEquals(5L, count.get().longValue());
+                looperThread.testComplete();
+            }
+        });
+
+        assertFalse(count.isLoaded());
+        assertNull(count.get());
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void numberAggregatesAsync() throws Throwable {
+        Realm realm = looperThread.realm;
+        populateTestRealm(realm, 10);
+        final AtomicInteger loaded = new AtomicInteger(0);
+        final RealmAsyncAggregate<Number> sum = realm.where(AllTypes.class).sumAsync("columnLong");
+        final RealmAsyncAggregate<Double> average = realm.where(AllTypes.class).averageAsync("columnLong");
+        final RealmAsyncAggregate<Number> min = realm.where(AllTypes.class).minAsync("columnLong");
+        final RealmAsyncAggregate<Number> max = realm.where(AllTypes.class).maxAsync("columnLong");
+
+        RealmChangeListener<RealmAsyncAggregate<Number>> numberListener = new RealmChangeListener<RealmAsyncAggregate<Number>>() {
+            @Override
+            public void onChange(RealmAsyncAggregate<Number> aggregate) {
+                if (loaded.incrementAndGet() == 4) {
+                    assertEquals(45L, sum.get());
+                    assertEquals(4.5, average.get(), 0.0);
+                    assertEquals(0L, min.get());
+                    assertEquals(9L, max.get());
+                    looperThread.testComplete();
+                }
+            }
+        };
+        sum.addChangeListener(numberListener);
+        min.addChangeListener(numberListener);
+        max.addChangeListener(numberListener);
+        average.addChangeListener(new RealmChangeListener<RealmAsyncAggregate<Double>>() {
+            @Override
+            public void onChange(RealmAsyncAggregate<Double> aggregate) {
+                if (loaded.incrementAndGet() == 4) {
+                    assertEquals(45L, sum.get());
+                    assertEquals(4.5, average.get(), 0.0);
+                    assertEquals(0L, min.get());
+                    assertEquals(9L, max.get());
+                    looperThread.testComplete();
+                }
+            }
+        });
+        looperThread.keepStrongReference.add(sum);
+        looperThread.keepStrongReference.add(average);
+        looperThread.keepStrongReference.add(min);
+        looperThread.keepStrongReference.add(max);
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void minAsync_noValues() throws Throwable {
+        Realm realm = looperThread.realm;
+        final RealmAsyncAggregate<Number> min = realm.where(AllTypes.class).minAsync("columnDouble");
+
+        looperThread.keepStrongReference.add(min);
+        min.addChangeListener(new RealmChangeListener<RealmAsyncAggregate<Number>>() {
+            @Override
+            public void onChange(RealmAsyncAggregate<Number> object) {
+                assertTrue(min.isLoaded());
+                assertNull(min.get());
+                looperThread.testComplete();
+            }
+        });
+    }
+
+    // the aggregate is re-evaluated in the batch update triggered by a commit on another thread
+    @Test
+    @RunTestInLooperThread
+    public void countAsync_updatedByBackgroundCommit() throws Throwable {
+        final Realm realm = looperThread.realm;
+        populateTestRealm(realm, 10);
+        final AtomicInteger numberOfNotifications = new AtomicInteger(0);
+        final RealmAsyncAggregate<Long> count = realm.where(AllTypes.class).countAsync();
+
+        looperThread.keepStrongReference.add(count);
+        count.addChangeListener(new RealmChangeListener<RealmAsyncAggregate<Long>>() {
+            @Override
+            public void onChange(RealmAsyncAggregate<Long> object) {
+                switch (numberOfNotifications.incrementAndGet()) {
+                    case 1:
+                        assertEquals(10L, count.get().longValue());
+                        realm.executeTransactionAsync(new Realm.Transaction() {
+                            @Override
+                            public void execute(Realm realm) {
+                                realm.createObject(AllTypes.class);
+                            }
+                        });
+                        break;
+                    case 2:
+                        assertEquals(11L, count.get().longValue());
+                        looperThread.testComplete();
+                        break;
+                    default:
+                        fail("Unexpected notification");
+                }
+            }
+        });
+    }
+
+    // local commits rerun the loaded aggregates on a worker thread, the previous value is kept until then
+    @Test
+    @RunTestInLooperThread
+    public void sumAsync_updatedByLocalCommit() throws Throwable {
+        final Realm realm = looperThread.realm;
+        populateTestRealm(realm, 10);
+        final AtomicInteger numberOfNotifications = new AtomicInteger(0);
+        final RealmAsyncAggregate<Number> sum = realm.where(AllTypes.class).sumAsync("columnLong");
+
+        looperThread.keepStrongReference.add(sum);
+        sum.addChangeListener(new RealmChangeListener<RealmAsyncAggregate<Number>>() {
+            @Override
+            public void onChange(RealmAsyncAggregate<Number> object) {
+                switch (numberOfNotifications.incrementAndGet()) {
+                    case 1:
+                        assertEquals(45L, sum.get());
+                        realm.beginTransaction();
+                        realm.createObject(AllTypes.class).setColumnLong(100);
+                        realm.commitTransaction();
+                        assertEquals(45L, sum.get());
+                        break;
+                    case 2:
+                        assertEquals(145L, sum.get());
+                        looperThread.testComplete();
+                        break;
+                    default:
+                        fail("Unexpected notification");
+                }
+            }
+        });
+    }
+
+    // listeners are not notified if a change doesn't change the value
+    @Test
+    @RunTestInLooperThread
+    public void countAsync_notNotifiedIfValueIsUnchanged() throws Throwable {
+        final Realm realm = looperThread.realm;
+        populateTestRealm(realm, 10);
+        final AtomicInteger numberOfNotifications = new AtomicInteger(0);
+        final RealmAsyncAggregate<Long> count = realm.where(AllTypes.class).equalTo("columnLong", 0).countAsync();
+
+        looperThread.keepStrongReference.add(count);
+        count.addChangeListener(new RealmChangeListener<RealmAsyncAggregate<Long>>() {
+            @Override
+            public void onChange(RealmAsyncAggregate<Long> object) {
+                assertEquals(1, numberOfNotifications.incrementAndGet());
+                realm.executeTransactionAsync(new Realm.Transaction() {
+                    @Override
+                    public void execute(Realm realm) {
+                        realm.createObject(AllTypes.class).setColumnLong(1);
+                    }
+                }, new Realm.Transaction.OnSuccess() {
+                    @Override
+                    public void onSuccess() {
+                        assertEquals(1L, count.get().longValue());
+                        assertEquals(1, numberOfNotifications.get());
+                        looperThread.testComplete();
+                    }
+                });
+            }
+        });
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void countAsync_forceLoad() throws Throwable {
+        Realm realm = looperThread.realm;
+        populateTestRealm(realm, 10);
+        final RealmAsyncAggregate<Long> count = realm.where(AllTypes.class).countAsync();
+
+        looperThread.keepStrongReference.add(count);
+        // notification should be called as well
+        count.addChangeListener(new RealmChangeListener<RealmAsyncAggregate<Long>>() {
+            @Override
+            public void onChange(RealmAsyncAggregate<Long> object) {
+                assertEquals(10L, count.get().longValue());
+                looperThread.testComplete();
+            }
+        });
+
+        assertTrue(count.load());
+        assertTrue(count.isLoaded());
+        assertEquals(10L, count.get().longValue());
+    }
+
+    @Test
+    public void countAsync_throwsOnNonLooperThread() throws Throwable {
+        Realm realm = Realm.getInstance(configFactory.createConfiguration());
+        try {
+            realm.where(AllTypes.class).countAsync();
+            fail();
+        } catch (IllegalStateException ignored) {
+        } finally {
+            realm.close();
+        }
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void sumAsync_invalidFieldsThrow() throws Throwable {
+        Realm realm = looperThread.realm;
+        try {
+            realm.where(AllTypes.class).sumAsync("columnString");
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            realm.where(AllTypes.class).sumAsync("columnRealmObject.age");
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+        looperThread.testComplete();
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void countAsync_reusingQuery() throws Throwable {
+        Realm realm = looperThread.realm;
+        RealmQuery<AllTypes> query = realm.where(AllTypes.class);
+        looperThread.keepStrongReference.add(query.countAsync());
+        try {
+            query.sumAsync("columnLong");
+            fail("Should throw an exception, can not reuse RealmQuery");
+        } catch (IllegalStateException ignored) {
+            looperThread.testComplete();
+        }
+    }
+
     // *** Helper methods ***
 
     private void populateTestRealm(final Realm testRealm, int objects) {
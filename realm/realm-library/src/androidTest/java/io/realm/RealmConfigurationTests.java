@@ -32,6 +32,7 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import io.realm.entities.AllTypes;
 import io.realm.entities.AllTypesPrimaryKey;
@@ -149,6 +150,29 @@ public class RealmConfigurationTests {
         new RealmConfiguration.Builder(context).directory(null);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void queryResultCache_negativeSizeThrows() {
+        new RealmConfiguration.Builder(context).queryResultCache(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactOnLaunch_nullThrows() {
+        new RealmConfiguration.Builder(context).compactOnLaunch(null);
+    }
+
+    @Test
+    public void compactOnLaunch_defaultCallback() {
+        RealmConfiguration config = new RealmConfiguration.Builder(context).compactOnLaunch().build();
+        assertTrue(config.getCompactOnLaunchCallback() instanceof DefaultCompactOnLaunchCallback);
+        assertNull(new RealmConfiguration.Builder(context).build().getCompactOnLaunchCallback());
+
+        CompactOnLaunchCallback callback = config.getCompactOnLaunchCallback();
+        long mb = 1024 * 1024;
+        assertFalse(callback.shouldCompact(40 * mb, 1 * mb));
+        assertFalse(callback.shouldCompact(100 * mb, 60 * mb));
+        assertTrue(callback.shouldCompact(100 * mb, 40 * mb));
+    }
+
     @Test
     public void directory_writeProtectedDir() {
         File dir = new File("/");
@@ -967,4 +991,29 @@ public class RealmConfigurationTests {
             realm.close();
         }
     }
+
+    @Test
+    public void notificationCoalescingWindow() {
+        RealmConfiguration config = configFactory.createConfigurationBuilder()
+                .notificationCoalescingWindow(2, TimeUnit.SECONDS)
+                .build();
+        assertEquals(2000, config.getNotificationCoalescingWindow());
+        assertEquals(0, configFactory.createConfiguration().getNotificationCoalescingWindow());
+    }
+
+    @Test
+    public void notificationCoalescingWindow_invalidArgumentsThrows() {
+        RealmConfiguration.Builder builder = new RealmConfiguration.Builder(context);
+        try {
+            builder.notificationCoalescingWindow(-1, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        try {
+            builder.notificationCoalescingWindow(100, null);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import io.realm.entities.FullTextMessage;
+import io.realm.rule.RunInLooperThread;
+import io.realm.rule.RunTestInLooperThread;
+import io.realm.rule.TestRealmConfigurationFactory;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class RealmFullTextTests {
+    @Rule
+    public final TestRealmConfigurationFactory configFactory = new TestRealmConfigurationFactory();
+    @Rule
+    public final RunInLooperThread looperThread = new RunInLooperThread();
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private static final String[] TEXTS = {
+            "Realm stores data",
+            "Databases in Realm",
+            "Hello, World!",
+            "hello again",
+            null,
+            "Crème BRÛLÉE recipe"
+    };
+
+    private Realm realm;
+
+    @Before
+    public void setUp() {
+        realm = Realm.getInstance(configFactory.createConfiguration());
+        populate(realm);
+    }
+
+    @After
+    public void tearDown() {
+        if (realm != null) {
+            realm.close();
+        }
+    }
+
+    private static void populate(Realm realm) {
+        realm.beginTransaction();
+        for (int i = 0; i < TEXTS.length; i++) {
+            FullTextMessage message = realm.createObject(FullTextMessage.class);
+            message.setId(i);
+            message.setText(TEXTS[i]);
+            message.setSubject(TEXTS[i]);
+        }
+        realm.commitTransaction();
+    }
+
+    private static void assertIds(RealmResults<FullTextMessage> results, long... ids) {
+        assertEquals(ids.length, results.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], results.get(i).getId());
+        }
+    }
+
+    @Test
+    public void matches_word() {
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "realm").findAll(), 0, 1);
+    }
+
+    @Test
+    public void matches_ignoresCase() {
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "HELLO").findAll(), 2, 3);
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "crème brûlée").findAll(), 5);
+    }
+
+    @Test
+    public void matches_allWords() {
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "data realm").findAll(), 0);
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "world, hello!").findAll(), 2);
+    }
+
+    @Test
+    public void matches_prefix() {
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "realm data*").findAll(), 0, 1);
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "he*").findAll(), 2, 3);
+    }
+
+    @Test
+    public void matches_noMatches() {
+        assertEquals(0, realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "dat").count());
+        assertEquals(0, realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "realm hello").count());
+    }
+
+    @Test
+    public void matches_withOtherConditions() {
+        assertIds(realm.where(FullTextMessage.class)
+                .matches(FullTextMessage.FIELD_TEXT, "hello")
+                .greaterThan(FullTextMessage.FIELD_ID, 2)
+                .findAll(), 3);
+        assertIds(realm.where(FullTextMessage.class)
+                .matches(FullTextMessage.FIELD_TEXT, "realm")
+                .or()
+                .equalTo(FullTextMessage.FIELD_ID, 5)
+                .findAll(), 0, 1, 5);
+        assertIds(realm.where(FullTextMessage.class)
+                .not().matches(FullTextMessage.FIELD_TEXT, "realm")
+                .findAll(), 2, 3, 4, 5);
+    }
+
+    @Test
+    public void matches_updatedAfterChanges() {
+        RealmResults<FullTextMessage> results = realm.where(FullTextMessage.class)
+                .matches(FullTextMessage.FIELD_TEXT, "world").findAll();
+        assertIds(results, 2);
+
+        realm.beginTransaction();
+        FullTextMessage message = realm.createObject(FullTextMessage.class);
+        message.setId(TEXTS.length);
+        message.setText("World peace");
+        realm.where(FullTextMessage.class).equalTo(FullTextMessage.FIELD_ID, 2).findFirst().setText("Goodbye");
+        realm.commitTransaction();
+
+        assertIds(results, TEXTS.length);
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "goodbye").findAll(), 2);
+    }
+
+    @Test
+    public void matches_updatedAfterDeletes() {
+        RealmResults<FullTextMessage> results = realm.where(FullTextMessage.class)
+                .matches(FullTextMessage.FIELD_TEXT, "realm").findAll();
+        assertIds(results, 0, 1);
+
+        // Deleting moves the last row over the deleted one.
+        realm.beginTransaction();
+        realm.where(FullTextMessage.class).equalTo(FullTextMessage.FIELD_ID, 0).findFirst().deleteFromRealm();
+        realm.commitTransaction();
+
+        assertIds(results, 1);
+        assertEquals(1, realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "recipe").count());
+        assertEquals(0, realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "stores").count());
+    }
+
+    @Test
+    public void matches_uncommittedChanges() {
+        realm.beginTransaction();
+        realm.where(FullTextMessage.class).equalTo(FullTextMessage.FIELD_ID, 3).findFirst().setText("Goodbye");
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "hello").findAll(), 2);
+        realm.cancelTransaction();
+
+        // The uncommitted values must not be matched once the transaction is cancelled.
+        assertIds(realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, "hello").findAll(), 2, 3);
+    }
+
+    @Test
+    public void matches_repeatedChangesToSameRow() {
+        RealmResults<FullTextMessage> results = realm.where(FullTextMessage.class)
+                .matches(FullTextMessage.FIELD_TEXT, "word*").findAll();
+        assertIds(results);
+
+        // The previous value of the row must never match again.
+        for (int i = 0; i < 50; i++) {
+            realm.beginTransaction();
+            realm.where(FullTextMessage.class).equalTo(FullTextMessage.FIELD_ID, 1).findFirst()
+                    .setText((i % 2 == 0) ? "word" + i : "Databases in Realm");
+            realm.commitTransaction();
+            if (i % 2 == 0) {
+                assertIds(results, 1);
+                assertEquals(1, realm.where(FullTextMessage.class)
+                        .matches(FullTextMessage.FIELD_TEXT, "word" + i).count());
+            } else {
+                assertIds(results);
+                assertIds(realm.where(FullTextMessage.class)
+                        .matches(FullTextMessage.FIELD_TEXT, "databases").findAll(), 1);
+            }
+        }
+    }
+
+    @Test
+    public void matches_dynamicRealm() {
+        DynamicRealm dynamicRealm = DynamicRealm.getInstance(realm.getConfiguration());
+        try {
+            // Dynamic Realms don't know the annotations, so all String fields can be searched.
+            RealmResults<DynamicRealmObject> results = dynamicRealm.where(FullTextMessage.CLASS_NAME)
+                    .matches(FullTextMessage.FIELD_SUBJECT, "realm").findAll();
+            assertEquals(2, results.size());
+        } finally {
+            dynamicRealm.close();
+        }
+    }
+
+    @Test
+    public void matches_noWordsThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, " *, !");
+    }
+
+    @Test
+    public void matches_nullTermsThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_TEXT, null);
+    }
+
+    @Test
+    public void matches_fieldWithoutFullTextThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("is not annotated with @FullText");
+        realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_SUBJECT, "realm");
+    }
+
+    @Test
+    public void matches_nonStringFieldThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.where(FullTextMessage.class).matches(FullTextMessage.FIELD_ID, "realm");
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void matches_async() {
+        final Realm realm = looperThread.realm;
+        populate(realm);
+        final RealmResults<FullTextMessage> results = realm.where(FullTextMessage.class)
+                .matches(FullTextMessage.FIELD_TEXT, "hel*").findAllAsync();
+        looperThread.keepStrongReference.add(results);
+        results.addChangeListener(new RealmChangeListener<RealmResults<FullTextMessage>>() {
+            @Override
+            public void onChange(RealmResults<FullTextMessage> results) {
+                assertIds(results, 2, 3);
+                looperThread.testComplete();
+            }
+        });
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+import java.util.Map;
+
+import io.realm.entities.AllTypes;
+import io.realm.entities.NullTypes;
+import io.realm.rule.TestRealmConfigurationFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(AndroidJUnit4.class)
+public class RealmGroupByTests {
+    @Rule
+    public final TestRealmConfigurationFactory configFactory = new TestRealmConfigurationFactory();
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private static final int TEST_DATA_SIZE = 12;
+
+    private Realm realm;
+
+    @Before
+    public void setUp() {
+        realm = Realm.getInstance(configFactory.createConfiguration());
+        realm.beginTransaction();
+        for (int i = 0; i < TEST_DATA_SIZE; i++) {
+            AllTypes allTypes = realm.createObject(AllTypes.class);
+            allTypes.setColumnString("group " + (i % 3));
+            allTypes.setColumnLong(i);
+            allTypes.setColumnFloat(i + 0.5f);
+            allTypes.setColumnDouble(i * 2.0);
+            allTypes.setColumnBoolean(i % 2 == 0);
+            allTypes.setColumnDate(new Date(1000L * (i % 4)));
+        }
+        realm.commitTransaction();
+    }
+
+    @After
+    public void tearDown() {
+        if (realm != null) {
+            realm.close();
+        }
+    }
+
+    @Test
+    public void count_stringKeys() {
+        RealmGroupedResults results = realm.where(AllTypes.class).groupBy(AllTypes.FIELD_STRING).count();
+        assertEquals(3, results.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("group " + i, results.getKey(i));
+            assertEquals(4L, results.getValue(i));
+            assertEquals(4, results.getLongValue(i));
+        }
+    }
+
+    @Test
+    public void sum_booleanKeys() {
+        RealmGroupedResults results = realm.where(AllTypes.class).groupBy(AllTypes.FIELD_BOOLEAN).sum(AllTypes.FIELD_LONG);
+        assertEquals(2, results.size());
+        assertEquals(false, results.getKey(0));
+        assertEquals(1L + 3 + 5 + 7 + 9 + 11, results.getValue(0));
+        assertEquals(true, results.getKey(1));
+        assertEquals(0L + 2 + 4 + 6 + 8 + 10, results.getValue(1));
+    }
+
+    @Test
+    public void minMax_dateKeys() {
+        RealmGroupedResults min = realm.where(AllTypes.class).groupBy(AllTypes.FIELD_DATE).min(AllTypes.FIELD_FLOAT);
+        RealmGroupedResults max = realm.where(AllTypes.class).groupBy(AllTypes.FIELD_DATE).max(AllTypes.FIELD_DOUBLE);
+        assertEquals(4, min.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(new Date(1000L * i), min.getKey(i));
+            assertEquals(i + 0.5f, min.getValue(i));
+            assertEquals((i + 8) * 2.0, max.getValue(i));
+        }
+    }
+
+    @Test
+    public void average_integerKeys() {
+        RealmGroupedResults results = realm.where(AllTypes.class)
+                .lessThan(AllTypes.FIELD_LONG, 4)
+                .groupBy(AllTypes.FIELD_LONG)
+                .average(AllTypes.FIELD_DOUBLE);
+        assertEquals(4, results.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals((long) i, results.getKey(i));
+            assertEquals(i * 2.0, results.getDoubleValue(i), 0.0);
+        }
+    }
+
+    @Test
+    public void maxDate() {
+        RealmGroupedResults results = realm.where(AllTypes.class).groupBy(AllTypes.FIELD_BOOLEAN).max(AllTypes.FIELD_DATE);
+        assertEquals(new Date(3000), results.getValue(0));
+        assertEquals(new Date(2000), results.getValue(1));
+    }
+
+    @Test
+    public void nullKeysAndValues() {
+        realm.beginTransaction();
+        for (int i = 0; i < 4; i++) {
+            NullTypes nullTypes = realm.createObject(NullTypes.class, i);
+            nullTypes.setFieldStringNull(i < 2 ? null : "value");
+            nullTypes.setFieldDoubleNull(i == 3 ? 3.0 : null);
+        }
+        realm.commitTransaction();
+
+        RealmGroupedResults results = realm.where(NullTypes.class)
+                .groupBy(NullTypes.FIELD_STRING_NULL)
+                .max(NullTypes.FIELD_DOUBLE_NULL);
+        assertEquals(2, results.size());
+        assertNull(results.getKey(0));
+        assertNull(results.getValue(0));
+        assertEquals("value", results.getKey(1));
+        assertEquals(3.0, results.getValue(1));
+    }
+
+    @Test
+    public void toMap() {
+        Map<Object, Object> map = realm.where(AllTypes.class).groupBy(AllTypes.FIELD_STRING).count().toMap();
+        assertEquals(3, map.size());
+        assertEquals(4L, map.get("group 1"));
+    }
+
+    @Test
+    public void emptyResults() {
+        RealmGroupedResults results = realm.where(AllTypes.class)
+                .equalTo(AllTypes.FIELD_LONG, -1)
+                .groupBy(AllTypes.FIELD_STRING)
+                .sum(AllTypes.FIELD_DOUBLE);
+        assertEquals(0, results.size());
+    }
+
+    @Test
+    public void groupBy_unsupportedFieldTypeThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.where(AllTypes.class).groupBy(AllTypes.FIELD_DOUBLE);
+    }
+
+    @Test
+    public void groupBy_linkedFieldThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.where(AllTypes.class).groupBy(AllTypes.FIELD_REALMOBJECT + ".name");
+    }
+
+    @Test
+    public void sum_unsupportedFieldTypeThrows() {
+        RealmGroupBy groupBy = realm.where(AllTypes.class).groupBy(AllTypes.FIELD_STRING);
+        thrown.expect(IllegalArgumentException.class);
+        groupBy.sum(AllTypes.FIELD_STRING);
+    }
+
+    @Test
+    public void count_closedRealmThrows() {
+        RealmGroupBy groupBy = realm.where(AllTypes.class).groupBy(AllTypes.FIELD_STRING);
+        realm.close();
+        realm = null;
+        thrown.expect(IllegalStateException.class);
+        groupBy.count();
+    }
+}
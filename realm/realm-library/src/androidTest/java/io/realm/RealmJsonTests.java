@@ -33,10 +33,12 @@ import org.junit.runner.RunWith;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.TimeZone;
 
 import io.realm.entities.AllTypes;
@@ -586,6 +588,63 @@ public class RealmJsonTests {
     }
 
 
+    @Test
+    public void createAllFromJson_streamInBatches() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 25; i++) {
+            json.append(i == 0 ? "" : ",").append("{ \"name\" : \"Fido-").append(i).append("\" }");
+        }
+        json.append("]");
+        final List<Long> progress = new ArrayList<Long>();
+
+        long imported = realm.createAllFromJson(Dog.class, TestHelper.stringToStream(json.toString()), 10,
+                new Realm.JsonImportListener() {
+                    @Override
+                    public void onProgress(long importedObjects) {
+                        assertFalse(realm.isInTransaction());
+                        progress.add(importedObjects);
+                    }
+                });
+
+        assertEquals(25, imported);
+        assertEquals(Arrays.asList(10L, 20L, 25L), progress);
+        assertEquals(25, realm.where(Dog.class).count());
+        assertEquals(1, realm.where(Dog.class).equalTo("name", "Fido-24").count());
+    }
+
+    @Test
+    public void createAllFromJson_streamInBatchesKeepsCommittedBatchesOnError() throws IOException {
+        String json = "[{ \"name\" : \"Fido-1\" }, { \"name\" : \"Fido-2\" }, { \"name\" : ";
+        try {
+            realm.createAllFromJson(Dog.class, TestHelper.stringToStream(json), 1, null);
+            fail();
+        } catch (IOException ignored) {
+        }
+        assertFalse(realm.isInTransaction());
+        assertEquals(2, realm.where(Dog.class).count());
+    }
+
+    @Test
+    public void createAllFromJson_streamInBatchesInTransactionThrows() throws IOException {
+        realm.beginTransaction();
+        try {
+            realm.createAllFromJson(Dog.class, TestHelper.loadJsonFromAssets(context, "array.json"), 10, null);
+            fail();
+        } catch (IllegalStateException ignored) {
+        } finally {
+            realm.cancelTransaction();
+        }
+    }
+
+    @Test
+    public void createOrUpdateAllFromJson_streamInBatches() throws IOException {
+        long imported = realm.createOrUpdateAllFromJson(AllTypesPrimaryKey.class,
+                TestHelper.loadJsonFromAssets(context, "list_alltypes_primarykey.json"), 1, null);
+
+        assertEquals(2, imported);
+        assertAllTypesPrimaryKeyUpdated();
+    }
+
     // Test if Json object doesn't have the field, then the field should have default value. Stream version.
     @Test
     public void createObjectFromJson_streamNoValues() throws IOException {
@@ -724,6 +783,18 @@ public class RealmJsonTests {
         }
     }
 
+    @Test
+    public void createOrUpdateAllFromJson_streamElementNotObjectThrows() throws IOException {
+        realm.beginTransaction();
+        try {
+            realm.createOrUpdateAllFromJson(AllTypesPrimaryKey.class, TestHelper.stringToStream("[1]"));
+            fail();
+        } catch (RealmException ignored) {
+        } finally {
+            realm.cancelTransaction();
+        }
+    }
+
     @Test
     public void createOrUpdateObjectFromJson_streamIgnoreUnsetProperties() throws IOException {
         realm.beginTransaction();
@@ -27,6 +27,7 @@ import org.junit.runner.RunWith;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
@@ -42,6 +43,7 @@ import io.realm.rule.TestRealmConfigurationFactory;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -973,4 +975,63 @@ public class RealmListTests extends CollectionTests {
         dynamicRealm.close();
     }
 
+    @Test
+    public void aggregates() {
+        realm.beginTransaction();
+        for (int i = 0; i < collection.size(); i++) {
+            Dog dog = collection.get(i);
+            dog.setAge(i);
+            dog.setHeight(i + 0.5f);
+            dog.setWeight(i * 2.0);
+            dog.setBirthday(new Date(1000L * i));
+        }
+        // Dogs outside the list must not be aggregated.
+        realm.createObject(Dog.class).setAge(1000);
+        realm.commitTransaction();
+
+        long ageSum = (TEST_SIZE - 1) * TEST_SIZE / 2;
+        assertEquals(ageSum, collection.sum(Dog.FIELD_AGE).longValue());
+        assertEquals(0L, collection.min(Dog.FIELD_AGE));
+        assertEquals((long) TEST_SIZE - 1, collection.max(Dog.FIELD_AGE));
+        assertEquals(0.5f, collection.min(Dog.FIELD_HEIGHT));
+        assertEquals((TEST_SIZE - 1) * 2.0, collection.max(Dog.FIELD_WEIGHT));
+        assertEquals((double) ageSum / TEST_SIZE, collection.average(Dog.FIELD_AGE), 0.0);
+        assertEquals(new Date(0), collection.minDate(Dog.FIELD_BIRTHDAY));
+        assertEquals(new Date(1000L * (TEST_SIZE - 1)), collection.maxDate(Dog.FIELD_BIRTHDAY));
+    }
+
+    @Test
+    public void aggregates_emptyList() {
+        realm.beginTransaction();
+        collection.clear();
+        realm.commitTransaction();
+
+        assertEquals(0, collection.sum(Dog.FIELD_AGE).intValue());
+        assertEquals(0.0, collection.average(Dog.FIELD_WEIGHT), 0.0);
+        assertNull(collection.max(Dog.FIELD_HEIGHT));
+        assertNull(collection.minDate(Dog.FIELD_BIRTHDAY));
+    }
+
+    @Test
+    public void aggregates_wrongFieldTypeThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        collection.sum(Dog.FIELD_NAME);
+    }
+
+    @Test
+    public void aggregates_linkPath() {
+        Owner owner = realm.where(Owner.class).findFirst();
+        realm.beginTransaction();
+        for (int i = 0; i < collection.size(); i++) {
+            collection.get(i).setAge(i);
+        }
+        collection.get(0).setOwner(owner);
+        collection.get(1).setOwner(owner);
+        realm.commitTransaction();
+
+        // The dogs of the owner are reached once through each of the two dogs linking to it.
+        long ageSum = (TEST_SIZE - 1) * TEST_SIZE / 2;
+        assertEquals(2 * ageSum, collection.sum("owner." + Owner.FIELD_DOGS + "." + Dog.FIELD_AGE).longValue());
+        assertEquals((long) TEST_SIZE - 1, collection.max("owner." + Owner.FIELD_DOGS + "." + Dog.FIELD_AGE));
+    }
 }
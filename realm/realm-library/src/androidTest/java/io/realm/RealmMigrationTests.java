@@ -1131,6 +1131,39 @@ public class RealmMigrationTests {
         Realm.migrateRealm(config, migration);
     }
 
+    @Test
+    public void getInstance_schemaFingerprintIsNotPartOfSchema() {
+        RealmConfiguration config = configFactory.createConfigurationBuilder()
+                .schema(AllTypes.class)
+                .build();
+        Realm.getInstance(config).close();
+
+        // Second open takes the fast path since the schema was validated by the first one.
+        Realm realm = Realm.getInstance(config);
+        assertEquals(0, realm.where(AllTypes.class).count());
+        assertEquals(1, realm.getSchema().getAll().size());
+        assertTrue(Table.isMetaTable("schema_fingerprint"));
+        realm.close();
+    }
+
+    @Test
+    public void getInstance_schemaChangedAfterValidationThrows() {
+        RealmConfiguration config = configFactory.createConfigurationBuilder()
+                .schema(AllTypes.class)
+                .build();
+        Realm.getInstance(config).close();
+
+        // Changes the schema behind the back of the stored fingerprint.
+        DynamicRealm dynamicRealm = DynamicRealm.getInstance(config);
+        dynamicRealm.beginTransaction();
+        dynamicRealm.getSchema().get(AllTypes.CLASS_NAME).removeField(AllTypes.FIELD_LONG);
+        dynamicRealm.commitTransaction();
+        dynamicRealm.close();
+
+        thrown.expect(RealmMigrationNeededException.class);
+        Realm.getInstance(config);
+    }
+
     // TODO Add unit tests for default nullability
     // TODO Add unit tests for default Indexing for Primary keys
 }
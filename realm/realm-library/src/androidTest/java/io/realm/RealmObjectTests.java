@@ -29,6 +29,9 @@ import org.junit.runner.RunWith;
 
 import java.io.FileNotFoundException;
 import java.lang.ref.WeakReference;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.concurrent.Callable;
@@ -103,6 +106,150 @@ public class RealmObjectTests {
         }
     }
 
+    @Test
+    public void getBlobBuffer() {
+        realm.beginTransaction();
+        AllTypes allTypes = realm.createObject(AllTypes.class);
+        allTypes.setColumnBinary(new byte[] {1, 2, 3, 4});
+        realm.commitTransaction();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(6);
+        buffer.position(1);
+        assertEquals(4, RealmObject.getBlobBuffer(allTypes, AllTypes.FIELD_BINARY, buffer));
+        assertEquals(5, buffer.position());
+        buffer.position(1);
+        byte[] bytes = new byte[4];
+        buffer.get(bytes);
+        assertArrayEquals(new byte[] {1, 2, 3, 4}, bytes);
+    }
+
+    @Test
+    public void getBlobBuffer_heapBuffer() {
+        realm.beginTransaction();
+        AllTypes allTypes = realm.createObject(AllTypes.class);
+        allTypes.setColumnBinary(new byte[] {1, 2, 3, 4});
+        realm.commitTransaction();
+
+        byte[] bytes = new byte[6];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, 5).slice();
+        buffer.position(1);
+        assertEquals(4, RealmObject.getBlobBuffer(allTypes, AllTypes.FIELD_BINARY, buffer));
+        assertEquals(5, buffer.position());
+        assertArrayEquals(new byte[] {0, 0, 1, 2, 3, 4}, bytes);
+    }
+
+    @Test
+    public void getBlobBuffer_validAfterChange() {
+        realm.beginTransaction();
+        AllTypes allTypes = realm.createObject(AllTypes.class);
+        allTypes.setColumnBinary(new byte[] {1, 2, 3, 4});
+        realm.commitTransaction();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4);
+        RealmObject.getBlobBuffer(allTypes, AllTypes.FIELD_BINARY, buffer);
+        realm.beginTransaction();
+        allTypes.setColumnBinary(new byte[] {5, 6, 7, 8});
+        realm.commitTransaction();
+
+        buffer.flip();
+        byte[] bytes = new byte[4];
+        buffer.get(bytes);
+        assertArrayEquals(new byte[] {1, 2, 3, 4}, bytes);
+    }
+
+    @Test
+    public void getBlobBuffer_null() {
+        realm.beginTransaction();
+        NullTypes nullTypes = realm.createObject(NullTypes.class);
+        realm.commitTransaction();
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4);
+        assertEquals(-1, RealmObject.getBlobSize(nullTypes, NullTypes.FIELD_BYTES_NULL));
+        assertEquals(-1, RealmObject.getBlobBuffer(nullTypes, NullTypes.FIELD_BYTES_NULL, buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void getBlobBuffer_bufferTooSmallThrows() {
+        realm.beginTransaction();
+        AllTypes allTypes = realm.createObject(AllTypes.class);
+        allTypes.setColumnBinary(new byte[] {1, 2, 3, 4});
+        realm.commitTransaction();
+
+        assertEquals(4, RealmObject.getBlobSize(allTypes, AllTypes.FIELD_BINARY));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(3);
+        try {
+            RealmObject.getBlobBuffer(allTypes, AllTypes.FIELD_BINARY, buffer);
+            fail();
+        } catch (BufferOverflowException ignored) {
+        }
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void getBlobBuffer_readOnlyBufferThrows() {
+        AllTypes allTypes = createManagedAllTypes();
+
+        thrown.expect(ReadOnlyBufferException.class);
+        RealmObject.getBlobBuffer(allTypes, AllTypes.FIELD_BINARY, ByteBuffer.allocate(4).asReadOnlyBuffer());
+    }
+
+    @Test
+    public void getBlobBuffer_nullBufferThrows() {
+        AllTypes allTypes = createManagedAllTypes();
+
+        thrown.expect(IllegalArgumentException.class);
+        RealmObject.getBlobBuffer(allTypes, AllTypes.FIELD_BINARY, null);
+    }
+
+    @Test
+    public void getBlobBuffer_wrongFieldTypeThrows() {
+        AllTypes allTypes = createManagedAllTypes();
+
+        thrown.expect(IllegalArgumentException.class);
+        RealmObject.getBlobBuffer(allTypes, AllTypes.FIELD_STRING, ByteBuffer.allocateDirect(1));
+    }
+
+    @Test
+    public void getBlobBuffer_unmanagedObjectThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        RealmObject.getBlobBuffer(new AllTypes(), AllTypes.FIELD_BINARY, ByteBuffer.allocateDirect(1));
+    }
+
+    @Test
+    public void setBlobBuffer() {
+        ByteBuffer direct = ByteBuffer.allocateDirect(6);
+        direct.put(new byte[] {0, 1, 2, 3, 4, 5});
+        direct.position(2);
+        ByteBuffer heap = ByteBuffer.wrap(new byte[] {6, 7, 8}, 1, 2);
+
+        realm.beginTransaction();
+        AllTypes first = realm.createObject(AllTypes.class);
+        AllTypes second = realm.createObject(AllTypes.class);
+        RealmObject.setBlobBuffer(first, AllTypes.FIELD_BINARY, direct);
+        RealmObject.setBlobBuffer(second, AllTypes.FIELD_BINARY, heap.asReadOnlyBuffer());
+        realm.commitTransaction();
+
+        assertEquals(2, direct.position());
+        assertArrayEquals(new byte[] {2, 3, 4, 5}, first.getColumnBinary());
+        assertArrayEquals(new byte[] {7, 8}, second.getColumnBinary());
+    }
+
+    @Test
+    public void setBlobBuffer_outsideTransactionThrows() {
+        AllTypes allTypes = createManagedAllTypes();
+
+        thrown.expect(IllegalStateException.class);
+        RealmObject.setBlobBuffer(allTypes, AllTypes.FIELD_BINARY, ByteBuffer.allocateDirect(1));
+    }
+
+    private AllTypes createManagedAllTypes() {
+        realm.beginTransaction();
+        AllTypes allTypes = realm.createObject(AllTypes.class);
+        realm.commitTransaction();
+        return allTypes;
+    }
+
     // FIXME remove?
     @Test
     public void row_isValid() {
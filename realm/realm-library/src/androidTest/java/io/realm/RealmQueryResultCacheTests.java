@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.realm.entities.AllTypes;
+import io.realm.entities.AnnotationIndexTypes;
+import io.realm.rule.TestRealmConfigurationFactory;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class RealmQueryResultCacheTests {
+    @Rule
+    public final TestRealmConfigurationFactory configFactory = new TestRealmConfigurationFactory();
+
+    private static final int TEST_DATA_SIZE = 10;
+
+    private Realm realm;
+
+    @Before
+    public void setUp() {
+        RealmConfiguration config = configFactory.createConfigurationBuilder()
+                .queryResultCache(1024 * 1024)
+                .build();
+        realm = Realm.getInstance(config);
+        realm.beginTransaction();
+        for (int i = 0; i < TEST_DATA_SIZE; i++) {
+            AllTypes allTypes = realm.createObject(AllTypes.class);
+            allTypes.setColumnLong(i);
+            allTypes.setColumnString("test data " + (i % 3));
+        }
+        realm.commitTransaction();
+    }
+
+    @After
+    public void tearDown() {
+        if (realm != null) {
+            realm.close();
+        }
+    }
+
+    @Test
+    public void findAll_repeatedQueryHitsCache() {
+        RealmResults<AllTypes> first = realm.where(AllTypes.class).greaterThan(AllTypes.FIELD_LONG, 4).findAll();
+        assertEquals(0, realm.getQueryResultCacheHitCount());
+        assertEquals(1, realm.getQueryResultCacheMissCount());
+
+        RealmResults<AllTypes> second = realm.where(AllTypes.class).greaterThan(AllTypes.FIELD_LONG, 4).findAll();
+        assertEquals(1, realm.getQueryResultCacheHitCount());
+        assertEquals(first.size(), second.size());
+        assertEquals(5, second.size());
+
+        // A different argument is a different query.
+        realm.where(AllTypes.class).greaterThan(AllTypes.FIELD_LONG, 5).findAll();
+        assertEquals(1, realm.getQueryResultCacheHitCount());
+        assertEquals(2, realm.getQueryResultCacheMissCount());
+    }
+
+    @Test
+    public void findAllSorted_sortIsPartOfKey() {
+        RealmResults<AllTypes> ascending = realm.where(AllTypes.class).findAllSorted(AllTypes.FIELD_LONG, Sort.ASCENDING);
+        RealmResults<AllTypes> descending = realm.where(AllTypes.class).findAllSorted(AllTypes.FIELD_LONG, Sort.DESCENDING);
+        assertEquals(0, realm.getQueryResultCacheHitCount());
+        assertEquals(0, ascending.first().getColumnLong());
+        assertEquals(TEST_DATA_SIZE - 1, descending.first().getColumnLong());
+
+        RealmResults<AllTypes> cached = realm.where(AllTypes.class).findAllSorted(AllTypes.FIELD_LONG, Sort.DESCENDING);
+        assertEquals(1, realm.getQueryResultCacheHitCount());
+        assertEquals(TEST_DATA_SIZE - 1, cached.first().getColumnLong());
+    }
+
+    @Test
+    public void distinct_cached() {
+        populateIndexTypes();
+
+        assertEquals(2, realm.where(AnnotationIndexTypes.class).distinct(AnnotationIndexTypes.FIELD_INDEX_STRING).size());
+        assertEquals(2, realm.where(AnnotationIndexTypes.class).distinct(AnnotationIndexTypes.FIELD_INDEX_STRING).size());
+        assertEquals(1, realm.getQueryResultCacheHitCount());
+    }
+
+    @Test
+    public void hit_isIndependentOfOtherResults() {
+        populateIndexTypes();
+
+        RealmResults<AnnotationIndexTypes> first = realm.where(AnnotationIndexTypes.class).findAll();
+        // Removes the duplicates from the view of the results in place.
+        first.distinct(AnnotationIndexTypes.FIELD_INDEX_STRING);
+        assertEquals(2, first.size());
+
+        RealmResults<AnnotationIndexTypes> second = realm.where(AnnotationIndexTypes.class).findAll();
+        assertEquals(1, realm.getQueryResultCacheHitCount());
+        assertEquals(TEST_DATA_SIZE, second.size());
+        assertEquals(2, first.size());
+    }
+
+    @Test
+    public void newVersion_invalidatesCache() {
+        realm.where(AllTypes.class).equalTo(AllTypes.FIELD_STRING, "test data 0").findAll();
+
+        realm.beginTransaction();
+        realm.createObject(AllTypes.class).setColumnString("test data 0");
+        realm.commitTransaction();
+
+        RealmResults<AllTypes> results = realm.where(AllTypes.class).equalTo(AllTypes.FIELD_STRING, "test data 0").findAll();
+        assertEquals(0, realm.getQueryResultCacheHitCount());
+        assertEquals(5, results.size());
+    }
+
+    @Test
+    public void writeTransaction_bypassesCache() {
+        realm.where(AllTypes.class).findAll();
+
+        realm.beginTransaction();
+        realm.createObject(AllTypes.class);
+        assertEquals(TEST_DATA_SIZE + 1, realm.where(AllTypes.class).findAll().size());
+        realm.cancelTransaction();
+
+        assertEquals(0, realm.getQueryResultCacheHitCount());
+        assertEquals(1, realm.getQueryResultCacheMissCount());
+    }
+
+    @Test
+    public void queryOnResults_notCached() {
+        RealmResults<AllTypes> results = realm.where(AllTypes.class).lessThan(AllTypes.FIELD_LONG, 5).findAll();
+        results.where().greaterThan(AllTypes.FIELD_LONG, 2).findAll();
+        results.where().greaterThan(AllTypes.FIELD_LONG, 2).findAll();
+
+        assertEquals(0, realm.getQueryResultCacheHitCount());
+        assertEquals(1, realm.getQueryResultCacheMissCount());
+    }
+
+    private void populateIndexTypes() {
+        realm.beginTransaction();
+        for (int i = 0; i < TEST_DATA_SIZE; i++) {
+            realm.createObject(AnnotationIndexTypes.class).setIndexString("value " + (i % 2));
+        }
+        realm.commitTransaction();
+    }
+
+    @Test
+    public void disabledByDefault() {
+        Realm defaultRealm = Realm.getInstance(configFactory.createConfiguration("default.realm"));
+        try {
+            defaultRealm.where(AllTypes.class).findAll();
+            defaultRealm.where(AllTypes.class).findAll();
+            assertEquals(0, defaultRealm.getQueryResultCacheHitCount());
+            assertEquals(0, defaultRealm.getQueryResultCacheMissCount());
+        } finally {
+            defaultRealm.close();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+
+import io.realm.entities.AllTypes;
+import io.realm.entities.Dog;
+import io.realm.entities.NoPrimaryKeyNullTypes;
+import io.realm.rule.TestRealmConfigurationFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(AndroidJUnit4.class)
+public class RealmQueryTemplateTests {
+    @Rule
+    public final TestRealmConfigurationFactory configFactory = new TestRealmConfigurationFactory();
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private static final int TEST_DATA_SIZE = 10;
+
+    private Realm realm;
+
+    @Before
+    public void setUp() {
+        realm = Realm.getInstance(configFactory.createConfiguration());
+        realm.beginTransaction();
+        for (int i = 0; i < TEST_DATA_SIZE; i++) {
+            AllTypes allTypes = realm.createObject(AllTypes.class);
+            allTypes.setColumnString("test data " + i);
+            allTypes.setColumnLong(i);
+            allTypes.setColumnFloat(1.5f + i);
+            allTypes.setColumnDouble(2.5 + i);
+            allTypes.setColumnBoolean(i % 2 == 0);
+            allTypes.setColumnDate(new Date(1000L * i));
+            Dog dog = realm.createObject(Dog.class);
+            dog.setName("Dog " + (i % 3));
+            allTypes.setColumnRealmObject(dog);
+        }
+        realm.commitTransaction();
+    }
+
+    @After
+    public void tearDown() {
+        if (realm != null) {
+            realm.close();
+        }
+    }
+
+    @Test
+    public void findAll_reboundManyTimes() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class)
+                .greaterThanOrEqualTo(AllTypes.FIELD_LONG)
+                .equalTo(AllTypes.FIELD_BOOLEAN)
+                .compile();
+        assertEquals(2, template.getParameterCount());
+
+        for (int i = 0; i < TEST_DATA_SIZE; i++) {
+            RealmResults<AllTypes> results = template.bind(0, i).bind(1, true).findAll();
+            assertEquals(realm.where(AllTypes.class)
+                    .greaterThanOrEqualTo(AllTypes.FIELD_LONG, i)
+                    .equalTo(AllTypes.FIELD_BOOLEAN, true)
+                    .count(), results.size());
+        }
+    }
+
+    @Test
+    public void allFieldTypes() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class)
+                .equalTo(AllTypes.FIELD_STRING)
+                .lessThan(AllTypes.FIELD_FLOAT)
+                .greaterThan(AllTypes.FIELD_DOUBLE)
+                .lessThanOrEqualTo(AllTypes.FIELD_DATE)
+                .notEqualTo(AllTypes.FIELD_BOOLEAN)
+                .compile();
+
+        AllTypes result = template.bind(0, "test data 4")
+                .bind(1, 10f)
+                .bind(2, 0.0)
+                .bind(3, new Date(4000))
+                .bind(4, false)
+                .findFirst();
+        assertEquals(4, result.getColumnLong());
+
+        assertNull(template.bind(4, true).findFirst());
+    }
+
+    @Test
+    public void notEqualTo_booleanMatchesNull() {
+        realm.beginTransaction();
+        realm.createObject(NoPrimaryKeyNullTypes.class).setFieldBooleanNull(true);
+        realm.createObject(NoPrimaryKeyNullTypes.class).setFieldBooleanNull(false);
+        realm.createObject(NoPrimaryKeyNullTypes.class).setFieldBooleanNull(null);
+        realm.commitTransaction();
+
+        RealmQueryTemplate<NoPrimaryKeyNullTypes> template = realm.queryTemplate(NoPrimaryKeyNullTypes.class)
+                .notEqualTo(NoPrimaryKeyNullTypes.FIELD_BOOLEAN_NULL)
+                .compile();
+        // The object with a null value is matched too.
+        assertEquals(2, template.bind(0, true).findAll().size());
+        assertEquals(2, template.bind(0, false).findAll().size());
+    }
+
+    @Test
+    public void groupsAndStringPredicates() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class)
+                .beginGroup()
+                    .equalTo(AllTypes.FIELD_LONG)
+                    .or()
+                    .endsWith(AllTypes.FIELD_STRING, Case.INSENSITIVE)
+                .endGroup()
+                .not()
+                .beginsWith(AllTypes.FIELD_STRING, Case.SENSITIVE)
+                .compile();
+
+        assertEquals(1, template.bind(0, 1).bind(1, "DATA 2").bind(2, "test data 1").count());
+        assertEquals(2, template.bind(2, "nothing").count());
+    }
+
+    @Test
+    public void linkQuery() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class)
+                .equalTo(AllTypes.FIELD_REALMOBJECT + "." + Dog.FIELD_NAME)
+                .compile();
+
+        assertEquals(4, template.bind(0, "Dog 0").count());
+        assertEquals(3, template.bind(0, "Dog 2").findAll().size());
+    }
+
+    @Test
+    public void findAll_autoUpdates() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class)
+                .equalTo(AllTypes.FIELD_LONG)
+                .compile();
+        RealmResults<AllTypes> results = template.bind(0, 42).findAll();
+        assertEquals(0, results.size());
+
+        realm.beginTransaction();
+        realm.createObject(AllTypes.class).setColumnLong(42);
+        realm.commitTransaction();
+
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    public void addPredicate_afterCompileThrows() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class).compile();
+        thrown.expect(IllegalStateException.class);
+        template.equalTo(AllTypes.FIELD_LONG);
+    }
+
+    @Test
+    public void addPredicate_wrongFieldTypeThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.queryTemplate(AllTypes.class).greaterThan(AllTypes.FIELD_STRING);
+    }
+
+    @Test
+    public void addPredicate_unknownFieldThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.queryTemplate(AllTypes.class).equalTo("unknown");
+    }
+
+    @Test
+    public void compile_openGroupThrows() {
+        thrown.expect(IllegalStateException.class);
+        realm.queryTemplate(AllTypes.class).beginGroup().equalTo(AllTypes.FIELD_LONG).compile();
+    }
+
+    @Test
+    public void bind_wrongTypeThrows() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class)
+                .equalTo(AllTypes.FIELD_LONG)
+                .compile();
+        thrown.expect(IllegalArgumentException.class);
+        template.bind(0, "42");
+    }
+
+    @Test
+    public void bind_indexOutOfRangeThrows() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class)
+                .equalTo(AllTypes.FIELD_LONG)
+                .compile();
+        thrown.expect(IllegalArgumentException.class);
+        template.bind(1, 42);
+    }
+
+    @Test
+    public void bind_beforeCompileThrows() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class)
+                .equalTo(AllTypes.FIELD_LONG);
+        thrown.expect(IllegalStateException.class);
+        template.bind(0, 42);
+    }
+
+    @Test
+    public void findAll_unboundParameterThrows() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class)
+                .equalTo(AllTypes.FIELD_LONG)
+                .equalTo(AllTypes.FIELD_STRING)
+                .compile()
+                .bind(0, 42);
+        thrown.expect(IllegalStateException.class);
+        template.findAll();
+    }
+
+    @Test
+    public void findAll_closedRealmThrows() {
+        RealmQueryTemplate<AllTypes> template = realm.queryTemplate(AllTypes.class).compile();
+        realm.close();
+        realm = null;
+        thrown.expect(IllegalStateException.class);
+        template.findAll();
+    }
+}
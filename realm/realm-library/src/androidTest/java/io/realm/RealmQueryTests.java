@@ -2605,7 +2605,7 @@ public class RealmQueryTests {
         realm.where(AllTypes.class).findAllSortedAsync(fieldNames, sorts);
     }
 
-    // RealmQuery.distinct(): requires indexing, and type = boolean, integer, date, string
+    // RealmQuery.distinct(): type = boolean, integer, date, string, float, double, also through links
     private void populateForDistinct(Realm realm, long numberOfBlocks, long numberOfObjects, boolean withNull) {
         realm.beginTransaction();
         for (int i = 0; i < numberOfObjects * numberOfBlocks; i++) {
@@ -2667,12 +2667,47 @@ public class RealmQueryTests {
         final long numberOfObjects = 10;
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
 
-        for (String field : AnnotationIndexTypes.NOT_INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).distinct(field);
-                fail(field);
-            } catch (IllegalArgumentException ignored) {
-            }
+        RealmResults<AnnotationIndexTypes> distinctBool = realm.where(AnnotationIndexTypes.class).distinct(AnnotationIndexTypes.FIELD_NOT_INDEX_BOOL);
+        assertEquals(2, distinctBool.size());
+        for (String field : new String[]{AnnotationIndexTypes.FIELD_NOT_INDEX_LONG, AnnotationIndexTypes.FIELD_NOT_INDEX_DATE, AnnotationIndexTypes.FIELD_NOT_INDEX_STRING}) {
+            RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class).distinct(field);
+            assertEquals(field, numberOfBlocks, distinct.size());
+        }
+    }
+
+    @Test
+    public void distinct_floatAndDoubleFields() {
+        populateTestRealm(realm, TEST_DATA_SIZE);
+
+        // every object has a different float, but the same double
+        assertEquals(TEST_DATA_SIZE, realm.where(AllTypes.class).distinct(AllTypes.FIELD_FLOAT).size());
+        assertEquals(1, realm.where(AllTypes.class).distinct(AllTypes.FIELD_DOUBLE).size());
+    }
+
+    @Test
+    public void distinct_withConditions() {
+        final long numberOfBlocks = 25;
+        final long numberOfObjects = 10;
+        populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
+
+        RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class)
+                .lessThan(AnnotationIndexTypes.FIELD_NOT_INDEX_LONG, 10)
+                .distinct(AnnotationIndexTypes.FIELD_NOT_INDEX_LONG);
+        assertEquals(10, distinct.size());
+    }
+
+    @Test
+    public void distinct_thenSorted() {
+        final long numberOfBlocks = 25;
+        final long numberOfObjects = 10;
+        populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
+
+        RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class)
+                .distinct(AnnotationIndexTypes.FIELD_NOT_INDEX_LONG)
+                .sort(AnnotationIndexTypes.FIELD_NOT_INDEX_LONG, Sort.DESCENDING);
+        assertEquals(numberOfBlocks, distinct.size());
+        for (int i = 0; i < numberOfBlocks; i++) {
+            assertEquals(numberOfBlocks - 1 - i, distinct.get(i).getNotIndexLong());
         }
     }
 
@@ -2692,7 +2727,7 @@ public class RealmQueryTests {
     public void distinct_invalidTypes() {
         populateTestRealm();
 
-        for (String field : new String[]{AllTypes.FIELD_REALMOBJECT, AllTypes.FIELD_REALMLIST, AllTypes.FIELD_DOUBLE, AllTypes.FIELD_FLOAT}) {
+        for (String field : new String[]{AllTypes.FIELD_REALMOBJECT, AllTypes.FIELD_REALMLIST, AllTypes.FIELD_BINARY}) {
             try {
                 realm.where(AllTypes.class).distinct(field);
                 fail(field);
@@ -2707,12 +2742,11 @@ public class RealmQueryTests {
         final long numberOfObjects = 10;
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, true);
 
+        // every object links to itself, so the linked field has the same distinct values as the field itself
         for (String field : AnnotationIndexTypes.INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).distinct(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
-                fail("Unsupported Index" + field + " linked field");
-            } catch (IllegalArgumentException ignored) {
-            }
+            RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class).distinct(field);
+            RealmResults<AnnotationIndexTypes> distinctLinked = realm.where(AnnotationIndexTypes.class).distinct(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
+            assertEquals(field, distinct.size(), distinctLinked.size());
         }
     }
 
@@ -2722,12 +2756,11 @@ public class RealmQueryTests {
         final long numberOfObjects = 10;
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, true);
 
+        // every object links to itself, so the linked field has the same distinct values as the field itself
         for (String field : AnnotationIndexTypes.NOT_INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).distinct(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
-                fail("Unsupported notIndex" + field + " linked field");
-            } catch (IllegalArgumentException ignored) {
-            }
+            RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class).distinct(field);
+            RealmResults<AnnotationIndexTypes> distinctLinked = realm.where(AnnotationIndexTypes.class).distinct(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
+            assertEquals(field, distinct.size(), distinctLinked.size());
         }
     }
 
@@ -2741,6 +2774,15 @@ public class RealmQueryTests {
         }
     }
 
+    @Test
+    public void distinct_fieldOfObjectsInListThrows() {
+        populateForDistinctInvalidTypesLinked(realm);
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Distinct on fields of objects in lists is not supported: ");
+        realm.where(AllJavaTypes.class).distinct(AllJavaTypes.FIELD_LIST + "." + AllJavaTypes.FIELD_LONG);
+    }
+
     // distinctAsync
     private Realm openRealmInstance(String name) {
         RealmConfiguration config = configFactory.createConfiguration(name);
@@ -2895,18 +2937,23 @@ public class RealmQueryTests {
     }
 
     @Test
+    @RunTestInLooperThread
     public void distinctAsync_notIndexedFields() {
+        final Realm realm = looperThread.realm;
         final long numberOfBlocks = 25;
         final long numberOfObjects = 10;
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
 
-        for (String field : AnnotationIndexTypes.NOT_INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).distinctAsync(field);
-                fail(field);
-            } catch (IllegalArgumentException ignored) {
+        final RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class)
+                .distinctAsync(AnnotationIndexTypes.FIELD_NOT_INDEX_LONG);
+        looperThread.keepStrongReference.add(distinct);
+        distinct.addChangeListener(new RealmChangeListener<RealmResults<AnnotationIndexTypes>>() {
+            @Override
+            public void onChange(RealmResults<AnnotationIndexTypes> results) {
+                assertEquals(numberOfBlocks, results.size());
+                looperThread.testComplete();
             }
-        }
+        });
     }
 
     @Test
@@ -2925,7 +2972,7 @@ public class RealmQueryTests {
     public void distinctAsync_invalidTypes() {
         populateTestRealm(realm, TEST_DATA_SIZE);
 
-        for (String field : new String[]{AllTypes.FIELD_REALMOBJECT, AllTypes.FIELD_REALMLIST, AllTypes.FIELD_DOUBLE, AllTypes.FIELD_FLOAT}) {
+        for (String field : new String[]{AllTypes.FIELD_REALMOBJECT, AllTypes.FIELD_REALMLIST, AllTypes.FIELD_BINARY}) {
             try {
                 realm.where(AllTypes.class).distinctAsync(field);
             } catch (IllegalArgumentException ignored) {
@@ -2934,18 +2981,44 @@ public class RealmQueryTests {
     }
 
     @Test
+    @RunTestInLooperThread
     public void distinctAsync_indexedLinkedFields() {
+        final Realm realm = looperThread.realm;
         final long numberOfBlocks = 25;
         final long numberOfObjects = 10;
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
 
-        for (String field : AnnotationIndexTypes.INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).distinctAsync(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
-                fail("Unsupported " + field + " linked field");
-            } catch (IllegalArgumentException ignored) {
+        final RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class)
+                .distinctAsync(AnnotationIndexTypes.FIELD_OBJECT + "." + AnnotationIndexTypes.FIELD_INDEX_LONG);
+        looperThread.keepStrongReference.add(distinct);
+        distinct.addChangeListener(new RealmChangeListener<RealmResults<AnnotationIndexTypes>>() {
+            @Override
+            public void onChange(RealmResults<AnnotationIndexTypes> results) {
+                assertEquals(numberOfBlocks, results.size());
+                looperThread.testComplete();
             }
-        }
+        });
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void distinctAsync_multipleFieldsWithConditions() {
+        final Realm realm = looperThread.realm;
+        final long numberOfBlocks = 25;
+        final long numberOfObjects = 10;
+        populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
+
+        final RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class)
+                .lessThan(AnnotationIndexTypes.FIELD_NOT_INDEX_LONG, 10)
+                .distinctAsync(AnnotationIndexTypes.FIELD_NOT_INDEX_BOOL, AnnotationIndexTypes.FIELD_NOT_INDEX_STRING);
+        looperThread.keepStrongReference.add(distinct);
+        distinct.addChangeListener(new RealmChangeListener<RealmResults<AnnotationIndexTypes>>() {
+            @Override
+            public void onChange(RealmResults<AnnotationIndexTypes> results) {
+                assertEquals(10, results.size());
+                looperThread.testComplete();
+            }
+        });
     }
 
     @Test
@@ -3055,10 +3128,8 @@ public class RealmQueryTests {
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
 
         RealmQuery<AnnotationIndexTypes> query = realm.where(AnnotationIndexTypes.class);
-        try {
-            query.distinct(AnnotationIndexTypes.FIELD_NOT_INDEX_STRING, AnnotationIndexTypes.NOT_INDEX_FIELDS);
-        } catch (IllegalArgumentException ignored) {
-        }
+        RealmResults<AnnotationIndexTypes> distinctMulti = query.distinct(AnnotationIndexTypes.FIELD_NOT_INDEX_STRING, AnnotationIndexTypes.NOT_INDEX_FIELDS);
+        assertEquals(numberOfBlocks, distinctMulti.size());
     }
 
     @Test
@@ -3092,10 +3163,8 @@ public class RealmQueryTests {
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, true);
 
         RealmQuery<AnnotationIndexTypes> query = realm.where(AnnotationIndexTypes.class);
-        try {
-            query.distinct(AnnotationIndexTypes.INDEX_LINKED_FIELD_STRING, AnnotationIndexTypes.INDEX_LINKED_FIELDS);
-        } catch (IllegalArgumentException ignored) {
-        }
+        RealmResults<AnnotationIndexTypes> distinctMulti = query.distinct(AnnotationIndexTypes.INDEX_LINKED_FIELD_STRING, AnnotationIndexTypes.INDEX_LINKED_FIELDS);
+        assertEquals(1, distinctMulti.size());
     }
 
     @Test
@@ -3105,10 +3174,8 @@ public class RealmQueryTests {
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, true);
 
         RealmQuery<AnnotationIndexTypes> query = realm.where(AnnotationIndexTypes.class);
-        try {
-            query.distinct(AnnotationIndexTypes.NOT_INDEX_LINKED_FILED_STRING, AnnotationIndexTypes.NOT_INDEX_LINKED_FIELDS);
-        } catch (IllegalArgumentException ignored) {
-        }
+        RealmResults<AnnotationIndexTypes> distinctMulti = query.distinct(AnnotationIndexTypes.NOT_INDEX_LINKED_FILED_STRING, AnnotationIndexTypes.NOT_INDEX_LINKED_FIELDS);
+        assertEquals(1, distinctMulti.size());
     }
 
     @Test
@@ -3121,4 +3188,159 @@ public class RealmQueryTests {
         } catch (IllegalArgumentException ignored) {
         }
     }
+
+    @Test
+    public void findAll_limitAndOffset() {
+        populateTestRealm();
+
+        RealmResults<AllTypes> page = realm.where(AllTypes.class).offset(3).limit(4).findAll();
+        assertEquals(4, page.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(3 + i, page.get(i).getColumnLong());
+        }
+
+        assertEquals(TEST_DATA_SIZE - 8, realm.where(AllTypes.class).offset(8).findAll().size());
+        assertEquals(0, realm.where(AllTypes.class).offset(TEST_DATA_SIZE + 1).limit(1).findAll().size());
+    }
+
+    @Test
+    public void findAllSorted_limitAndOffset() {
+        populateTestRealm();
+
+        RealmResults<AllTypes> page = realm.where(AllTypes.class)
+                .offset(2)
+                .limit(3)
+                .findAllSorted(AllTypes.FIELD_LONG, Sort.DESCENDING);
+        assertEquals(3, page.size());
+        assertEquals(TEST_DATA_SIZE - 3, page.first().getColumnLong());
+        assertEquals(TEST_DATA_SIZE - 5, page.last().getColumnLong());
+
+        page = realm.where(AllTypes.class)
+                .limit(2)
+                .findAllSorted(new String[] {AllTypes.FIELD_BOOLEAN, AllTypes.FIELD_LONG},
+                        new Sort[] {Sort.DESCENDING, Sort.ASCENDING});
+        assertEquals(2, page.size());
+        assertEquals(0, page.get(0).getColumnLong());
+        assertEquals(3, page.get(1).getColumnLong());
+    }
+
+    @Test
+    public void findAllSorted_limitUpdatesWindow() {
+        populateTestRealm();
+        RealmResults<AllTypes> top = realm.where(AllTypes.class)
+                .limit(2)
+                .findAllSorted(AllTypes.FIELD_LONG, Sort.DESCENDING);
+        assertEquals(TEST_DATA_SIZE - 1, top.first().getColumnLong());
+
+        realm.beginTransaction();
+        realm.createObject(AllTypes.class).setColumnLong(100);
+        realm.commitTransaction();
+
+        assertEquals(2, top.size());
+        assertEquals(100, top.first().getColumnLong());
+        assertEquals(TEST_DATA_SIZE - 1, top.last().getColumnLong());
+    }
+
+    @Test
+    public void distinct_limitAndOffset() {
+        final long numberOfBlocks = 25;
+        final long numberOfObjects = 10;
+        populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
+
+        RealmResults<AnnotationIndexTypes> page = realm.where(AnnotationIndexTypes.class)
+                .offset(5)
+                .limit(10)
+                .distinct(AnnotationIndexTypes.FIELD_INDEX_LONG);
+        assertEquals(10, page.size());
+        assertEquals(numberOfBlocks - 5, realm.where(AnnotationIndexTypes.class)
+                .offset(5)
+                .distinct(AnnotationIndexTypes.FIELD_INDEX_LONG).size());
+    }
+
+    @Test
+    public void limit_invalidValueThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.where(AllTypes.class).limit(0);
+    }
+
+    @Test
+    public void offset_negativeValueThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.where(AllTypes.class).offset(-1);
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void findAllSortedAsync_limitAndOffset() {
+        final Realm realm = looperThread.realm;
+        populateTestRealm(realm, TEST_DATA_SIZE);
+
+        final RealmResults<AllTypes> page = realm.where(AllTypes.class)
+                .offset(1)
+                .limit(3)
+                .findAllSortedAsync(AllTypes.FIELD_LONG, Sort.DESCENDING);
+        looperThread.keepStrongReference.add(page);
+        page.addChangeListener(new RealmChangeListener<RealmResults<AllTypes>>() {
+            @Override
+            public void onChange(RealmResults<AllTypes> results) {
+                assertEquals(3, page.size());
+                assertEquals(TEST_DATA_SIZE - 2, page.first().getColumnLong());
+                assertEquals(TEST_DATA_SIZE - 4, page.last().getColumnLong());
+                looperThread.testComplete();
+            }
+        });
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void findAllAsync_limit() {
+        final Realm realm = looperThread.realm;
+        populateTestRealm(realm, TEST_DATA_SIZE);
+
+        final RealmResults<AllTypes> page = realm.where(AllTypes.class).offset(2).limit(5).findAllAsync();
+        looperThread.keepStrongReference.add(page);
+        page.addChangeListener(new RealmChangeListener<RealmResults<AllTypes>>() {
+            @Override
+            public void onChange(RealmResults<AllTypes> results) {
+                assertEquals(5, page.size());
+                assertEquals(2, page.first().getColumnLong());
+                looperThread.testComplete();
+            }
+        });
+    }
+
+    @Test
+    public void aggregates_linkPath() {
+        realm.beginTransaction();
+        for (int i = 0; i < 3; i++) {
+            Owner owner = realm.createObject(Owner.class);
+            owner.setName("Owner " + i);
+            for (int j = 0; j <= i; j++) {
+                Dog dog = realm.createObject(Dog.class);
+                dog.setAge(10 * i + j);
+                dog.setWeight(j + 0.5);
+                dog.setBirthday(new Date(1000L * j));
+                owner.getDogs().add(dog);
+            }
+        }
+        realm.commitTransaction();
+
+        String agePath = Owner.FIELD_DOGS + "." + Dog.FIELD_AGE;
+        RealmQuery<Owner> query = realm.where(Owner.class).notEqualTo(Owner.FIELD_NAME, "Owner 0");
+        // Owner 1 has dogs aged 10 and 11, owner 2 has dogs aged 20, 21 and 22.
+        assertEquals(84L, query.sum(agePath));
+        assertEquals(10L, query.min(agePath));
+        assertEquals(22L, query.max(agePath));
+        assertEquals(84.0 / 5, query.average(agePath), 0.0);
+        assertEquals(6.5, query.sum(Owner.FIELD_DOGS + "." + Dog.FIELD_WEIGHT));
+        assertEquals(new Date(2000), query.maximumDate(Owner.FIELD_DOGS + "." + Dog.FIELD_BIRTHDAY));
+
+        assertNull(realm.where(Owner.class).equalTo(Owner.FIELD_NAME, "none").max(agePath));
+    }
+
+    @Test
+    public void aggregates_linkPathWrongFieldTypeThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        realm.where(Owner.class).sum(Owner.FIELD_DOGS + "." + Dog.FIELD_NAME);
+    }
 }
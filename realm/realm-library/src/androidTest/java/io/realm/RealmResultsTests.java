@@ -41,6 +41,7 @@ import io.realm.entities.Dog;
 import io.realm.entities.NonLatinFieldNames;
 import io.realm.entities.Owner;
 import io.realm.entities.StringOnly;
+import io.realm.internal.CollectionChangeSet;
 import io.realm.internal.Table;
 import io.realm.rule.RunInLooperThread;
 import io.realm.rule.RunTestInLooperThread;
@@ -49,6 +50,7 @@ import io.realm.rule.TestRealmConfigurationFactory;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -119,6 +121,93 @@ public class RealmResultsTests extends CollectionTests {
         assertEquals(TEST_DATA_SIZE - 1, sublist.get(sublist.size() - 1).getColumnLong());
     }
 
+    @Test
+    public void cursor_visitsAllObjects() {
+        RealmResults<AllTypes> results = realm.where(AllTypes.class).findAllSorted(AllTypes.FIELD_LONG, Sort.DESCENDING);
+        RealmCursor<AllTypes> cursor = results.cursor();
+        assertEquals(TEST_DATA_SIZE, cursor.getCount());
+        assertEquals(-1, cursor.getPosition());
+
+        int count = 0;
+        while (cursor.moveToNext()) {
+            assertEquals(count, cursor.getPosition());
+            assertEquals(TEST_DATA_SIZE - 1 - count, cursor.get().getColumnLong());
+            assertEquals(results.get(count).getColumnString(), cursor.get().getColumnString());
+            count++;
+        }
+        assertEquals(TEST_DATA_SIZE, count);
+        assertEquals(TEST_DATA_SIZE, cursor.getPosition());
+    }
+
+    @Test
+    public void cursor_reusesObject() {
+        realm.beginTransaction();
+        for (int i = 0; i < 10; i++) {
+            realm.createObject(StringOnly.class).setChars("chars " + i);
+        }
+        realm.commitTransaction();
+
+        RealmCursor<StringOnly> cursor = realm.where(StringOnly.class).findAll().cursor();
+        assertTrue(cursor.moveToNext());
+        StringOnly first = cursor.get();
+        int i = 0;
+        do {
+            assertTrue(first == cursor.get());
+            assertEquals("chars " + i, cursor.get().getChars());
+            i++;
+        } while (cursor.moveToNext());
+        assertEquals(10, i);
+    }
+
+    @Test
+    public void cursor_newObjectForClassesWithLists() {
+        RealmCursor<AllTypes> cursor = realm.where(AllTypes.class).findAll().cursor();
+        assertTrue(cursor.moveToNext());
+        AllTypes first = cursor.get();
+        assertTrue(cursor.moveToNext());
+        assertFalse(first == cursor.get());
+        assertEquals(1, cursor.get().getColumnLong());
+    }
+
+    @Test
+    public void cursor_moveToPosition() {
+        RealmCursor<AllTypes> cursor = realm.where(AllTypes.class).findAll().cursor();
+        assertTrue(cursor.moveToPosition(42));
+        assertEquals(42, cursor.get().getColumnLong());
+        assertTrue(cursor.moveToPosition(7));
+        assertEquals(7, cursor.get().getColumnLong());
+
+        assertFalse(cursor.moveToPosition(TEST_DATA_SIZE));
+        assertEquals(TEST_DATA_SIZE, cursor.getPosition());
+        assertFalse(cursor.moveToNext());
+        assertFalse(cursor.moveToPosition(-5));
+        assertEquals(-1, cursor.getPosition());
+    }
+
+    @Test
+    public void cursor_emptyResults() {
+        RealmCursor<AllTypes> cursor = realm.where(AllTypes.class).equalTo(AllTypes.FIELD_STRING, "smurf").findAll()
+                .cursor();
+        assertEquals(0, cursor.getCount());
+        assertFalse(cursor.moveToNext());
+    }
+
+    @Test
+    public void cursor_getBeforeFirstMoveThrows() {
+        RealmCursor<AllTypes> cursor = realm.where(AllTypes.class).findAll().cursor();
+        thrown.expect(IllegalStateException.class);
+        cursor.get();
+    }
+
+    @Test
+    public void cursor_closedRealmThrows() {
+        RealmCursor<AllTypes> cursor = realm.where(AllTypes.class).findAll().cursor();
+        realm.close();
+        realm = null;
+        thrown.expect(IllegalStateException.class);
+        cursor.moveToNext();
+    }
+
     @SuppressWarnings("deprecation")
     @Test
     public void unsupportedMethods() {
@@ -182,7 +271,7 @@ public class RealmResultsTests extends CollectionTests {
         assertEquals(10, realm.where(AllTypes.class).lessThan(AllTypes.FIELD_LONG, 0).findAll().size());
     }
 
-    // RealmResults.distinct(): requires indexing, and type = boolean, integer, date, string
+    // RealmResults.distinct(): type = boolean, integer, date, string, float, double, also through links
     private void populateForDistinct(Realm realm, long numberOfBlocks, long numberOfObjects, boolean withNull) {
         realm.beginTransaction();
         for (int i = 0; i < numberOfObjects * numberOfBlocks; i++) {
@@ -196,6 +285,7 @@ public class RealmResultsTests extends CollectionTests {
                 obj.setNotIndexLong(j);
                 obj.setNotIndexDate(withNull ? null : new Date(1000 * (long) j));
                 obj.setNotIndexString(withNull ? null : "Test " + j);
+                obj.setFieldObject(obj);
             }
         }
         realm.commitTransaction();
@@ -263,15 +353,36 @@ public class RealmResultsTests extends CollectionTests {
         final long numberOfObjects = 10; // must be greater than 1
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
 
-        for (String field : AnnotationIndexTypes.NOT_INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).findAll().distinct(field);
-                fail(field);
-            } catch (IllegalArgumentException ignored) {
-            }
+        RealmResults<AnnotationIndexTypes> distinctBool = realm.where(AnnotationIndexTypes.class).findAll().distinct(AnnotationIndexTypes.FIELD_NOT_INDEX_BOOL);
+        assertEquals(2, distinctBool.size());
+        for (String field : new String[]{AnnotationIndexTypes.FIELD_NOT_INDEX_LONG, AnnotationIndexTypes.FIELD_NOT_INDEX_DATE, AnnotationIndexTypes.FIELD_NOT_INDEX_STRING}) {
+            RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class).findAll().distinct(field);
+            assertEquals(field, numberOfBlocks, distinct.size());
         }
     }
 
+    @Test
+    public void distinct_floatAndDoubleFields() {
+        populateTestRealm(realm, TEST_DATA_SIZE);
+
+        // every object has a different float, but the same double
+        assertEquals(TEST_DATA_SIZE, realm.where(AllTypes.class).findAll().distinct(AllTypes.FIELD_FLOAT).size());
+        assertEquals(1, realm.where(AllTypes.class).findAll().distinct(AllTypes.FIELD_DOUBLE).size());
+    }
+
+    @Test
+    public void distinct_multipleFields() {
+        final long numberOfBlocks = 25;
+        final long numberOfObjects = 10;
+        populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
+
+        RealmResults<AnnotationIndexTypes> results = realm.where(AnnotationIndexTypes.class)
+                .lessThan(AnnotationIndexTypes.FIELD_NOT_INDEX_LONG, 10)
+                .findAll();
+        results.distinct(AnnotationIndexTypes.FIELD_NOT_INDEX_BOOL, AnnotationIndexTypes.FIELD_NOT_INDEX_STRING);
+        assertEquals(10, results.size());
+    }
+
     @Test
     public void distinct_noneExistingField() {
         final long numberOfBlocks = 25;
@@ -289,7 +400,7 @@ public class RealmResultsTests extends CollectionTests {
     public void distinct_invalidTypes() {
         populateTestRealm();
 
-        for (String field : new String[]{AllTypes.FIELD_REALMOBJECT, AllTypes.FIELD_REALMLIST, AllTypes.FIELD_DOUBLE, AllTypes.FIELD_FLOAT}) {
+        for (String field : new String[]{AllTypes.FIELD_REALMOBJECT, AllTypes.FIELD_REALMLIST, AllTypes.FIELD_BINARY}) {
             try {
                 realm.where(AllTypes.class).findAll().distinct(field);
                 fail(field);
@@ -304,12 +415,11 @@ public class RealmResultsTests extends CollectionTests {
         final long numberOfObjects = 10; // must be greater than 1
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, true);
 
+        // every object links to itself, so the linked field has the same distinct values as the field itself
         for (String field : AnnotationIndexTypes.INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).findAll().distinct(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
-                fail("Unsupported Index" + field + " linked field");
-            } catch (IllegalArgumentException ignored) {
-            }
+            RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class).findAll().distinct(field);
+            RealmResults<AnnotationIndexTypes> distinctLinked = realm.where(AnnotationIndexTypes.class).findAll().distinct(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
+            assertEquals(field, distinct.size(), distinctLinked.size());
         }
     }
 
@@ -319,12 +429,11 @@ public class RealmResultsTests extends CollectionTests {
         final long numberOfObjects = 10; // must be greater than 1
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, true);
 
+        // every object links to itself, so the linked field has the same distinct values as the field itself
         for (String field : AnnotationIndexTypes.NOT_INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).findAll().distinct(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
-                fail("Unsupported notIndex" + field + " linked field");
-            } catch (IllegalArgumentException ignored) {
-            }
+            RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class).findAll().distinct(field);
+            RealmResults<AnnotationIndexTypes> distinctLinked = realm.where(AnnotationIndexTypes.class).findAll().distinct(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
+            assertEquals(field, distinct.size(), distinctLinked.size());
         }
     }
 
@@ -339,6 +448,15 @@ public class RealmResultsTests extends CollectionTests {
         }
     }
 
+    @Test
+    public void distinct_fieldOfObjectsInListThrows() {
+        populateForDistinctInvalidTypesLinked(realm);
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Distinct on fields of objects in lists is not supported: ");
+        realm.where(AllJavaTypes.class).findAll().distinct(AllJavaTypes.FIELD_LIST + "." + AllJavaTypes.FIELD_LONG);
+    }
+
     @Test
     @RunTestInLooperThread
     public void changeListener_syncIfNeeded_updatedFromOtherThread() {
@@ -536,18 +654,23 @@ public class RealmResultsTests extends CollectionTests {
     }
 
     @Test
+    @RunTestInLooperThread
     public void distinctAsync_notIndexedFields() {
+        final Realm realm = looperThread.realm;
         final long numberOfBlocks = 25;
         final long numberOfObjects = 10;
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
 
-        for (String field : AnnotationIndexTypes.NOT_INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).findAll().distinctAsync(field);
-                fail(field);
-            } catch (IllegalArgumentException ignored) {
+        final RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class).findAll()
+                .distinctAsync(AnnotationIndexTypes.FIELD_NOT_INDEX_LONG);
+        looperThread.keepStrongReference.add(distinct);
+        distinct.addChangeListener(new RealmChangeListener<RealmResults<AnnotationIndexTypes>>() {
+            @Override
+            public void onChange(RealmResults<AnnotationIndexTypes> results) {
+                assertEquals(numberOfBlocks, results.size());
+                looperThread.testComplete();
             }
-        }
+        });
     }
 
     @Test
@@ -566,7 +689,7 @@ public class RealmResultsTests extends CollectionTests {
     public void distinctAsync_invalidTypes() {
         populateTestRealm(realm, TEST_DATA_SIZE);
 
-        for (String field : new String[]{AllTypes.FIELD_REALMOBJECT, AllTypes.FIELD_REALMLIST, AllTypes.FIELD_DOUBLE, AllTypes.FIELD_FLOAT}) {
+        for (String field : new String[]{AllTypes.FIELD_REALMOBJECT, AllTypes.FIELD_REALMLIST, AllTypes.FIELD_BINARY}) {
             try {
                 realm.where(AllTypes.class).findAll().distinctAsync(field);
             } catch (IllegalArgumentException ignored) {
@@ -575,18 +698,23 @@ public class RealmResultsTests extends CollectionTests {
     }
 
     @Test
+    @RunTestInLooperThread
     public void distinctAsync_indexedLinkedFields() {
+        final Realm realm = looperThread.realm;
         final long numberOfBlocks = 25;
         final long numberOfObjects = 10;
         populateForDistinct(realm, numberOfBlocks, numberOfObjects, false);
 
-        for (String field : AnnotationIndexTypes.INDEX_FIELDS) {
-            try {
-                realm.where(AnnotationIndexTypes.class).findAll().distinctAsync(AnnotationIndexTypes.FIELD_OBJECT + "." + field);
-                fail("Unsupported " + field + " linked field");
-            } catch (IllegalArgumentException ignored) {
+        final RealmResults<AnnotationIndexTypes> distinct = realm.where(AnnotationIndexTypes.class).findAll()
+                .distinctAsync(AnnotationIndexTypes.FIELD_OBJECT + "." + AnnotationIndexTypes.FIELD_INDEX_LONG);
+        looperThread.keepStrongReference.add(distinct);
+        distinct.addChangeListener(new RealmChangeListener<RealmResults<AnnotationIndexTypes>>() {
+            @Override
+            public void onChange(RealmResults<AnnotationIndexTypes> results) {
+                assertEquals(numberOfBlocks, results.size());
+                looperThread.testComplete();
             }
-        }
+        });
     }
 
     @Test
@@ -810,6 +938,60 @@ public class RealmResultsTests extends CollectionTests {
         }
     }
 
+    @Test
+    public void getLongs() {
+        long[] values = new long[TEST_DATA_SIZE + 10];
+        assertEquals(TEST_DATA_SIZE, collection.getLongs(AllTypes.FIELD_LONG, values, 10));
+        for (int i = 0; i < TEST_DATA_SIZE; i++) {
+            assertEquals(collection.get(i).getColumnLong(), values[i + 10]);
+        }
+    }
+
+    @Test
+    public void getLongs_stopsAtEndOfArray() {
+        long[] values = new long[10];
+        assertEquals(5, collection.getLongs(AllTypes.FIELD_LONG, values, 5));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, values[i + 5]);
+        }
+    }
+
+    @Test
+    public void getDoubles_widensFloats() {
+        double[] doubles = new double[TEST_DATA_SIZE];
+        double[] floats = new double[TEST_DATA_SIZE];
+        assertEquals(TEST_DATA_SIZE, collection.getDoubles(AllTypes.FIELD_DOUBLE, doubles, 0));
+        assertEquals(TEST_DATA_SIZE, collection.getDoubles(AllTypes.FIELD_FLOAT, floats, 0));
+        for (int i = 0; i < TEST_DATA_SIZE; i++) {
+            AllTypes object = collection.get(i);
+            assertEquals(object.getColumnDouble(), doubles[i], 0D);
+            assertEquals(object.getColumnFloat(), floats[i], 0D);
+        }
+    }
+
+    @Test
+    public void getStrings() {
+        RealmResults<AllTypes> results = realm.where(AllTypes.class).lessThan(AllTypes.FIELD_LONG, 100)
+                .findAllSorted(AllTypes.FIELD_LONG, Sort.DESCENDING);
+        String[] values = new String[results.size()];
+        assertEquals(100, results.getStrings(AllTypes.FIELD_STRING, values, 0));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("test data " + (99 - i), values[i]);
+        }
+    }
+
+    @Test
+    public void getLongs_wrongFieldTypeThrows() {
+        thrown.expect(IllegalArgumentException.class);
+        collection.getLongs(AllTypes.FIELD_STRING, new long[1], 0);
+    }
+
+    @Test
+    public void getStrings_invalidOffsetThrows() {
+        thrown.expect(IndexOutOfBoundsException.class);
+        collection.getStrings(AllTypes.FIELD_STRING, new String[1], 2);
+    }
+
     @Test
     public void sum_resultsBuiltOnDeletedLinkView() {
         RealmResults<Dog> dogs = populateRealmResultsOnDeletedLinkView();
@@ -875,6 +1057,96 @@ public class RealmResultsTests extends CollectionTests {
         realm.commitTransaction();
     }
 
+    private static class ChangeSetRecorder implements OrderedRealmCollectionChangeListener<RealmResults<AllTypes>> {
+        private OrderedCollectionChangeSet changeSet;
+        private int calls;
+
+        @Override
+        public void onChange(RealmResults<AllTypes> collection, OrderedCollectionChangeSet changeSet) {
+            this.changeSet = changeSet;
+            calls++;
+        }
+    }
+
+    // Delivers a first snapshot and then a change set against it to the given collection, which must have a listener.
+    private static CollectionChangeSet deliverChangeSet(RealmResults<AllTypes> collection, ChangeSetRecorder listener) {
+        long[] first = new long[] {0, 0};
+        long[] second = new long[] {0, 0, 1, 0};
+        collection.setCollectionSnapshot(null, first, null);
+        collection.notifyChangeListeners(true);
+        CollectionChangeSet changeSet = CollectionChangeSet.calculate(first, second);
+        collection.setCollectionSnapshot(first, second, changeSet);
+        collection.notifyChangeListeners(true);
+        assertSame(changeSet, listener.changeSet);
+        return changeSet;
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void addChangeListener_dropsPendingChangeSet() {
+        Realm realm = looperThread.realm;
+        RealmResults<AllTypes> collection = realm.where(AllTypes.class).findAll();
+        ChangeSetRecorder first = new ChangeSetRecorder();
+        collection.addChangeListener(first);
+        CollectionChangeSet changeSet = deliverChangeSet(collection, first);
+
+        // A change set against the delivered snapshot is pending when the second listener is added, which never saw
+        // that snapshot. Both get no change set.
+        long[] snapshot = collection.getCollectionSnapshot();
+        long[] next = new long[] {0, 0};
+        collection.setCollectionSnapshot(snapshot, next, CollectionChangeSet.calculate(snapshot, next));
+        ChangeSetRecorder second = new ChangeSetRecorder();
+        second.changeSet = changeSet;
+        collection.addChangeListener(second);
+        collection.notifyChangeListeners(true);
+        assertNull(first.changeSet);
+        assertEquals(1, second.calls);
+        assertNull(second.changeSet);
+        looperThread.testComplete();
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void removeChangeListener_dropsPendingChangeSet() {
+        Realm realm = looperThread.realm;
+        RealmResults<AllTypes> collection = realm.where(AllTypes.class).findAll();
+        ChangeSetRecorder first = new ChangeSetRecorder();
+        ChangeSetRecorder second = new ChangeSetRecorder();
+        collection.addChangeListener(first);
+        collection.addChangeListener(second);
+        deliverChangeSet(collection, first);
+
+        long[] snapshot = collection.getCollectionSnapshot();
+        long[] next = new long[] {0, 0};
+        collection.setCollectionSnapshot(snapshot, next, CollectionChangeSet.calculate(snapshot, next));
+        collection.removeChangeListener(second);
+        collection.notifyChangeListeners(true);
+        assertNull(first.changeSet);
+        looperThread.testComplete();
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void setCollectionSnapshot_changeSetAgainstDiscardedSnapshotIsDropped() {
+        Realm realm = looperThread.realm;
+        RealmResults<AllTypes> collection = realm.where(AllTypes.class).findAll();
+        ChangeSetRecorder listener = new ChangeSetRecorder();
+        collection.addChangeListener(listener);
+        deliverChangeSet(collection, listener);
+
+        // The worker computed the change set against this snapshot, but the listener is notified without a change
+        // set before it arrives, e.g. after a local commit.
+        long[] snapshot = collection.getCollectionSnapshot();
+        collection.notifyChangeListeners(true);
+        assertNull(collection.getCollectionSnapshot());
+
+        long[] next = new long[] {0, 0};
+        collection.setCollectionSnapshot(snapshot, next, CollectionChangeSet.calculate(snapshot, next));
+        collection.notifyChangeListeners(true);
+        assertNull(listener.changeSet);
+        looperThread.testComplete();
+    }
+
     @Test
     @RunTestInLooperThread
     public void addChangeListener_twice() {
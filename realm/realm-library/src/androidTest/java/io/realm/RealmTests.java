@@ -55,6 +55,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -1000,29 +1001,133 @@ public class RealmTests {
         RealmConfiguration realmConfig = configFactory.createConfiguration("enc.realm", TestHelper.getRandomKey());
         Realm realm = Realm.getInstance(realmConfig);
         realm.close();
-        // TODO: remove try/catch block when compacting encrypted Realms is supported
-        try {
-            assertTrue(Realm.compactRealm(realmConfig));
-            fail();
-        } catch (IllegalArgumentException expected) {
-        }
+        assertTrue(Realm.compactRealm(realmConfig));
+        realm = Realm.getInstance(realmConfig);
+        assertTrue(realm.isEmpty());
+        realm.close();
     }
 
     @Test
     public void compactRealm_encryptedPopulatedRealm() {
+        final int DATA_SIZE = 100;
         RealmConfiguration realmConfig = configFactory.createConfiguration("enc.realm", TestHelper.getRandomKey());
         Realm realm = Realm.getInstance(realmConfig);
 
-        populateTestRealm(realm, 100);
+        // Populating twice leaves the space of the first objects free.
+        populateTestRealm(realm, DATA_SIZE);
+        populateTestRealm(realm, DATA_SIZE);
+        realm.close();
+        long before = new File(realmConfig.getPath()).length();
+
+        assertTrue(Realm.compactRealm(realmConfig));
+        assertTrue(new File(realmConfig.getPath()).length() <= before);
+        assertFalse(new File(realmConfig.getPath() + ".compacted").exists());
+        realm = Realm.getInstance(realmConfig);
+        assertEquals(DATA_SIZE, realm.where(AllTypes.class).count());
         realm.close();
-        // TODO: remove try/catch block when compacting encrypted Realms is supported
+    }
+
+    @Test
+    public void compactRealm_encryptedFailsIfOpen() {
+        RealmConfiguration realmConfig = configFactory.createConfiguration("enc.realm", TestHelper.getRandomKey());
+        Realm realm = Realm.getInstance(realmConfig);
         try {
-            assertTrue(Realm.compactRealm(realmConfig));
-            fail();
-        } catch (IllegalArgumentException expected) {
+            assertFalse(Realm.compactRealm(realmConfig));
+        } finally {
+            realm.close();
         }
     }
 
+    @Test
+    public void compactOnLaunch_shouldCompact() {
+        final int DATA_SIZE = 100;
+        final AtomicLong totalBytes = new AtomicLong();
+        final AtomicLong usedBytes = new AtomicLong();
+        RealmConfiguration realmConfig = configFactory.createConfigurationBuilder()
+                .name("compact.realm")
+                .compactOnLaunch(new CompactOnLaunchCallback() {
+                    @Override
+                    public boolean shouldCompact(long total, long used) {
+                        totalBytes.set(total);
+                        usedBytes.set(used);
+                        return true;
+                    }
+                })
+                .build();
+        Realm realm = Realm.getInstance(realmConfig);
+        populateTestRealm(realm, DATA_SIZE);
+        realm.beginTransaction();
+        realm.deleteAll();
+        realm.commitTransaction();
+        realm.close();
+        long before = new File(realmConfig.getPath()).length();
+
+        realm = Realm.getInstance(realmConfig);
+        assertEquals(before, totalBytes.get());
+        assertTrue(usedBytes.get() > 0);
+        assertTrue(usedBytes.get() < totalBytes.get());
+        assertTrue(new File(realmConfig.getPath()).length() < before);
+        realm.close();
+    }
+
+    @Test
+    public void compactOnLaunch_onlyCalledWhenNoInstanceIsOpen() {
+        final AtomicInteger calls = new AtomicInteger();
+        RealmConfiguration realmConfig = configFactory.createConfigurationBuilder()
+                .name("compact.realm")
+                .compactOnLaunch(new CompactOnLaunchCallback() {
+                    @Override
+                    public boolean shouldCompact(long totalBytes, long usedBytes) {
+                        calls.incrementAndGet();
+                        return false;
+                    }
+                })
+                .build();
+        // The file doesn't exist yet, so there is nothing to compact.
+        Realm realm1 = Realm.getInstance(realmConfig);
+        assertEquals(0, calls.get());
+        realm1.close();
+
+        realm1 = Realm.getInstance(realmConfig);
+        assertEquals(1, calls.get());
+        Realm realm2 = Realm.getInstance(realmConfig);
+        DynamicRealm dynamicRealm = DynamicRealm.getInstance(realmConfig);
+        assertEquals(1, calls.get());
+        dynamicRealm.close();
+        realm2.close();
+        realm1.close();
+
+        // All instances are closed, so the next one is opened like on launch.
+        realm1 = Realm.getInstance(realmConfig);
+        assertEquals(2, calls.get());
+        realm1.close();
+    }
+
+    @Test
+    public void compactOnLaunch_encryptedRealm() {
+        final int DATA_SIZE = 100;
+        final AtomicInteger calls = new AtomicInteger();
+        RealmConfiguration realmConfig = configFactory.createConfigurationBuilder()
+                .name("enc.realm")
+                .encryptionKey(TestHelper.getRandomKey())
+                .compactOnLaunch(new CompactOnLaunchCallback() {
+                    @Override
+                    public boolean shouldCompact(long totalBytes, long usedBytes) {
+                        calls.incrementAndGet();
+                        return true;
+                    }
+                })
+                .build();
+        Realm realm = Realm.getInstance(realmConfig);
+        populateTestRealm(realm, DATA_SIZE);
+        realm.close();
+
+        realm = Realm.getInstance(realmConfig);
+        assertEquals(1, calls.get());
+        assertEquals(DATA_SIZE, realm.where(AllTypes.class).count());
+        realm.close();
+    }
+
     @Test
     public void compactRealm_emptyRealm() throws IOException {
         final String REALM_NAME = "test.realm";
@@ -3411,4 +3516,67 @@ public class RealmTests {
         TestHelper.awaitOrFail(bgRealmFished);
         assertFalse(bgRealmChangeResult.get());
     }
+
+    @Test
+    public void setAsyncThreadPool_invalidArgumentsThrows() {
+        int[][] invalidArgs = {{0, 1, 1}, {1, 0, 1}, {1, 1, 0}};
+        for (int[] args : invalidArgs) {
+            try {
+                Realm.setAsyncThreadPool(args[0], args[1], args[2]);
+                fail();
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void setAsyncThreadPool_throwsWhileTasksArePending() throws Exception {
+        final CountDownLatch taskRunning = new CountDownLatch(1);
+        final CountDownLatch taskDone = new CountDownLatch(1);
+        Future<?> task = Realm.asyncTaskExecutor.submitTransaction(realmConfig.getPath(), new Runnable() {
+            @Override
+            public void run() {
+                taskRunning.countDown();
+                TestHelper.awaitOrFail(taskDone);
+            }
+        });
+        TestHelper.awaitOrFail(taskRunning);
+        try {
+            Realm.setAsyncThreadPool(1, 1, 1);
+            fail();
+        } catch (IllegalStateException ignored) {
+        } finally {
+            taskDone.countDown();
+        }
+        task.get();
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void setAsyncThreadPool_statsStartFromNewPool() {
+        Realm.setAsyncThreadPool(1, 1, 10);
+        assertEquals(0, Realm.getAsyncQueryStats().getSubmittedTaskCount());
+        assertEquals(0, Realm.getAsyncTransactionStats().getSubmittedTaskCount());
+
+        looperThread.realm.executeTransactionAsync(new Realm.Transaction() {
+            @Override
+            public void execute(Realm realm) {
+                realm.createObject(AllTypes.class);
+            }
+        }, new Realm.Transaction.OnSuccess() {
+            @Override
+            public void onSuccess() {
+                AsyncLaneStats stats = Realm.getAsyncTransactionStats();
+                assertEquals(1, stats.getSubmittedTaskCount());
+                assertEquals(1, stats.getStartedTaskCount());
+                assertEquals(0, stats.getQueueDepth());
+                try {
+                    TestHelper.resetRealmThreadExecutor();
+                } catch (Exception e) {
+                    fail(e.getMessage());
+                }
+                looperThread.testComplete();
+            }
+        });
+    }
 }
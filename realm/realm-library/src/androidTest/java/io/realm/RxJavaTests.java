@@ -26,6 +26,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -36,13 +38,17 @@ import io.realm.entities.CyclicType;
 import io.realm.rule.RunInLooperThread;
 import io.realm.rule.RunTestInLooperThread;
 import io.realm.rule.TestRealmConfigurationFactory;
+import io.realm.rx.BackpressureRealmObservableFactory;
+import io.realm.rx.RealmObservableFactory;
 import rx.Observable;
+import rx.Subscriber;
 import rx.Subscription;
 import rx.functions.Action0;
 import rx.functions.Action1;
 import rx.functions.Func1;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -758,4 +764,162 @@ public class RxJavaTests {
         }
     }
 
+    // Subscriber which only receives what the test requests.
+    private static class RequestingSubscriber<T> extends Subscriber<T> {
+        final List<T> values = new ArrayList<T>();
+        private final long initialRequest;
+
+        RequestingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onStart() {
+            request(initialRequest);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            fail(e.toString());
+        }
+
+        @Override
+        public void onNext(T t) {
+            values.add(t);
+        }
+
+        void requestMore(long n) {
+            request(n);
+        }
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void backpressure_latestWins() {
+        final Realm realm = looperThread.realm;
+        final RealmResults<AllTypes> results = realm.where(AllTypes.class).findAll();
+        final RequestingSubscriber<RealmResults<AllTypes>> subscriber = new RequestingSubscriber<RealmResults<AllTypes>>(1);
+        subscription = new BackpressureRealmObservableFactory().from(realm, results).subscribe(subscriber);
+        assertEquals(1, subscriber.values.size());
+
+        looperThread.keepStrongReference.add(results);
+        results.addChangeListener(new RealmChangeListener<RealmResults<AllTypes>>() {
+            @Override
+            public void onChange(RealmResults<AllTypes> element) {
+                if (element.size() < 3) {
+                    return;
+                }
+                // No demand, so none of the changes were emitted.
+                assertEquals(1, subscriber.values.size());
+                subscriber.requestMore(1);
+                // All changes are merged into a single emission.
+                assertEquals(2, subscriber.values.size());
+                assertEquals(3, subscriber.values.get(1).size());
+                looperThread.testComplete();
+            }
+        });
+
+        for (int i = 0; i < 3; i++) {
+            realm.beginTransaction();
+            realm.createObject(AllTypes.class);
+            realm.commitTransaction();
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    public void backpressure_noEmissionWithoutRequest() {
+        RealmResults<AllTypes> results = realm.where(AllTypes.class).findAll();
+        RequestingSubscriber<RealmResults<AllTypes>> subscriber = new RequestingSubscriber<RealmResults<AllTypes>>(0);
+        subscription = new BackpressureRealmObservableFactory().from(realm, results).subscribe(subscriber);
+        assertEquals(0, subscriber.values.size());
+
+        subscriber.requestMore(5);
+        assertEquals(1, subscriber.values.size());
+        assertTrue(subscriber.values.get(0) == results);
+        subscription.unsubscribe();
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void backpressure_sharedSubscription() {
+        final Realm realm = looperThread.realm;
+        final RealmResults<AllTypes> results = realm.where(AllTypes.class).findAll();
+        BackpressureRealmObservableFactory factory = new BackpressureRealmObservableFactory();
+        final RequestingSubscriber<RealmResults<AllTypes>> subscriber1 =
+                new RequestingSubscriber<RealmResults<AllTypes>>(Long.MAX_VALUE);
+        final RequestingSubscriber<RealmResults<AllTypes>> subscriber2 =
+                new RequestingSubscriber<RealmResults<AllTypes>>(Long.MAX_VALUE);
+        Subscription subscription1 = factory.from(realm, results).subscribe(subscriber1);
+        subscription = factory.from(realm, results).subscribe(subscriber2);
+        assertEquals(1, subscriber1.values.size());
+        assertEquals(1, subscriber2.values.size());
+
+        // The remaining subscriber must still be notified after the other one has left.
+        subscription1.unsubscribe();
+        looperThread.keepStrongReference.add(results);
+        results.addChangeListener(new RealmChangeListener<RealmResults<AllTypes>>() {
+            @Override
+            public void onChange(RealmResults<AllTypes> element) {
+                assertEquals(1, subscriber1.values.size());
+                assertEquals(2, subscriber2.values.size());
+                subscription.unsubscribe();
+                looperThread.testComplete();
+            }
+        });
+
+        realm.beginTransaction();
+        realm.createObject(AllTypes.class);
+        realm.commitTransaction();
+    }
+
+    @Test
+    @UiThreadTest
+    public void backpressure_snapshots() {
+        realm.beginTransaction();
+        realm.createObject(AllTypes.class).setColumnLong(42);
+        realm.commitTransaction();
+
+        RealmResults<AllTypes> results = realm.where(AllTypes.class).findAll();
+        RequestingSubscriber<List<AllTypes>> subscriber = new RequestingSubscriber<List<AllTypes>>(Long.MAX_VALUE);
+        subscription = new BackpressureRealmObservableFactory().snapshotsFrom(realm, results).subscribe(subscriber);
+        assertEquals(1, subscriber.values.size());
+        List<AllTypes> snapshot = subscriber.values.get(0);
+        assertEquals(1, snapshot.size());
+        assertFalse(snapshot.get(0).isManaged());
+        assertEquals(42, snapshot.get(0).getColumnLong());
+        subscription.unsubscribe();
+    }
+
+    @Test
+    @UiThreadTest
+    public void backpressure_snapshotsAfterCallerRealmClosed() {
+        Realm callerRealm = Realm.getInstance(realm.getConfiguration());
+        callerRealm.beginTransaction();
+        callerRealm.createObject(AllTypes.class).setColumnLong(42);
+        callerRealm.commitTransaction();
+
+        RealmResults<AllTypes> results = callerRealm.where(AllTypes.class).findAll();
+        RequestingSubscriber<List<AllTypes>> subscriber = new RequestingSubscriber<List<AllTypes>>(0);
+        subscription = new BackpressureRealmObservableFactory().snapshotsFrom(callerRealm, results)
+                .subscribe(subscriber);
+        callerRealm.close();
+
+        // The copy is made through the Realm instance held by the subscription.
+        subscriber.requestMore(1);
+        assertEquals(1, subscriber.values.size());
+        assertEquals(42, subscriber.values.get(0).get(0).getColumnLong());
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void backpressure_factoryEquality() {
+        assertEquals(new BackpressureRealmObservableFactory(), new BackpressureRealmObservableFactory());
+        assertFalse(new BackpressureRealmObservableFactory().equals(new RealmObservableFactory()));
+        assertFalse(new RealmObservableFactory().equals(new BackpressureRealmObservableFactory()));
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.realm.internal;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.realm.OrderedCollectionChangeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class CollectionChangeSetTests {
+
+    // Creates a snapshot from (row, hash) pairs
+    private static long[] snapshot(long... rowsAndHashes) {
+        return rowsAndHashes;
+    }
+
+    @Test
+    public void calculate_noChanges() {
+        long[] snapshot = snapshot(0, 10, 1, 11, 2, 12);
+        CollectionChangeSet changeSet = CollectionChangeSet.calculate(snapshot, snapshot.clone());
+        assertTrue(changeSet.isEmpty());
+    }
+
+    @Test
+    public void calculate_insertions() {
+        CollectionChangeSet changeSet = CollectionChangeSet.calculate(
+                snapshot(0, 10, 1, 11),
+                snapshot(5, 15, 0, 10, 6, 16, 1, 11, 7, 17));
+        assertArrayEquals(new int[] {0, 2, 4}, changeSet.getInsertions());
+        assertEquals(0, changeSet.getDeletions().length);
+        assertEquals(0, changeSet.getChanges().length);
+    }
+
+    @Test
+    public void calculate_deletions() {
+        CollectionChangeSet changeSet = CollectionChangeSet.calculate(
+                snapshot(0, 10, 1, 11, 2, 12, 3, 13),
+                snapshot(1, 11, 3, 13));
+        assertArrayEquals(new int[] {0, 2}, changeSet.getDeletions());
+        assertEquals(0, changeSet.getInsertions().length);
+        assertEquals(0, changeSet.getChanges().length);
+    }
+
+    @Test
+    public void calculate_changes() {
+        CollectionChangeSet changeSet = CollectionChangeSet.calculate(
+                snapshot(0, 10, 1, 11, 2, 12),
+                snapshot(0, 10, 1, 42, 2, 43));
+        assertArrayEquals(new int[] {1, 2}, changeSet.getChanges());
+        assertEquals(0, changeSet.getInsertions().length);
+        assertEquals(0, changeSet.getDeletions().length);
+    }
+
+    @Test
+    public void calculate_moveIsDeletionAndInsertion() {
+        // Last row moved to the front
+        CollectionChangeSet changeSet = CollectionChangeSet.calculate(
+                snapshot(0, 10, 1, 11, 2, 12, 3, 13),
+                snapshot(3, 13, 0, 10, 1, 11, 2, 12));
+        assertArrayEquals(new int[] {3}, changeSet.getDeletions());
+        assertArrayEquals(new int[] {0}, changeSet.getInsertions());
+        assertEquals(0, changeSet.getChanges().length);
+    }
+
+    @Test
+    public void ranges() {
+        CollectionChangeSet changeSet = CollectionChangeSet.calculate(
+                snapshot(),
+                snapshot(0, 10, 1, 11, 2, 12, 4, 14));
+        OrderedCollectionChangeSet.Range[] ranges = changeSet.getInsertionRanges();
+        assertEquals(1, ranges.length);
+        assertEquals(0, ranges[0].startIndex);
+        assertEquals(4, ranges[0].length);
+
+        changeSet = CollectionChangeSet.calculate(
+                snapshot(0, 10, 1, 11, 2, 12, 3, 13, 4, 14),
+                snapshot(1, 11, 3, 13));
+        ranges = changeSet.getDeletionRanges();
+        assertEquals(3, ranges.length);
+        assertEquals(0, ranges[0].startIndex);
+        assertEquals(1, ranges[0].length);
+        assertEquals(2, ranges[1].startIndex);
+        assertEquals(4, ranges[2].startIndex);
+    }
+}
@@ -57,4 +57,37 @@ public class JNIColumnInfoTest extends TestCase {
 
     }
 
+    public void testGetColumnIndices() {
+
+        long[] indices = table.getColumnIndices(new String[] {"lastName", "middleName", "firstName"});
+
+        assertEquals(3, indices.length);
+        assertEquals(1, indices[0]);
+        assertEquals(TableOrView.NO_MATCH, indices[1]);
+        assertEquals(0, indices[2]);
+
+    }
+
+    public void testColumnInfoGetColumnIndex() {
+
+        // "Aa" and "BB" have the same hash code, so "BB" and "firstName" are found by probing. The slots are the ones
+        // the annotation processor generates for these names.
+        String[] fieldNames = new String[] {"Aa", "BB", "firstName"};
+        int[] fieldSlots = new int[] {0, 1, 2, -1, -1, -1, -1, -1};
+        ColumnInfo columnInfo = new ColumnInfo(fieldNames, fieldSlots, new long[] {5, 6, 7}) {};
+
+        assertEquals(3, columnInfo.getFieldCount());
+        assertEquals(5, columnInfo.getColumnIndex("Aa"));
+        assertEquals(6, columnInfo.getColumnIndex("BB"));
+        assertEquals(7, columnInfo.getColumnIndex("firstName"));
+        assertEquals(6, columnInfo.getColumnIndexByOrdinal(1));
+        assertEquals(-1, columnInfo.getColumnIndex("C#"));
+        assertEquals(-1, columnInfo.getColumnIndex("lastName"));
+        try {
+            columnInfo.getColumnIndexByOrdinal(3);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.internal;
+
+import android.os.Looper;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+import io.realm.RealmFieldType;
+import io.realm.rule.RunInLooperThread;
+import io.realm.rule.RunTestInLooperThread;
+import io.realm.rule.TestRealmConfigurationFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(AndroidJUnit4.class)
+public class NativeObjectReclaimerTests {
+    @Rule
+    public final TestRealmConfigurationFactory configFactory = new TestRealmConfigurationFactory();
+    @Rule
+    public final RunInLooperThread looperThread = new RunInLooperThread();
+
+    private static final int ROWS = 100;
+
+    private SharedRealm sharedRealm;
+    private Table table;
+
+    @Before
+    public void setUp() {
+        sharedRealm = SharedRealm.getInstance(configFactory.createConfiguration());
+        sharedRealm.beginTransaction();
+        table = sharedRealm.getTable("NativeObjects");
+        table.addColumn(RealmFieldType.INTEGER, "value");
+        table.addEmptyRows(ROWS);
+        sharedRealm.commitTransaction();
+    }
+
+    @After
+    public void tearDown() {
+        if (sharedRealm != null) {
+            sharedRealm.close();
+        }
+    }
+
+    @Test
+    public void liveCount_includesReachableRows() {
+        UncheckedRow[] rows = new UncheckedRow[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = table.getUncheckedRow(i);
+        }
+
+        // Objects of other tests may be freed in the background, so only a lower bound can be checked.
+        assertTrue(NativeObjectReclaimer.getLiveCount() >= ROWS);
+        for (UncheckedRow row : rows) {
+            assertTrue(row.isAttached());
+        }
+    }
+
+    @Test
+    public void abandonedRows_withoutLooper_freedByOwnerContext() throws InterruptedException {
+        assertNull(Looper.myLooper());
+        Context context = sharedRealm.context;
+        long reclaimedBefore = NativeObjectReclaimer.getReclaimedCount();
+        for (int i = 0; i < ROWS; i++) {
+            table.getUncheckedRow(i);
+        }
+
+        // Without a looper the reclaimer thread only hands the rows over, they stay pending until the owner drains
+        // its context.
+        waitForPendingDisposals(context, 1);
+        int pending = context.getPendingDisposalCount();
+
+        context.executeDelayedDisposal();
+        assertEquals(0, context.getPendingDisposalCount());
+        assertTrue(NativeObjectReclaimer.getReclaimedCount() >= reclaimedBefore + pending);
+    }
+
+    @Test
+    @RunTestInLooperThread
+    public void abandonedRows_freedOnOwnerLooper() {
+        final SharedRealm looperSharedRealm = SharedRealm.getInstance(looperThread.realmConfiguration);
+        looperThread.keepStrongReference.add(looperSharedRealm);
+        looperSharedRealm.beginTransaction();
+        Table looperTable = looperSharedRealm.getTable("NativeObjects");
+        looperTable.addColumn(RealmFieldType.INTEGER, "value");
+        looperTable.addEmptyRows(ROWS);
+        looperSharedRealm.commitTransaction();
+
+        final long reclaimedBefore = NativeObjectReclaimer.getReclaimedCount();
+        for (int i = 0; i < ROWS; i++) {
+            looperTable.getUncheckedRow(i);
+        }
+
+        // The looper thread goes idle now, the rows must be freed by the disposal posted to it.
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    waitForReclaimedCount(reclaimedBefore + ROWS);
+                } catch (InterruptedException e) {
+                    fail(e.getMessage());
+                }
+                looperThread.postRunnable(new Runnable() {
+                    @Override
+                    public void run() {
+                        assertEquals(0, looperSharedRealm.context.getPendingDisposalCount());
+                        looperSharedRealm.close();
+                        looperThread.testComplete();
+                    }
+                });
+            }
+        }).start();
+    }
+
+    @Test
+    public void abandonedViewsAndQueries_freedByOwnerContext() throws InterruptedException {
+        Context context = sharedRealm.context;
+        for (int i = 0; i < 10; i++) {
+            TableView view = table.where().findAll();
+            assertEquals(ROWS, view.size());
+        }
+
+        waitForPendingDisposals(context, 1);
+        context.executeDelayedDisposal();
+        assertEquals(0, context.getPendingDisposalCount());
+    }
+
+    private static void waitForReclaimedCount(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (NativeObjectReclaimer.getReclaimedCount() < count && System.nanoTime() < deadline) {
+            Runtime.getRuntime().gc();
+            Runtime.getRuntime().runFinalization();
+            Thread.sleep(10);
+        }
+        assertTrue(NativeObjectReclaimer.getReclaimedCount() >= count);
+    }
+
+    private static void waitForPendingDisposals(Context context, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (context.getPendingDisposalCount() < count && System.nanoTime() < deadline) {
+            Runtime.getRuntime().gc();
+            Runtime.getRuntime().runFinalization();
+            Thread.sleep(10);
+        }
+        assertTrue(context.getPendingDisposalCount() >= count);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.internal;
+
+import android.os.SystemClock;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import io.realm.RealmConfiguration;
+import io.realm.RealmFieldType;
+import io.realm.TestHelper;
+import io.realm.internal.async.RealmThreadPoolExecutor;
+import io.realm.rule.TestRealmConfigurationFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class SharedRealmPoolTests {
+    @Rule
+    public final TestRealmConfigurationFactory configFactory = new TestRealmConfigurationFactory();
+
+    private RealmConfiguration config;
+
+    @Before
+    public void setUp() {
+        config = configFactory.createConfiguration();
+    }
+
+    @After
+    public void tearDown() {
+        SharedRealmPool.evict(config.getPath());
+    }
+
+    @Test
+    public void acquire_reusesInstanceOnSameThread() {
+        SharedRealm first = SharedRealmPool.acquire(config);
+        SharedRealmPool.release(first);
+        SharedRealm second = SharedRealmPool.acquire(config);
+        SharedRealmPool.release(second);
+
+        assertSame(first, second);
+        assertFalse(second.isClosed());
+    }
+
+    @Test
+    public void acquire_seesLatestVersion() {
+        SharedRealm pooled = SharedRealmPool.acquire(config);
+        SharedRealm.VersionID before = pooled.getVersionID();
+        SharedRealmPool.release(pooled);
+
+        SharedRealm writer = SharedRealm.getInstance(config);
+        writer.beginTransaction();
+        writer.getTable("MyTable");
+        writer.commitTransaction();
+        writer.close();
+
+        pooled = SharedRealmPool.acquire(config);
+        assertTrue(pooled.hasTable("MyTable"));
+        assertFalse(before.equals(pooled.getVersionID()));
+        SharedRealmPool.release(pooled);
+    }
+
+    @Test
+    public void evict_closesIdleInstances() {
+        SharedRealm sharedRealm = SharedRealmPool.acquire(config);
+        SharedRealmPool.release(sharedRealm);
+        SharedRealmPool.evict(config.getPath());
+
+        assertTrue(sharedRealm.isClosed());
+        SharedRealm newSharedRealm = SharedRealmPool.acquire(config);
+        assertNotSame(sharedRealm, newSharedRealm);
+        SharedRealmPool.release(newSharedRealm);
+    }
+
+    @Test
+    public void evict_closesInUseInstanceOnRelease() {
+        SharedRealm sharedRealm = SharedRealmPool.acquire(config);
+        SharedRealmPool.evict(config.getPath());
+        assertFalse(sharedRealm.isClosed());
+
+        SharedRealmPool.release(sharedRealm);
+        assertTrue(sharedRealm.isClosed());
+    }
+
+    @Test
+    public void evict_idleInstancesOfOtherThreadsAreClosedByTheirOwner() throws InterruptedException {
+        final CountDownLatch released = new CountDownLatch(1);
+        final CountDownLatch evicted = new CountDownLatch(1);
+        final SharedRealm[] sharedRealm = new SharedRealm[1];
+        Thread workerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sharedRealm[0] = SharedRealmPool.acquire(config);
+                SharedRealmPool.release(sharedRealm[0]);
+                released.countDown();
+                TestHelper.awaitOrFail(evicted);
+                SharedRealmPool.closeEvicted();
+            }
+        });
+        workerThread.start();
+        TestHelper.awaitOrFail(released);
+
+        // Only the owner closes its instance.
+        assertFalse(SharedRealmPool.evict(config.getPath()));
+        assertFalse(sharedRealm[0].isClosed());
+
+        evicted.countDown();
+        assertTrue(SharedRealmPool.evict(config.getPath(), 10 * 1000));
+        assertTrue(sharedRealm[0].isClosed());
+        workerThread.join();
+    }
+
+    @Test
+    public void executor_closesInstancesOnceOutOfWork() throws Exception {
+        RealmThreadPoolExecutor executor = RealmThreadPoolExecutor.newSingleThreadExecutor();
+        try {
+            final SharedRealm[] sharedRealm = new SharedRealm[1];
+            executor.submitQuery(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    sharedRealm[0] = SharedRealmPool.acquire(config);
+                    SharedRealmPool.release(sharedRealm[0]);
+                    return null;
+                }
+            }).get();
+
+            // The worker closes the instance itself after the task, evict only waits for it.
+            assertTrue(SharedRealmPool.evict(config.getPath(), 10 * 1000));
+            assertTrue(sharedRealm[0].isClosed());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void evict_waitsForInUseInstancesOfOtherThreads() throws InterruptedException {
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final SharedRealm[] sharedRealm = new SharedRealm[1];
+        Thread workerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sharedRealm[0] = SharedRealmPool.acquire(config);
+                acquired.countDown();
+                SystemClock.sleep(200);
+                SharedRealmPool.release(sharedRealm[0]);
+            }
+        });
+        workerThread.start();
+        TestHelper.awaitOrFail(acquired);
+
+        assertFalse(SharedRealmPool.evict(config.getPath()));
+        assertTrue(SharedRealmPool.evict(config.getPath(), 10 * 1000));
+        assertTrue(sharedRealm[0].isClosed());
+        workerThread.join();
+    }
+
+    @Test
+    public void evict_doesNotWaitForInstanceInUseOnCallingThread() {
+        SharedRealm sharedRealm = SharedRealmPool.acquire(config);
+        assertFalse(SharedRealmPool.evict(config.getPath(), 10 * 1000));
+        assertFalse(sharedRealm.isClosed());
+
+        SharedRealmPool.release(sharedRealm);
+        assertTrue(sharedRealm.isClosed());
+    }
+
+    @Test
+    public void release_keepsInstanceUsable() {
+        SharedRealm pooled = SharedRealmPool.acquire(config);
+        SharedRealmPool.release(pooled);
+
+        // The read transaction ended on release is started again on acquire.
+        SharedRealm writer = SharedRealm.getInstance(config);
+        writer.beginTransaction();
+        writer.getTable("MyTable").addColumn(RealmFieldType.INTEGER, "value");
+        writer.commitTransaction();
+        writer.close();
+
+        pooled = SharedRealmPool.acquire(config);
+        assertFalse(pooled.isClosed());
+        assertEquals(1, pooled.getTable("MyTable").getColumnCount());
+        SharedRealmPool.release(pooled);
+    }
+
+    @Test
+    public void release_closesInstanceNotFromPool() {
+        SharedRealm sharedRealm = SharedRealm.getInstance(config);
+        SharedRealmPool.release(sharedRealm);
+        assertTrue(sharedRealm.isClosed());
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.internal.async;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(AndroidJUnit4.class)
+public class RealmThreadPoolExecutorTests {
+
+    private RealmThreadPoolExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = RealmThreadPoolExecutor.newExecutor(2, 2, 100);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void newExecutor_invalidArgumentsThrows() {
+        int[][] invalidArgs = {{0, 1, 1}, {1, 0, 1}, {1, 1, 0}};
+        for (int[] args : invalidArgs) {
+            try {
+                RealmThreadPoolExecutor.newExecutor(args[0], args[1], args[2]);
+                fail();
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void submitTransaction_serializedPerRealmFile() throws Exception {
+        final int TASKS = 20;
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < TASKS; i++) {
+            final int index = i;
+            futures.add(executor.submitTransaction("/same/path.realm", new Runnable() {
+                @Override
+                public void run() {
+                    int current = running.incrementAndGet();
+                    maxRunning.set(Math.max(maxRunning.get(), current));
+                    order.add(index);
+                    running.decrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, maxRunning.get());
+        for (int i = 0; i < TASKS; i++) {
+            assertEquals(i, order.get(i).intValue());
+        }
+        assertEquals(TASKS, executor.getWriteLaneStats().getStartedTaskCount());
+        assertEquals(0, executor.getWriteLaneStats().getQueueDepth());
+    }
+
+    @Test
+    public void submitTransaction_differentRealmFilesRunConcurrently() throws Exception {
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                bothRunning.countDown();
+                try {
+                    bothRunning.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        Future<?> first = executor.submitTransaction("/first.realm", task);
+        Future<?> second = executor.submitTransaction("/second.realm", task);
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        assertEquals(0, bothRunning.getCount());
+    }
+
+    @Test
+    public void submitTransaction_idleLanesAreRemoved() throws Exception {
+        final int FILES = 10;
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        for (int round = 0; round < 2; round++) {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < FILES; i++) {
+                futures.add(executor.submitTransaction("/file" + i + ".realm", task));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            // The lane removes itself right after its last task completed.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (executor.getWriteLaneCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, executor.getWriteLaneCount());
+        }
+    }
+
+    @Test
+    public void submitQueryUpdate_runsBeforeQueuedQueries() throws Exception {
+        RealmThreadPoolExecutor singleThreadExecutor = RealmThreadPoolExecutor.newSingleThreadExecutor();
+        try {
+            final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+            singleThreadExecutor.pause();
+            // The first task occupies the only thread, the rest are queued.
+            singleThreadExecutor.submitQuery(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return null;
+                }
+            });
+            singleThreadExecutor.submitQuery(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    order.add("query");
+                    return null;
+                }
+            });
+            Future<?> update = singleThreadExecutor.submitQueryUpdate(new Runnable() {
+                @Override
+                public void run() {
+                    order.add("update");
+                }
+            });
+            assertTrue(singleThreadExecutor.getQueryLaneStats().getQueueDepth() >= 2);
+            singleThreadExecutor.resume();
+            update.get(10, TimeUnit.SECONDS);
+            singleThreadExecutor.shutdown();
+            singleThreadExecutor.awaitTermination(10, TimeUnit.SECONDS);
+
+            assertEquals("update", order.get(0));
+            assertEquals("query", order.get(1));
+        } finally {
+            singleThreadExecutor.shutdownNow();
+        }
+    }
+}
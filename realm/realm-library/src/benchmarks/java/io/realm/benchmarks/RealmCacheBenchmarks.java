@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.benchmarks;
+
+import android.support.test.InstrumentationRegistry;
+
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dk.ilios.spanner.AfterExperiment;
+import dk.ilios.spanner.BeforeExperiment;
+import dk.ilios.spanner.Benchmark;
+import dk.ilios.spanner.BenchmarkConfiguration;
+import dk.ilios.spanner.Param;
+import dk.ilios.spanner.SpannerConfig;
+import dk.ilios.spanner.junit.SpannerRunner;
+import io.realm.Realm;
+import io.realm.RealmConfiguration;
+import io.realm.benchmarks.config.BenchmarkConfig;
+
+/**
+ * Measures the throughput of {@code Realm.getInstance()}/{@code close()} when several threads open and close Realms
+ * at the same time. Each rep is one getInstance/close pair; the reps are split evenly over the threads.
+ */
+@RunWith(SpannerRunner.class)
+public class RealmCacheBenchmarks {
+
+    @BenchmarkConfiguration
+    public SpannerConfig configuration = BenchmarkConfig.getConfiguration(this.getClass().getCanonicalName());
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    private Realm realm;
+    private RealmConfiguration config;
+    private ExecutorService executor;
+
+    @BeforeExperiment
+    public void before() {
+        config = new RealmConfiguration.Builder(InstrumentationRegistry.getTargetContext()).name("cache").build();
+        Realm.deleteRealm(config);
+        // Keep the file open, so only the cost of the cache and the per-thread instances is measured.
+        realm = Realm.getInstance(config);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @AfterExperiment
+    public void after() {
+        executor.shutdownNow();
+        realm.close();
+    }
+
+    // Every thread keeps an instance open, so getInstance()/close() only hit the per-thread fast path.
+    @Benchmark
+    public void getInstanceAndClose_instanceHeldByThread(long reps) throws Exception {
+        run(reps, true);
+    }
+
+    // Every getInstance()/close() opens and closes the only instance of the thread.
+    @Benchmark
+    public void getInstanceAndClose(long reps) throws Exception {
+        run(reps, false);
+    }
+
+    private void run(long reps, final boolean holdInstance) throws Exception {
+        final long repsPerThread = Math.max(1, reps / threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<Future<?>>(threads);
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    Realm holder = holdInstance ? Realm.getInstance(config) : null;
+                    try {
+                        start.await();
+                        for (long i = 0; i < repsPerThread; i++) {
+                            Realm realm = Realm.getInstance(config);
+                            realm.close();
+                        }
+                    } catch (InterruptedException ignored) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        if (holder != null) {
+                            holder.close();
+                        }
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+}
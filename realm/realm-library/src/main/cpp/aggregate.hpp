@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef REALM_JAVA_AGGREGATE_HPP
+#define REALM_JAVA_AGGREGATE_HPP
+
+#include <vector>
+
+#include "util.hpp"
+
+// Must match TableQuery.AGGREGATE_*
+enum AggregateOperator {
+    AGGREGATE_SUM = 0,
+    AGGREGATE_MINIMUM = 1,
+    AGGREGATE_MAXIMUM = 2,
+    AGGREGATE_AVERAGE = 3,
+    AGGREGATE_COUNT = 4
+};
+
+// Aggregates the values of one column of the rows it is given, one row at a time, so link lists and link paths can
+// be aggregated while they are traversed instead of collecting the rows in a TableView first.
+// Null values are skipped like the aggregates of core do.
+class Aggregator {
+public:
+    Aggregator(realm::Table& table, size_t column)
+        : m_table(table)
+        , m_column(column)
+        , m_type(table.get_column_type(column))
+        , m_nullable(table.is_nullable(column))
+    {
+    }
+
+    void add(size_t row)
+    {
+        if (m_nullable && m_table.is_null(m_column, row)) {
+            return;
+        }
+        switch (m_type) {
+            case realm::type_Int:
+                add_int(m_table.get_int(m_column, row));
+                break;
+            case realm::type_Timestamp:
+                add_int(to_milliseconds(m_table.get_timestamp(m_column, row)));
+                break;
+            case realm::type_Float:
+                add_double(m_table.get_float(m_column, row));
+                break;
+            case realm::type_Double:
+                add_double(m_table.get_double(m_column, row));
+                break;
+            default:
+                throw std::invalid_argument("Only number and date fields can be aggregated.");
+        }
+        ++m_count;
+    }
+
+    bool is_integral() const
+    {
+        return m_type == realm::type_Int || m_type == realm::type_Timestamp;
+    }
+
+    // The number of non-null values added.
+    size_t count() const
+    {
+        return m_count;
+    }
+
+    // The result of the operator for integer and date columns. Minimum and maximum are undefined if count() is 0.
+    int64_t int_result(jint op) const
+    {
+        switch (op) {
+            case AGGREGATE_SUM:
+                return m_int_sum;
+            case AGGREGATE_MINIMUM:
+                return m_int_min;
+            case AGGREGATE_MAXIMUM:
+                return m_int_max;
+            default:
+                throw std::invalid_argument("Unknown aggregate operator.");
+        }
+    }
+
+    // The result of the operator for floating point columns, and the average of all columns. Minimum and maximum are
+    // undefined if count() is 0.
+    double double_result(jint op) const
+    {
+        switch (op) {
+            case AGGREGATE_SUM:
+                return m_double_sum;
+            case AGGREGATE_MINIMUM:
+                return m_double_min;
+            case AGGREGATE_MAXIMUM:
+                return m_double_max;
+            case AGGREGATE_AVERAGE:
+                if (m_count == 0) {
+                    return 0;
+                }
+                return (is_integral() ? double(m_int_sum) : m_double_sum) / m_count;
+            default:
+                throw std::invalid_argument("Unknown aggregate operator.");
+        }
+    }
+
+    // Returns the result of the operator boxed the same way the aggregates of TableQuery return it. Minimum and
+    // maximum return NULL if no values were added.
+    jobject result(JNIEnv* env, jint op) const
+    {
+        if (op == AGGREGATE_AVERAGE) {
+            return NewDouble(env, double_result(op));
+        }
+        if ((op == AGGREGATE_MINIMUM || op == AGGREGATE_MAXIMUM) && m_count == 0) {
+            return NULL;
+        }
+        if (is_integral()) {
+            return NewLong(env, int_result(op));
+        }
+        double value = double_result(op);
+        return (m_type == realm::type_Float && op != AGGREGATE_SUM) ? NewFloat(env, float(value)) : NewDouble(env, value);
+    }
+
+private:
+    realm::Table& m_table;
+    const size_t m_column;
+    const realm::DataType m_type;
+    const bool m_nullable;
+    size_t m_count = 0;
+    int64_t m_int_sum = 0;
+    int64_t m_int_min = 0;
+    int64_t m_int_max = 0;
+    double m_double_sum = 0;
+    double m_double_min = 0;
+    double m_double_max = 0;
+
+    void add_int(int64_t value)
+    {
+        m_int_sum += value;
+        m_int_min = (m_count == 0 || value < m_int_min) ? value : m_int_min;
+        m_int_max = (m_count == 0 || value > m_int_max) ? value : m_int_max;
+    }
+
+    void add_double(double value)
+    {
+        m_double_sum += value;
+        m_double_min = (m_count == 0 || value < m_double_min) ? value : m_double_min;
+        m_double_max = (m_count == 0 || value > m_double_max) ? value : m_double_max;
+    }
+};
+
+// Follows the link and link list columns path[depth, path.size() - 1) from the given row and adds the rows which are
+// reached at the end of the path to the aggregator. The last element of the path is the aggregated column.
+inline void aggregate_link_path(Aggregator& aggregator, realm::Table& table, size_t row,
+                                const std::vector<size_t>& path, size_t depth)
+{
+    if (depth == path.size() - 1) {
+        aggregator.add(row);
+        return;
+    }
+    size_t column = path[depth];
+    realm::TableRef target = table.get_link_target(column);
+    if (table.get_column_type(column) == realm::type_Link) {
+        if (!table.is_null_link(column, row)) {
+            aggregate_link_path(aggregator, *target, table.get_link(column, row), path, depth + 1);
+        }
+    }
+    else {
+        realm::LinkViewRef links = table.get_linklist(column, row);
+        for (size_t i = 0; i < links->size(); ++i) {
+            aggregate_link_path(aggregator, *target, links->get(i).get_index(), path, depth + 1);
+        }
+    }
+}
+
+#endif // REALM_JAVA_AGGREGATE_HPP
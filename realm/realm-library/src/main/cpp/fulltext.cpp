@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <algorithm>
+
+#include "fulltext.hpp"
+
+using namespace realm;
+
+namespace {
+
+// Words are made of ASCII letters and digits and all non-ASCII characters, everything else separates words.
+inline bool is_word_byte(unsigned char c)
+{
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c >= 0x80;
+}
+
+// Calls f(word, end) for every word of the text, where end is the offset just after the word. Words are converted to
+// lower case for ASCII and Latin-1 letters, like the case insensitive string conditions of core.
+template <typename F>
+void for_each_word(StringData text, F f)
+{
+    const char* data = text.data();
+    const size_t size = text.size();
+    std::string word;
+    size_t i = 0;
+    while (i < size) {
+        if (!is_word_byte(static_cast<unsigned char>(data[i]))) {
+            ++i;
+            continue;
+        }
+        word.clear();
+        while (i < size && is_word_byte(static_cast<unsigned char>(data[i]))) {
+            unsigned char c = static_cast<unsigned char>(data[i]);
+            if (c >= 'A' && c <= 'Z') {
+                word += static_cast<char>(c + ('a' - 'A'));
+            }
+            else if (c == 0xC3 && i + 1 < size) {
+                // U+00C0 to U+00DE are the upper case Latin-1 letters, except U+00D7 which is the multiplication sign.
+                unsigned char next = static_cast<unsigned char>(data[i + 1]);
+                if (next >= 0x80 && next <= 0x9E && next != 0x97) {
+                    next += 0x20;
+                }
+                word += static_cast<char>(c);
+                word += static_cast<char>(next);
+                ++i;
+            }
+            else {
+                word += static_cast<char>(c);
+            }
+            ++i;
+        }
+        f(word, i);
+    }
+}
+
+} // anonymous namespace
+
+std::vector<FullTextTerm> parse_full_text_terms(StringData terms)
+{
+    std::vector<FullTextTerm> result;
+    for_each_word(terms, [&](const std::string& word, size_t end) {
+        FullTextTerm term;
+        term.word = word;
+        term.prefix = end < terms.size() && terms.data()[end] == '*';
+        result.push_back(std::move(term));
+    });
+    return result;
+}
+
+FullTextMatch::FullTextMatch(const Table* table, size_t column, std::vector<FullTextTerm> terms)
+    : m_table(table)
+    , m_column(column)
+    , m_terms(std::move(terms))
+{
+}
+
+bool FullTextMatch::matches(StringData value) const
+{
+    if (value.is_null()) {
+        return false;
+    }
+    size_t count = 0;
+    for_each_word(value, [&](const std::string& word, size_t) {
+        if (count == m_words.size()) {
+            m_words.push_back(word);
+        }
+        else {
+            m_words[count] = word;
+        }
+        ++count;
+    });
+    for (const FullTextTerm& term : m_terms) {
+        bool found = false;
+        for (size_t i = 0; i < count && !found; ++i) {
+            const std::string& word = m_words[i];
+            found = term.prefix ? word.compare(0, term.word.size(), term.word) == 0 : word == term.word;
+        }
+        if (!found) {
+            return false;
+        }
+    }
+    return true;
+}
+
+size_t FullTextMatch::find_first(size_t start, size_t end) const
+{
+    for (size_t row = start; row < end; ++row) {
+        if (matches(m_table->get_string(m_column, row))) {
+            return row;
+        }
+    }
+    return not_found;
+}
+
+void FullTextMatch::set_base_table(const Table* table)
+{
+    m_table = table;
+}
+
+const Table* FullTextMatch::get_base_table() const
+{
+    return m_table;
+}
+
+std::unique_ptr<Expression> FullTextMatch::clone(QueryNodeHandoverPatches*) const
+{
+    // The table is set by the query the copy is part of, through set_base_table().
+    return std::unique_ptr<Expression>(new FullTextMatch(m_table, m_column, m_terms));
+}
+
+void FullTextMatch::apply_handover_patch(QueryNodeHandoverPatches&, Group&)
+{
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef REALM_JAVA_FULLTEXT_HPP
+#define REALM_JAVA_FULLTEXT_HPP
+
+#include <memory>
+#include <string>
+#include <vector>
+
+#include <realm.hpp>
+
+// A word of the search terms given to RealmQuery.matches(). Prefix terms are the words followed by a '*'.
+struct FullTextTerm {
+    std::string word;
+    bool prefix;
+};
+
+// Splits the search terms into lower case words, the same way the values of a column are split by FullTextMatch.
+std::vector<FullTextTerm> parse_full_text_terms(realm::StringData terms);
+
+// Query expression matching the rows of a String column whose value contains all terms as words, so
+// RealmQuery.matches() can be combined with all other conditions.
+//
+// No index is kept: every evaluated row is split into words when the query runs, like the other string conditions of
+// core scan the rows they are evaluated on. Other conditions of the query are best put before matches(), so fewer
+// rows are split.
+class FullTextMatch : public realm::Expression {
+public:
+    FullTextMatch(const realm::Table* table, size_t column, std::vector<FullTextTerm> terms);
+
+    size_t find_first(size_t start, size_t end) const override;
+    void set_base_table(const realm::Table* table) override;
+    const realm::Table* get_base_table() const override;
+    std::unique_ptr<realm::Expression> clone(realm::QueryNodeHandoverPatches* patches) const override;
+    void apply_handover_patch(realm::QueryNodeHandoverPatches& patches, realm::Group& group) override;
+
+private:
+    bool matches(realm::StringData value) const;
+
+    const realm::Table* m_table;
+    const size_t m_column;
+    const std::vector<FullTextTerm> m_terms;
+    // The words of the row being evaluated, kept to reuse their buffers.
+    mutable std::vector<std::string> m_words;
+};
+
+#endif // REALM_JAVA_FULLTEXT_HPP
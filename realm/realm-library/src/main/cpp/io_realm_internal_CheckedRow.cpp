@@ -128,6 +128,35 @@ JNIEXPORT jbyteArray JNICALL Java_io_realm_internal_CheckedRow_nativeGetByteArra
     return Java_io_realm_internal_UncheckedRow_nativeGetByteArray(env, obj, nativeRowPtr, columnIndex);
 }
 
+JNIEXPORT jlong JNICALL Java_io_realm_internal_CheckedRow_nativeGetBinarySize
+  (JNIEnv* env, jobject obj, jlong nativeRowPtr, jlong columnIndex)
+{
+    if (!ROW_AND_COL_INDEX_AND_TYPE_VALID(env, ROW(nativeRowPtr), columnIndex, type_Binary))
+        return -1;
+
+    return Java_io_realm_internal_UncheckedRow_nativeGetBinarySize(env, obj, nativeRowPtr, columnIndex);
+}
+
+JNIEXPORT jlong JNICALL Java_io_realm_internal_CheckedRow_nativeCopyToByteBuffer
+  (JNIEnv* env, jobject obj, jlong nativeRowPtr, jlong columnIndex, jobject buffer, jint position, jint length)
+{
+    if (!ROW_AND_COL_INDEX_AND_TYPE_VALID(env, ROW(nativeRowPtr), columnIndex, type_Binary))
+        return -1;
+
+    return Java_io_realm_internal_UncheckedRow_nativeCopyToByteBuffer(env, obj, nativeRowPtr, columnIndex, buffer,
+                                                                      position, length);
+}
+
+JNIEXPORT jlong JNICALL Java_io_realm_internal_CheckedRow_nativeCopyToByteArrayRegion
+  (JNIEnv* env, jobject obj, jlong nativeRowPtr, jlong columnIndex, jbyteArray array, jint offset, jint length)
+{
+    if (!ROW_AND_COL_INDEX_AND_TYPE_VALID(env, ROW(nativeRowPtr), columnIndex, type_Binary))
+        return -1;
+
+    return Java_io_realm_internal_UncheckedRow_nativeCopyToByteArrayRegion(env, obj, nativeRowPtr, columnIndex, array,
+                                                                           offset, length);
+}
+
 JNIEXPORT jlong JNICALL Java_io_realm_internal_CheckedRow_nativeGetLink
   (JNIEnv* env, jobject obj, jlong nativeRowPtr, jlong columnIndex)
 {
@@ -218,6 +247,26 @@ JNIEXPORT void JNICALL Java_io_realm_internal_CheckedRow_nativeSetByteArray
     Java_io_realm_internal_UncheckedRow_nativeSetByteArray(env, obj, nativeRowPtr, columnIndex, value);
 }
 
+JNIEXPORT void JNICALL Java_io_realm_internal_CheckedRow_nativeSetByteBuffer
+  (JNIEnv* env, jobject obj, jlong nativeRowPtr, jlong columnIndex, jobject buffer, jint position, jint length)
+{
+    if (!ROW_AND_COL_INDEX_AND_TYPE_VALID(env, ROW(nativeRowPtr), columnIndex, type_Binary))
+        return;
+
+    Java_io_realm_internal_UncheckedRow_nativeSetByteBuffer(env, obj, nativeRowPtr, columnIndex, buffer, position,
+                                                            length);
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_CheckedRow_nativeSetByteArrayRegion
+  (JNIEnv* env, jobject obj, jlong nativeRowPtr, jlong columnIndex, jbyteArray value, jint offset, jint length)
+{
+    if (!ROW_AND_COL_INDEX_AND_TYPE_VALID(env, ROW(nativeRowPtr), columnIndex, type_Binary))
+        return;
+
+    Java_io_realm_internal_UncheckedRow_nativeSetByteArrayRegion(env, obj, nativeRowPtr, columnIndex, value, offset,
+                                                                 length);
+}
+
 JNIEXPORT void JNICALL Java_io_realm_internal_CheckedRow_nativeSetLink
   (JNIEnv* env, jobject obj, jlong nativeRowPtr, jlong columnIndex, jlong value)
 {
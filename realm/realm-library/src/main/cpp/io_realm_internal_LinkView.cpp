@@ -15,6 +15,7 @@
  */
 
 #include "io_realm_internal_LinkView.h"
+#include "aggregate.hpp"
 #include "util.hpp"
 
 using namespace realm;
@@ -248,3 +249,22 @@ JNIEXPORT void JNICALL Java_io_realm_internal_LinkView_nativeRemoveTargetRow
         return lvr->remove_target_row( S(pos) );
     } CATCH_STD()
 }
+
+JNIEXPORT jobject JNICALL Java_io_realm_internal_LinkView_nativeAggregate
+  (JNIEnv* env, jobject, jlong nativeLinkViewPtr, jlong columnIndex, jint op)
+{
+    TR_ENTER_PTR(nativeLinkViewPtr)
+    try {
+        LinkViewRef lvr = *LV(nativeLinkViewPtr);
+        Table& targetTable = lvr->get_target_table();
+        if (!COL_INDEX_VALID(env, &targetTable, columnIndex)) {
+            return NULL;
+        }
+        Aggregator aggregator(targetTable, S(columnIndex));
+        for (size_t i = 0; i < lvr->size(); ++i) {
+            aggregator.add(lvr->get(i).get_index());
+        }
+        return aggregator.result(env, op);
+    } CATCH_STD()
+    return NULL;
+}
@@ -165,6 +165,17 @@ Java_io_realm_internal_SharedRealm_nativeRefresh__J(JNIEnv *env, jclass, jlong s
     } CATCH_STD()
 }
 
+JNIEXPORT void JNICALL
+Java_io_realm_internal_SharedRealm_nativeInvalidate(JNIEnv *env, jclass, jlong shared_realm_ptr)
+{
+    TR_ENTER_PTR(shared_realm_ptr)
+
+    auto shared_realm = *(reinterpret_cast<SharedRealm*>(shared_realm_ptr));
+    try {
+        shared_realm->invalidate();
+    } CATCH_STD()
+}
+
 JNIEXPORT void JNICALL
 Java_io_realm_internal_SharedRealm_nativeRefresh__JJJ(JNIEnv *env, jclass, jlong shared_realm_ptr, jlong version,
         jlong index)
@@ -316,6 +327,20 @@ Java_io_realm_internal_SharedRealm_nativeSize(JNIEnv *env, jclass, jlong shared_
     return 0;
 }
 
+JNIEXPORT jlong JNICALL
+Java_io_realm_internal_SharedRealm_nativeGetUsedBytes(JNIEnv *env, jclass, jlong shared_realm_ptr)
+{
+    TR_ENTER_PTR(shared_realm_ptr)
+
+    auto shared_realm = *(reinterpret_cast<SharedRealm*>(shared_realm_ptr));
+    try {
+        // Sum of the sizes of all nodes reachable from the current version, which is what a compacted file holds.
+        return static_cast<jlong>(shared_realm->read_group().compute_aggregated_byte_size());
+    } CATCH_STD()
+
+    return 0;
+}
+
 JNIEXPORT void JNICALL
 Java_io_realm_internal_SharedRealm_nativeWriteCopy(JNIEnv *env, jclass, jlong shared_realm_ptr, jstring path,
         jbyteArray key)
@@ -369,3 +394,70 @@ Java_io_realm_internal_SharedRealm_nativeCompact(JNIEnv *env, jclass, jlong shar
 
     return JNI_FALSE;
 }
+
+// 64 bit FNV-1a over everything in the file a model class is validated against.
+static inline void hash_bytes(uint64_t& hash, const char* data, size_t size)
+{
+    for (size_t i = 0; i < size; ++i) {
+        hash ^= static_cast<unsigned char>(data[i]);
+        hash *= 0x100000001b3ULL;
+    }
+}
+
+static inline void hash_string(uint64_t& hash, StringData str)
+{
+    hash_bytes(hash, str.data(), str.size());
+    // Terminate so that concatenations of different strings don't collide.
+    hash_bytes(hash, "", 1);
+}
+
+static inline void hash_int(uint64_t& hash, int64_t value)
+{
+    hash_bytes(hash, reinterpret_cast<const char*>(&value), sizeof(value));
+}
+
+JNIEXPORT jlong JNICALL
+Java_io_realm_internal_SharedRealm_nativeGetSchemaHash(JNIEnv *env, jclass, jlong shared_realm_ptr,
+        jstring excluded_table_name)
+{
+    TR_ENTER_PTR(shared_realm_ptr)
+
+    try {
+        JStringAccessor excluded_name(env, excluded_table_name); // throws
+        auto shared_realm = *(reinterpret_cast<SharedRealm*>(shared_realm_ptr));
+        Group& group = shared_realm->read_group();
+        uint64_t hash = 0xcbf29ce484222325ULL;
+        for (size_t i = 0; i < group.size(); ++i) {
+            StringData table_name = group.get_table_name(i);
+            if (table_name == StringData(excluded_name)) {
+                continue;
+            }
+            hash_string(hash, table_name);
+            ConstTableRef table = group.get_table(i);
+            size_t column_count = table->get_column_count();
+            for (size_t col = 0; col < column_count; ++col) {
+                DataType type = table->get_column_type(col);
+                hash_string(hash, table->get_column_name(col));
+                hash_int(hash, type);
+                hash_int(hash, table->is_nullable(col) ? 1 : 0);
+                hash_int(hash, table->has_search_index(col) ? 1 : 0);
+                if (type == type_Link || type == type_LinkList) {
+                    hash_string(hash, table->get_link_target(col)->get_name());
+                }
+            }
+            // Primary keys are stored as rows of the "pk" table rather than in the table they belong to.
+            if (table_name == "pk") {
+                for (size_t row = 0; row < table->size(); ++row) {
+                    for (size_t col = 0; col < column_count; ++col) {
+                        if (table->get_column_type(col) == type_String) {
+                            hash_string(hash, table->get_string(col, row));
+                        }
+                    }
+                }
+            }
+        }
+        return static_cast<jlong>(hash);
+    } CATCH_STD()
+
+    return 0;
+}
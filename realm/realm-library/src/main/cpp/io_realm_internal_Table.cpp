@@ -15,6 +15,7 @@
  */
 
 #include <sstream>
+#include <vector>
 
 #include "util.hpp"
 #include "io_realm_internal_Table.h"
@@ -445,6 +446,30 @@ JNIEXPORT jlong JNICALL Java_io_realm_internal_Table_nativeGetColumnIndex(
     return 0;
 }
 
+JNIEXPORT jlongArray JNICALL Java_io_realm_internal_Table_nativeGetColumnIndices(
+    JNIEnv* env, jobject, jlong nativeTablePtr, jobjectArray columnNames)
+{
+    if (!TABLE_VALID(env, TBL(nativeTablePtr)))
+        return NULL;
+    try {
+        jsize count = env->GetArrayLength(columnNames);
+        std::vector<jlong> indices(count);
+        for (jsize i = 0; i < count; ++i) {
+            JniLocalRef<jstring> name(env, static_cast<jstring>(env->GetObjectArrayElement(columnNames, i)));
+            JStringAccessor name_accessor(env, name); // throws
+            indices[i] = to_jlong_or_not_found(TBL(nativeTablePtr)->get_column_index(name_accessor)); // noexcept
+        }
+        jlongArray result = env->NewLongArray(count);
+        if (result == NULL) {
+            ThrowException(env, OutOfMemory, "Could not allocate memory to return column indices.");
+            return NULL;
+        }
+        env->SetLongArrayRegion(result, 0, count, indices.data());
+        return result;
+    } CATCH_STD()
+    return NULL;
+}
+
 JNIEXPORT jint JNICALL Java_io_realm_internal_Table_nativeGetColumnType(
     JNIEnv* env, jobject, jlong nativeTablePtr, jlong columnIndex)
 {
@@ -513,6 +538,39 @@ JNIEXPORT jlong JNICALL Java_io_realm_internal_Table_nativeGetLong(
     return TBL(nativeTablePtr)->get_int( S(columnIndex), S(rowIndex));  // noexcept
 }
 
+JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeGetLongs(
+    JNIEnv* env, jobject, jlong nativeTablePtr, jlong columnIndex, jlong rowStart, jlongArray dst, jint offset,
+    jint count)
+{
+    if (!TBL_AND_COL_INDEX_AND_TYPE_VALID(env, TBL(nativeTablePtr), columnIndex, type_Int))
+        return;
+    try {
+        BulkGetLongs(env, TBL(nativeTablePtr), columnIndex, rowStart, dst, offset, count);
+    } CATCH_STD()
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeGetDoubles(
+    JNIEnv* env, jobject, jlong nativeTablePtr, jlong columnIndex, jlong rowStart, jdoubleArray dst, jint offset,
+    jint count)
+{
+    if (!TBL_AND_COL_INDEX_VALID(env, TBL(nativeTablePtr), columnIndex))
+        return;
+    try {
+        BulkGetDoubles(env, TBL(nativeTablePtr), columnIndex, rowStart, dst, offset, count);
+    } CATCH_STD()
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeGetStrings(
+    JNIEnv* env, jobject, jlong nativeTablePtr, jlong columnIndex, jlong rowStart, jobjectArray dst, jint offset,
+    jint count)
+{
+    if (!TBL_AND_COL_INDEX_AND_TYPE_VALID(env, TBL(nativeTablePtr), columnIndex, type_String))
+        return;
+    try {
+        BulkGetStrings(env, TBL(nativeTablePtr), columnIndex, rowStart, dst, offset, count);
+    } CATCH_STD()
+}
+
 JNIEXPORT jboolean JNICALL Java_io_realm_internal_Table_nativeGetBoolean(
     JNIEnv* env, jobject, jlong nativeTablePtr, jlong columnIndex, jlong rowIndex)
 {
@@ -684,6 +742,79 @@ JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeSetString(
     } CATCH_STD()
 }
 
+JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeSetLongs(
+    JNIEnv* env, jclass, jlong nativeTablePtr, jlong columnIndex, jlong rowStart, jlongArray values)
+{
+    if (!TBL_AND_COL_INDEX_AND_TYPE_VALID(env, TBL(nativeTablePtr), columnIndex, type_Int))
+        return;
+    try {
+        BulkSet(env, TBL(nativeTablePtr), columnIndex, rowStart, values, &JNIEnv::GetLongArrayRegion,
+                [](Table& table, size_t col, size_t row, jlong value) { table.set_int(col, row, value); });
+    } CATCH_STD()
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeSetBooleans(
+    JNIEnv* env, jclass, jlong nativeTablePtr, jlong columnIndex, jlong rowStart, jbooleanArray values)
+{
+    if (!TBL_AND_COL_INDEX_AND_TYPE_VALID(env, TBL(nativeTablePtr), columnIndex, type_Bool))
+        return;
+    try {
+        BulkSet(env, TBL(nativeTablePtr), columnIndex, rowStart, values, &JNIEnv::GetBooleanArrayRegion,
+                [](Table& table, size_t col, size_t row, jboolean value) { table.set_bool(col, row, value != 0); });
+    } CATCH_STD()
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeSetFloats(
+    JNIEnv* env, jclass, jlong nativeTablePtr, jlong columnIndex, jlong rowStart, jfloatArray values)
+{
+    if (!TBL_AND_COL_INDEX_AND_TYPE_VALID(env, TBL(nativeTablePtr), columnIndex, type_Float))
+        return;
+    try {
+        BulkSet(env, TBL(nativeTablePtr), columnIndex, rowStart, values, &JNIEnv::GetFloatArrayRegion,
+                [](Table& table, size_t col, size_t row, jfloat value) { table.set_float(col, row, value); });
+    } CATCH_STD()
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeSetDoubles(
+    JNIEnv* env, jclass, jlong nativeTablePtr, jlong columnIndex, jlong rowStart, jdoubleArray values)
+{
+    if (!TBL_AND_COL_INDEX_AND_TYPE_VALID(env, TBL(nativeTablePtr), columnIndex, type_Double))
+        return;
+    try {
+        BulkSet(env, TBL(nativeTablePtr), columnIndex, rowStart, values, &JNIEnv::GetDoubleArrayRegion,
+                [](Table& table, size_t col, size_t row, jdouble value) { table.set_double(col, row, value); });
+    } CATCH_STD()
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeSetStrings(
+    JNIEnv* env, jclass, jlong nativeTablePtr, jlong columnIndex, jlong rowStart, jobjectArray values)
+{
+    if (!TBL_AND_COL_INDEX_AND_TYPE_VALID(env, TBL(nativeTablePtr), columnIndex, type_String))
+        return;
+    try {
+        Table* table = TBL(nativeTablePtr);
+        const jsize count = env->GetArrayLength(values);
+        if (rowStart < 0 || S(rowStart) + S(count) > table->size()) {
+            ThrowException(env, IndexOutOfBounds, "rowStart + number of values > available rows.");
+            return;
+        }
+        const size_t col = S(columnIndex);
+        const bool nullable = table->is_nullable(col);
+        for (jsize i = 0; i < count; ++i) {
+            jstring value = static_cast<jstring>(env->GetObjectArrayElement(values, i));
+            if (value == NULL && !nullable) {
+                ThrowException(env, IllegalArgument, "Trying to set a non-nullable field to null.");
+                return;
+            }
+            JStringAccessor value2(env, value); // throws
+            table->set_string(col, S(rowStart + i), value2);
+            if (value != NULL) {
+                env->DeleteLocalRef(value);
+            }
+        }
+    } CATCH_STD()
+}
+
 JNIEXPORT void JNICALL Java_io_realm_internal_Table_nativeSetTimestamp(
     JNIEnv* env, jclass, jlong nativeTablePtr, jlong columnIndex, jlong rowIndex, jlong timestampValue)
 {
@@ -14,11 +14,17 @@
  * limitations under the License.
  */
 
+#include <algorithm>
+#include <cstring>
+#include <map>
+
 #include <realm.hpp>
 #include <realm/group_shared.hpp>
 #include <realm/commit_log.hpp>
 #include <shared_realm.hpp>
 #include <object_store.hpp>
+#include "aggregate.hpp"
+#include "fulltext.hpp"
 #include "util.hpp"
 #include "io_realm_internal_TableQuery.h"
 
@@ -86,7 +92,149 @@ static TableRef getTableByArray(jlong nativeQueryPtr, JniLongArray& indicesArray
     return table_ref;
 }
 
-static jlong findAllWithHandover(JNIEnv* env, jlong bgSharedRealmPtr, std::unique_ptr<Query> query, jlong start, jlong end, jlong limit)
+// Snapshots are used by the worker thread to compute fine-grained change sets for async RealmResults. A snapshot is
+// a flat array of (source row index, row content hash) pairs in TableView order.
+// See io.realm.internal.CollectionChangeSet.
+static const uint64_t FNV_OFFSET_BASIS = 14695981039346656037ULL;
+static const uint64_t FNV_PRIME = 1099511628211ULL;
+
+static uint64_t hash_bytes(uint64_t hash, const char* data, size_t size)
+{
+    for (size_t i = 0; i < size; ++i) {
+        hash ^= static_cast<unsigned char>(data[i]);
+        hash *= FNV_PRIME;
+    }
+    return hash;
+}
+
+template <typename T>
+static uint64_t hash_value(uint64_t hash, T value)
+{
+    return hash_bytes(hash, reinterpret_cast<const char*>(&value), sizeof(T));
+}
+
+static uint64_t hash_row(Table& table, size_t row_ndx)
+{
+    uint64_t hash = FNV_OFFSET_BASIS;
+    const size_t column_count = table.get_column_count();
+    for (size_t col = 0; col < column_count; ++col) {
+        switch (table.get_column_type(col)) {
+            case type_Int:
+                if (table.is_nullable(col) && table.is_null(col, row_ndx)) {
+                    hash = hash_value(hash, col);
+                } else {
+                    hash = hash_value(hash, table.get_int(col, row_ndx));
+                }
+                break;
+            case type_Bool:
+                if (table.is_nullable(col) && table.is_null(col, row_ndx)) {
+                    hash = hash_value(hash, col);
+                } else {
+                    hash = hash_value(hash, table.get_bool(col, row_ndx));
+                }
+                break;
+            case type_Float:
+                hash = hash_value(hash, table.get_float(col, row_ndx));
+                break;
+            case type_Double:
+                hash = hash_value(hash, table.get_double(col, row_ndx));
+                break;
+            case type_String: {
+                StringData value = table.get_string(col, row_ndx);
+                if (value.is_null()) {
+                    hash = hash_value(hash, col);
+                } else {
+                    hash = hash_value(hash, value.size());
+                    hash = hash_bytes(hash, value.data(), value.size());
+                }
+                break;
+            }
+            case type_Binary: {
+                BinaryData value = table.get_binary(col, row_ndx);
+                if (value.is_null()) {
+                    hash = hash_value(hash, col);
+                } else {
+                    hash = hash_value(hash, value.size());
+                    hash = hash_bytes(hash, value.data(), value.size());
+                }
+                break;
+            }
+            case type_Timestamp: {
+                Timestamp value = table.get_timestamp(col, row_ndx);
+                if (value.is_null()) {
+                    hash = hash_value(hash, col);
+                } else {
+                    hash = hash_value(hash, value.get_seconds());
+                    hash = hash_value(hash, value.get_nanoseconds());
+                }
+                break;
+            }
+            case type_Link:
+                if (table.is_null_link(col, row_ndx)) {
+                    hash = hash_value(hash, col);
+                } else {
+                    hash = hash_value(hash, table.get_link(col, row_ndx));
+                }
+                break;
+            case type_LinkList: {
+                LinkViewRef link_view = table.get_linklist(col, row_ndx);
+                const size_t size = link_view->size();
+                hash = hash_value(hash, size);
+                for (size_t i = 0; i < size; ++i) {
+                    hash = hash_value(hash, link_view->get(i).get_index());
+                }
+                break;
+            }
+            default:
+                // Other column types are not used by the Java binding
+                break;
+        }
+    }
+    return hash;
+}
+
+static void take_snapshot(Table& table, const TableView& tableView, std::vector<jlong>& snapshot)
+{
+    const size_t size = tableView.size();
+    snapshot.resize(size * 2);
+    for (size_t i = 0; i < size; ++i) {
+        size_t row_ndx = tableView.get_source_ndx(i);
+        snapshot[i * 2] = static_cast<jlong>(row_ndx);
+        snapshot[i * 2 + 1] = static_cast<jlong>(hash_row(table, row_ndx));
+    }
+}
+
+// Exports the TableView to the caller thread. If requested, a snapshot of the TableView is taken before it is moved
+// into the handover object.
+static jlong exportTableView(jlong bgSharedRealmPtr, Table& table, TableView& tableView,
+                             std::vector<jlong>* snapshot)
+{
+    if (snapshot != nullptr) {
+        take_snapshot(table, tableView, *snapshot);
+    }
+    auto sharedRealm = *(reinterpret_cast<SharedRealm*>(bgSharedRealmPtr));
+    using rf = realm::_impl::RealmFriend;
+    auto handover = rf::get_shared_group(*sharedRealm).export_for_handover(tableView, MutableSourcePayload::Move);
+    return reinterpret_cast<jlong>(handover.release());
+}
+
+// Exports the TableView, or only the window of windowLimit rows starting at windowOffset if one is set, to the caller
+// thread. The window is found by a query restricted to the full TableView, so syncing it re-runs and re-sorts the
+// full TableView before the window is taken again. A windowLimit of -1 means no limit.
+static jlong handoverTableView(jlong bgSharedRealmPtr, Table& table, TableView& tableView,
+                               jlong windowOffset, jlong windowLimit, std::vector<jlong>* snapshot)
+{
+    if (windowOffset == 0 && windowLimit == -1) {
+        return exportTableView(bgSharedRealmPtr, table, tableView, snapshot);
+    }
+    // Query::find_all() expects the start to be within the table, even if it is restricted to a view.
+    size_t start = std::min(S(windowOffset), table.size());
+    TableView window(table.where(&tableView).find_all(start, size_t(-1), windowLimit == -1 ? size_t(-1) : S(windowLimit)));
+    return exportTableView(bgSharedRealmPtr, table, window, snapshot);
+}
+
+static jlong findAllWithHandover(JNIEnv* env, jlong bgSharedRealmPtr, std::unique_ptr<Query> query, jlong start, jlong end, jlong limit,
+                                 jlong windowOffset, jlong windowLimit, std::vector<jlong>* snapshot)
 {
     TR_ENTER()
     TableRef table = query.get()->get_table();
@@ -98,43 +246,28 @@ static jlong findAllWithHandover(JNIEnv* env, jlong bgSharedRealmPtr, std::uniqu
     TableView tableView(query->find_all(S(start), S(end), S(limit)));
 
     // handover the result
-    auto sharedRealm = *(reinterpret_cast<SharedRealm*>(bgSharedRealmPtr));
-    using rf = realm::_impl::RealmFriend;
-    auto handover = rf::get_shared_group(*sharedRealm).export_for_handover(tableView, MutableSourcePayload::Move);
-    return reinterpret_cast<jlong>(handover.release());
+    return handoverTableView(bgSharedRealmPtr, *table, tableView, windowOffset, windowLimit, snapshot);
 }
 
 static jlong getDistinctViewWithHandover
-        (JNIEnv *env, jlong bgSharedRealmPtr, std::unique_ptr<Query> query, jlong columnIndex)
+        (JNIEnv *env, jlong bgSharedRealmPtr, std::unique_ptr<Query> query, jobjectArray columnPaths,
+         jlong windowOffset, jlong windowLimit, std::vector<jlong>* snapshot)
 {
         TableRef table = query->get_table();
-        if (!QUERY_VALID(env, query.get()) ||
-            !TBL_AND_COL_INDEX_VALID(env, table.get(), columnIndex)) {
+        if (!QUERY_VALID(env, query.get())) {
             return 0;
         }
-        switch (table->get_column_type(S(columnIndex))) {
-            case type_Bool:
-            case type_Int:
-            case type_Timestamp:
-            case type_String: {
-                TableView tableView(table->get_distinct_view(S(columnIndex)) );
-
-                // handover the result
-                auto sharedRealm = *(reinterpret_cast<SharedRealm*>(bgSharedRealmPtr));
-                using rf = realm::_impl::RealmFriend;
-                auto handover = rf::get_shared_group(*sharedRealm).export_for_handover(
-                        tableView, MutableSourcePayload::Move);
-                return reinterpret_cast<jlong>(handover.release());
-            }
-            default:
-                ThrowException(env, IllegalArgument, "Invalid type - Only String, Date, boolean, short, int, long and their boxed variants are supported.");
-                return 0;
-        }
-    return 0;
+        // run the query, then remove the objects with the same values in all the columns
+        TableView tableView(query->find_all());
+        tableView.distinct(get_distinct_descriptor(env, *table, columnPaths));
+
+        // handover the result
+        return handoverTableView(bgSharedRealmPtr, *table, tableView, windowOffset, windowLimit, snapshot);
 }
 
 static jlong findAllSortedWithHandover
-        (JNIEnv *env, jlong bgSharedRealmPtr, std::unique_ptr<Query> query, jlong start, jlong end, jlong limit, jlong columnIndex, jboolean ascending)
+        (JNIEnv *env, jlong bgSharedRealmPtr, std::unique_ptr<Query> query, jlong start, jlong end, jlong limit, jlong columnIndex, jboolean ascending,
+         jlong windowOffset, jlong windowLimit, std::vector<jlong>* snapshot)
 {
         TableRef table =  query->get_table();
 
@@ -166,14 +299,12 @@ static jlong findAllSortedWithHandover
         }
 
         // handover the result
-        auto sharedRealm = *(reinterpret_cast<SharedRealm*>(bgSharedRealmPtr));
-        using rf = realm::_impl::RealmFriend;
-        auto handover = rf::get_shared_group(*sharedRealm).export_for_handover(tableView, MutableSourcePayload::Move);
-        return reinterpret_cast<jlong>(handover.release());
+        return handoverTableView(bgSharedRealmPtr, *table, tableView, windowOffset, windowLimit, snapshot);
 }
 
 static jlong findAllMultiSortedWithHandover
-        (JNIEnv *env, jlong bgSharedRealmPtr, std::unique_ptr<Query> query, jlong start, jlong end, jlong limit, jlongArray columnIndices, jbooleanArray ascending)
+        (JNIEnv *env, jlong bgSharedRealmPtr, std::unique_ptr<Query> query, jlong start, jlong end, jlong limit, jlongArray columnIndices, jbooleanArray ascending,
+         jlong windowOffset, jlong windowLimit, std::vector<jlong>* snapshot)
 {
     JniLongArray long_arr(env, columnIndices);
     JniBooleanArray bool_arr(env, ascending);
@@ -229,10 +360,7 @@ static jlong findAllMultiSortedWithHandover
     tableView.sort(SortDescriptor(*table, indices, ascendings));
 
     // handover the result
-    auto sharedRealm = *(reinterpret_cast<SharedRealm*>(bgSharedRealmPtr));
-    using rf = realm::_impl::RealmFriend;
-    auto handover = rf::get_shared_group(*sharedRealm).export_for_handover(tableView, MutableSourcePayload::Move);
-    return reinterpret_cast<jlong>(handover.release());
+    return handoverTableView(bgSharedRealmPtr, *table, tableView, windowOffset, windowLimit, snapshot);
 }
 
 template <typename coretype, typename cpptype, typename javatype>
@@ -922,6 +1050,25 @@ JNIEXPORT void JNICALL Java_io_realm_internal_TableQuery_nativeContains(
     TableQuery_StringPredicate(env, nativeQueryPtr, columnIndexes, value, caseSensitive, StringContains);
 }
 
+JNIEXPORT void JNICALL Java_io_realm_internal_TableQuery_nativeMatches(
+    JNIEnv* env, jobject, jlong nativeQueryPtr, jlong columnIndex, jstring terms)
+{
+    if (!QUERY_COL_TYPE_VALID(env, nativeQueryPtr, columnIndex, type_String)) {
+        return;
+    }
+    try {
+        JStringAccessor terms_accessor(env, terms); // throws
+        std::vector<FullTextTerm> parsed_terms = parse_full_text_terms(terms_accessor);
+        if (parsed_terms.empty()) {
+            throw std::invalid_argument("The search terms contain no words.");
+        }
+        Query* query = Q(nativeQueryPtr);
+        std::unique_ptr<Expression> match(new FullTextMatch(query->get_table().get(), S(columnIndex),
+                                                            std::move(parsed_terms)));
+        query->and_query(Query(std::move(match)));
+    } CATCH_STD()
+}
+
 // Binary
 
 enum BinaryPredicate {
@@ -1050,6 +1197,211 @@ JNIEXPORT void JNICALL Java_io_realm_internal_TableQuery_nativeNot(
     } CATCH_STD()
 }
 
+// Query programs --------------------------------------
+
+// Adds a comparison of a numeric, boolean or date column (or a column at the end of a link path) to the query.
+template <typename CoreType, typename T>
+static void program_compare(Query& query, const jlong* path, jlong path_len, jlong op, T value)
+{
+    if (path_len == 1) {
+        size_t col = S(path[0]);
+        switch (op) {
+            case io_realm_internal_TableQuery_PROGRAM_EQUAL: query.equal(col, value); return;
+            case io_realm_internal_TableQuery_PROGRAM_NOT_EQUAL: query.not_equal(col, value); return;
+            case io_realm_internal_TableQuery_PROGRAM_GREATER: query.greater(col, value); return;
+            case io_realm_internal_TableQuery_PROGRAM_GREATER_EQUAL: query.greater_equal(col, value); return;
+            case io_realm_internal_TableQuery_PROGRAM_LESS: query.less(col, value); return;
+            case io_realm_internal_TableQuery_PROGRAM_LESS_EQUAL: query.less_equal(col, value); return;
+        }
+    }
+    else {
+        TableRef table_ref = query.get_table();
+        for (jlong i = 0; i < path_len - 1; ++i) {
+            table_ref->link(S(path[i]));
+        }
+        size_t col = S(path[path_len - 1]);
+        switch (op) {
+            case io_realm_internal_TableQuery_PROGRAM_EQUAL:
+                query.and_query(table_ref->column<CoreType>(col) == value); return;
+            case io_realm_internal_TableQuery_PROGRAM_NOT_EQUAL:
+                query.and_query(table_ref->column<CoreType>(col) != value); return;
+            case io_realm_internal_TableQuery_PROGRAM_GREATER:
+                query.and_query(table_ref->column<CoreType>(col) > value); return;
+            case io_realm_internal_TableQuery_PROGRAM_GREATER_EQUAL:
+                query.and_query(table_ref->column<CoreType>(col) >= value); return;
+            case io_realm_internal_TableQuery_PROGRAM_LESS:
+                query.and_query(table_ref->column<CoreType>(col) < value); return;
+            case io_realm_internal_TableQuery_PROGRAM_LESS_EQUAL:
+                query.and_query(table_ref->column<CoreType>(col) <= value); return;
+        }
+    }
+    throw std::invalid_argument("Unsupported operator in query program.");
+}
+
+static void program_compare_bool(Query& query, const jlong* path, jlong path_len, jlong op, bool value)
+{
+    bool not_equal = op == io_realm_internal_TableQuery_PROGRAM_NOT_EQUAL;
+    if (!not_equal && op != io_realm_internal_TableQuery_PROGRAM_EQUAL) {
+        throw std::invalid_argument("Unsupported operator in query program.");
+    }
+    // Not equal must also match null, so it can't be expressed as equal to the negated value.
+    if (path_len == 1) {
+        if (not_equal) {
+            // Bool columns are integer columns, core has no bool overload of not_equal.
+            query.not_equal(S(path[0]), int64_t(value));
+        }
+        else {
+            query.equal(S(path[0]), value);
+        }
+    }
+    else {
+        TableRef table_ref = query.get_table();
+        for (jlong i = 0; i < path_len - 1; ++i) {
+            table_ref->link(S(path[i]));
+        }
+        if (not_equal) {
+            query.and_query(table_ref->column<Bool>(S(path[path_len - 1])) != value);
+        }
+        else {
+            query.and_query(table_ref->column<Bool>(S(path[path_len - 1])) == value);
+        }
+    }
+}
+
+static void program_compare_string(Query& query, const jlong* path, jlong path_len, jlong op, StringData value,
+                                   bool case_sensitive)
+{
+    if (path_len == 1) {
+        size_t col = S(path[0]);
+        switch (op) {
+            case io_realm_internal_TableQuery_PROGRAM_EQUAL: query.equal(col, value, case_sensitive); return;
+            case io_realm_internal_TableQuery_PROGRAM_NOT_EQUAL: query.not_equal(col, value, case_sensitive); return;
+            case io_realm_internal_TableQuery_PROGRAM_CONTAINS: query.contains(col, value, case_sensitive); return;
+            case io_realm_internal_TableQuery_PROGRAM_BEGINS_WITH: query.begins_with(col, value, case_sensitive); return;
+            case io_realm_internal_TableQuery_PROGRAM_ENDS_WITH: query.ends_with(col, value, case_sensitive); return;
+        }
+    }
+    else {
+        TableRef table_ref = query.get_table();
+        for (jlong i = 0; i < path_len - 1; ++i) {
+            table_ref->link(S(path[i]));
+        }
+        size_t col = S(path[path_len - 1]);
+        switch (op) {
+            case io_realm_internal_TableQuery_PROGRAM_EQUAL:
+                query.and_query(table_ref->column<String>(col).equal(value, case_sensitive)); return;
+            case io_realm_internal_TableQuery_PROGRAM_NOT_EQUAL:
+                query.and_query(table_ref->column<String>(col).not_equal(value, case_sensitive)); return;
+            case io_realm_internal_TableQuery_PROGRAM_CONTAINS:
+                query.and_query(table_ref->column<String>(col).contains(value, case_sensitive)); return;
+            case io_realm_internal_TableQuery_PROGRAM_BEGINS_WITH:
+                query.and_query(table_ref->column<String>(col).begins_with(value, case_sensitive)); return;
+            case io_realm_internal_TableQuery_PROGRAM_ENDS_WITH:
+                query.and_query(table_ref->column<String>(col).ends_with(value, case_sensitive)); return;
+        }
+    }
+    throw std::invalid_argument("Unsupported operator in query program.");
+}
+
+static inline double program_double_arg(jlong bits)
+{
+    double value;
+    memcpy(&value, &bits, sizeof(value));
+    return value;
+}
+
+// Builds the query encoded by io.realm.RealmQueryTemplate, see TableQuery.PROGRAM_*. The column indices and types were
+// validated when the template was compiled.
+static Query build_program_query(JNIEnv* env, Table* table, JniLongArray& program, JniLongArray& args,
+                                 jobjectArray string_args)
+{
+    Query query = table->where();
+    jsize pc = 0;
+    while (pc < program.len()) {
+        jlong op = program[pc++];
+        switch (op) {
+            case io_realm_internal_TableQuery_PROGRAM_BEGIN_GROUP: query.group(); continue;
+            case io_realm_internal_TableQuery_PROGRAM_END_GROUP: query.end_group(); continue;
+            case io_realm_internal_TableQuery_PROGRAM_OR: query.Or(); continue;
+            case io_realm_internal_TableQuery_PROGRAM_NOT: query.Not(); continue;
+            default: break;
+        }
+        if (pc + 4 > program.len()) {
+            throw std::invalid_argument("Truncated query program.");
+        }
+        DataType type = static_cast<DataType>(program[pc]);
+        jlong flags = program[pc + 1];
+        jlong arg = program[pc + 2];
+        jlong path_len = program[pc + 3];
+        const jlong* path = program.ptr() + pc + 4;
+        pc += 4 + path_len;
+        if (path_len < 1 || pc > program.len() || arg < 0 || arg >= args.len()) {
+            throw std::invalid_argument("Malformed query program.");
+        }
+        switch (type) {
+            case type_Int:
+                program_compare<Int, int64_t>(query, path, path_len, op, static_cast<int64_t>(args[arg]));
+                break;
+            case type_Bool:
+                program_compare_bool(query, path, path_len, op, args[arg] != 0);
+                break;
+            case type_Float:
+                program_compare<Float, float>(query, path, path_len, op,
+                                              static_cast<float>(program_double_arg(args[arg])));
+                break;
+            case type_Double:
+                program_compare<Double, double>(query, path, path_len, op, program_double_arg(args[arg]));
+                break;
+            case type_Timestamp:
+                program_compare<Timestamp, Timestamp>(query, path, path_len, op, from_milliseconds(args[arg]));
+                break;
+            case type_String: {
+                JniLocalRef<jstring> value(env, static_cast<jstring>(env->GetObjectArrayElement(string_args,
+                                                                                              static_cast<jsize>(arg))));
+                JStringAccessor value_accessor(env, value); // throws
+                program_compare_string(query, path, path_len, op, StringData(value_accessor),
+                                       (flags & io_realm_internal_TableQuery_PROGRAM_FLAG_CASE_SENSITIVE) != 0);
+                break;
+            }
+            default:
+                throw std::invalid_argument("Unsupported field type in query program.");
+        }
+    }
+    return query;
+}
+
+JNIEXPORT jlong JNICALL Java_io_realm_internal_TableQuery_nativeExecuteProgram(
+    JNIEnv* env, jclass, jlong nativeTablePtr, jint mode, jlongArray program, jlongArray args,
+    jobjectArray stringArgs)
+{
+    TR_ENTER()
+    Table* table = TBL(nativeTablePtr);
+    if (!TABLE_VALID(env, table)) {
+        return -1;
+    }
+    try {
+        JniLongArray program_array(env, program);
+        JniLongArray args_array(env, args);
+        Query query = build_program_query(env, table, program_array, args_array, stringArgs);
+        const std::string error = query.validate();
+        if (!error.empty()) {
+            ThrowException(env, IllegalArgument, error);
+            return -1;
+        }
+        switch (mode) {
+            case io_realm_internal_TableQuery_PROGRAM_MODE_FIND_ALL:
+                return reinterpret_cast<jlong>(new TableView(query.find_all()));
+            case io_realm_internal_TableQuery_PROGRAM_MODE_FIND_FIRST:
+                return to_jlong_or_not_found(query.find());
+            case io_realm_internal_TableQuery_PROGRAM_MODE_COUNT:
+                return static_cast<jlong>(query.count());
+            default:
+                ThrowException(env, IllegalArgument, "Unknown query program mode.");
+        }
+    } CATCH_STD()
+    return -1;
+}
+
 // Find --------------------------------------
 
 
@@ -1151,12 +1503,14 @@ JNIEXPORT jlong JNICALL Java_io_realm_internal_TableQuery_nativeFindAll(
 
 // queryPtr would be owned and released by this function
 JNIEXPORT jlong JNICALL Java_io_realm_internal_TableQuery_nativeFindAllWithHandover
-  (JNIEnv* env, jclass, jlong bgSharedRealmPtr, jlong queryPtr, jlong start, jlong end, jlong limit)
+  (JNIEnv* env, jclass, jlong bgSharedRealmPtr, jlong queryPtr, jlong start, jlong end, jlong limit,
+   jlong windowOffset, jlong windowLimit)
   {
       TR_ENTER()
       try {
           std::unique_ptr<Query> query = handoverQueryToWorker(bgSharedRealmPtr, queryPtr, true); // throws
-          return findAllWithHandover(env, bgSharedRealmPtr, std::move(query), start, end, limit);
+          return findAllWithHandover(env, bgSharedRealmPtr, std::move(query), start, end, limit, windowOffset,
+                                     windowLimit, nullptr);
       } CATCH_STD()
       return 0;
   }
@@ -1164,7 +1518,73 @@ JNIEXPORT jlong JNICALL Java_io_realm_internal_TableQuery_nativeFindAllWithHando
 
 
 // Should match the values in Java ArgumentsHolder class
-enum query_type {QUERY_TYPE_FIND_ALL = 0, QUERY_TYPE_DISTINCT = 4, QUERY_TYPE_FIND_ALL_SORTED = 1, QUERY_TYPE_FIND_ALL_MULTI_SORTED = 2};
+enum query_type {QUERY_TYPE_FIND_ALL = 0, QUERY_TYPE_DISTINCT = 4, QUERY_TYPE_FIND_ALL_SORTED = 1, QUERY_TYPE_FIND_ALL_MULTI_SORTED = 2,
+                 QUERY_TYPE_AGGREGATE = 5};
+
+// Runs an aggregate of an async query, see RealmQuery.countAsync(). The result is boxed like the synchronous
+// aggregates box it, minimum and maximum are NULL if there are no values.
+static jobject aggregateQuery(JNIEnv* env, Query& query, jlong columnIndex, jint op)
+{
+    if (op == AGGREGATE_COUNT) {
+        return NewLong(env, static_cast<int64_t>(query.count()));
+    }
+    size_t column = S(columnIndex);
+    size_t return_ndx = npos;
+    size_t resultcount;
+    switch (query.get_table()->get_column_type(column)) {
+        case type_Int:
+            switch (op) {
+                case AGGREGATE_SUM:
+                    return NewLong(env, query.sum_int(column));
+                case AGGREGATE_AVERAGE:
+                    return NewDouble(env, query.average_int(column, &resultcount));
+                case AGGREGATE_MINIMUM: {
+                    int64_t result = query.minimum_int(column, NULL, 0, npos, npos, &return_ndx);
+                    return return_ndx != npos ? NewLong(env, result) : NULL;
+                }
+                case AGGREGATE_MAXIMUM: {
+                    int64_t result = query.maximum_int(column, NULL, 0, npos, npos, &return_ndx);
+                    return return_ndx != npos ? NewLong(env, result) : NULL;
+                }
+            }
+            break;
+        case type_Float:
+            switch (op) {
+                case AGGREGATE_SUM:
+                    return NewDouble(env, query.sum_float(column));
+                case AGGREGATE_AVERAGE:
+                    return NewDouble(env, query.average_float(column, &resultcount));
+                case AGGREGATE_MINIMUM: {
+                    float result = query.minimum_float(column, NULL, 0, npos, npos, &return_ndx);
+                    return return_ndx != npos ? NewFloat(env, result) : NULL;
+                }
+                case AGGREGATE_MAXIMUM: {
+                    float result = query.maximum_float(column, NULL, 0, npos, npos, &return_ndx);
+                    return return_ndx != npos ? NewFloat(env, result) : NULL;
+                }
+            }
+            break;
+        case type_Double:
+            switch (op) {
+                case AGGREGATE_SUM:
+                    return NewDouble(env, query.sum_double(column));
+                case AGGREGATE_AVERAGE:
+                    return NewDouble(env, query.average_double(column, &resultcount));
+                case AGGREGATE_MINIMUM: {
+                    double result = query.minimum_double(column, NULL, 0, npos, npos, &return_ndx);
+                    return return_ndx != npos ? NewDouble(env, result) : NULL;
+                }
+                case AGGREGATE_MAXIMUM: {
+                    double result = query.maximum_double(column, NULL, 0, npos, npos, &return_ndx);
+                    return return_ndx != npos ? NewDouble(env, result) : NULL;
+                }
+            }
+            break;
+        default:
+            break;
+    }
+    throw std::invalid_argument("Unsupported aggregate of an async query.");
+}
 
 // batch update of async queries
 JNIEXPORT jlongArray JNICALL Java_io_realm_internal_TableQuery_nativeBatchUpdateQueries
@@ -1172,7 +1592,10 @@ JNIEXPORT jlongArray JNICALL Java_io_realm_internal_TableQuery_nativeBatchUpdate
          jlongArray  handover_queries_array /*list of handover queries*/,
          jobjectArray  query_param_matrix /*type & params of the query to be updated*/,
          jobjectArray  multi_sorted_indices_matrix,
-         jobjectArray  multi_sorted_order_matrix)
+         jobjectArray  multi_sorted_order_matrix,
+         jobjectArray  distinct_paths_matrix /*column paths of the distinct queries*/,
+         jobjectArray  snapshot_matrix /*out: snapshots of the queries which requested one*/,
+         jobjectArray  aggregate_results /*out: results of the aggregate queries*/)
 {
     TR_ENTER()
     try {
@@ -1216,6 +1639,10 @@ JNIEXPORT jlongArray JNICALL Java_io_realm_internal_TableQuery_nativeBatchUpdate
             JniLocalRef<jlongArray> local_ref(env, (jlongArray) env->GetObjectArrayElement(query_param_matrix, i));
             JniLongArray query_param_array(env, local_ref);
 
+            // 6, index of the flag requesting a snapshot of the result, used to compute change sets
+            std::vector<jlong> snapshot;
+            std::vector<jlong>* snapshot_ptr = query_param_array[6] == 1 ? &snapshot : nullptr;
+
             switch (query_param_array[0]) { // 0, index of the type of query, the next indicies are parameters
                 case QUERY_TYPE_FIND_ALL: {// nativeFindAllWithHandover
                     exported_handover_tableview_array[i] =
@@ -1225,16 +1652,24 @@ JNIEXPORT jlongArray JNICALL Java_io_realm_internal_TableQuery_nativeBatchUpdate
                                      std::move(queries[i]),
                                      query_param_array[1]/*start*/,
                                      query_param_array[2]/*end*/,
-                                     query_param_array[3]/*limit*/);
+                                     query_param_array[3]/*limit*/,
+                                     query_param_array[7]/*windowOffset*/,
+                                     query_param_array[8]/*windowLimit*/,
+                                     snapshot_ptr);
                     break;
                 }
                 case QUERY_TYPE_DISTINCT: {// nativeGetDistinctViewWithHandover
+                    JniLocalRef<jobjectArray> column_paths(env, (jobjectArray) env->GetObjectArrayElement(
+                            distinct_paths_matrix, i));
                     exported_handover_tableview_array[i] =
                             getDistinctViewWithHandover
                                     (env,
                                      bgSharedRealmPtr,
                                      std::move(queries[i]),
-                                     query_param_array[1]/*columnIndex*/);
+                                     column_paths/*columnPaths*/,
+                                     query_param_array[7]/*windowOffset*/,
+                                     query_param_array[8]/*windowLimit*/,
+                                     snapshot_ptr);
                     break;
                 }
                 case QUERY_TYPE_FIND_ALL_SORTED: {// nativeFindAllSortedWithHandover
@@ -1247,7 +1682,10 @@ JNIEXPORT jlongArray JNICALL Java_io_realm_internal_TableQuery_nativeBatchUpdate
                                      query_param_array[2]/*end*/,
                                      query_param_array[3]/*limit*/,
                                      query_param_array[4]/*columnIndex*/,
-                                     query_param_array[5] == 1/*ascending order*/);
+                                     query_param_array[5] == 1/*ascending order*/,
+                                     query_param_array[7]/*windowOffset*/,
+                                     query_param_array[8]/*windowLimit*/,
+                                     snapshot_ptr);
                     break;
                 }
                 case QUERY_TYPE_FIND_ALL_MULTI_SORTED: {// nativeFindAllMultiSortedWithHandover
@@ -1264,13 +1702,34 @@ JNIEXPORT jlongArray JNICALL Java_io_realm_internal_TableQuery_nativeBatchUpdate
                                      query_param_array[2]/*end*/,
                                      query_param_array[3]/*limit*/,
                                      column_indices_array/*columnIndices*/,
-                                     column_order_array/*ascending orders*/);
+                                     column_order_array/*ascending orders*/,
+                                     query_param_array[7]/*windowOffset*/,
+                                     query_param_array[8]/*windowLimit*/,
+                                     snapshot_ptr);
+                    break;
+                }
+                case QUERY_TYPE_AGGREGATE: {// the result is returned instead of a TableView
+                    JniLocalRef<jobject> result(env, aggregateQuery(env, *queries[i],
+                                                                    query_param_array[1]/*columnIndex*/,
+                                                                    static_cast<jint>(query_param_array[2])/*operator*/));
+                    env->SetObjectArrayElement(aggregate_results, i, result);
+                    exported_handover_tableview_array[i] = 0;
                     break;
                 }
                 default:
                     ThrowException(env, FatalError, "Unknown type of query.");
                     return NULL;
             }
+
+            if (snapshot_ptr != nullptr) {
+                JniLocalRef<jlongArray> snapshot_array(env, env->NewLongArray(snapshot.size()));
+                if (snapshot_array == NULL) {
+                    ThrowException(env, OutOfMemory, "Could not allocate memory to return the snapshot of a query.");
+                    return NULL;
+                }
+                env->SetLongArrayRegion(snapshot_array, 0, snapshot.size(), snapshot.data());
+                env->SetObjectArrayElement(snapshot_matrix, i, snapshot_array);
+            }
         }
 
         jlongArray exported_handover_tableview = env->NewLongArray(number_of_queries);
@@ -1288,35 +1747,41 @@ JNIEXPORT jlongArray JNICALL Java_io_realm_internal_TableQuery_nativeBatchUpdate
 
 
 JNIEXPORT jlong JNICALL Java_io_realm_internal_TableQuery_nativeGetDistinctViewWithHandover
-        (JNIEnv *env, jclass, jlong bgSharedRealmPtr, jlong queryPtr, jlong columnIndex)
+        (JNIEnv *env, jclass, jlong bgSharedRealmPtr, jlong queryPtr, jobjectArray columnPaths, jlong windowOffset,
+         jlong windowLimit)
 {
     TR_ENTER()
     try {
         std::unique_ptr<Query> query = handoverQueryToWorker(bgSharedRealmPtr, queryPtr, true); // throws
-        return getDistinctViewWithHandover(env, bgSharedRealmPtr, std::move(query), columnIndex);
+        return getDistinctViewWithHandover(env, bgSharedRealmPtr, std::move(query), columnPaths, windowOffset,
+                                           windowLimit, nullptr);
     } CATCH_STD()
     return 0;
 }
 
 JNIEXPORT jlong JNICALL Java_io_realm_internal_TableQuery_nativeFindAllSortedWithHandover
-  (JNIEnv *env, jclass, jlong bgSharedRealmPtr, jlong queryPtr, jlong start, jlong end, jlong limit, jlong columnIndex, jboolean ascending)
+  (JNIEnv *env, jclass, jlong bgSharedRealmPtr, jlong queryPtr, jlong start, jlong end, jlong limit, jlong columnIndex, jboolean ascending,
+   jlong windowOffset, jlong windowLimit)
   {
       TR_ENTER()
       try {
           std::unique_ptr<Query> query = handoverQueryToWorker(bgSharedRealmPtr, queryPtr, true); // throws
-          return findAllSortedWithHandover(env, bgSharedRealmPtr, std::move(query), start, end, limit, columnIndex, ascending);
+          return findAllSortedWithHandover(env, bgSharedRealmPtr, std::move(query), start, end, limit, columnIndex, ascending,
+                                           windowOffset, windowLimit, nullptr);
       } CATCH_STD()
       return 0;
   }
 
 JNIEXPORT jlong JNICALL Java_io_realm_internal_TableQuery_nativeFindAllMultiSortedWithHandover
-  (JNIEnv *env, jclass, jlong bgSharedRealmPtr, jlong queryPtr, jlong start, jlong end, jlong limit, jlongArray columnIndices, jbooleanArray ascending)
+  (JNIEnv *env, jclass, jlong bgSharedRealmPtr, jlong queryPtr, jlong start, jlong end, jlong limit, jlongArray columnIndices, jbooleanArray ascending,
+   jlong windowOffset, jlong windowLimit)
   {
       TR_ENTER()
       try {
           // import the handover query pointer using the background SharedRealm
           std::unique_ptr<Query> query = handoverQueryToWorker(bgSharedRealmPtr, queryPtr, true); // throws
-          return findAllMultiSortedWithHandover(env, bgSharedRealmPtr, std::move(query), start, end, limit,columnIndices, ascending);
+          return findAllMultiSortedWithHandover(env, bgSharedRealmPtr, std::move(query), start, end, limit,columnIndices, ascending,
+                                                windowOffset, windowLimit, nullptr);
       } CATCH_STD()
       return 0;
   }
@@ -1596,6 +2061,210 @@ JNIEXPORT jobject JNICALL Java_io_realm_internal_TableQuery_nativeMinimumTimesta
     return NULL;
 }
 
+// The first elements of columnIndices are the link and link list columns of the path, the last one is the aggregated
+// column of the table at the end of the path. The matching rows are found natively and every path is followed
+// while it is aggregated, so no views of the linked rows are created.
+JNIEXPORT jobject JNICALL Java_io_realm_internal_TableQuery_nativeAggregateLinkPath(
+    JNIEnv* env, jobject, jlong nativeQueryPtr, jlongArray columnIndices, jint op)
+{
+    Query* pQuery = Q(nativeQueryPtr);
+    if (!QUERY_VALID(env, pQuery)) {
+        return NULL;
+    }
+    try {
+        JniLongArray indices(env, columnIndices);
+        std::vector<size_t> path;
+        for (jsize i = 0; i < indices.len(); ++i) {
+            path.push_back(S(indices[i]));
+        }
+        TableRef table = pQuery->get_table();
+        TableRef target = getTableByArray(nativeQueryPtr, indices);
+        Aggregator aggregator(*target, path.back());
+        TableView matches = pQuery->find_all();
+        for (size_t i = 0; i < matches.size(); ++i) {
+            aggregate_link_path(aggregator, *table, matches.get_source_ndx(i), path, 0);
+        }
+        return aggregator.result(env, op);
+    } CATCH_STD()
+    return NULL;
+}
+
+// Key of a group of TableQuery.groupBy(). Integer, boolean and date keys are stored as numbers, dates in milliseconds.
+// Null keys sort before all other keys.
+struct GroupKey {
+    bool is_null;
+    int64_t number;
+    std::string string;
+
+    bool operator<(const GroupKey& other) const
+    {
+        if (is_null != other.is_null) {
+            return is_null;
+        }
+        return number != other.number ? number < other.number : string < other.string;
+    }
+};
+
+static GroupKey get_group_key(Table& table, size_t column, DataType type, size_t row)
+{
+    GroupKey key = {table.is_nullable(column) && table.is_null(column, row), 0, std::string()};
+    if (key.is_null) {
+        return key;
+    }
+    switch (type) {
+        case type_Int:
+            key.number = table.get_int(column, row);
+            break;
+        case type_Bool:
+            key.number = table.get_bool(column, row) ? 1 : 0;
+            break;
+        case type_Timestamp:
+            key.number = to_milliseconds(table.get_timestamp(column, row));
+            break;
+        case type_String:
+            key.string = table.get_string(column, row);
+            break;
+        default:
+            throw std::invalid_argument("Only string, integer, boolean and date fields can be grouped by.");
+    }
+    return key;
+}
+
+// Returns {keys, key is null, values, value is null} as parallel arrays ordered by key. The keys are a String[] for
+// string fields, a boolean[] for boolean fields and a long[] for integer and date fields. The values are the row
+// counts for AGGREGATE_COUNT, otherwise a long[] for sums, minimums and maximums of integer and date fields and a
+// double[] for all other results. A minimum or maximum is null if all values of its group are null.
+JNIEXPORT jobjectArray JNICALL Java_io_realm_internal_TableQuery_nativeGroupBy(
+    JNIEnv* env, jobject, jlong nativeQueryPtr, jlong keyColumnIndex, jlong valueColumnIndex, jint op)
+{
+    Query* pQuery = Q(nativeQueryPtr);
+    if (!QUERY_VALID(env, pQuery)) {
+        return NULL;
+    }
+    Table* pTable = pQuery->get_table().get();
+    if (!COL_INDEX_VALID(env, pTable, keyColumnIndex) ||
+        (op != AGGREGATE_COUNT && !COL_INDEX_VALID(env, pTable, valueColumnIndex))) {
+        return NULL;
+    }
+    try {
+        size_t keyColumn = S(keyColumnIndex);
+        DataType keyType = pTable->get_column_type(keyColumn);
+        std::map<GroupKey, size_t> groupIndices;
+        std::vector<int64_t> rowCounts;
+        std::vector<Aggregator> aggregators;
+
+        TableView rows = pQuery->find_all();
+        for (size_t i = 0; i < rows.size(); ++i) {
+            size_t row = rows.get_source_ndx(i);
+            GroupKey key = get_group_key(*pTable, keyColumn, keyType, row);
+            std::map<GroupKey, size_t>::iterator it = groupIndices.find(key);
+            if (it == groupIndices.end()) {
+                it = groupIndices.insert(std::make_pair(key, rowCounts.size())).first;
+                rowCounts.push_back(0);
+                if (op != AGGREGATE_COUNT) {
+                    aggregators.push_back(Aggregator(*pTable, S(valueColumnIndex)));
+                }
+            }
+            ++rowCounts[it->second];
+            if (op != AGGREGATE_COUNT) {
+                aggregators[it->second].add(row);
+            }
+        }
+
+        jsize groupCount = static_cast<jsize>(groupIndices.size());
+        DataType valueType = (op == AGGREGATE_COUNT) ? type_Int : pTable->get_column_type(S(valueColumnIndex));
+        bool integralValues = op == AGGREGATE_COUNT ||
+                              (op != AGGREGATE_AVERAGE && (valueType == type_Int || valueType == type_Timestamp));
+        std::vector<jlong> numberKeys;
+        std::vector<jboolean> keyIsNull;
+        std::vector<jlong> longValues;
+        std::vector<jdouble> doubleValues;
+        std::vector<jboolean> valueIsNull;
+        jobjectArray stringKeys = NULL;
+        if (keyType == type_String) {
+            jclass stringClass = env->FindClass("java/lang/String");
+            stringKeys = env->NewObjectArray(groupCount, stringClass, NULL);
+            env->DeleteLocalRef(stringClass);
+        }
+
+        jsize position = 0;
+        for (std::map<GroupKey, size_t>::iterator it = groupIndices.begin(); it != groupIndices.end(); ++it, ++position) {
+            const GroupKey& key = it->first;
+            keyIsNull.push_back(key.is_null ? JNI_TRUE : JNI_FALSE);
+            if (stringKeys != NULL) {
+                if (!key.is_null) {
+                    jstring string = to_jstring(env, StringData(key.string));
+                    env->SetObjectArrayElement(stringKeys, position, string);
+                    env->DeleteLocalRef(string);
+                }
+            }
+            else {
+                numberKeys.push_back(key.number);
+            }
+
+            if (op == AGGREGATE_COUNT) {
+                longValues.push_back(rowCounts[it->second]);
+                valueIsNull.push_back(JNI_FALSE);
+                continue;
+            }
+            const Aggregator& aggregator = aggregators[it->second];
+            bool noValue = (op == AGGREGATE_MINIMUM || op == AGGREGATE_MAXIMUM) && aggregator.count() == 0;
+            valueIsNull.push_back(noValue ? JNI_TRUE : JNI_FALSE);
+            if (integralValues) {
+                longValues.push_back(noValue ? 0 : aggregator.int_result(op));
+            }
+            else {
+                doubleValues.push_back(noValue ? 0 : aggregator.double_result(op));
+            }
+        }
+
+        jobject keys;
+        if (stringKeys != NULL) {
+            keys = stringKeys;
+        }
+        else if (keyType == type_Bool) {
+            std::vector<jboolean> booleans(numberKeys.begin(), numberKeys.end());
+            jbooleanArray booleanKeys = env->NewBooleanArray(groupCount);
+            env->SetBooleanArrayRegion(booleanKeys, 0, groupCount, booleans.data());
+            keys = booleanKeys;
+        }
+        else {
+            jlongArray longKeys = env->NewLongArray(groupCount);
+            env->SetLongArrayRegion(longKeys, 0, groupCount, numberKeys.data());
+            keys = longKeys;
+        }
+        jbooleanArray keyNulls = env->NewBooleanArray(groupCount);
+        env->SetBooleanArrayRegion(keyNulls, 0, groupCount, keyIsNull.data());
+        jobject values;
+        if (integralValues) {
+            jlongArray array = env->NewLongArray(groupCount);
+            env->SetLongArrayRegion(array, 0, groupCount, longValues.data());
+            values = array;
+        }
+        else {
+            jdoubleArray array = env->NewDoubleArray(groupCount);
+            env->SetDoubleArrayRegion(array, 0, groupCount, doubleValues.data());
+            values = array;
+        }
+        jbooleanArray valueNulls = env->NewBooleanArray(groupCount);
+        env->SetBooleanArrayRegion(valueNulls, 0, groupCount, valueIsNull.data());
+
+        jclass objectClass = env->FindClass("java/lang/Object");
+        jobjectArray result = env->NewObjectArray(4, objectClass, NULL);
+        env->DeleteLocalRef(objectClass);
+        env->SetObjectArrayElement(result, 0, keys);
+        env->SetObjectArrayElement(result, 1, keyNulls);
+        env->SetObjectArrayElement(result, 2, values);
+        env->SetObjectArrayElement(result, 3, valueNulls);
+        env->DeleteLocalRef(keys);
+        env->DeleteLocalRef(keyNulls);
+        env->DeleteLocalRef(values);
+        env->DeleteLocalRef(valueNulls);
+        return result;
+    } CATCH_STD()
+    return NULL;
+}
+
 // Count, Remove
 
 JNIEXPORT jlong JNICALL Java_io_realm_internal_TableQuery_nativeCount(
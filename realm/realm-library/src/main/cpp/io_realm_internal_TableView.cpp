@@ -54,64 +54,13 @@ JNIEXPORT jlong JNICALL Java_io_realm_internal_TableView_createNativeTableView(
 }
 
 JNIEXPORT void JNICALL Java_io_realm_internal_TableView_nativeDistinct(
-    JNIEnv* env, jobject, jlong nativeViewPtr, jlong columnIndex)
-{
-    if (!VIEW_VALID_AND_IN_SYNC(env, nativeViewPtr))
-        return;
-    if (!COL_INDEX_VALID(env, TV(nativeViewPtr), columnIndex))
-        return;
-    if (!TV(nativeViewPtr)->get_parent().has_search_index(S(columnIndex))) {
-        ThrowException(env, UnsupportedOperation, "The field must be indexed before distinct() can be used.");
-        return;
-    }
-    try {
-        switch (TV(nativeViewPtr)->get_column_type(S(columnIndex))) {
-            case type_Bool:
-            case type_Int:
-            case type_String:
-            case type_Timestamp:
-                TV(nativeViewPtr)->distinct(S(columnIndex));
-                break;
-            default:
-                ThrowException(env, IllegalArgument, "Invalid type - Only String, Date, boolean, byte, short, int, long and their boxed variants are supported.");
-                break;
-        }
-    } CATCH_STD()
-}
-
-JNIEXPORT void JNICALL Java_io_realm_internal_TableView_nativeDistinctMulti(
-    JNIEnv* env, jobject, jlong nativeViewPtr, jlongArray columnIndexes)
+    JNIEnv* env, jobject, jlong nativeViewPtr, jobjectArray columnPaths)
 {
     if (!VIEW_VALID_AND_IN_SYNC(env, nativeViewPtr))
         return;
     try {
         TableView* tv = TV(nativeViewPtr);
-        JniLongArray indexes(env, columnIndexes);
-        jsize indexes_len = indexes.len();
-        std::vector<std::vector<size_t>> columns;
-        std::vector<bool> ascending;
-        for (int i = 0; i < indexes_len; ++i) {
-            if (!COL_INDEX_VALID(env, tv, indexes[i])) {
-                return;
-            }
-            if (!tv->get_parent().has_search_index(S(indexes[i]))) {
-                ThrowException(env, IllegalArgument, "The field must be indexed before distinct(...) can be used.");
-                return;
-            }
-            switch (tv->get_column_type(S(indexes[i]))) {
-                case type_Bool:
-                case type_Int:
-                case type_String:
-                case type_Timestamp:
-                    columns.push_back(std::vector<size_t> { S(indexes[i]) });
-                    ascending.push_back(true);
-                    break;
-                default:
-                    ThrowException(env, IllegalArgument, "Invalid type - Only String, Date, boolean, byte, short, int, long and their boxed variants are supported.");
-                    return;
-            }
-        }
-        tv->distinct(SortDescriptor(tv->get_parent(), columns, ascending));
+        tv->distinct(get_distinct_descriptor(env, tv->get_parent(), columnPaths));
     } CATCH_STD()
 }
 
@@ -157,6 +106,17 @@ JNIEXPORT void JNICALL Java_io_realm_internal_TableView_nativeClose(
     delete TV(nativeViewPtr);
 }
 
+JNIEXPORT jlong JNICALL Java_io_realm_internal_TableView_nativeCopy(
+    JNIEnv* env, jclass, jlong nativeViewPtr)
+{
+    if (!VIEW_VALID_AND_IN_SYNC(env, nativeViewPtr))
+        return 0;
+    try {
+        return reinterpret_cast<jlong>( new TableView(*TV(nativeViewPtr)) );
+    } CATCH_STD()
+    return 0;
+}
+
 JNIEXPORT jlong JNICALL Java_io_realm_internal_TableView_nativeSize(
     JNIEnv* env, jobject, jlong nativeViewPtr)
 {
@@ -236,6 +196,41 @@ JNIEXPORT jlong JNICALL Java_io_realm_internal_TableView_nativeGetLong(
     return TV(nativeViewPtr)->get_int( S(columnIndex), S(rowIndex));  // noexcept
 }
 
+JNIEXPORT void JNICALL Java_io_realm_internal_TableView_nativeGetLongs(
+    JNIEnv* env, jobject, jlong nativeViewPtr, jlong columnIndex, jlong rowStart, jlongArray dst, jint offset,
+    jint count)
+{
+    try {
+        if (!VIEW_VALID_AND_IN_SYNC(env, nativeViewPtr) ||
+            !COL_INDEX_AND_TYPE_VALID(env, TV(nativeViewPtr), columnIndex, type_Int))
+            return;
+        BulkGetLongs(env, TV(nativeViewPtr), columnIndex, rowStart, dst, offset, count);
+    } CATCH_STD()
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_TableView_nativeGetDoubles(
+    JNIEnv* env, jobject, jlong nativeViewPtr, jlong columnIndex, jlong rowStart, jdoubleArray dst, jint offset,
+    jint count)
+{
+    try {
+        if (!VIEW_VALID_AND_IN_SYNC(env, nativeViewPtr) || !COL_INDEX_VALID(env, TV(nativeViewPtr), columnIndex))
+            return;
+        BulkGetDoubles(env, TV(nativeViewPtr), columnIndex, rowStart, dst, offset, count);
+    } CATCH_STD()
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_TableView_nativeGetStrings(
+    JNIEnv* env, jobject, jlong nativeViewPtr, jlong columnIndex, jlong rowStart, jobjectArray dst, jint offset,
+    jint count)
+{
+    try {
+        if (!VIEW_VALID_AND_IN_SYNC(env, nativeViewPtr) ||
+            !COL_INDEX_AND_TYPE_VALID(env, TV(nativeViewPtr), columnIndex, type_String))
+            return;
+        BulkGetStrings(env, TV(nativeViewPtr), columnIndex, rowStart, dst, offset, count);
+    } CATCH_STD()
+}
+
 JNIEXPORT jboolean JNICALL Java_io_realm_internal_TableView_nativeGetBoolean(
     JNIEnv* env, jobject, jlong nativeViewPtr, jlong columnIndex, jlong rowIndex)
 {
@@ -160,6 +160,66 @@ JNIEXPORT jbyteArray JNICALL Java_io_realm_internal_UncheckedRow_nativeGetByteAr
     }
 }
 
+JNIEXPORT jlong JNICALL Java_io_realm_internal_UncheckedRow_nativeGetBinarySize
+  (JNIEnv* env, jobject, jlong nativeRowPtr, jlong columnIndex)
+{
+    TR_ENTER_PTR(nativeRowPtr)
+    if (!ROW_VALID(env, ROW(nativeRowPtr)))
+        return -1;
+
+    BinaryData bin = ROW(nativeRowPtr)->get_binary( S(columnIndex) );
+    return bin.is_null() ? -1 : static_cast<jlong>(bin.size());
+}
+
+JNIEXPORT jlong JNICALL Java_io_realm_internal_UncheckedRow_nativeCopyToByteBuffer
+  (JNIEnv* env, jobject, jlong nativeRowPtr, jlong columnIndex, jobject buffer, jint position, jint length)
+{
+    TR_ENTER_PTR(nativeRowPtr)
+    if (!ROW_VALID(env, ROW(nativeRowPtr)))
+        return -1;
+
+    char* data = static_cast<char*>(env->GetDirectBufferAddress(buffer));
+    if (!data || position < 0 || length < 0 || static_cast<jlong>(position) + length > env->GetDirectBufferCapacity(buffer)) {
+        ThrowException(env, IllegalArgument, "ByteBuffer is invalid");
+        return -1;
+    }
+    BinaryData bin = ROW(nativeRowPtr)->get_binary( S(columnIndex) );
+    if (bin.is_null()) {
+        return -1;
+    }
+    // Copied straight from the mapped memory of the Realm into the native memory of the buffer. The caller throws if
+    // the value doesn't fit.
+    if (bin.size() <= S(length)) {
+        std::copy(bin.data(), bin.data() + bin.size(), data + position);
+    }
+    return static_cast<jlong>(bin.size());
+}
+
+JNIEXPORT jlong JNICALL Java_io_realm_internal_UncheckedRow_nativeCopyToByteArrayRegion
+  (JNIEnv* env, jobject, jlong nativeRowPtr, jlong columnIndex, jbyteArray array, jint offset, jint length)
+{
+    TR_ENTER_PTR(nativeRowPtr)
+    if (!ROW_VALID(env, ROW(nativeRowPtr)))
+        return -1;
+
+    // Summed as 64 bit integers, offset + length can overflow a jint.
+    if (offset < 0 || length < 0 || static_cast<jlong>(offset) + length > env->GetArrayLength(array)) {
+        ThrowException(env, IndexOutOfBounds, "offset + length > length of the array.");
+        return -1;
+    }
+    BinaryData bin = ROW(nativeRowPtr)->get_binary( S(columnIndex) );
+    if (bin.is_null()) {
+        return -1;
+    }
+    // Copied straight from the mapped memory of the Realm into the Java array. The caller throws if the value doesn't
+    // fit.
+    if (bin.size() <= S(length)) {
+        env->SetByteArrayRegion(array, offset, static_cast<jsize>(bin.size()),
+                                reinterpret_cast<const jbyte*>(bin.data()));
+    }
+    return static_cast<jlong>(bin.size());
+}
+
 JNIEXPORT jlong JNICALL Java_io_realm_internal_UncheckedRow_nativeGetLink
   (JNIEnv* env, jobject, jlong nativeRowPtr, jlong columnIndex)
 {
@@ -304,6 +364,45 @@ JNIEXPORT void JNICALL Java_io_realm_internal_UncheckedRow_nativeSetByteArray
     }
 }
 
+JNIEXPORT void JNICALL Java_io_realm_internal_UncheckedRow_nativeSetByteBuffer
+  (JNIEnv* env, jobject, jlong nativeRowPtr, jlong columnIndex, jobject buffer, jint position, jint length)
+{
+    TR_ENTER_PTR(nativeRowPtr)
+    if (!ROW_VALID(env, ROW(nativeRowPtr)))
+        return;
+
+    const char* data = static_cast<const char*>(env->GetDirectBufferAddress(buffer));
+    if (!data || position < 0 || length < 0 || static_cast<jlong>(position) + length > env->GetDirectBufferCapacity(buffer)) {
+        ThrowException(env, IllegalArgument, "ByteBuffer is invalid");
+        return;
+    }
+    try {
+        // Copied directly from the native memory of the buffer into the Realm.
+        ROW(nativeRowPtr)->set_binary( S(columnIndex), BinaryData(data + position, S(length)));
+    } CATCH_STD()
+}
+
+JNIEXPORT void JNICALL Java_io_realm_internal_UncheckedRow_nativeSetByteArrayRegion
+  (JNIEnv* env, jobject, jlong nativeRowPtr, jlong columnIndex, jbyteArray value, jint offset, jint length)
+{
+    TR_ENTER_PTR(nativeRowPtr)
+    if (!ROW_VALID(env, ROW(nativeRowPtr)))
+        return;
+
+    // Summed as 64 bit integers, offset + length can overflow a jint.
+    if (offset < 0 || length < 0 || static_cast<jlong>(offset) + length > env->GetArrayLength(value)) {
+        ThrowException(env, IndexOutOfBounds, "offset + length > length of the array.");
+        return;
+    }
+    try {
+        // Only the region is copied. Getting the elements of the array would copy all of it on ART, which doesn't pin
+        // arrays for GetByteArrayElements.
+        std::unique_ptr<char[]> buffer(new char[length > 0 ? length : 1]); // throws
+        env->GetByteArrayRegion(value, offset, length, reinterpret_cast<jbyte*>(buffer.get()));
+        ROW(nativeRowPtr)->set_binary( S(columnIndex), BinaryData(buffer.get(), S(length)));
+    } CATCH_STD()
+}
+
 JNIEXPORT void JNICALL Java_io_realm_internal_UncheckedRow_nativeSetLink
   (JNIEnv* env, jobject, jlong nativeRowPtr, jlong columnIndex, jlong value)
 {
@@ -335,6 +434,18 @@ JNIEXPORT void JNICALL Java_io_realm_internal_UncheckedRow_nativeClose
     delete ROW(nativeRowPtr);
 }
 
+JNIEXPORT void JNICALL Java_io_realm_internal_UncheckedRow_nativeMoveTo
+  (JNIEnv* env, jclass, jlong nativeRowPtr, jlong nativeTablePtr, jlong rowIndex)
+{
+    TR_ENTER_PTR(nativeRowPtr)
+    Table* table = TBL(nativeTablePtr);
+    if (!TABLE_VALID(env, table) || !ROW_INDEX_VALID(env, table, rowIndex))
+        return;
+
+    // Re-points the existing accessor, so no new Row is allocated.
+    *ROW(nativeRowPtr) = (*table)[S(rowIndex)]; // noexcept
+}
+
 JNIEXPORT jboolean JNICALL Java_io_realm_internal_UncheckedRow_nativeIsAttached
   (JNIEnv *, jobject, jlong nativeRowPtr)
 {
@@ -416,3 +416,40 @@ JStringAccessor::JStringAccessor(JNIEnv* env, jstring str)
     }
 }
 
+SortDescriptor get_distinct_descriptor(JNIEnv* env, const Table& table, jobjectArray column_paths)
+{
+    const jsize number_of_paths = env->GetArrayLength(column_paths);
+    if (number_of_paths == 0) {
+        throw invalid_argument("At least one field is needed for distinct.");
+    }
+    vector<vector<size_t>> columns;
+    vector<bool> ascending;
+    for (jsize i = 0; i < number_of_paths; ++i) {
+        JniLocalRef<jlongArray> path_array(env, static_cast<jlongArray>(env->GetObjectArrayElement(column_paths, i)));
+        JniLongArray path(env, path_array);
+        vector<size_t> column_path;
+        const Table* current = &table;
+        for (jsize depth = 0; depth < path.len(); ++depth) {
+            size_t column = S(path[depth]);
+            if (column >= current->get_column_count()) {
+                throw invalid_argument("Column index out of range.");
+            }
+            DataType type = current->get_column_type(column);
+            column_path.push_back(column);
+            if (depth < path.len() - 1) {
+                if (type != type_Link) {
+                    throw invalid_argument("Distinct is only supported on fields of linked objects, not of lists.");
+                }
+                current = current->get_link_target(column).get();
+            }
+            else if (type != type_Bool && type != type_Int && type != type_String && type != type_Timestamp &&
+                     type != type_Float && type != type_Double) {
+                throw invalid_argument("Invalid type - Only String, Date, boolean, byte, short, int, long, float, "
+                                       "double and their boxed variants are supported.");
+            }
+        }
+        columns.push_back(std::move(column_path));
+        ascending.push_back(true);
+    }
+    return SortDescriptor(table, columns, ascending);
+}
@@ -17,6 +17,8 @@
 #ifndef REALM_JAVA_UTIL_HPP
 #define REALM_JAVA_UTIL_HPP
 
+#include <algorithm>
+#include <limits>
 #include <string>
 #include <sstream>
 #include <memory>
@@ -715,6 +717,146 @@ inline realm::Timestamp from_milliseconds(jlong milliseconds)
     return realm::Timestamp(seconds, nanoseconds);
 }
 
+// Bulk column reads shared by Table and TableView. The values of rows [start, start + count) of a column are copied
+// into a Java array in fixed size chunks, so the Java array is never pinned while reading from the Realm.
+#define BULK_CHUNK_SIZE 256
+
+inline realm::Table& BulkSourceTable(realm::Table* table)
+{
+    return *table;
+}
+
+inline size_t BulkSourceRow(realm::Table*, size_t row)
+{
+    return row;
+}
+
+inline realm::Table& BulkSourceTable(realm::TableView* view)
+{
+    return view->get_parent();
+}
+
+inline size_t BulkSourceRow(realm::TableView* view, size_t row)
+{
+    // Rows deleted since the view was last synced are reported as null.
+    return view->is_row_attached(row) ? view->get_source_ndx(row) : realm::npos;
+}
+
+template <class T>
+inline bool BulkRangeValid(JNIEnv* env, T* tbl, jlong start, jarray dst, jint offset, jint count)
+{
+    if (start < 0 || offset < 0 || count < 0) {
+        ThrowException(env, IndexOutOfBounds, "start, offset and count must not be negative.");
+        return false;
+    }
+    if (S(start) + S(count) > tbl->size()) {
+        ThrowException(env, IndexOutOfBounds, "start + count > available rows.");
+        return false;
+    }
+    if (S(offset) + S(count) > S(env->GetArrayLength(dst))) {
+        ThrowException(env, IndexOutOfBounds, "offset + count > length of the destination array.");
+        return false;
+    }
+    return true;
+}
+
+// Null values are read as 0.
+template <class T>
+void BulkGetLongs(JNIEnv* env, T* tbl, jlong columnIndex, jlong start, jlongArray dst, jint offset, jint count)
+{
+    if (!BulkRangeValid(env, tbl, start, dst, offset, count)) {
+        return;
+    }
+    realm::Table& table = BulkSourceTable(tbl);
+    const size_t col = S(columnIndex);
+    jlong buffer[BULK_CHUNK_SIZE];
+    for (jint done = 0; done < count; ) {
+        const jint chunk = std::min(count - done, static_cast<jint>(BULK_CHUNK_SIZE));
+        for (jint i = 0; i < chunk; ++i) {
+            const size_t row = BulkSourceRow(tbl, S(start + done + i));
+            buffer[i] = (row == realm::npos || table.is_null(col, row)) ? 0 : table.get_int(col, row);
+        }
+        env->SetLongArrayRegion(dst, offset + done, chunk, buffer);
+        done += chunk;
+    }
+}
+
+// Float columns are widened to double. Null values are read as NaN.
+template <class T>
+void BulkGetDoubles(JNIEnv* env, T* tbl, jlong columnIndex, jlong start, jdoubleArray dst, jint offset, jint count)
+{
+    if (!BulkRangeValid(env, tbl, start, dst, offset, count)) {
+        return;
+    }
+    realm::Table& table = BulkSourceTable(tbl);
+    const size_t col = S(columnIndex);
+    const bool is_float = table.get_column_type(col) == realm::type_Float;
+    jdouble buffer[BULK_CHUNK_SIZE];
+    for (jint done = 0; done < count; ) {
+        const jint chunk = std::min(count - done, static_cast<jint>(BULK_CHUNK_SIZE));
+        for (jint i = 0; i < chunk; ++i) {
+            const size_t row = BulkSourceRow(tbl, S(start + done + i));
+            if (row == realm::npos || table.is_null(col, row)) {
+                buffer[i] = std::numeric_limits<jdouble>::quiet_NaN();
+            }
+            else {
+                buffer[i] = is_float ? table.get_float(col, row) : table.get_double(col, row);
+            }
+        }
+        env->SetDoubleArrayRegion(dst, offset + done, chunk, buffer);
+        done += chunk;
+    }
+}
+
+template <class T>
+void BulkGetStrings(JNIEnv* env, T* tbl, jlong columnIndex, jlong start, jobjectArray dst, jint offset, jint count)
+{
+    if (!BulkRangeValid(env, tbl, start, dst, offset, count)) {
+        return;
+    }
+    realm::Table& table = BulkSourceTable(tbl);
+    const size_t col = S(columnIndex);
+    for (jint i = 0; i < count; ++i) {
+        const size_t row = BulkSourceRow(tbl, S(start + i));
+        jstring value = (row == realm::npos) ? NULL : to_jstring(env, table.get_string(col, row));
+        if (env->ExceptionCheck()) {
+            return;
+        }
+        env->SetObjectArrayElement(dst, offset + i, value);
+        if (value != NULL) {
+            env->DeleteLocalRef(value);
+        }
+    }
+}
+
+// Bulk column writes. The Java array is read in chunks and each value is written to consecutive rows of the column,
+// starting at rowStart.
+template <class JArray, class JType, class Setter>
+void BulkSet(JNIEnv* env, realm::Table* table, jlong columnIndex, jlong rowStart, JArray values,
+             void (JNIEnv::*get_region)(JArray, jsize, jsize, JType*), Setter set)
+{
+    const jsize count = env->GetArrayLength(values);
+    if (rowStart < 0 || S(rowStart) + S(count) > table->size()) {
+        ThrowException(env, IndexOutOfBounds, "rowStart + number of values > available rows.");
+        return;
+    }
+    const size_t col = S(columnIndex);
+    JType buffer[BULK_CHUNK_SIZE];
+    for (jsize done = 0; done < count; ) {
+        const jsize chunk = std::min(count - done, static_cast<jsize>(BULK_CHUNK_SIZE));
+        (env->*get_region)(values, done, chunk, buffer);
+        for (jsize i = 0; i < chunk; ++i) {
+            set(*table, col, S(rowStart + done + i), buffer[i]);
+        }
+        done += chunk;
+    }
+}
+
+// Builds the descriptor of a distinct over column paths given as a long[][]. All but the last column of a path must be
+// links, the last one a boolean, integer, string, date, float or double column. The values are compared, so the
+// columns don't need a search index. Throws std::invalid_argument for unsupported paths.
+realm::SortDescriptor get_distinct_descriptor(JNIEnv* env, const realm::Table& table, jobjectArray column_paths);
+
 extern const std::string TABLE_PREFIX;
 
 #endif // REALM_JAVA_UTIL_HPP
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import io.realm.internal.async.LaneStats;
+
+/**
+ * Statistics of one lane of the threads running async queries and transactions, as returned by
+ * {@link Realm#getAsyncQueryStats()} and {@link Realm#getAsyncTransactionStats()}. The values are read when the
+ * statistics are requested and do not change afterwards.
+ */
+public final class AsyncLaneStats {
+    private final int queueDepth;
+    private final long submittedTaskCount;
+    private final long startedTaskCount;
+    private final long averageWaitNanos;
+    private final long maxWaitNanos;
+
+    AsyncLaneStats(LaneStats stats) {
+        this.queueDepth = stats.getQueueDepth();
+        this.submittedTaskCount = stats.getSubmittedTaskCount();
+        this.startedTaskCount = stats.getStartedTaskCount();
+        this.averageWaitNanos = stats.getAverageWaitNanos();
+        this.maxWaitNanos = stats.getMaxWaitNanos();
+    }
+
+    /**
+     * @return the number of tasks waiting in the lane.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return the number of tasks submitted to the lane since the thread pool was created.
+     */
+    public long getSubmittedTaskCount() {
+        return submittedTaskCount;
+    }
+
+    /**
+     * @return the number of tasks which started executing since the thread pool was created.
+     */
+    public long getStartedTaskCount() {
+        return startedTaskCount;
+    }
+
+    /**
+     * @return the average time in nanoseconds a task waited in the lane before it started executing.
+     */
+    public long getAverageWaitNanos() {
+        return averageWaitNanos;
+    }
+
+    /**
+     * @return the longest time in nanoseconds a task waited in the lane before it started executing.
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncLaneStats[queueDepth: " + queueDepth
+                + ", submitted: " + submittedTaskCount
+                + ", started: " + startedTaskCount
+                + ", averageWait: " + averageWaitNanos + "ns"
+                + ", maxWait: " + maxWaitNanos + "ns]";
+    }
+}
@@ -35,8 +35,10 @@ import io.realm.exceptions.RealmFileException;
 import io.realm.exceptions.RealmMigrationNeededException;
 import io.realm.internal.HandlerControllerConstants;
 import io.realm.internal.InvalidRow;
+import io.realm.internal.QueryResultCache;
 import io.realm.internal.RealmObjectProxy;
 import io.realm.internal.SharedRealm;
+import io.realm.internal.SharedRealmPool;
 import io.realm.internal.Table;
 import io.realm.internal.UncheckedRow;
 import io.realm.internal.android.DebugAndroidLogger;
@@ -66,8 +68,11 @@ abstract class BaseRealm implements Closeable {
     // Map between a Handler and the canonical path to a Realm file
     protected static final Map<Handler, String> handlers = new ConcurrentHashMap<Handler, String>();
 
-    // Thread pool for all async operations (Query & transaction)
-    static final RealmThreadPoolExecutor asyncTaskExecutor = RealmThreadPoolExecutor.newDefaultExecutor();
+    // Thread pool for all async operations (Query & transaction), replaced by Realm.setAsyncThreadPool()
+    static volatile RealmThreadPoolExecutor asyncTaskExecutor = RealmThreadPoolExecutor.newDefaultExecutor();
+    // How long file operations wait for the worker threads to close their pooled instances of the Realm, which they do
+    // once their current task is done.
+    static final long POOL_EVICTION_TIMEOUT_MILLIS = 10 * 1000;
 
     final long threadId;
     protected RealmConfiguration configuration;
@@ -497,6 +502,55 @@ abstract class BaseRealm implements Closeable {
         return sharedRealm.getSchemaVersion();
     }
 
+    /**
+     * Returns how many queries of this Realm instance were answered from the query result cache.
+     *
+     * @return the number of cache hits, always {@code 0} if the cache is disabled.
+     * @see RealmConfiguration.Builder#queryResultCache(long)
+     */
+    public long getQueryResultCacheHitCount() {
+        checkIfValid();
+        QueryResultCache cache = sharedRealm.getQueryResultCache();
+        return (cache != null) ? cache.getHitCount() : 0;
+    }
+
+    /**
+     * Returns how many queries of this Realm instance could have been, but were not, answered from the query result
+     * cache.
+     *
+     * @return the number of cache misses, always {@code 0} if the cache is disabled.
+     * @see RealmConfiguration.Builder#queryResultCache(long)
+     */
+    public long getQueryResultCacheMissCount() {
+        checkIfValid();
+        QueryResultCache cache = sharedRealm.getQueryResultCache();
+        return (cache != null) ? cache.getMissCount() : 0;
+    }
+
+    /**
+     * Returns how many change events of this Realm instance were merged into another notification because they arrived
+     * within the notification coalescing window.
+     *
+     * @return the number of merged changes, always {@code 0} if no coalescing window is configured.
+     * @see RealmConfiguration.Builder#notificationCoalescingWindow(long, java.util.concurrent.TimeUnit)
+     */
+    public long getMergedChangeCount() {
+        checkIfValid();
+        return handlerController.getMergedChangeCount();
+    }
+
+    /**
+     * Returns how many change notifications were delivered to this Realm instance while a notification coalescing
+     * window was configured.
+     *
+     * @return the number of delivered notifications, always {@code 0} if no coalescing window is configured.
+     * @see RealmConfiguration.Builder#notificationCoalescingWindow(long, java.util.concurrent.TimeUnit)
+     */
+    public long getDeliveredChangeCount() {
+        checkIfValid();
+        return handlerController.getDeliveredChangeCount();
+    }
+
     /**
      * Closes the Realm instance and all its resources.
      * <p>
@@ -663,6 +717,10 @@ abstract class BaseRealm implements Closeable {
                     throw new IllegalStateException("It's not allowed to delete the file associated with an open Realm. " +
                             "Remember to close() all the instances of the Realm before deleting its file: " + configuration.getPath());
                 }
+                if (!SharedRealmPool.evict(configuration.getPath(), POOL_EVICTION_TIMEOUT_MILLIS)) {
+                    throw new IllegalStateException("It's not allowed to delete the file associated with a Realm " +
+                            "which is still used by an async task: " + configuration.getPath());
+                }
 
                 String canonicalPath = configuration.getPath();
                 File realmFolder = configuration.getRealmDirectory();
@@ -691,13 +749,32 @@ abstract class BaseRealm implements Closeable {
      * Compacts the Realm file defined by the given configuration.
      *
      * @param configuration configuration for the Realm to compact.
-     * @throws IllegalArgumentException if Realm is encrypted.
      * @return {@code true} if compaction succeeded, {@code false} otherwise.
      */
     static boolean compactRealm(final RealmConfiguration configuration) {
-        // FIXME: Move this check to OS?
         if (configuration.getEncryptionKey() != null) {
-            throw new IllegalArgumentException("Cannot currently compact an encrypted Realm.");
+            // Encrypted files are compacted through a copy, which doesn't check for other open instances like the
+            // compaction of core does.
+            final AtomicBoolean compacted = new AtomicBoolean(false);
+            RealmCache.invokeWithGlobalRefCount(configuration, new RealmCache.Callback() {
+                @Override
+                public void onResult(int count) {
+                    if (count != 0) {
+                        RealmLog.w("Cannot compact " + configuration.getPath() + " while it is open.");
+                        return;
+                    }
+                    if (!SharedRealmPool.evict(configuration.getPath(), POOL_EVICTION_TIMEOUT_MILLIS)) {
+                        RealmLog.w("Cannot compact " + configuration.getPath() + " while it is used by an async task.");
+                        return;
+                    }
+                    compacted.set(compactEncrypted(configuration));
+                }
+            });
+            return compacted.get();
+        }
+        if (!SharedRealmPool.evict(configuration.getPath(), POOL_EVICTION_TIMEOUT_MILLIS)) {
+            RealmLog.w("Cannot compact " + configuration.getPath() + " while it is used by an async task.");
+            return false;
         }
         SharedRealm sharedRealm = SharedRealm.getInstance(configuration);
         Boolean result = sharedRealm.compact();
@@ -705,6 +782,88 @@ abstract class BaseRealm implements Closeable {
         return result;
     }
 
+    /**
+     * Compacts an encrypted Realm file by writing an encrypted copy of it next to it, which then replaces it with an
+     * atomic rename. Must only be called while no instance of the Realm is open in this process and the path lock of
+     * {@link RealmCache} is held, so none can be opened meanwhile. The copy is written by a session of its own, which
+     * is closed before the rename: with no session left, nothing maps the old file anymore, and the next session
+     * initializes the lock file again from the new one. Realm doesn't support accessing a file from several
+     * processes, and core refuses to share an encrypted file between them, so the copy fails if another process has
+     * the file open.
+     *
+     * @param configuration configuration of the Realm.
+     * @return {@code true} if the file was replaced by the compacted copy, {@code false} if it is left untouched.
+     */
+    private static boolean compactEncrypted(RealmConfiguration configuration) {
+        File realmFile = new File(configuration.getPath());
+        File compactedFile = new File(configuration.getPath() + ".compacted");
+        if (compactedFile.exists() && !compactedFile.delete()) {
+            RealmLog.w("Cannot delete the leftover compacted copy " + compactedFile.getPath() + ".");
+            return false;
+        }
+        SharedRealm sharedRealm = SharedRealm.getInstance(configuration);
+        try {
+            sharedRealm.writeCopy(compactedFile, configuration.getEncryptionKey());
+        } catch (RealmFileException e) {
+            RealmLog.w("Writing the compacted copy of " + configuration.getPath() + " failed: " + e.getMessage());
+            //noinspection ResultOfMethodCallIgnored
+            compactedFile.delete();
+            return false;
+        } finally {
+            sharedRealm.close();
+        }
+        if (!compactedFile.renameTo(realmFile)) {
+            RealmLog.w("Replacing " + configuration.getPath() + " by its compacted copy failed.");
+            //noinspection ResultOfMethodCallIgnored
+            compactedFile.delete();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compacts the Realm file defined by the given configuration if its
+     * {@link RealmConfiguration#getCompactOnLaunchCallback()} asks for it. Must only be called while no instance of
+     * the Realm is open in this process and the path lock of {@link RealmCache} is held.
+     *
+     * @param configuration configuration for the Realm about to be opened.
+     */
+    static void compactOnLaunchIfNeeded(final RealmConfiguration configuration) {
+        CompactOnLaunchCallback compactOnLaunch = configuration.getCompactOnLaunchCallback();
+        if (compactOnLaunch == null || configuration.getDurability() == SharedRealm.Durability.MEM_ONLY) {
+            return;
+        }
+        File realmFile = new File(configuration.getPath());
+        if (!realmFile.exists()) {
+            return;
+        }
+
+        if (!SharedRealmPool.evict(configuration.getPath(), POOL_EVICTION_TIMEOUT_MILLIS)) {
+            RealmLog.w("Skipping compaction of " + configuration.getPath() + " on launch, it is still used by an " +
+                    "async task.");
+            return;
+        }
+        boolean needsEncryptedCopy = false;
+        SharedRealm sharedRealm = SharedRealm.getInstance(configuration);
+        try {
+            if (!compactOnLaunch.shouldCompact(realmFile.length(), sharedRealm.getUsedBytes())) {
+                return;
+            }
+            if (configuration.getEncryptionKey() != null) {
+                // The copy must be made once this session is closed.
+                needsEncryptedCopy = true;
+            } else if (!sharedRealm.compact()) {
+                // Another process has the file open, it will be compacted on a later launch.
+                RealmLog.w("Compacting " + configuration.getPath() + " on launch failed.");
+            }
+        } finally {
+            sharedRealm.close();
+        }
+        if (needsEncryptedCopy && !compactEncrypted(configuration)) {
+            RealmLog.w("Compacting " + configuration.getPath() + " on launch failed.");
+        }
+    }
+
     /**
      * Migrates the Realm file defined by the given configuration using the provided migration block.
      *
@@ -731,6 +890,10 @@ abstract class BaseRealm implements Closeable {
                     throw new IllegalStateException("Cannot migrate a Realm file that is already open: "
                             + configuration.getPath());
                 }
+                if (!SharedRealmPool.evict(configuration.getPath(), POOL_EVICTION_TIMEOUT_MILLIS)) {
+                    throw new IllegalStateException("Cannot migrate a Realm file which is still used by an async " +
+                            "task: " + configuration.getPath());
+                }
 
                 File realmFile = new File(configuration.getPath());
                 if (!realmFile.exists()) {
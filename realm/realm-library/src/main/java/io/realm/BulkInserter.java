@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.realm.internal.Table;
+
+/**
+ * Inserts many objects of the same class column by column. Instead of one JNI call per field of every object, as done
+ * by {@link Realm#insert(java.util.Collection)}, each field is written for all objects with a single JNI call, which
+ * makes it the fastest way to import large amounts of primitive data.
+ * <p>
+ * Values are given as one array per field, with one element per object. Fields that are not set keep their default
+ * value. Only integer, boolean, float, double and String fields are supported, and classes with a primary key cannot
+ * be inserted this way since uniqueness would have to be checked row by row.
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * realm.beginTransaction();
+ * realm.bulkInsert(Person.class, ages.length)
+ *      .setLongs("age", ages)
+ *      .setStrings("name", names)
+ *      .insert();
+ * realm.commitTransaction();
+ * }
+ * </pre>
+ *
+ * @param <E> the class of the objects to insert.
+ * @see Realm#bulkInsert(Class, int)
+ */
+public final class BulkInserter<E extends RealmModel> {
+
+    private static final String TYPE_MISMATCH = "Field '%s': type mismatch - %s expected.";
+
+    private final Realm realm;
+    private final Table table;
+    private final int rowCount;
+    // Values by column index, in the order they were set
+    private final Map<Long, Object> columns = new LinkedHashMap<Long, Object>();
+
+    BulkInserter(Realm realm, Class<E> clazz, int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("Row count must not be negative: " + rowCount);
+        }
+        this.realm = realm;
+        this.table = realm.getTable(clazz);
+        if (table.hasPrimaryKey()) {
+            throw new IllegalArgumentException("Bulk insert is not supported for classes with a primary key: "
+                    + clazz.getSimpleName());
+        }
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Sets the values of an integer field ({@code long}, {@code int}, {@code short} or {@code byte}). Values are not
+     * range checked against the type of the field.
+     *
+     * @param fieldName the name of the field.
+     * @param values one value per object.
+     * @return this inserter.
+     * @throws IllegalArgumentException if the field is not an integer field or the number of values is wrong.
+     */
+    public BulkInserter<E> setLongs(String fieldName, long[] values) {
+        return setColumn(fieldName, RealmFieldType.INTEGER, "int", values, values == null ? -1 : values.length);
+    }
+
+    /**
+     * Sets the values of a boolean field.
+     *
+     * @param fieldName the name of the field.
+     * @param values one value per object.
+     * @return this inserter.
+     * @throws IllegalArgumentException if the field is not a boolean field or the number of values is wrong.
+     */
+    public BulkInserter<E> setBooleans(String fieldName, boolean[] values) {
+        return setColumn(fieldName, RealmFieldType.BOOLEAN, "boolean", values, values == null ? -1 : values.length);
+    }
+
+    /**
+     * Sets the values of a float field.
+     *
+     * @param fieldName the name of the field.
+     * @param values one value per object.
+     * @return this inserter.
+     * @throws IllegalArgumentException if the field is not a float field or the number of values is wrong.
+     */
+    public BulkInserter<E> setFloats(String fieldName, float[] values) {
+        return setColumn(fieldName, RealmFieldType.FLOAT, "float", values, values == null ? -1 : values.length);
+    }
+
+    /**
+     * Sets the values of a double field.
+     *
+     * @param fieldName the name of the field.
+     * @param values one value per object.
+     * @return this inserter.
+     * @throws IllegalArgumentException if the field is not a double field or the number of values is wrong.
+     */
+    public BulkInserter<E> setDoubles(String fieldName, double[] values) {
+        return setColumn(fieldName, RealmFieldType.DOUBLE, "double", values, values == null ? -1 : values.length);
+    }
+
+    /**
+     * Sets the values of a String field. {@code null} elements are only allowed if the field is nullable.
+     *
+     * @param fieldName the name of the field.
+     * @param values one value per object.
+     * @return this inserter.
+     * @throws IllegalArgumentException if the field is not a String field or the number of values is wrong.
+     */
+    public BulkInserter<E> setStrings(String fieldName, String[] values) {
+        return setColumn(fieldName, RealmFieldType.STRING, "String", values, values == null ? -1 : values.length);
+    }
+
+    /**
+     * Adds the objects to the Realm. The inserter must not be used afterwards.
+     *
+     * @throws IllegalStateException if the Realm is closed, called from an incorrect thread or not in a transaction.
+     * @throws IllegalArgumentException if a {@code null} value was given for a required String field. The rows added
+     * so far are only removed if the transaction is cancelled.
+     */
+    public void insert() {
+        realm.checkIfValidAndInTransaction();
+        if (rowCount == 0) {
+            return;
+        }
+        long rowStart = table.addEmptyRows(rowCount);
+        for (Map.Entry<Long, Object> column : columns.entrySet()) {
+            long columnIndex = column.getKey();
+            Object values = column.getValue();
+            if (values instanceof long[]) {
+                table.setLongs(columnIndex, rowStart, (long[]) values);
+            } else if (values instanceof boolean[]) {
+                table.setBooleans(columnIndex, rowStart, (boolean[]) values);
+            } else if (values instanceof float[]) {
+                table.setFloats(columnIndex, rowStart, (float[]) values);
+            } else if (values instanceof double[]) {
+                table.setDoubles(columnIndex, rowStart, (double[]) values);
+            } else {
+                table.setStrings(columnIndex, rowStart, (String[]) values);
+            }
+        }
+    }
+
+    private BulkInserter<E> setColumn(String fieldName, RealmFieldType type, String typeName, Object values,
+                                      int length) {
+        if (fieldName == null || fieldName.isEmpty()) {
+            throw new IllegalArgumentException("Non-empty field name required.");
+        }
+        long columnIndex = table.getColumnIndex(fieldName);
+        if (columnIndex < 0) {
+            throw new IllegalArgumentException(String.format("Field '%s' does not exist.", fieldName));
+        }
+        if (table.getColumnType(columnIndex) != type) {
+            throw new IllegalArgumentException(String.format(TYPE_MISMATCH, fieldName, typeName));
+        }
+        if (length != rowCount) {
+            throw new IllegalArgumentException(String.format("Field '%s': %d values expected, got %s.", fieldName,
+                    rowCount, length < 0 ? "null" : Integer.toString(length)));
+        }
+        columns.put(columnIndex, values);
+        return this;
+    }
+}
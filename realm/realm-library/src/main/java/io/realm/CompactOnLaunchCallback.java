@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+/**
+ * This interface is used to determine if a Realm file should be compacted when it is opened while no instance of it
+ * is open in this process, before the instance is returned. This happens every time the Realm is opened after all of
+ * its instances have been closed, not only the first time.
+ * <p>
+ * Compaction rewrites the file without its free space, which takes time proportional to the size of the live data.
+ * Realm files grow to hold the versions which are kept alive while other threads read old versions, and never shrink
+ * on their own, so long-lived processes writing a lot may want to compact regularly.
+ *
+ * @see RealmConfiguration.Builder#compactOnLaunch(CompactOnLaunchCallback)
+ * @see DefaultCompactOnLaunchCallback
+ */
+public interface CompactOnLaunchCallback {
+
+    /**
+     * Decides if the Realm file should be compacted. This is called on the thread opening the Realm, while no other
+     * instance of the Realm is open in the process.
+     *
+     * @param totalBytes the size of the Realm file in bytes.
+     * @param usedBytes the bytes used by the data of the latest version, the rest of the file is free space.
+     * @return {@code true} to compact the file, {@code false} otherwise.
+     */
+    boolean shouldCompact(long totalBytes, long usedBytes);
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+/**
+ * The default {@link CompactOnLaunchCallback} used by {@link RealmConfiguration.Builder#compactOnLaunch()}. It
+ * compacts files larger than 50 MB when less than half of the file holds data, so small files are never rewritten and
+ * a file is only rewritten when it at least halves in size.
+ */
+public class DefaultCompactOnLaunchCallback implements CompactOnLaunchCallback {
+
+    private static final long THRESHOLD_SIZE = 50 * 1024 * 1024;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean shouldCompact(long totalBytes, long usedBytes) {
+        return totalBytes > THRESHOLD_SIZE && (double) usedBytes / totalBytes < 0.5;
+    }
+}
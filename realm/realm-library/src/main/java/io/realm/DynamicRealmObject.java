@@ -15,6 +15,7 @@
  */
 package io.realm;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
@@ -233,6 +234,40 @@ public final class DynamicRealmObject extends RealmObject implements RealmObject
         return proxyState.getRow$realm().getBinaryByteArray(columnIndex);
     }
 
+    /**
+     * Returns the size in bytes of the binary value of a given field.
+     *
+     * @param fieldName the name of the field.
+     * @return the size of the value, or {@code -1} if the value is {@code null}.
+     * @throws IllegalArgumentException if field name doesn't exist or it doesn't contain binary data.
+     */
+    public long getBlobSize(String fieldName) {
+        long columnIndex = proxyState.getRow$realm().getColumnIndex(fieldName);
+        checkFieldType(fieldName, columnIndex, RealmFieldType.BINARY);
+        return proxyState.getRow$realm().getBinarySize(columnIndex);
+    }
+
+    /**
+     * Copies the binary value of a given field into the given buffer, see
+     * {@link RealmObject#getBlobBuffer(RealmModel, String, ByteBuffer)}.
+     *
+     * @param fieldName the name of the field.
+     * @param destination the buffer to copy the value into.
+     * @return the size of the value, or {@code -1} if the value is {@code null}.
+     * @throws IllegalArgumentException if field name doesn't exist, it doesn't contain binary data or
+     *         {@code destination} is {@code null}.
+     * @throws java.nio.BufferOverflowException if the value is larger than the remaining bytes of {@code destination}.
+     * @throws java.nio.ReadOnlyBufferException if {@code destination} is read-only.
+     */
+    public long getBlobBuffer(String fieldName, ByteBuffer destination) {
+        long columnIndex = proxyState.getRow$realm().getColumnIndex(fieldName);
+        checkFieldType(fieldName, columnIndex, RealmFieldType.BINARY);
+        if (destination == null) {
+            throw new IllegalArgumentException("Non-null 'destination' required.");
+        }
+        return proxyState.getRow$realm().getBinaryByteBuffer(columnIndex, destination);
+    }
+
     /**
      * Returns the {@code String} value for a given field.
      *
@@ -535,6 +570,20 @@ public final class DynamicRealmObject extends RealmObject implements RealmObject
         proxyState.getRow$realm().setBinaryByteArray(columnIndex, value);
     }
 
+    /**
+     * Sets the binary value of the given field from the remaining bytes of a buffer. Direct buffers are copied into
+     * the Realm without an intermediate {@code byte[]}.
+     *
+     * @param fieldName field name.
+     * @param value value to insert.
+     * @throws IllegalArgumentException if field name doesn't exist or field isn't a binary field.
+     */
+    public void setBlobBuffer(String fieldName, ByteBuffer value) {
+        long columnIndex = proxyState.getRow$realm().getColumnIndex(fieldName);
+        checkFieldType(fieldName, columnIndex, RealmFieldType.BINARY);
+        proxyState.getRow$realm().setBinaryByteBuffer(columnIndex, value);
+    }
+
     /**
      * Sets the {@code Date} value of the given field.
      *
@@ -19,6 +19,7 @@ package io.realm;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
@@ -63,12 +64,16 @@ final class HandlerController implements Handler.Callback {
 
     // pending update of async queries
     private Future updateAsyncQueriesTask;
+    // pending update of the loaded async aggregates after a local commit
+    private Future updateAsyncAggregatesTask;
 
     private final ReferenceQueue<RealmResults<? extends RealmModel>> referenceQueueAsyncRealmResults =
             new ReferenceQueue<RealmResults<? extends RealmModel>>();
     private final ReferenceQueue<RealmResults<? extends RealmModel>> referenceQueueSyncRealmResults =
             new ReferenceQueue<RealmResults<? extends RealmModel>>();
     final ReferenceQueue<RealmModel> referenceQueueRealmObject = new ReferenceQueue<RealmModel>();
+    private final ReferenceQueue<RealmAsyncAggregate<?>> referenceQueueAsyncAggregates =
+            new ReferenceQueue<RealmAsyncAggregate<?>>();
     // keep a WeakReference list to RealmResults obtained asynchronously in order to update them
     // RealmQuery is not WeakReferenced to prevent it from being GC'd. RealmQuery should be
     // cleaned if RealmResults is cleaned. we need to keep RealmQuery because it contains the query
@@ -76,6 +81,10 @@ final class HandlerController implements Handler.Callback {
     // sorting orders, soring columns, type (findAll, findFirst, findAllSorted etc.)
     final Map<WeakReference<RealmResults<? extends RealmModel>>, RealmQuery<? extends RealmModel>> asyncRealmResults =
             new IdentityHashMap<WeakReference<RealmResults<? extends RealmModel>>, RealmQuery<? extends RealmModel>>();
+    // Keep a WeakReference to the aggregates obtained asynchronously in order to update them, together with the
+    // RealmQuery which is needed to rerun them like for asyncRealmResults.
+    final Map<WeakReference<RealmAsyncAggregate<?>>, RealmQuery<? extends RealmModel>> asyncAggregates =
+            new IdentityHashMap<WeakReference<RealmAsyncAggregate<?>>, RealmQuery<? extends RealmModel>>();
     // Keep a WeakReference to the currently empty RealmObjects obtained asynchronously. We need to keep re-running
     // the query in the background for each commit, until we got a valid Row (pointer)
     final Map<WeakReference<RealmObjectProxy>, RealmQuery<? extends RealmModel>> emptyAsyncRealmObject =
@@ -98,6 +107,15 @@ final class HandlerController implements Handler.Callback {
     // before we are ready to notify all of them.
     private final List<Runnable> pendingOnSuccessAsyncTransactionCallbacks = new ArrayList<Runnable>();
 
+    // State used to coalesce change notifications, see RealmConfiguration.Builder#notificationCoalescingWindow().
+    // All of it is only accessed from the thread owning the Realm.
+    private boolean coalescedChangePending;
+    private boolean coalescedChangeIsLocalCommit;
+    private long lastChangeDeliveredAt = -1;
+    private long mergedChangeCount;
+    private long pendingMergedChangeCount;
+    private long deliveredChangeCount;
+
     public HandlerController(BaseRealm realm) {
         this.realm = realm;
     }
@@ -115,7 +133,11 @@ final class HandlerController implements Handler.Callback {
 
                 case HandlerControllerConstants.LOCAL_COMMIT:
                 case HandlerControllerConstants.REALM_CHANGED:
-                    realmChanged(message.what == HandlerControllerConstants.LOCAL_COMMIT);
+                    scheduleRealmChanged(message.what == HandlerControllerConstants.LOCAL_COMMIT);
+                    break;
+
+                case HandlerControllerConstants.COALESCED_REALM_CHANGED:
+                    deliverCoalescedRealmChanged();
                     break;
 
                 case HandlerControllerConstants.COMPLETED_ASYNC_REALM_RESULTS:
@@ -128,6 +150,16 @@ final class HandlerController implements Handler.Callback {
                     completedAsyncRealmObject(result);
                     break;
 
+                case HandlerControllerConstants.COMPLETED_ASYNC_AGGREGATE:
+                    result = (QueryUpdateTask.Result) message.obj;
+                    completedAsyncAggregate(result);
+                    break;
+
+                case HandlerControllerConstants.COMPLETED_UPDATE_ASYNC_AGGREGATES:
+                    result = (QueryUpdateTask.Result) message.obj;
+                    completedAsyncAggregatesUpdate(result);
+                    break;
+
                 case HandlerControllerConstants.COMPLETED_UPDATE_ASYNC_QUERIES:
                     // this is called once the background thread completed the update of the async queries
                     result = (QueryUpdateTask.Result) message.obj;
@@ -161,7 +193,7 @@ final class HandlerController implements Handler.Callback {
             if (onSuccess != null) {
                 pendingOnSuccessAsyncTransactionCallbacks.add(onSuccess);
             }
-            realmChanged(false);
+            scheduleRealmChanged(false);
         }
     }
 
@@ -383,7 +415,10 @@ final class HandlerController implements Handler.Callback {
             Realm.asyncTaskExecutor.getQueue().remove(updateAsyncQueriesTask);
             RealmLog.d("REALM_CHANGED realm:" + HandlerController.this + " cancelling pending COMPLETED_UPDATE_ASYNC_QUERIES updates");
         }
-        RealmLog.d("REALM_CHANGED realm:"+ HandlerController.this + " updating async queries, total: " + asyncRealmResults.size());
+        // the batch below includes all async aggregates
+        cancelAsyncAggregatesUpdate();
+        RealmLog.d("REALM_CHANGED realm:"+ HandlerController.this + " updating async queries, total: "
+                + (asyncRealmResults.size() + asyncAggregates.size()));
         // prepare a QueryUpdateTask to current async queries in this thread
         QueryUpdateTask.Builder.UpdateQueryStep updateQueryStep = QueryUpdateTask.newBuilder()
                 .realmConfiguration(realm.getConfiguration());
@@ -402,7 +437,9 @@ final class HandlerController implements Handler.Callback {
             } else {
                 realmResultsQueryStep = updateQueryStep.add(weakReference,
                         entry.getValue().handoverQueryPointer(),
-                        entry.getValue().getArgument());
+                        entry.getValue().getArgument(),
+                        realmResults.hasCollectionChangeListeners(),
+                        realmResults.getCollectionSnapshot());
             }
 
             // Note: we're passing an WeakRef of a RealmResults to another thread
@@ -413,6 +450,19 @@ final class HandlerController implements Handler.Callback {
             //       watch out when you debug, as you're IDE try to evaluate RealmResults
             //       which break the Thread confinement constraints.
         }
+        // the async aggregates are re-evaluated in the same batch, against the same version
+        Iterator<Map.Entry<WeakReference<RealmAsyncAggregate<?>>, RealmQuery<?>>> aggregatesIterator =
+                asyncAggregates.entrySet().iterator();
+        while (aggregatesIterator.hasNext()) {
+            Map.Entry<WeakReference<RealmAsyncAggregate<?>>, RealmQuery<?>> entry = aggregatesIterator.next();
+            if (entry.getKey().get() == null) {
+                aggregatesIterator.remove();
+            } else {
+                realmResultsQueryStep = updateQueryStep.addAggregate(entry.getKey(),
+                        entry.getValue().handoverQueryPointer(),
+                        entry.getValue().getArgument());
+            }
+        }
         if (realmResultsQueryStep != null) {
             QueryUpdateTask queryUpdateTask = realmResultsQueryStep
                     .sendToHandler(realm.handler, HandlerControllerConstants.COMPLETED_UPDATE_ASYNC_QUERIES)
@@ -421,6 +471,79 @@ final class HandlerController implements Handler.Callback {
         }
     }
 
+    /**
+     * Handles a change to the Realm, merging it with other changes if the Realm is configured with a notification
+     * coalescing window. The first change after a quiet period is delivered right away. Changes arriving within the
+     * window after that are collapsed into a single delivery at the end of the window, so at most one refresh and one
+     * {@link QueryUpdateTask} are done per window no matter how many commits happened in between.
+     *
+     * @param localCommit {@code true} if the change was caused by a commit on this thread.
+     */
+    private void scheduleRealmChanged(boolean localCommit) {
+        final long window = realm.getConfiguration().getNotificationCoalescingWindow();
+        if (window <= 0 || realm.handler == null) {
+            realmChanged(localCommit);
+            return;
+        }
+
+        // The scheduled delivery is dropped if the handler was reset in between, e.g. by toggling auto-refresh.
+        if (coalescedChangePending && !realm.handler.hasMessages(HandlerControllerConstants.COALESCED_REALM_CHANGED)) {
+            coalescedChangePending = false;
+            localCommit |= coalescedChangeIsLocalCommit;
+        }
+
+        if (coalescedChangePending) {
+            // A delivery is already scheduled and will pick up this change as well.
+            coalescedChangeIsLocalCommit |= localCommit;
+            mergedChangeCount++;
+            pendingMergedChangeCount++;
+            return;
+        }
+
+        final long now = SystemClock.uptimeMillis();
+        final long nextDeliveryAt = lastChangeDeliveredAt + window;
+        if (lastChangeDeliveredAt < 0 || now >= nextDeliveryAt) {
+            lastChangeDeliveredAt = now;
+            deliveredChangeCount++;
+            realmChanged(localCommit);
+        } else {
+            coalescedChangePending = true;
+            coalescedChangeIsLocalCommit = localCommit;
+            realm.handler.sendEmptyMessageAtTime(HandlerControllerConstants.COALESCED_REALM_CHANGED, nextDeliveryAt);
+        }
+    }
+
+    private void deliverCoalescedRealmChanged() {
+        if (!coalescedChangePending) {
+            return;
+        }
+        boolean localCommit = coalescedChangeIsLocalCommit;
+        coalescedChangePending = false;
+        coalescedChangeIsLocalCommit = false;
+        lastChangeDeliveredAt = SystemClock.uptimeMillis();
+        deliveredChangeCount++;
+        RealmLog.d("COALESCED_REALM_CHANGED realm:" + HandlerController.this + " merged " + pendingMergedChangeCount
+                + " change(s) into one notification");
+        pendingMergedChangeCount = 0;
+        realmChanged(localCommit);
+    }
+
+    /**
+     * Returns the number of change events that were merged into another notification because they arrived within
+     * the notification coalescing window.
+     */
+    long getMergedChangeCount() {
+        return mergedChangeCount;
+    }
+
+    /**
+     * Returns the number of change notifications actually delivered while a notification coalescing window was
+     * configured.
+     */
+    long getDeliveredChangeCount() {
+        return deliveredChangeCount;
+    }
+
     private void realmChanged(boolean localCommit) {
         RealmLog.d((localCommit ? "LOCAL_COMMIT" : "REALM_CHANGED") + " : realm:" + HandlerController.this);
         deleteWeakReferences();
@@ -447,6 +570,7 @@ final class HandlerController implements Handler.Callback {
             List<RealmResults<? extends RealmModel>> resultsToBeNotified = new ArrayList<RealmResults<? extends RealmModel>>();
             collectAsyncRealmResultsCallbacks(resultsToBeNotified);
             collectSyncRealmResultsCallbacks(resultsToBeNotified);
+            updateAsyncAggregates();
             notifyAllListeners(resultsToBeNotified);
         }
     }
@@ -471,6 +595,7 @@ final class HandlerController implements Handler.Callback {
                         RealmLog.d("[COMPLETED_ASYNC_REALM_RESULTS "+ weakRealmResults + "] , realm:"+ HandlerController.this + " same versions, using results (RealmResults is not loaded)");
                         // swap pointer
                         realmResults.swapTableViewPointer(result.updatedTableViews.get(weakRealmResults));
+                        updateCollectionSnapshot(realmResults, weakRealmResults, result);
                         // notify callbacks
                         realmResults.syncIfNeeded();
                         realmResults.notifyChangeListeners(false);
@@ -497,7 +622,9 @@ final class HandlerController implements Handler.Callback {
                                 .realmConfiguration(realm.getConfiguration())
                                 .add(weakRealmResults,
                                         query.handoverQueryPointer(),
-                                        query.getArgument())
+                                        query.getArgument(),
+                                        realmResults.hasCollectionChangeListeners(),
+                                        null)
                                 .sendToHandler(realm.handler, HandlerControllerConstants.COMPLETED_ASYNC_REALM_RESULTS)
                                 .build();
 
@@ -564,6 +691,7 @@ final class HandlerController implements Handler.Callback {
                 } else {
                     // update the instance with the new pointer
                     realmResults.swapTableViewPointer(query.getValue());
+                    updateCollectionSnapshot(realmResults, weakRealmResults, result);
                     realmResults.syncIfNeeded();
                     resultsToBeNotified.add(realmResults);
 
@@ -572,6 +700,19 @@ final class HandlerController implements Handler.Callback {
             }
             collectSyncRealmResultsCallbacks(resultsToBeNotified);
 
+            List<RealmAsyncAggregate<?>> aggregatesToBeNotified =
+                    new ArrayList<RealmAsyncAggregate<?>>(result.updatedAggregates.size());
+            for (Map.Entry<WeakReference<RealmAsyncAggregate<?>>, Object> entry : result.updatedAggregates.entrySet()) {
+                RealmAsyncAggregate<?> aggregate = entry.getKey().get();
+                if (aggregate == null) {
+                    asyncAggregates.remove(entry.getKey());
+                } else {
+                    aggregate.setValue(entry.getValue());
+                    aggregatesToBeNotified.add(aggregate);
+                }
+            }
+            notifyAsyncAggregates(aggregatesToBeNotified);
+
             // We need to notify all listeners, since the original REALM_CHANGE
             // was delayed/swallowed in order to be able to update the async queries.
             notifyAllListeners(resultsToBeNotified);
@@ -580,6 +721,18 @@ final class HandlerController implements Handler.Callback {
         }
     }
 
+    // Hands the snapshot and change set computed by the worker thread to the RealmResults, they will be delivered
+    // with the next notification.
+    private void updateCollectionSnapshot(RealmResults<? extends RealmModel> realmResults,
+                                          WeakReference<RealmResults<? extends RealmModel>> weakRealmResults,
+                                          QueryUpdateTask.Result result) {
+        long[] snapshot = result.snapshots.get(weakRealmResults);
+        if (snapshot != null) {
+            realmResults.setCollectionSnapshot(result.previousSnapshots.get(weakRealmResults), snapshot,
+                    result.changeSets.get(weakRealmResults));
+        }
+    }
+
     /**
      * Trigger onSuccess for all completed async transaction.
      * <p>
@@ -594,6 +747,115 @@ final class HandlerController implements Handler.Callback {
         }
     }
 
+    private void completedAsyncAggregate(QueryUpdateTask.Result result) {
+        Set<WeakReference<RealmAsyncAggregate<?>>> updatedAggregatesKeys = result.updatedAggregates.keySet();
+        if (updatedAggregatesKeys.size() > 0) {
+            WeakReference<RealmAsyncAggregate<?>> weakAggregate = updatedAggregatesKeys.iterator().next();
+
+            RealmAsyncAggregate<?> aggregate = weakAggregate.get();
+            if (aggregate == null) {
+                asyncAggregates.remove(weakAggregate);
+                RealmLog.d("[COMPLETED_ASYNC_AGGREGATE " + weakAggregate + "] realm:" + HandlerController.this + " RealmAsyncAggregate GC'd ignore results");
+                return;
+            }
+
+            // Same use cases as completedAsyncRealmResults: the value is only used if it was computed against the
+            // version of the caller and nothing updated the aggregate in the meantime. If the caller is more
+            // advanced, the aggregate is rerun unless it was loaded by a batch update or load(). If the caller is
+            // behind, the batch update triggered by the next REALM_CHANGED will include this aggregate.
+            SharedRealm.VersionID callerVersionID = realm.sharedRealm.getVersionID();
+            int compare = callerVersionID.compareTo(result.versionID);
+            if (aggregate.isLoaded()) {
+                RealmLog.d("[COMPLETED_ASYNC_AGGREGATE " + weakAggregate + "] , realm:" + HandlerController.this + " ignoring result the RealmAsyncAggregate is already loaded");
+
+            } else if (compare == 0) {
+                aggregate.setValue(result.updatedAggregates.get(weakAggregate));
+                aggregate.notifyChangeListeners();
+
+            } else if (compare > 0) {
+                RealmLog.d("[COMPLETED_ASYNC_AGGREGATE " + weakAggregate + "] , realm:" + HandlerController.this + " caller is more advanced & RealmAsyncAggregate is not loaded, rerunning the query against the latest version");
+                RealmQuery<?> query = asyncAggregates.get(weakAggregate);
+                QueryUpdateTask queryUpdateTask = QueryUpdateTask.newBuilder()
+                        .realmConfiguration(realm.getConfiguration())
+                        .addAggregate(weakAggregate,
+                                query.handoverQueryPointer(),
+                                query.getArgument())
+                        .sendToHandler(realm.handler, HandlerControllerConstants.COMPLETED_ASYNC_AGGREGATE)
+                        .build();
+                aggregate.setPendingTask(Realm.asyncTaskExecutor.submitQueryUpdate(queryUpdateTask));
+
+            } else {
+                RealmLog.d("[COMPLETED_ASYNC_AGGREGATE " + weakAggregate + "] , realm:" + HandlerController.this + " caller thread behind worker thread, ignore results (a batch update will update everything including this query)");
+            }
+        }
+    }
+
+    // Reruns the loaded async aggregates on a worker thread after a local commit. Unlike async RealmResults they are
+    // not converted to synchronous queries, they keep their previous value until the result arrives.
+    private void updateAsyncAggregates() {
+        cancelAsyncAggregatesUpdate();
+        QueryUpdateTask.Builder.UpdateQueryStep updateQueryStep = QueryUpdateTask.newBuilder()
+                .realmConfiguration(realm.getConfiguration());
+        QueryUpdateTask.Builder.RealmResultsQueryStep realmResultsQueryStep = null;
+        Iterator<Map.Entry<WeakReference<RealmAsyncAggregate<?>>, RealmQuery<?>>> iterator =
+                asyncAggregates.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<WeakReference<RealmAsyncAggregate<?>>, RealmQuery<?>> entry = iterator.next();
+            RealmAsyncAggregate<?> aggregate = entry.getKey().get();
+            if (aggregate == null) {
+                iterator.remove();
+            } else if (aggregate.isLoaded()) {
+                // aggregates which are not loaded yet are rerun when their own result arrives
+                realmResultsQueryStep = updateQueryStep.addAggregate(entry.getKey(),
+                        entry.getValue().handoverQueryPointer(),
+                        entry.getValue().getArgument());
+            }
+        }
+        if (realmResultsQueryStep != null) {
+            QueryUpdateTask queryUpdateTask = realmResultsQueryStep
+                    .sendToHandler(realm.handler, HandlerControllerConstants.COMPLETED_UPDATE_ASYNC_AGGREGATES)
+                    .build();
+            updateAsyncAggregatesTask = Realm.asyncTaskExecutor.submitQueryUpdate(queryUpdateTask);
+        }
+    }
+
+    private void cancelAsyncAggregatesUpdate() {
+        if (updateAsyncAggregatesTask != null && !updateAsyncAggregatesTask.isDone()) {
+            updateAsyncAggregatesTask.cancel(true);
+            Realm.asyncTaskExecutor.getQueue().remove(updateAsyncAggregatesTask);
+        }
+        updateAsyncAggregatesTask = null;
+    }
+
+    private void completedAsyncAggregatesUpdate(QueryUpdateTask.Result result) {
+        SharedRealm.VersionID callerVersionID = realm.sharedRealm.getVersionID();
+        if (callerVersionID.compareTo(result.versionID) != 0) {
+            // If the caller is more advanced, another local commit or a REALM_CHANGED already queued a newer update.
+            // If it is behind, the REALM_CHANGED of the newer version will update all async queries including these.
+            RealmLog.d("COMPLETED_UPDATE_ASYNC_AGGREGATES realm:" + HandlerController.this + " versions differ, ignoring results");
+            return;
+        }
+        List<RealmAsyncAggregate<?>> aggregatesToBeNotified =
+                new ArrayList<RealmAsyncAggregate<?>>(result.updatedAggregates.size());
+        for (Map.Entry<WeakReference<RealmAsyncAggregate<?>>, Object> entry : result.updatedAggregates.entrySet()) {
+            RealmAsyncAggregate<?> aggregate = entry.getKey().get();
+            if (aggregate == null) {
+                asyncAggregates.remove(entry.getKey());
+            } else {
+                aggregate.setValue(entry.getValue());
+                aggregatesToBeNotified.add(aggregate);
+            }
+        }
+        notifyAsyncAggregates(aggregatesToBeNotified);
+        updateAsyncAggregatesTask = null;
+    }
+
+    private void notifyAsyncAggregates(List<RealmAsyncAggregate<?>> aggregatesToBeNotified) {
+        for (Iterator<RealmAsyncAggregate<?>> it = aggregatesToBeNotified.iterator(); !realm.isClosed() && it.hasNext(); ) {
+            it.next().notifyChangeListeners();
+        }
+    }
+
     private void completedAsyncRealmObject(QueryUpdateTask.Result result) {
         Set<WeakReference<RealmObjectProxy>> updatedRowKey = result.updatedRow.keySet();
         if (updatedRowKey.size() > 0) {
@@ -658,8 +920,8 @@ final class HandlerController implements Handler.Callback {
      * Indicate the presence of {@code RealmResults} obtained asynchronously, this will prevent advancing the Realm
      * before updating the {@code RealmResults}, otherwise we will potentially re-run the queries in this thread.
      *
-     * @return {@code true} if there is at least one (non GC'ed) instance of {@link RealmResults} {@code false}
-     * otherwise.
+     * @return {@code true} if there is at least one (non GC'ed) instance of {@link RealmResults} or
+     * {@link RealmAsyncAggregate}, {@code false} otherwise.
      */
     private boolean threadContainsAsyncQueries() {
         boolean isEmpty = true;
@@ -672,6 +934,14 @@ final class HandlerController implements Handler.Callback {
                 isEmpty = false;
             }
         }
+        Iterator<WeakReference<RealmAsyncAggregate<?>>> aggregatesIterator = asyncAggregates.keySet().iterator();
+        while (aggregatesIterator.hasNext()) {
+            if (aggregatesIterator.next().get() == null) {
+                aggregatesIterator.remove();
+            } else {
+                isEmpty = false;
+            }
+        }
 
         return !isEmpty;
     }
@@ -709,6 +979,10 @@ final class HandlerController implements Handler.Callback {
         while ((weakReferenceObject = referenceQueueRealmObject.poll()) != null ) {
             realmObjects.remove(weakReferenceObject);
         }
+        Reference<? extends RealmAsyncAggregate<?>> weakReferenceAggregate;
+        while ((weakReferenceAggregate = referenceQueueAsyncAggregates.poll()) != null ) {
+            asyncAggregates.remove(weakReferenceAggregate);
+        }
     }
 
     WeakReference<RealmResults<? extends RealmModel>> addToAsyncRealmResults(RealmResults<? extends RealmModel> realmResults, RealmQuery<? extends RealmModel> realmQuery) {
@@ -718,6 +992,13 @@ final class HandlerController implements Handler.Callback {
         return weakRealmResults;
     }
 
+    WeakReference<RealmAsyncAggregate<?>> addToAsyncAggregates(RealmAsyncAggregate<?> aggregate, RealmQuery<? extends RealmModel> realmQuery) {
+        WeakReference<RealmAsyncAggregate<?>> weakAggregate = new WeakReference<RealmAsyncAggregate<?>>(aggregate,
+                referenceQueueAsyncAggregates);
+        asyncAggregates.put(weakAggregate, realmQuery);
+        return weakAggregate;
+    }
+
     void addToRealmResults(RealmResults<? extends RealmModel> realmResults) {
         WeakReference<RealmResults<? extends RealmModel>> realmResultsWeakReference
                 = new WeakReference<RealmResults<? extends RealmModel>>(realmResults, referenceQueueSyncRealmResults);
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+/**
+ * This interface describes the changes made to a collection during the last update.
+ * <p>
+ * {@link OrderedCollectionChangeSet} is passed to the {@link OrderedRealmCollectionChangeListener} which is registered
+ * by {@link RealmResults#addChangeListener(OrderedRealmCollectionChangeListener)}.
+ * <p>
+ * Deletions are reported as indices in the collection before the update, while insertions and changes are reported as
+ * indices in the collection after the update. Applying the deletions first, then the insertions, gives the new
+ * collection.
+ */
+public interface OrderedCollectionChangeSet {
+
+    /**
+     * @return the deleted indices in the previous version of the collection, in ascending order.
+     */
+    int[] getDeletions();
+
+    /**
+     * @return the inserted indices in the new version of the collection, in ascending order.
+     */
+    int[] getInsertions();
+
+    /**
+     * @return the modified indices in the new version of the collection, in ascending order.
+     */
+    int[] getChanges();
+
+    /**
+     * @return the deleted ranges of objects in the previous version of the collection.
+     */
+    Range[] getDeletionRanges();
+
+    /**
+     * @return the inserted ranges of objects in the new version of the collection.
+     */
+    Range[] getInsertionRanges();
+
+    /**
+     * @return the modified ranges of objects in the new version of the collection.
+     */
+    Range[] getChangeRanges();
+
+    /**
+     * Describes a continuous range of indices in a collection.
+     */
+    class Range {
+        /**
+         * The start index of this change range.
+         */
+        public final int startIndex;
+
+        /**
+         * How many elements are inside this range.
+         */
+        public final int length;
+
+        /**
+         * Creates a {@link Range} with given start index and length.
+         *
+         * @param startIndex the start index of this change range.
+         * @param length how many elements are inside this range.
+         */
+        public Range(int startIndex, int length) {
+            this.startIndex = startIndex;
+            this.length = length;
+        }
+
+        @Override
+        public String toString() {
+            return "startIndex: " + startIndex + " length: " + length;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+/**
+ * {@link OrderedRealmCollectionChangeListener} can be registered with a {@link RealmResults} to receive a notification
+ * with a {@link OrderedCollectionChangeSet} describing the details of what have been changed in the collection.
+ * <p>
+ * Change sets are computed on the worker thread which updates asynchronous queries, so they are only available for
+ * {@link RealmResults} obtained through one of the {@code find*Async()} or {@code distinctAsync()} methods. The
+ * {@code changeSet} is {@code null} when the detailed changes are not known, e.g., the first time the query is loaded,
+ * after a local commit on the same thread, or for synchronous queries. In that case the whole collection should be
+ * considered changed.
+ * <p>
+ * Realm instances on a thread without an {@link android.os.Looper} cannot register a
+ * {@link OrderedRealmCollectionChangeListener}.
+ *
+ * @param <T> the collection type.
+ * @see RealmResults#addChangeListener(OrderedRealmCollectionChangeListener)
+ */
+public interface OrderedRealmCollectionChangeListener<T> {
+
+    /**
+     * Called when the collection has been updated.
+     *
+     * @param collection the collection this listener is registered to.
+     * @param changeSet the detailed changes of the collection, or {@code null} if they are not known.
+     */
+    void onChange(T collection, OrderedCollectionChangeSet changeSet);
+}
@@ -19,12 +19,15 @@ package io.realm;
 import android.annotation.TargetApi;
 import android.app.IntentService;
 import android.os.Build;
+import android.os.Handler;
 import android.util.JsonReader;
+import android.util.MalformedJsonException;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -50,6 +53,8 @@ import io.realm.internal.ColumnInfo;
 import io.realm.internal.RealmObjectProxy;
 import io.realm.internal.RealmProxyMediator;
 import io.realm.internal.Table;
+import io.realm.internal.android.JsonUtils;
+import io.realm.internal.async.RealmThreadPoolExecutor;
 import io.realm.internal.log.RealmLog;
 import rx.Observable;
 
@@ -197,6 +202,53 @@ public final class Realm extends BaseRealm {
         defaultConfiguration = null;
     }
 
+    /**
+     * Sets the size of the thread pool running async queries and transactions. Queries and transactions run on separate
+     * threads, and the transactions of one Realm file are always run one at a time. Once {@code queueSize} queries are
+     * waiting, starting another one from a thread without a Looper blocks until there is room again.
+     * <p>
+     * This must be called before any async query or transaction is started, e.g. when the application is created.
+     *
+     * @param queryThreads number of threads running async queries.
+     * @param transactionThreads number of threads running async transactions.
+     * @param queueSize number of waiting queries above which threads without a Looper block.
+     * @throws IllegalArgumentException if any of the sizes is less than 1.
+     * @throws IllegalStateException if async queries or transactions are still queued or running.
+     */
+    public static synchronized void setAsyncThreadPool(int queryThreads, int transactionThreads, int queueSize) {
+        RealmThreadPoolExecutor executor = RealmThreadPoolExecutor.newExecutor(queryThreads, transactionThreads,
+                queueSize);
+        RealmThreadPoolExecutor previousExecutor = asyncTaskExecutor;
+        if (previousExecutor.hasPendingTasks()) {
+            executor.shutdown();
+            throw new IllegalStateException("The async thread pool cannot be changed while async queries or " +
+                    "transactions are queued or running.");
+        }
+        asyncTaskExecutor = executor;
+        previousExecutor.shutdown();
+    }
+
+    /**
+     * Returns the statistics of the threads running async queries, since the thread pool was created.
+     *
+     * @return the statistics of the async queries.
+     * @see #setAsyncThreadPool(int, int, int)
+     */
+    public static AsyncLaneStats getAsyncQueryStats() {
+        return new AsyncLaneStats(asyncTaskExecutor.getQueryLaneStats());
+    }
+
+    /**
+     * Returns the statistics of the threads running async transactions of all Realm files, since the thread pool was
+     * created.
+     *
+     * @return the statistics of the async transactions.
+     * @see #setAsyncThreadPool(int, int, int)
+     */
+    public static AsyncLaneStats getAsyncTransactionStats() {
+        return new AsyncLaneStats(asyncTaskExecutor.getWriteLaneStats());
+    }
+
     /**
      * Creates a {@link Realm} instance without checking the existence in the {@link RealmCache}.
      *
@@ -257,6 +309,22 @@ public final class Realm extends BaseRealm {
     @SuppressWarnings("unchecked")
     private static void initializeRealm(Realm realm) {
         long version = realm.getVersion();
+        RealmProxyMediator mediator = realm.configuration.getSchemaMediator();
+        final Set<Class<? extends RealmModel>> modelClasses = mediator.getModelClasses();
+        final long schemaFingerprint = mediator.getSchemaFingerprint();
+
+        // If the schema was already validated against the same model classes and hasn't been changed since, the
+        // column indices can be read without validating the tables or starting a write transaction.
+        if (version != UNVERSIONED && realm.sharedRealm.isSchemaFingerprintValid(schemaFingerprint)) {
+            final Map<Class<? extends RealmModel>, ColumnInfo> columnInfoMap;
+            columnInfoMap = new HashMap<Class<? extends RealmModel>, ColumnInfo>(modelClasses.size());
+            for (Class<? extends RealmModel> modelClass : modelClasses) {
+                columnInfoMap.put(modelClass, mediator.createColumnInfo(modelClass, realm.sharedRealm));
+            }
+            realm.schema.columnIndices = new ColumnIndices(columnInfoMap);
+            return;
+        }
+
         boolean commitNeeded = false;
         try {
             realm.beginTransaction();
@@ -265,8 +333,6 @@ public final class Realm extends BaseRealm {
                 realm.setVersion(realm.configuration.getSchemaVersion());
             }
 
-            RealmProxyMediator mediator = realm.configuration.getSchemaMediator();
-            final Set<Class<? extends RealmModel>> modelClasses = mediator.getModelClasses();
             final Map<Class<? extends RealmModel>, ColumnInfo> columnInfoMap;
             columnInfoMap = new HashMap<Class<? extends RealmModel>, ColumnInfo>(modelClasses.size());
             for (Class<? extends RealmModel> modelClass : modelClasses) {
@@ -278,6 +344,10 @@ public final class Realm extends BaseRealm {
             }
             realm.schema.columnIndices = new ColumnIndices(columnInfoMap);
 
+            if (schemaFingerprint != 0 && realm.sharedRealm.setSchemaFingerprint(schemaFingerprint)) {
+                commitNeeded = true;
+            }
+
             if (version == UNVERSIONED) {
                 final Transaction transaction = realm.getConfiguration().getInitialDataTransaction();
                 if (transaction != null) {
@@ -451,21 +521,146 @@ public final class Realm extends BaseRealm {
         }
         checkHasPrimaryKey(clazz);
 
-        // As we need the primary key value we have to first parse the entire input stream as in the general
-        // case that value might be the last property :(
-        Scanner scanner = null;
+        // Objects are read one at a time, as the primary key value might be the last property of each object.
+        JsonReader reader = new JsonReader(new InputStreamReader(in, "UTF-8"));
         try {
-            scanner = getFullStringScanner(in);
-            JSONArray json = new JSONArray(scanner.next());
-            for (int i = 0; i < json.length(); i++) {
-                configuration.getSchemaMediator().createOrUpdateUsingJsonObject(clazz, this, json.getJSONObject(i), true);
+            beginJsonArray(reader);
+            while (reader.hasNext()) {
+                createFromJsonStream(clazz, reader, true);
             }
-        } catch (JSONException e) {
+            reader.endArray();
+        } catch (MalformedJsonException e) {
+            throw new RealmException("Failed to read JSON", e);
+        } catch (EOFException e) {
             throw new RealmException("Failed to read JSON", e);
         } finally {
-            if (scanner != null) {
-                scanner.close();
+            reader.close();
+        }
+    }
+
+    /**
+     * Creates a Realm object for each object in a JSON array, committing every {@code batchSize} objects in their
+     * own transaction. The input is read token by token, so memory usage does not depend on the size of the input.
+     * This must be called outside of a transaction.
+     * <p>
+     * If the import fails, the objects of the current batch are rolled back while the batches committed before stay
+     * in the Realm. JSON properties with {@code null} value will map to the default value for the data type in Realm
+     * and unknown properties will be ignored.
+     *
+     * @param clazz type of Realm objects created.
+     * @param in the JSON array as a InputStream. All objects in the array must be of the specified class.
+     * @param batchSize the number of objects to commit per transaction.
+     * @param listener the listener notified after each committed batch, or {@code null}.
+     * @return the number of objects created.
+     * @throws IllegalArgumentException if {@code batchSize} is not positive.
+     * @throws IllegalStateException if called from within a transaction.
+     * @throws RealmException if mapping from JSON fails.
+     * @throws IOException if something was wrong with the input stream.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    public <E extends RealmModel> long createAllFromJson(Class<E> clazz, InputStream in, int batchSize,
+                                                         JsonImportListener listener) throws IOException {
+        return importFromJson(clazz, in, false, batchSize, listener);
+    }
+
+    /**
+     * Creates or updates a Realm object for each object in a JSON array, committing every {@code batchSize} objects in
+     * their own transaction. Only one object of the array is held in memory at a time. This must be called outside of
+     * a transaction.
+     * <p>
+     * If the import fails, the objects of the current batch are rolled back while the batches committed before stay
+     * in the Realm.
+     *
+     * @param clazz type of {@link io.realm.RealmObject} to create or update. It must have a primary key defined.
+     * @param in the InputStream with a list of object data in JSON format.
+     * @param batchSize the number of objects to commit per transaction.
+     * @param listener the listener notified after each committed batch, or {@code null}.
+     * @return the number of objects created or updated.
+     * @throws IllegalArgumentException if {@code batchSize} is not positive or the class has no primary key.
+     * @throws IllegalStateException if called from within a transaction.
+     * @throws RealmException if mapping from JSON fails.
+     * @throws IOException if something was wrong with the input stream.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    public <E extends RealmModel> long createOrUpdateAllFromJson(Class<E> clazz, InputStream in, int batchSize,
+                                                                 JsonImportListener listener) throws IOException {
+        checkHasPrimaryKey(clazz);
+        return importFromJson(clazz, in, true, batchSize, listener);
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private <E extends RealmModel> long importFromJson(Class<E> clazz, InputStream in, boolean update, int batchSize,
+                                                       JsonImportListener listener) throws IOException {
+        checkIfValid();
+        if (clazz == null || in == null) {
+            throw new IllegalArgumentException("Non-null class and input stream required.");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (isInTransaction()) {
+            throw new IllegalStateException("JSON imports in batches commit their own transactions and cannot be " +
+                    "called from within a transaction.");
+        }
+
+        long imported = 0;
+        JsonReader reader = new JsonReader(new InputStreamReader(in, "UTF-8"));
+        try {
+            beginJsonArray(reader);
+            while (reader.hasNext()) {
+                beginTransaction();
+                try {
+                    int batchCount = 0;
+                    while (batchCount < batchSize && reader.hasNext()) {
+                        createFromJsonStream(clazz, reader, update);
+                        batchCount++;
+                    }
+                    commitTransaction();
+                    imported += batchCount;
+                } finally {
+                    if (isInTransaction()) {
+                        cancelTransaction();
+                    }
+                }
+                if (listener != null) {
+                    listener.onProgress(imported);
+                }
             }
+            reader.endArray();
+        } finally {
+            reader.close();
+        }
+        return imported;
+    }
+
+    // Creates the next object of a JSON array. Objects that might be updated are read into a JSONObject first since
+    // the primary key value can be the last property of the object.
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private <E extends RealmModel> void createFromJsonStream(Class<E> clazz, JsonReader reader, boolean update)
+            throws IOException {
+        if (update) {
+            JSONObject json;
+            try {
+                json = JsonUtils.readJsonObject(reader);
+            } catch (JSONException e) {
+                throw new RealmException("Failed to read JSON", e);
+            } catch (IllegalStateException e) {
+                // JsonReader throws this if the element isn't an object.
+                throw new RealmException("Failed to read JSON", e);
+            }
+            configuration.getSchemaMediator().createOrUpdateUsingJsonObject(clazz, this, json, true);
+        } else {
+            configuration.getSchemaMediator().createUsingJsonStream(clazz, this, reader);
+        }
+    }
+
+    // Reports input which isn't a JSON array the same way as parsing it into a JSONArray used to.
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static void beginJsonArray(JsonReader reader) throws IOException {
+        try {
+            reader.beginArray();
+        } catch (IllegalStateException e) {
+            throw new RealmException("Failed to read JSON", e);
         }
     }
 
@@ -798,6 +993,23 @@ public final class Realm extends BaseRealm {
         configuration.getSchemaMediator().insert(this, objects);
     }
 
+    /**
+     * Returns a {@link BulkInserter} that adds {@code rowCount} objects of the given class from arrays of field values.
+     * Each field is written for all objects with a single native call, so this is much faster than
+     * {@link #insert(Collection)} for large imports of primitive data. The objects are added when
+     * {@link BulkInserter#insert()} is called, which must happen inside a transaction.
+     *
+     * @param clazz the class of the objects to insert.
+     * @param rowCount the number of objects to insert.
+     * @return the inserter to set the field values with.
+     * @throws IllegalArgumentException if {@code rowCount} is negative or the class has a primary key.
+     * @throws IllegalStateException if the Realm is closed or called from an incorrect thread.
+     */
+    public <E extends RealmModel> BulkInserter<E> bulkInsert(Class<E> clazz, int rowCount) {
+        checkIfValid();
+        return new BulkInserter<E>(this, clazz, rowCount);
+    }
+
     /**
      * Insert an unmanaged RealmObject. This is generally faster than {@link #copyToRealm(RealmModel)} since it
      * doesn't return the inserted elements, and performs minimum allocations and checks.
@@ -1047,6 +1259,18 @@ public final class Realm extends BaseRealm {
         return RealmQuery.createQuery(this, clazz);
     }
 
+    /**
+     * Returns a new {@link RealmQueryTemplate} for queries that are executed many times with different values.
+     *
+     * @param clazz the class of the objects which are to be queried for.
+     * @return an empty template, ready for adding predicates.
+     * @see io.realm.RealmQueryTemplate
+     */
+    public <E extends RealmModel> RealmQueryTemplate<E> queryTemplate(Class<E> clazz) {
+        checkIfValid();
+        return new RealmQueryTemplate<E>(this, clazz);
+    }
+
     /**
      * Adds a change listener to the Realm.
      * <p>
@@ -1169,7 +1393,11 @@ public final class Realm extends BaseRealm {
         // to perform the transaction
         final RealmConfiguration realmConfiguration = getConfiguration();
 
-        final Future<?> pendingTransaction = asyncTaskExecutor.submitTransaction(new Runnable() {
+        if (realmConfiguration.getAsyncTransactionBatchSize() > 1) {
+            return RealmWriteQueue.getInstance(realmConfiguration).enqueue(this, transaction, onSuccess, onError);
+        }
+
+        final Future<?> pendingTransaction = asyncTaskExecutor.submitTransaction(realmConfiguration.getPath(), new Runnable() {
             @Override
             public void run() {
                 if (Thread.currentThread().isInterrupted()) {
@@ -1205,51 +1433,7 @@ public final class Realm extends BaseRealm {
 
                     final Throwable backgroundException = exception[0];
                     // Send response as the final step to ensure the bg thread quit before others get the response!
-                    if (handler != null
-                            && !Thread.currentThread().isInterrupted()
-                            && handler.getLooper().getThread().isAlive()) {
-
-                        if (transactionCommitted) {
-                            // This will be treated like a special REALM_CHANGED event
-                            handler.post(new Runnable() {
-                                @Override
-                                public void run() {
-                                    handlerController.handleAsyncTransactionCompleted(onSuccess != null ? new Runnable() {
-                                        @Override
-                                        public void run() {
-                                            onSuccess.onSuccess();
-                                        }
-                                    } : null);
-                                }
-                            });
-                        }
-
-                        // Send errors directly to the looper, so they don't get intercepted by the HandlerController.
-                        if (backgroundException != null) {
-                            if (onError != null) {
-                                handler.post(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        onError.onError(backgroundException);
-                                    }
-                                });
-                            } else {
-                                handler.post(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        if (backgroundException instanceof RuntimeException) {
-                                            throw (RuntimeException) backgroundException;
-                                        } else if (backgroundException instanceof Exception) {
-                                            throw new RealmException("Async transaction failed", backgroundException);
-                                        } else if (backgroundException instanceof Error) {
-                                            throw (Error) backgroundException;
-                                        }
-                                    }
-                                });
-                            }
-                        }
-
-                    } else {
+                    if (!postAsyncTransactionResult(transactionCommitted, backgroundException, onSuccess, onError)) {
                         // Throw exception in the worker thread if the caller thread terminated
                         if (backgroundException != null) {
                             if (backgroundException instanceof RuntimeException) {
@@ -1271,6 +1455,68 @@ public final class Realm extends BaseRealm {
         return new RealmAsyncTask(pendingTransaction);
     }
 
+    /**
+     * Posts the outcome of an async transaction to the thread of this Realm. Must be called from the worker thread
+     * that ran the transaction, after its background Realm has been closed.
+     *
+     * @param transactionCommitted {@code true} if the transaction was committed.
+     * @param backgroundException the exception thrown by the transaction, or {@code null}.
+     * @param onSuccess the success callback, or {@code null}.
+     * @param onError the error callback, or {@code null}.
+     * @return {@code true} if the outcome was posted, {@code false} if the caller thread can no longer be reached.
+     */
+    boolean postAsyncTransactionResult(boolean transactionCommitted, final Throwable backgroundException,
+                                       final Realm.Transaction.OnSuccess onSuccess,
+                                       final Realm.Transaction.OnError onError) {
+        final Handler handler = this.handler;
+        if (handler == null
+                || Thread.currentThread().isInterrupted()
+                || !handler.getLooper().getThread().isAlive()) {
+            return false;
+        }
+
+        if (transactionCommitted) {
+            // This will be treated like a special REALM_CHANGED event
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    handlerController.handleAsyncTransactionCompleted(onSuccess != null ? new Runnable() {
+                        @Override
+                        public void run() {
+                            onSuccess.onSuccess();
+                        }
+                    } : null);
+                }
+            });
+        }
+
+        // Send errors directly to the looper, so they don't get intercepted by the HandlerController.
+        if (backgroundException != null) {
+            if (onError != null) {
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onError.onError(backgroundException);
+                    }
+                });
+            } else {
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (backgroundException instanceof RuntimeException) {
+                            throw (RuntimeException) backgroundException;
+                        } else if (backgroundException instanceof Exception) {
+                            throw new RealmException("Async transaction failed", backgroundException);
+                        } else if (backgroundException instanceof Error) {
+                            throw (Error) backgroundException;
+                        }
+                    }
+                });
+            }
+        }
+        return true;
+    }
+
     /**
      * Deletes all objects of the specified class from the Realm.
      *
@@ -1371,11 +1617,11 @@ public final class Realm extends BaseRealm {
      * The file must be closed before this method is called, otherwise {@code false} will be returned.<br>
      * The file system should have free space for at least a copy of the Realm file.<br>
      * The Realm file is left untouched if any file operation fails.<br>
+     * An encrypted Realm file is compacted by writing an encrypted copy of it, which then replaces the file.<br>
      *
      * @param configuration a {@link RealmConfiguration} pointing to a Realm file.
      * @return {@code true} if successful, {@code false} if any file operation failed.
-     * @throws IllegalArgumentException if the realm file is encrypted. Compacting an encrypted Realm file is not
-     *                                  supported yet.
+     * @see RealmConfiguration.Builder#compactOnLaunch(CompactOnLaunchCallback)
      */
     public static boolean compactRealm(RealmConfiguration configuration) {
         return BaseRealm.compactRealm(configuration);
@@ -1424,12 +1670,32 @@ public final class Realm extends BaseRealm {
         }
     }
 
+    /**
+     * Listener for the progress of JSON imports that commit in batches.
+     *
+     * @see #createAllFromJson(Class, InputStream, int, JsonImportListener)
+     * @see #createOrUpdateAllFromJson(Class, InputStream, int, JsonImportListener)
+     */
+    public interface JsonImportListener {
+        /**
+         * Called on the importing thread after each committed batch.
+         *
+         * @param importedObjects the total number of objects imported so far.
+         */
+        void onProgress(long importedObjects);
+    }
+
     /**
      * Encapsulates a Realm transaction.
      * <p>
      * Using this class will automatically handle {@link #beginTransaction()} and {@link #commitTransaction()}
      * If any exception is thrown during the transaction {@link #cancelTransaction()} will be called instead of
      * {@link #commitTransaction()}.
+     * <p>
+     * When async transactions are grouped with
+     * {@link RealmConfiguration.Builder#groupAsyncTransactions(int, long, java.util.concurrent.TimeUnit)},
+     * {@link #execute(Realm)} may be called more than once, as a rolled back batch is executed again without the
+     * transaction that failed. Only one of those calls is committed, but side effects outside the Realm are repeated.
      */
     public interface Transaction {
         void execute(Realm realm);
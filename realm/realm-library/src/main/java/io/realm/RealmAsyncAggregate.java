@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+
+/**
+ * The result of an aggregate query which is computed on a worker thread, created by {@link RealmQuery#countAsync()},
+ * {@link RealmQuery#sumAsync(String)}, {@link RealmQuery#averageAsync(String)}, {@link RealmQuery#minAsync(String)}
+ * and {@link RealmQuery#maxAsync(String)}.
+ * <p>
+ * Like async {@link RealmResults}, the aggregate is re-evaluated in the background together with the other async
+ * queries of the thread every time the Realm changes. Also after a commit on the same thread it keeps its previous
+ * value until the new one is computed. Registered listeners are notified when the first value is
+ * available and afterwards every time the value changes:
+ * <pre>
+ * {@code
+ * RealmAsyncAggregate<Long> count = realm.where(Dog.class).equalTo("age", 1).countAsync();
+ * count.addChangeListener(new RealmChangeListener<RealmAsyncAggregate<Long>>() {
+ *     \@Override
+ *     public void onChange(RealmAsyncAggregate<Long> count) {
+ *         puppies.setText(count.get() + " puppies");
+ *     }
+ * });
+ * }
+ * </pre>
+ *
+ * @param <T> the type of the value.
+ */
+public final class RealmAsyncAggregate<T> {
+
+    private final BaseRealm realm;
+    private final RealmQuery<? extends RealmModel> query;
+    private final long columnIndex;
+    private final int operator;
+    private final List<RealmChangeListener<RealmAsyncAggregate<T>>> listeners =
+            new CopyOnWriteArrayList<RealmChangeListener<RealmAsyncAggregate<T>>>();
+    private Future<?> pendingTask;
+    private boolean loaded;
+    private boolean valueChanged;
+    private Object value;
+
+    RealmAsyncAggregate(BaseRealm realm, RealmQuery<? extends RealmModel> query, long columnIndex, int operator) {
+        this.realm = realm;
+        this.query = query;
+        this.columnIndex = columnIndex;
+        this.operator = operator;
+    }
+
+    /**
+     * Returns {@code false} until the worker thread delivered the first value.
+     *
+     * @return {@code true} if the value is available, {@code false} if the query is still running.
+     */
+    public boolean isLoaded() {
+        realm.checkIfValid();
+        return loaded;
+    }
+
+    /**
+     * Returns the latest value of the aggregate.
+     *
+     * @return the value boxed like the synchronous aggregate of {@link RealmQuery} boxes it. {@code null} if the value
+     * is not loaded yet, or for minimums and maximums if no objects have a value for the field.
+     */
+    @SuppressWarnings("unchecked")
+    public T get() {
+        realm.checkIfValid();
+        return (T) value;
+    }
+
+    /**
+     * Makes the aggregate blocking. The value is computed on the caller thread if it is not loaded yet, which will
+     * also trigger any registered {@link RealmChangeListener}.
+     *
+     * @return {@code true} once the value is available.
+     */
+    public boolean load() {
+        if (isLoaded()) {
+            return true;
+        }
+        if (pendingTask != null) {
+            pendingTask.cancel(true);
+        }
+        setValue(compute());
+        notifyChangeListeners();
+        return true;
+    }
+
+    /**
+     * Adds a change listener which is notified when the value is loaded and every time it changes.
+     *
+     * @param listener the change listener to be notified.
+     * @throws IllegalArgumentException if the change listener is {@code null}.
+     * @throws IllegalStateException if you try to add a listener from a non-Looper or {@link IntentService} thread.
+     */
+    public void addChangeListener(RealmChangeListener<RealmAsyncAggregate<T>> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener should not be null");
+        }
+        realm.checkIfValid();
+        if (!realm.handlerController.isAutoRefreshEnabled()) {
+            throw new IllegalStateException("You can't register a listener from a non-Looper thread or IntentService thread. ");
+        }
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the instance to be removed.
+     * @throws IllegalArgumentException if the change listener is {@code null}.
+     */
+    public void removeChangeListener(RealmChangeListener<RealmAsyncAggregate<T>> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener should not be null");
+        }
+        realm.checkIfValid();
+        listeners.remove(listener);
+    }
+
+    /**
+     * Removes all registered listeners.
+     */
+    public void removeChangeListeners() {
+        realm.checkIfValid();
+        listeners.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "RealmAsyncAggregate[" + (loaded ? String.valueOf(value) : "not loaded") + "]";
+    }
+
+    /**
+     * Sets the task computing the first value, it is cancelled if the value is loaded synchronously first.
+     */
+    void setPendingTask(Future<?> pendingTask) {
+        this.pendingTask = pendingTask;
+    }
+
+    /**
+     * Computes the aggregate on the caller thread, against the current version of the Realm.
+     */
+    Object compute() {
+        return query.aggregate(columnIndex, operator);
+    }
+
+    /**
+     * Sets the value computed by a worker thread or by {@link #compute()}. Listeners are notified by the next call to
+     * {@link #notifyChangeListeners()} if the aggregate was not loaded before or the value changed.
+     */
+    void setValue(Object newValue) {
+        if (!loaded || (value == null ? newValue != null : !value.equals(newValue))) {
+            valueChanged = true;
+        }
+        value = newValue;
+        loaded = true;
+    }
+
+    void notifyChangeListeners() {
+        if (!valueChanged) {
+            return;
+        }
+        valueChanged = false;
+        for (RealmChangeListener<RealmAsyncAggregate<T>> listener : listeners) {
+            listener.onChange(this);
+        }
+    }
+}
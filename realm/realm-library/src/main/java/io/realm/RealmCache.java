@@ -23,9 +23,12 @@ import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import io.realm.exceptions.RealmFileException;
 import io.realm.internal.ColumnIndices;
+import io.realm.internal.SharedRealmPool;
 import io.realm.internal.log.RealmLog;
 
 /**
@@ -34,6 +37,14 @@ import io.realm.internal.log.RealmLog;
  * {@link RealmConfiguration}.
  * One {@link RealmCache} is created for each {@link RealmConfiguration}, and it caches all the {@link Realm} and
  * {@link DynamicRealm} instances which are created from the same {@link RealmConfiguration}.
+ * <p>
+ * Getting or releasing a Realm on a thread that keeps holding another reference to it only touches thread local state
+ * and doesn't lock. Opening the first instance or closing the last instance on a thread changes the global state and
+ * is synchronized on the class.
+ * <p>
+ * Opening a Realm, deleting, compacting or migrating its file is also serialized per path by a {@link PathLock}, which
+ * is taken before the class lock. Work on the file while no instance is open, like compacting it on launch, is done
+ * under the path lock only, so it doesn't block opening other Realms.
  */
 final class RealmCache {
 
@@ -45,12 +56,21 @@ final class RealmCache {
         void onCall();
     }
 
+    // The Realm instance in a thread and how many references to it there are in that thread. Only ever accessed by
+    // the thread it belongs to.
+    private static class LocalRef {
+        private final BaseRealm realm;
+        private int count;
+
+        private LocalRef(BaseRealm realm) {
+            this.realm = realm;
+        }
+    }
+
     private static class RefAndCount {
         // The Realm instance in this thread.
-        private final ThreadLocal<BaseRealm> localRealm = new ThreadLocal<BaseRealm>();
-        // How many references to this Realm instance in this thread.
-        private final ThreadLocal<Integer> localCount = new ThreadLocal<Integer>();
-        // How many threads have instances refer to this configuration.
+        private final ThreadLocal<LocalRef> localRef = new ThreadLocal<LocalRef>();
+        // How many threads have instances refer to this configuration. Guarded by RealmCache.class.
         private int globalCount = 0;
     }
     private enum RealmCacheType {
@@ -78,7 +98,20 @@ final class RealmCache {
 
     // Realm path will be used as the key to store different RealmCaches. Different Realm configurations with same path
     // are not allowed and an exception will be thrown when trying to add it to the cache map.
-    private static Map<String, RealmCache> cachesMap = new HashMap<String, RealmCache>();
+    // Only modified while holding the lock on RealmCache.class, but read without it by the fast paths.
+    private static final Map<String, RealmCache> cachesMap = new ConcurrentHashMap<String, RealmCache>();
+    // Guarded by itself. A lock is removed once no thread holds or waits for it.
+    private static final Map<String, PathLock> pathLocks = new HashMap<String, PathLock>();
+
+    private static final class PathLock extends ReentrantLock {
+        private final String path;
+        // Number of threads holding or waiting for the lock, guarded by pathLocks.
+        private int users;
+
+        private PathLock(String path) {
+            this.path = path;
+        }
+    }
 
     private static final String DIFFERENT_KEY_MESSAGE = "Wrong key used to decrypt Realm.";
     private static final String WRONG_REALM_CLASS_MESSAGE = "The type of Realm class must be Realm or DynamicRealm.";
@@ -98,8 +131,39 @@ final class RealmCache {
      * @param realmClass class of {@link Realm} or {@link DynamicRealm} to be created in or gotten from the cache.
      * @return the {@link Realm} or {@link DynamicRealm} instance.
      */
-    static synchronized <E extends BaseRealm> E createRealmOrGetFromCache(RealmConfiguration configuration,
-                                                        Class<E> realmClass) {
+    static <E extends BaseRealm> E createRealmOrGetFromCache(RealmConfiguration configuration,
+                                                             Class<E> realmClass) {
+        // Fast path: this thread already holds an instance opened with the very same configuration, which has been
+        // validated when that instance was opened.
+        RealmCache cache = cachesMap.get(configuration.getPath());
+        if (cache != null) {
+            LocalRef localRef = cache.refAndCountMap.get(RealmCacheType.valueOf(realmClass)).localRef.get();
+            if (localRef != null && localRef.count > 0 && localRef.realm.getConfiguration() == configuration) {
+                localRef.count++;
+                @SuppressWarnings("unchecked")
+                E realm = (E) localRef.realm;
+                return realm;
+            }
+        }
+        PathLock pathLock = lockPath(configuration.getPath());
+        try {
+            // New caches are only added while holding the path lock, so no instance of the Realm can be opened until
+            // it is released. A migration opening the Realm again while it is being opened already holds the lock,
+            // the file must be left alone then.
+            if (cachesMap.get(configuration.getPath()) == null && pathLock.getHoldCount() == 1) {
+                copyAssetFileIfNeeded(configuration);
+                // No instance is open in this process, which is the case again every time the last instance was
+                // closed. Only then can compaction get exclusive access to the file.
+                BaseRealm.compactOnLaunchIfNeeded(configuration);
+            }
+            return createRealmOrGetFromCacheLocked(configuration, realmClass);
+        } finally {
+            unlockPath(pathLock);
+        }
+    }
+
+    private static synchronized <E extends BaseRealm> E createRealmOrGetFromCacheLocked(
+            RealmConfiguration configuration, Class<E> realmClass) {
         boolean isCacheInMap = true;
         RealmCache cache = cachesMap.get(configuration.getPath());
         if (cache == null) {
@@ -107,16 +171,15 @@ final class RealmCache {
             cache = new RealmCache(configuration);
             // The new cache should be added to the map later.
             isCacheInMap = false;
-
-            copyAssetFileIfNeeded(configuration);
         } else {
             // Throw the exception if validation failed.
             cache.validateConfiguration(configuration);
         }
 
         RefAndCount refAndCount = cache.refAndCountMap.get(RealmCacheType.valueOf(realmClass));
+        LocalRef localRef = refAndCount.localRef.get();
 
-        if (refAndCount.localRealm.get() == null) {
+        if (localRef == null) {
             // Create a new local Realm instance
             BaseRealm realm;
 
@@ -136,22 +199,21 @@ final class RealmCache {
             if (!isCacheInMap) {
                 cachesMap.put(configuration.getPath(), cache);
             }
-            refAndCount.localRealm.set(realm);
-            refAndCount.localCount.set(0);
+            localRef = new LocalRef(realm);
+            refAndCount.localRef.set(localRef);
         }
 
-        Integer refCount = refAndCount.localCount.get();
-        if (refCount == 0) {
+        if (localRef.count == 0) {
             if (realmClass == Realm.class && refAndCount.globalCount == 0) {
-                cache.typedColumnIndices = refAndCount.localRealm.get().schema.columnIndices;
+                cache.typedColumnIndices = localRef.realm.schema.columnIndices;
             }
             // This is the first instance in current thread, increase the global count.
             refAndCount.globalCount++;
         }
-        refAndCount.localCount.set(refCount + 1);
+        localRef.count++;
 
         @SuppressWarnings("unchecked")
-        E realm = (E) refAndCount.localRealm.get();
+        E realm = (E) localRef.realm;
         return realm;
     }
 
@@ -161,33 +223,42 @@ final class RealmCache {
      *
      * @param realm Realm instance to be released from cache.
      */
-    static synchronized void release(BaseRealm realm) {
+    static void release(BaseRealm realm) {
+        // Fast path: other references to the instance remain in this thread, only the local counter changes.
+        RealmCache cache = cachesMap.get(realm.getPath());
+        if (cache != null) {
+            LocalRef localRef = cache.refAndCountMap.get(RealmCacheType.valueOf(realm.getClass())).localRef.get();
+            if (localRef != null && localRef.realm == realm && localRef.count > 1) {
+                localRef.count--;
+                return;
+            }
+        }
+        releaseLocked(realm);
+    }
+
+    private static synchronized void releaseLocked(BaseRealm realm) {
         String canonicalPath = realm.getPath();
         RealmCache cache = cachesMap.get(canonicalPath);
-        Integer refCount = null;
+        LocalRef localRef = null;
         RefAndCount refAndCount = null;
 
         if (cache != null) {
             refAndCount = cache.refAndCountMap.get(RealmCacheType.valueOf(realm.getClass()));
-            refCount = refAndCount.localCount.get();
-        }
-        if (refCount == null) {
-            refCount = 0;
+            localRef = refAndCount.localRef.get();
         }
 
-        if (refCount <= 0) {
+        if (localRef == null || localRef.count <= 0) {
             RealmLog.w("Realm " + canonicalPath + " has been closed already.");
             return;
         }
 
         // Decrease the local counter.
-        refCount -= 1;
+        localRef.count -= 1;
 
-        if (refCount == 0) {
+        if (localRef.count == 0) {
             // The last instance in this thread.
             // Clear local ref & counter
-            refAndCount.localCount.set(null);
-            refAndCount.localRealm.set(null);
+            refAndCount.localRef.set(null);
 
             // Clear global counter
             refAndCount.globalCount--;
@@ -210,12 +281,13 @@ final class RealmCache {
             // No more instance of typed Realm and dynamic Realm. Remove the configuration from cache.
             if (totalRefCount == 0) {
                 cachesMap.remove(canonicalPath);
+                // Don't keep the file open in the background once nobody uses it. The worker threads close their
+                // instances once their current task is done.
+                SharedRealmPool.evict(canonicalPath);
             }
 
             // No more local reference to this Realm in current thread, close the instance.
             realm.doClose();
-        } else {
-            refAndCount.localCount.set(refCount);
         }
     }
 
@@ -261,17 +333,47 @@ final class RealmCache {
      * @param configuration the {@link RealmConfiguration} of {@link Realm} or {@link DynamicRealm}.
      * @param callback the callback will be executed with the global reference count.
      */
-    static synchronized void invokeWithGlobalRefCount(RealmConfiguration configuration, Callback callback) {
-        RealmCache cache = cachesMap.get(configuration.getPath());
-        if (cache == null) {
-            callback.onResult(0);
-            return;
+    static void invokeWithGlobalRefCount(RealmConfiguration configuration, Callback callback) {
+        // The callback is run holding the path lock only, no instance can be opened meanwhile, so the count stays
+        // valid unless instances are closed.
+        PathLock pathLock = lockPath(configuration.getPath());
+        try {
+            int totalRefCount = 0;
+            synchronized (RealmCache.class) {
+                RealmCache cache = cachesMap.get(configuration.getPath());
+                if (cache != null) {
+                    for (RealmCacheType type : RealmCacheType.values()) {
+                        totalRefCount += cache.refAndCountMap.get(type).globalCount;
+                    }
+                }
+            }
+            callback.onResult(totalRefCount);
+        } finally {
+            unlockPath(pathLock);
         }
-        int totalRefCount = 0;
-        for (RealmCacheType type : RealmCacheType.values()) {
-            totalRefCount += cache.refAndCountMap.get(type).globalCount;
+    }
+
+    private static PathLock lockPath(String path) {
+        PathLock pathLock;
+        synchronized (pathLocks) {
+            pathLock = pathLocks.get(path);
+            if (pathLock == null) {
+                pathLock = new PathLock(path);
+                pathLocks.put(path, pathLock);
+            }
+            pathLock.users++;
+        }
+        pathLock.lock();
+        return pathLock;
+    }
+
+    private static void unlockPath(PathLock pathLock) {
+        pathLock.unlock();
+        synchronized (pathLocks) {
+            if (--pathLock.users == 0) {
+                pathLocks.remove(pathLock.path);
+            }
         }
-        callback.onResult(totalRefCount);
     }
 
    /**
@@ -29,6 +29,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import io.realm.annotations.PrimaryKey;
 import io.realm.annotations.RealmModule;
@@ -98,6 +99,11 @@ public final class RealmConfiguration {
     private final RxObservableFactory rxObservableFactory;
     private final Realm.Transaction initialDataTransaction;
     private final WeakReference<Context> contextWeakRef;
+    private final long notificationCoalescingWindowMillis;
+    private final int asyncTransactionBatchSize;
+    private final long asyncTransactionBatchLatencyMillis;
+    private final long queryResultCacheSizeInBytes;
+    private final CompactOnLaunchCallback compactOnLaunch;
 
     private RealmConfiguration(Builder builder) {
         this.realmDirectory = builder.directory;
@@ -113,6 +119,11 @@ public final class RealmConfiguration {
         this.rxObservableFactory = builder.rxFactory;
         this.initialDataTransaction = builder.initialDataTransaction;
         this.contextWeakRef = builder.contextWeakRef;
+        this.notificationCoalescingWindowMillis = builder.notificationCoalescingWindowMillis;
+        this.asyncTransactionBatchSize = builder.asyncTransactionBatchSize;
+        this.asyncTransactionBatchLatencyMillis = builder.asyncTransactionBatchLatencyMillis;
+        this.queryResultCacheSizeInBytes = builder.queryResultCacheSizeInBytes;
+        this.compactOnLaunch = builder.compactOnLaunch;
     }
 
     public File getRealmDirectory() {
@@ -143,6 +154,57 @@ public final class RealmConfiguration {
         return durability;
     }
 
+    /**
+     * Returns the minimum time between two change notifications delivered to the same thread.
+     *
+     * @return the coalescing window in milliseconds, or {@code 0} if every change is delivered as it arrives.
+     * @see Builder#notificationCoalescingWindow(long, TimeUnit)
+     */
+    public long getNotificationCoalescingWindow() {
+        return notificationCoalescingWindowMillis;
+    }
+
+    /**
+     * Returns the maximum number of async transactions committed together.
+     *
+     * @return the batch size, {@code 1} means every async transaction is committed on its own.
+     * @see Builder#groupAsyncTransactions(int, long, TimeUnit)
+     */
+    public int getAsyncTransactionBatchSize() {
+        return asyncTransactionBatchSize;
+    }
+
+    /**
+     * Returns how long an async transaction may wait for others to be grouped with.
+     *
+     * @return the maximum latency in milliseconds.
+     * @see Builder#groupAsyncTransactions(int, long, TimeUnit)
+     */
+    public long getAsyncTransactionBatchLatency() {
+        return asyncTransactionBatchLatencyMillis;
+    }
+
+    /**
+     * Returns the estimated native memory each Realm instance may use to cache query results.
+     *
+     * @return the size in bytes, {@code 0} if query results are not cached.
+     * @see Builder#queryResultCache(long)
+     */
+    public long getQueryResultCacheSize() {
+        return queryResultCacheSizeInBytes;
+    }
+
+    /**
+     * Returns the callback deciding if the Realm file is compacted when it is opened while no instance of it is open in
+     * this process.
+     *
+     * @return the callback, {@code null} if the file is never compacted on launch.
+     * @see Builder#compactOnLaunch(CompactOnLaunchCallback)
+     */
+    public CompactOnLaunchCallback getCompactOnLaunchCallback() {
+        return compactOnLaunch;
+    }
+
     /**
      * Returns the mediator instance of schema which is defined by this configuration.
      *
@@ -228,10 +290,15 @@ public final class RealmConfiguration {
         if (!canonicalPath.equals(that.canonicalPath)) return false;
         if (!Arrays.equals(key, that.key)) return false;
         if (!durability.equals(that.durability)) return false;
+        if (notificationCoalescingWindowMillis != that.notificationCoalescingWindowMillis) return false;
+        if (asyncTransactionBatchSize != that.asyncTransactionBatchSize) return false;
+        if (asyncTransactionBatchLatencyMillis != that.asyncTransactionBatchLatencyMillis) return false;
+        if (queryResultCacheSizeInBytes != that.queryResultCacheSizeInBytes) return false;
         if (migration != null ? !migration.equals(that.migration) : that.migration != null) return false;
         //noinspection SimplifiableIfStatement
         if (rxObservableFactory != null ? !rxObservableFactory.equals(that.rxObservableFactory) : that.rxObservableFactory != null) return false;
         if (initialDataTransaction != null ? !initialDataTransaction.equals(that.initialDataTransaction) : that.initialDataTransaction != null) return false;
+        if (compactOnLaunch != null ? !compactOnLaunch.equals(that.compactOnLaunch) : that.compactOnLaunch != null) return false;
         return schemaMediator.equals(that.schemaMediator);
     }
 
@@ -246,8 +313,13 @@ public final class RealmConfiguration {
         result = 31 * result + (deleteRealmIfMigrationNeeded ? 1 : 0);
         result = 31 * result + schemaMediator.hashCode();
         result = 31 * result + durability.hashCode();
+        result = 31 * result + (int) (notificationCoalescingWindowMillis ^ (notificationCoalescingWindowMillis >>> 32));
+        result = 31 * result + asyncTransactionBatchSize;
+        result = 31 * result + (int) (asyncTransactionBatchLatencyMillis ^ (asyncTransactionBatchLatencyMillis >>> 32));
+        result = 31 * result + (int) (queryResultCacheSizeInBytes ^ (queryResultCacheSizeInBytes >>> 32));
         result = 31 * result + (rxObservableFactory != null ? rxObservableFactory.hashCode() : 0);
         result = 31 * result + (initialDataTransaction != null ? initialDataTransaction.hashCode() : 0);
+        result = 31 * result + (compactOnLaunch != null ? compactOnLaunch.hashCode() : 0);
 
         return result;
     }
@@ -321,6 +393,15 @@ public final class RealmConfiguration {
         stringBuilder.append("\n");
         stringBuilder.append("durability: ").append(durability);
         stringBuilder.append("\n");
+        stringBuilder.append("notificationCoalescingWindow: ").append(notificationCoalescingWindowMillis).append("ms");
+        stringBuilder.append("\n");
+        stringBuilder.append("asyncTransactionBatch: ").append(asyncTransactionBatchSize)
+                .append(" within ").append(asyncTransactionBatchLatencyMillis).append("ms");
+        stringBuilder.append("\n");
+        stringBuilder.append("queryResultCacheSize: ").append(queryResultCacheSizeInBytes);
+        stringBuilder.append("\n");
+        stringBuilder.append("compactOnLaunch: ").append(compactOnLaunch);
+        stringBuilder.append("\n");
         stringBuilder.append("schemaMediator: ").append(schemaMediator);
 
         return stringBuilder.toString();
@@ -360,6 +441,11 @@ public final class RealmConfiguration {
         private WeakReference<Context> contextWeakRef;
         private RxObservableFactory rxFactory;
         private Realm.Transaction initialDataTransaction;
+        private long notificationCoalescingWindowMillis;
+        private int asyncTransactionBatchSize;
+        private long asyncTransactionBatchLatencyMillis;
+        private long queryResultCacheSizeInBytes;
+        private CompactOnLaunchCallback compactOnLaunch;
 
         /**
          * Creates an instance of the Builder for the RealmConfiguration.
@@ -388,6 +474,10 @@ public final class RealmConfiguration {
             this.migration = null;
             this.deleteRealmIfMigrationNeeded = false;
             this.durability = SharedRealm.Durability.FULL;
+            this.notificationCoalescingWindowMillis = 0;
+            this.asyncTransactionBatchSize = 1;
+            this.asyncTransactionBatchLatencyMillis = 0;
+            this.queryResultCacheSizeInBytes = 0;
             if (DEFAULT_MODULE != null) {
                 this.modules.add(DEFAULT_MODULE);
             }
@@ -562,6 +652,130 @@ public final class RealmConfiguration {
             return this;
         }
 
+        /**
+         * Limits how often change notifications are delivered to each Looper thread. A change arriving within
+         * {@code window} of the previous delivery is postponed until the window has passed, and all changes arriving
+         * in the meantime are merged into a single refresh and a single re-run of the async queries.
+         * <p>
+         * This caps the work done on e.g. the UI thread when other threads commit at a high rate, at the cost of
+         * listeners being called up to {@code window} later. The default is {@code 0}, which delivers every change as
+         * soon as it arrives.
+         *
+         * @param window the minimum time between two notifications on the same thread.
+         * @param unit the unit of {@code window}.
+         * @throws IllegalArgumentException if {@code window} is negative or {@code unit} is {@code null}.
+         */
+        public Builder notificationCoalescingWindow(long window, TimeUnit unit) {
+            if (window < 0) {
+                throw new IllegalArgumentException("The coalescing window must be 0 (zero) or higher. Yours was: " + window);
+            }
+            if (unit == null) {
+                throw new IllegalArgumentException("A non-null TimeUnit must be provided");
+            }
+            this.notificationCoalescingWindowMillis = unit.toMillis(window);
+            return this;
+        }
+
+        /**
+         * Enables group commits for {@link Realm#executeTransactionAsync(Realm.Transaction)} and its variants.
+         * Instead of committing every async transaction on its own, pending transactions are drained by a single
+         * writer and executed inside one write transaction, so many small writes only pay for one commit and only
+         * create one new version. The callbacks of every transaction are still invoked individually.
+         * <p>
+         * A batch is committed as soon as it holds {@code maxBatchSize} transactions or when the oldest transaction has
+         * waited for {@code maxLatency}, whichever comes first. If a transaction in the batch throws, the batch is
+         * rolled back, the transactions before it are run again and committed, and only the failing transaction is
+         * reported as failed. {@link Realm.Transaction#execute(Realm)} may therefore be called more than once, so it
+         * should not have side effects outside the Realm.
+         * <p>
+         * Cancelling a {@link RealmAsyncTask} only has an effect while its transaction is still waiting in the queue.
+         * <p>
+         * Every commit waits for the file to be synced to disk. Write heavy workloads which can tolerate losing the
+         * transactions of the last {@code maxLatency} on a crash, e.g. buffers of telemetry or cached data, can use
+         * this to pay for one sync per batch instead of one per transaction. Unlike skipping the sync, a crash never
+         * leaves the file inconsistent: committed batches are durable and queued transactions are simply lost.
+         *
+         * @param maxBatchSize the maximum number of transactions committed together. {@code 1} disables grouping.
+         * @param maxLatency the maximum time a transaction waits for others before its batch is committed.
+         * @param unit the unit of {@code maxLatency}.
+         * @throws IllegalArgumentException if {@code maxBatchSize} is less than 1, {@code maxLatency} is negative or
+         *                                  {@code unit} is {@code null}.
+         */
+        public Builder groupAsyncTransactions(int maxBatchSize, long maxLatency, TimeUnit unit) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("The batch size must be 1 or higher. Yours was: " + maxBatchSize);
+            }
+            if (maxLatency < 0) {
+                throw new IllegalArgumentException("The batch latency must be 0 (zero) or higher. Yours was: " + maxLatency);
+            }
+            if (unit == null) {
+                throw new IllegalArgumentException("A non-null TimeUnit must be provided");
+            }
+            this.asyncTransactionBatchSize = maxBatchSize;
+            this.asyncTransactionBatchLatencyMillis = unit.toMillis(maxLatency);
+            return this;
+        }
+
+        /**
+         * Enables caching of query results. When {@link RealmQuery#findAll()}, {@link RealmQuery#distinct(String)} or
+         * one of the {@code findAllSorted} variants repeats a query that was already run by the same Realm instance on
+         * the same version of the Realm, the results are copied from the cache instead of running the query again.
+         * The cache is cleared as soon as the Realm moves to another version, and queries inside a write transaction,
+         * on {@link RealmResults} or on {@link RealmList}s are never cached.
+         * <p>
+         * Every Realm instance has its own cache. The least recently used results are evicted when the estimated
+         * native memory used by the cached results exceeds {@code maxSizeInBytes}. Use
+         * {@link Realm#getQueryResultCacheHitCount()} and {@link Realm#getQueryResultCacheMissCount()} to size it.
+         *
+         * @param maxSizeInBytes the estimated native memory each Realm instance may use for cached results, roughly
+         *                       8 bytes per cached row. {@code 0} disables the cache.
+         * @throws IllegalArgumentException if {@code maxSizeInBytes} is negative.
+         */
+        public Builder queryResultCache(long maxSizeInBytes) {
+            if (maxSizeInBytes < 0) {
+                throw new IllegalArgumentException("The cache size must be 0 (zero) or higher. Yours was: " + maxSizeInBytes);
+            }
+            this.queryResultCacheSizeInBytes = maxSizeInBytes;
+            return this;
+        }
+
+        /**
+         * Compacts the Realm file when it is opened while no instance of it is open in this process and the
+         * {@link DefaultCompactOnLaunchCallback} decides it is worth it, i.e. when a file larger than 50 MB is less than
+         * half full.
+         *
+         * @see #compactOnLaunch(CompactOnLaunchCallback)
+         */
+        public Builder compactOnLaunch() {
+            return compactOnLaunch(new DefaultCompactOnLaunchCallback());
+        }
+
+        /**
+         * Sets a callback deciding if the Realm file is compacted when it is opened while no instance of it is open in
+         * this process, i.e. when no {@link Realm} or {@link DynamicRealm} instance of it is open in any thread. This
+         * is not only the first time the Realm is opened: the callback is called again every time the Realm is opened
+         * after all of its instances have been closed. The callback gets the size of the file and the bytes used by
+         * the data, and the file is compacted before the instance is returned if it returns {@code true}.
+         * <p>
+         * Compaction needs exclusive access to the file. Opening waits a few seconds for running async queries on the
+         * Realm to finish. If another process has the file open, or an async query is still running after that, the
+         * file is left untouched and opening the Realm proceeds. Encrypted Realms are compacted through an encrypted
+         * copy which replaces the file. In-memory Realms are never compacted, and the callback isn't called for them.
+         * <p>
+         * WARNING: Compacting rewrites the whole file, which could potentially be a lengthy operation and should
+         * ideally be done on a background thread.
+         *
+         * @param compactOnLaunch the callback deciding if the file is compacted.
+         * @throws IllegalArgumentException if {@code compactOnLaunch} is {@code null}.
+         */
+        public Builder compactOnLaunch(CompactOnLaunchCallback compactOnLaunch) {
+            if (compactOnLaunch == null) {
+                throw new IllegalArgumentException("A non-null compactOnLaunch must be provided");
+            }
+            this.compactOnLaunch = compactOnLaunch;
+            return this;
+        }
+
         /**
          * Copies the Realm file from the given asset file path.
          * <p>
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import java.util.ConcurrentModificationException;
+
+import io.realm.internal.InvalidRow;
+import io.realm.internal.RealmObjectProxy;
+import io.realm.internal.Table;
+import io.realm.internal.TableOrView;
+import io.realm.internal.TableView;
+import io.realm.internal.UncheckedRow;
+
+/**
+ * A cursor over the objects of a {@link RealmResults} which doesn't allocate while moving.
+ * <p>
+ * Iterating a RealmResults creates a new object, and a new native row accessor, for every element. A cursor instead
+ * creates a single object and a single row accessor and re-points them at the next row on every move, so a loop over
+ * a large result produces no garbage. This makes the cursor a flyweight: the object returned by {@link #get()} always
+ * reflects the current position of the cursor, and must not be kept or compared after the cursor has moved. Use
+ * {@link RealmResults#get(int)} to obtain an object which can be kept.
+ * <p>
+ * Objects with {@link RealmList} fields cache their lists, so for those classes a new object is created on every move,
+ * while the native row accessor is still shared.
+ * <p>
+ * Like the iterators of RealmResults, a cursor throws a {@link ConcurrentModificationException} if the Realm is
+ * refreshed while moving it. A cursor cannot be passed between different threads.
+ *
+ * @param <E> the class of the objects visited by the cursor.
+ * @see RealmResults#cursor()
+ */
+public final class RealmCursor<E extends RealmModel> {
+
+    private static final long TABLE_VERSION_NONE = -1;
+
+    private final RealmResults<E> results;
+    private final BaseRealm realm;
+    private final boolean reuseObject;
+
+    // Created at the first move, as an empty table has no row to point the accessor at.
+    private E object;
+    private UncheckedRow row;
+    private long tableVersion;
+    private int position = -1;
+
+    RealmCursor(RealmResults<E> results) {
+        this.results = results;
+        this.realm = results.realm;
+        this.reuseObject = results.className != null || !hasLinkListColumns(realm.schema.getTable(results.classSpec));
+        this.tableVersion = results.isLoaded() ? results.getTable().getVersion() : TABLE_VERSION_NONE;
+    }
+
+    private static boolean hasLinkListColumns(Table table) {
+        long columnCount = table.getColumnCount();
+        for (long i = 0; i < columnCount; i++) {
+            if (table.getColumnType(i) == RealmFieldType.LIST) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of objects the cursor can visit.
+     *
+     * @return the size of the underlying {@link RealmResults}.
+     */
+    public int getCount() {
+        return results.size();
+    }
+
+    /**
+     * Returns the current position of the cursor.
+     *
+     * @return the position, {@code -1} before the first move.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Moves the cursor to the next object.
+     *
+     * @return {@code true} if the cursor points at an object, {@code false} if it moved past the last one.
+     * @throws IllegalStateException if the Realm is closed or called from an incorrect thread.
+     * @throws ConcurrentModificationException if the Realm was refreshed since the cursor was created.
+     */
+    public boolean moveToNext() {
+        return moveToPosition(position + 1);
+    }
+
+    /**
+     * Moves the cursor to the given position.
+     *
+     * @param position the position to move to.
+     * @return {@code true} if the cursor points at an object, {@code false} if {@code position} is out of range. The
+     * cursor is then placed before the first or after the last object.
+     * @throws IllegalStateException if the Realm is closed or called from an incorrect thread.
+     * @throws ConcurrentModificationException if the Realm was refreshed since the cursor was created.
+     */
+    public boolean moveToPosition(int position) {
+        realm.checkIfValid();
+        checkRealmIsStable();
+        int count = getCount();
+        if (position < 0) {
+            this.position = -1;
+            return false;
+        }
+        if (position >= count) {
+            this.position = count;
+            return false;
+        }
+        this.position = position;
+
+        TableOrView table = results.getTable();
+        long sourceRowIndex = (table instanceof TableView) ? ((TableView) table).getSourceRowIndex(position) : position;
+        if (object == null) {
+            object = realm.get(results.classSpec, results.className, sourceRowIndex);
+            if (sourceRowIndex != TableOrView.NO_MATCH) {
+                row = (UncheckedRow) getProxyState(object).getRow$realm();
+            }
+            return true;
+        }
+        if (!reuseObject) {
+            object = realm.get(results.classSpec, results.className, TableOrView.NO_MATCH);
+        }
+
+        ProxyState proxyState = getProxyState(object);
+        if (sourceRowIndex == TableOrView.NO_MATCH) {
+            // The object was deleted in the current transaction.
+            proxyState.setRow$realm(InvalidRow.INSTANCE);
+            return true;
+        }
+        if (row == null) {
+            Table sourceTable = (results.className != null) ? realm.schema.getTable(results.className)
+                    : realm.schema.getTable(results.classSpec);
+            row = sourceTable.getUncheckedRow(sourceRowIndex);
+        } else {
+            row.moveTo(sourceRowIndex);
+        }
+        proxyState.setRow$realm(row);
+        proxyState.setTableVersion$realm();
+        return true;
+    }
+
+    /**
+     * Returns the object at the current position. The same instance is returned after every move unless the class has
+     * {@link RealmList} fields, so it must not be kept once the cursor has moved.
+     *
+     * @return the object at the current position.
+     * @throws IllegalStateException if the cursor doesn't point at an object, or if the Realm is closed or called from
+     * an incorrect thread.
+     */
+    public E get() {
+        realm.checkIfValid();
+        if (position < 0 || position >= getCount() || object == null) {
+            throw new IllegalStateException("The cursor doesn't point at an object. Position: " + position);
+        }
+        return object;
+    }
+
+    private static ProxyState getProxyState(RealmModel object) {
+        return ((RealmObjectProxy) object).realmGet$proxyState();
+    }
+
+    private void checkRealmIsStable() {
+        if (!results.isLoaded()) {
+            return;
+        }
+        long version = results.getTable().getVersion();
+        // Same heuristic as the iterators of RealmResults, changes within a write transaction are allowed.
+        if (!realm.isInTransaction() && tableVersion > TABLE_VERSION_NONE && version != tableVersion) {
+            throw new ConcurrentModificationException("No outside changes to a Realm is allowed while moving a " +
+                    "RealmCursor. Don't call Realm.refresh() while moving.");
+        }
+        tableVersion = version;
+    }
+}
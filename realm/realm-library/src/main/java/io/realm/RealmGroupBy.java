@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import io.realm.internal.TableQuery;
+
+/**
+ * Groups the objects matching a {@link RealmQuery} by the value of a field and aggregates another field per group.
+ * Created by {@link RealmQuery#groupBy(String)}.
+ * <p>
+ * The grouping and the aggregation run natively in one pass over the matching objects, no objects are created.
+ * For example, the number of dogs of each age is:
+ * <pre>
+ * {@code
+ * RealmGroupedResults dogsPerAge = realm.where(Dog.class).groupBy("age").count();
+ * }
+ * </pre>
+ *
+ * @see RealmGroupedResults
+ */
+public final class RealmGroupBy {
+
+    private static final RealmFieldType[] NUMBER_FIELD_TYPES =
+            {RealmFieldType.INTEGER, RealmFieldType.FLOAT, RealmFieldType.DOUBLE};
+    private static final RealmFieldType[] NUMBER_AND_DATE_FIELD_TYPES =
+            {RealmFieldType.INTEGER, RealmFieldType.FLOAT, RealmFieldType.DOUBLE, RealmFieldType.DATE};
+
+    private final BaseRealm realm;
+    private final RealmObjectSchema schema;
+    private final TableQuery query;
+    private final long keyColumnIndex;
+    private final RealmFieldType keyType;
+
+    RealmGroupBy(BaseRealm realm, RealmObjectSchema schema, TableQuery query, long keyColumnIndex,
+                 RealmFieldType keyType) {
+        this.realm = realm;
+        this.schema = schema;
+        this.query = query;
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyType = keyType;
+    }
+
+    /**
+     * Counts the objects in each group.
+     *
+     * @return the number of objects in each group as {@link Long}s.
+     */
+    public RealmGroupedResults count() {
+        realm.checkIfValid();
+        Object[] groups = query.groupBy(keyColumnIndex, 0, TableQuery.AGGREGATE_COUNT);
+        return new RealmGroupedResults(keyType, RealmFieldType.INTEGER, groups);
+    }
+
+    /**
+     * Calculates the sum of a field in each group. Objects with {@code null} values are ignored.
+     *
+     * @param fieldName the field to sum. Only number fields are supported.
+     * @return the sum for each group, a {@link Long} for integer fields and a {@link Double} for floating point
+     * fields.
+     * @throws IllegalArgumentException if the field doesn't exist or is not a number type.
+     */
+    public RealmGroupedResults sum(String fieldName) {
+        return aggregate(fieldName, TableQuery.AGGREGATE_SUM, NUMBER_FIELD_TYPES);
+    }
+
+    /**
+     * Calculates the average of a field in each group. Objects with {@code null} values are ignored.
+     *
+     * @param fieldName the field to average. Only number fields are supported.
+     * @return the average for each group as {@link Double}s, {@code 0} for groups where all values are {@code null}.
+     * @throws IllegalArgumentException if the field doesn't exist or is not a number type.
+     */
+    public RealmGroupedResults average(String fieldName) {
+        return aggregate(fieldName, TableQuery.AGGREGATE_AVERAGE, NUMBER_FIELD_TYPES);
+    }
+
+    /**
+     * Finds the minimum value of a field in each group. Objects with {@code null} values are ignored.
+     *
+     * @param fieldName the field to look for minimums on. Only number and date fields are supported.
+     * @return the minimum for each group boxed like {@link RealmQuery#min(String)} and
+     * {@link RealmQuery#minimumDate(String)} box it, {@code null} for groups where all values are {@code null}.
+     * @throws IllegalArgumentException if the field doesn't exist or is not a number or date type.
+     */
+    public RealmGroupedResults min(String fieldName) {
+        return aggregate(fieldName, TableQuery.AGGREGATE_MINIMUM, NUMBER_AND_DATE_FIELD_TYPES);
+    }
+
+    /**
+     * Finds the maximum value of a field in each group. Objects with {@code null} values are ignored.
+     *
+     * @param fieldName the field to look for maximums on. Only number and date fields are supported.
+     * @return the maximum for each group boxed like {@link RealmQuery#max(String)} and
+     * {@link RealmQuery#maximumDate(String)} box it, {@code null} for groups where all values are {@code null}.
+     * @throws IllegalArgumentException if the field doesn't exist or is not a number or date type.
+     */
+    public RealmGroupedResults max(String fieldName) {
+        return aggregate(fieldName, TableQuery.AGGREGATE_MAXIMUM, NUMBER_AND_DATE_FIELD_TYPES);
+    }
+
+    private RealmGroupedResults aggregate(String fieldName, int operator, RealmFieldType[] validFieldTypes) {
+        realm.checkIfValid();
+        long[] columnIndices = schema.getColumnIndices(fieldName, validFieldTypes);
+        if (columnIndices.length > 1) {
+            throw new IllegalArgumentException("Aggregating fields of linked objects per group is not supported: "
+                    + fieldName);
+        }
+        long columnIndex = columnIndices[0];
+        RealmFieldType fieldType = schema.table.getColumnType(columnIndex);
+
+        RealmFieldType valueType;
+        if (operator == TableQuery.AGGREGATE_AVERAGE) {
+            valueType = RealmFieldType.DOUBLE;
+        } else if (operator == TableQuery.AGGREGATE_SUM) {
+            valueType = (fieldType == RealmFieldType.INTEGER) ? RealmFieldType.INTEGER : RealmFieldType.DOUBLE;
+        } else {
+            valueType = fieldType;
+        }
+        Object[] groups = query.groupBy(keyColumnIndex, columnIndex, operator);
+        return new RealmGroupedResults(keyType, valueType, groups);
+    }
+}
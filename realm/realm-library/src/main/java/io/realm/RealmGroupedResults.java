@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The result of a grouped aggregation created by {@link RealmGroupBy}. It contains one group for every distinct value
+ * of the grouped field, ordered by that value with the {@code null} group first.
+ * <p>
+ * The keys and values are kept in primitive arrays, so {@link #getLongValue(int)} and {@link #getDoubleValue(int)}
+ * read them without allocating. Unlike {@link RealmResults}, grouped results are a snapshot: they are computed when
+ * they are created and don't update when the Realm changes. They can be used from any thread.
+ */
+public final class RealmGroupedResults {
+
+    private final RealmFieldType keyType;
+    private final RealmFieldType valueType;
+    private final Object keys;
+    private final boolean[] keyIsNull;
+    private final long[] longValues;
+    private final double[] doubleValues;
+    private final boolean[] valueIsNull;
+
+    // groups is the result of TableQuery.groupBy(). valueType is the type of the aggregated values: INTEGER or DOUBLE,
+    // or FLOAT and DATE for minimums and maximums of those fields.
+    RealmGroupedResults(RealmFieldType keyType, RealmFieldType valueType, Object[] groups) {
+        this.keyType = keyType;
+        this.valueType = valueType;
+        this.keys = groups[0];
+        this.keyIsNull = (boolean[]) groups[1];
+        this.longValues = (groups[2] instanceof long[]) ? (long[]) groups[2] : null;
+        this.doubleValues = (groups[2] instanceof double[]) ? (double[]) groups[2] : null;
+        this.valueIsNull = (boolean[]) groups[3];
+    }
+
+    /**
+     * @return the number of groups.
+     */
+    public int size() {
+        return keyIsNull.length;
+    }
+
+    /**
+     * Returns the value of the grouped field shared by the objects of a group.
+     *
+     * @param index the index of the group.
+     * @return a {@link String}, {@link Long}, {@link Boolean} or {@link Date} depending on the type of the grouped
+     * field, or {@code null} for the group of objects where the field is {@code null}.
+     * @throws IndexOutOfBoundsException if {@code index} is not a valid group index.
+     */
+    public Object getKey(int index) {
+        if (keyIsNull[index]) {
+            return null;
+        }
+        switch (keyType) {
+            case STRING:
+                return ((String[]) keys)[index];
+            case BOOLEAN:
+                return ((boolean[]) keys)[index];
+            case DATE:
+                return new Date(((long[]) keys)[index]);
+            default:
+                return ((long[]) keys)[index];
+        }
+    }
+
+    /**
+     * Returns the aggregated value of a group.
+     *
+     * @param index the index of the group.
+     * @return the value boxed like the corresponding aggregate of {@link RealmQuery} boxes it, or {@code null} for the
+     * minimum or maximum of a group where the aggregated field is {@code null} for all objects.
+     * @throws IndexOutOfBoundsException if {@code index} is not a valid group index.
+     */
+    public Object getValue(int index) {
+        if (valueIsNull[index]) {
+            return null;
+        }
+        switch (valueType) {
+            case INTEGER:
+                return longValues[index];
+            case FLOAT:
+                return (float) doubleValues[index];
+            case DATE:
+                return new Date(longValues[index]);
+            default:
+                return doubleValues[index];
+        }
+    }
+
+    /**
+     * Returns the aggregated value of a group as a {@code long} without boxing it. Floating point values are
+     * truncated, dates are returned in milliseconds since the epoch.
+     *
+     * @param index the index of the group.
+     * @return the value or {@code 0} if it is {@code null}.
+     * @throws IndexOutOfBoundsException if {@code index} is not a valid group index.
+     */
+    public long getLongValue(int index) {
+        return (longValues != null) ? longValues[index] : (long) doubleValues[index];
+    }
+
+    /**
+     * Returns the aggregated value of a group as a {@code double} without boxing it. Dates are returned in
+     * milliseconds since the epoch.
+     *
+     * @param index the index of the group.
+     * @return the value or {@code 0} if it is {@code null}.
+     * @throws IndexOutOfBoundsException if {@code index} is not a valid group index.
+     */
+    public double getDoubleValue(int index) {
+        return (doubleValues != null) ? doubleValues[index] : longValues[index];
+    }
+
+    /**
+     * Returns the groups as a map from key to value.
+     *
+     * @return an unmodifiable map which iterates over the groups in the order of this result.
+     * @see #getKey(int)
+     * @see #getValue(int)
+     */
+    public Map<Object, Object> toMap() {
+        Map<Object, Object> map = new LinkedHashMap<Object, Object>(size() * 2);
+        for (int i = 0; i < size(); i++) {
+            map.put(getKey(i), getValue(i));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public String toString() {
+        return "RealmGroupedResults" + toMap();
+    }
+}
@@ -30,6 +30,7 @@ import java.util.NoSuchElementException;
 import io.realm.internal.InvalidRow;
 import io.realm.internal.LinkView;
 import io.realm.internal.RealmObjectProxy;
+import io.realm.internal.TableQuery;
 
 /**
  * RealmList is used to model one-to-many relationships in a {@link io.realm.RealmObject}.
@@ -53,6 +54,8 @@ public final class RealmList<E extends RealmModel> extends AbstractList<E> imple
 
     private static final String ONLY_IN_MANAGED_MODE_MESSAGE = "This method is only available in managed mode";
     private static final String NULL_OBJECTS_NOT_ALLOWED_MESSAGE = "RealmList does not accept null values";
+    private static final RealmFieldType[] NUMBER_FIELD_TYPES =
+            {RealmFieldType.INTEGER, RealmFieldType.FLOAT, RealmFieldType.DOUBLE};
     public static final String REMOVE_OUTSIDE_TRANSACTION_ERROR = "Objects can only be removed from inside a write transaction";
 
     private final boolean managedMode;
@@ -575,7 +578,7 @@ public final class RealmList<E extends RealmModel> extends AbstractList<E> imple
     @Override
     public Number min(String fieldName) {
         if (managedMode) {
-            return this.where().min(fieldName);
+            return (Number) aggregate(fieldName, TableQuery.AGGREGATE_MINIMUM, NUMBER_FIELD_TYPES);
         } else {
             throw new UnsupportedOperationException(ONLY_IN_MANAGED_MODE_MESSAGE);
         }
@@ -587,7 +590,7 @@ public final class RealmList<E extends RealmModel> extends AbstractList<E> imple
     @Override
     public Number max(String fieldName) {
         if (managedMode) {
-            return this.where().max(fieldName);
+            return (Number) aggregate(fieldName, TableQuery.AGGREGATE_MAXIMUM, NUMBER_FIELD_TYPES);
         } else {
             throw new UnsupportedOperationException(ONLY_IN_MANAGED_MODE_MESSAGE);
         }
@@ -599,7 +602,7 @@ public final class RealmList<E extends RealmModel> extends AbstractList<E> imple
     @Override
     public Number sum(String fieldName) {
         if (managedMode) {
-            return this.where().sum(fieldName);
+            return (Number) aggregate(fieldName, TableQuery.AGGREGATE_SUM, NUMBER_FIELD_TYPES);
         } else {
             throw new UnsupportedOperationException(ONLY_IN_MANAGED_MODE_MESSAGE);
         }
@@ -611,7 +614,7 @@ public final class RealmList<E extends RealmModel> extends AbstractList<E> imple
     @Override
     public double average(String fieldName) {
         if (managedMode) {
-            return this.where().average(fieldName);
+            return ((Number) aggregate(fieldName, TableQuery.AGGREGATE_AVERAGE, NUMBER_FIELD_TYPES)).doubleValue();
         } else {
             throw new UnsupportedOperationException(ONLY_IN_MANAGED_MODE_MESSAGE);
         }
@@ -623,7 +626,7 @@ public final class RealmList<E extends RealmModel> extends AbstractList<E> imple
     @Override
     public Date maxDate(String fieldName) {
         if (managedMode) {
-            return this.where().maximumDate(fieldName);
+            return toDate(aggregate(fieldName, TableQuery.AGGREGATE_MAXIMUM, RealmFieldType.DATE));
         } else {
             throw new UnsupportedOperationException(ONLY_IN_MANAGED_MODE_MESSAGE);
         }
@@ -635,12 +638,29 @@ public final class RealmList<E extends RealmModel> extends AbstractList<E> imple
     @Override
     public Date minDate(String fieldName) {
         if (managedMode) {
-            return this.where().minimumDate(fieldName);
+            return toDate(aggregate(fieldName, TableQuery.AGGREGATE_MINIMUM, RealmFieldType.DATE));
         } else {
             throw new UnsupportedOperationException(ONLY_IN_MANAGED_MODE_MESSAGE);
         }
     }
 
+    // Aggregates a field of the objects in this list in one native pass over the list, without creating a query.
+    // Fields of linked objects are aggregated by a native query on the list which follows the links.
+    private Object aggregate(String fieldName, int operator, RealmFieldType... validFieldTypes) {
+        checkValidView();
+        RealmObjectSchema schema = (className != null) ? realm.schema.getSchemaForClass(className)
+                : realm.schema.getSchemaForClass(clazz);
+        long[] columnIndices = schema.getColumnIndices(fieldName, validFieldTypes);
+        if (columnIndices.length == 1) {
+            return view.aggregate(columnIndices[0], operator);
+        }
+        return view.where().aggregateLinkPath(columnIndices, operator);
+    }
+
+    private static Date toDate(Object milliseconds) {
+        return milliseconds == null ? null : new Date((Long) milliseconds);
+    }
+
     /**
      * {@inheritDoc}
      */
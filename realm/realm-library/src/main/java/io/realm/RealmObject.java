@@ -18,6 +18,7 @@ package io.realm;
 
 import android.app.IntentService;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 import io.realm.annotations.RealmClass;
@@ -112,6 +113,87 @@ public abstract class RealmObject implements RealmModel {
     }
 
 
+    /**
+     * Returns the size in bytes of a binary field of a managed object, e.g. to allocate a buffer for
+     * {@link #getBlobBuffer(RealmModel, String, ByteBuffer)}.
+     *
+     * @param object the managed object to read from.
+     * @param fieldName the name of a {@code byte[]} field.
+     * @return the size of the value, or {@code -1} if the field is {@code null}.
+     * @throws IllegalArgumentException if the object is not managed or the field isn't a binary field.
+     * @throws IllegalStateException if the Realm is closed or accessed from the wrong thread.
+     */
+    public static <E extends RealmModel> long getBlobSize(E object, String fieldName) {
+        Row row = getManagedRow(object);
+        ((RealmObjectProxy) object).realmGet$proxyState().getRealm$realm().checkIfValid();
+        return row.getBinarySize(getBinaryColumnIndex(row, fieldName));
+    }
+
+    /**
+     * Copies a binary field of a managed object into the given buffer, starting at its position, and advances the
+     * position past the value. The value is copied straight from the Realm file, without allocating an intermediate
+     * {@code byte[]} or buffer, so a direct buffer can be reused to read large values without putting pressure on the
+     * garbage collector and then be passed to NIO channels as it is.
+     *
+     * @param object the managed object to read from.
+     * @param fieldName the name of a {@code byte[]} field.
+     * @param destination the buffer to copy the value into.
+     * @return the size of the value, or {@code -1} if the field is {@code null}.
+     * @throws IllegalArgumentException if the object is not managed, the field isn't a binary field or
+     *         {@code destination} is {@code null}.
+     * @throws IllegalStateException if the Realm is closed or accessed from the wrong thread.
+     * @throws java.nio.BufferOverflowException if the value is larger than the remaining bytes of {@code destination}.
+     *         Nothing is copied then.
+     * @throws java.nio.ReadOnlyBufferException if {@code destination} is read-only.
+     */
+    public static <E extends RealmModel> long getBlobBuffer(E object, String fieldName, ByteBuffer destination) {
+        Row row = getManagedRow(object);
+        ((RealmObjectProxy) object).realmGet$proxyState().getRealm$realm().checkIfValid();
+        if (destination == null) {
+            throw new IllegalArgumentException("Non-null 'destination' required.");
+        }
+        return row.getBinaryByteBuffer(getBinaryColumnIndex(row, fieldName), destination);
+    }
+
+    /**
+     * Sets a binary field of a managed object from the remaining bytes of a buffer. Direct buffers, e.g. a
+     * {@link java.nio.MappedByteBuffer} of a file, are copied into the Realm without an intermediate {@code byte[]}.
+     * The position of the buffer is not changed.
+     *
+     * @param object the managed object to update.
+     * @param fieldName the name of a {@code byte[]} field.
+     * @param value the new value, or {@code null}.
+     * @throws IllegalArgumentException if the object is not managed or the field isn't a binary field.
+     * @throws IllegalStateException if the Realm is closed, accessed from the wrong thread or not in a transaction.
+     */
+    public static <E extends RealmModel> void setBlobBuffer(E object, String fieldName, ByteBuffer value) {
+        Row row = getManagedRow(object);
+        ((RealmObjectProxy) object).realmGet$proxyState().getRealm$realm().checkIfValidAndInTransaction();
+        row.setBinaryByteBuffer(getBinaryColumnIndex(row, fieldName), value);
+    }
+
+    private static Row getManagedRow(RealmModel object) {
+        if (!(object instanceof RealmObjectProxy)) {
+            throw new IllegalArgumentException("Object not managed by Realm.");
+        }
+        Row row = ((RealmObjectProxy) object).realmGet$proxyState().getRow$realm();
+        if (row == null) {
+            throw new IllegalStateException("Object malformed: missing object in Realm. Make sure to instantiate RealmObjects with Realm.createObject()");
+        }
+        return row;
+    }
+
+    private static long getBinaryColumnIndex(Row row, String fieldName) {
+        long columnIndex = row.getColumnIndex(fieldName);
+        if (columnIndex < 0) {
+            throw new IllegalArgumentException(String.format("Field '%s' does not exist.", fieldName));
+        }
+        if (row.getColumnType(columnIndex) != RealmFieldType.BINARY) {
+            throw new IllegalArgumentException(String.format("Field '%s' is not a binary field.", fieldName));
+        }
+        return columnIndex;
+    }
+
     /**
      * Checks if the RealmObject is still valid to use i.e., the RealmObject hasn't been deleted nor has the
      * {@link io.realm.Realm} been closed. It will always return {@code true} for unmanaged objects.
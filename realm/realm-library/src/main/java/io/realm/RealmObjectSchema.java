@@ -17,11 +17,11 @@
 package io.realm;
 
 import io.realm.annotations.Required;
+import io.realm.internal.ColumnInfo;
 import io.realm.internal.Table;
 import io.realm.internal.TableOrView;
 
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -67,19 +67,19 @@ public final class RealmObjectSchema {
 
     private final BaseRealm realm;
     final Table table;
-    private final Map<String, Long> columnIndices;
+    private final ColumnInfo columnInfo;
 
     /**
      * Creates a schema object for a given Realm class.
      *
      * @param realm Realm holding the objects.
      * @param table table representation of the Realm class
-     * @param columnIndices mapping between field names and column indexes for the given table
+     * @param columnInfo mapping between field names and column indexes for the given table
      */
-    RealmObjectSchema(BaseRealm realm, Table table, Map<String, Long> columnIndices) {
+    RealmObjectSchema(BaseRealm realm, Table table, ColumnInfo columnInfo) {
         this.realm = realm;
         this.table = table;
-        this.columnIndices = columnIndices;
+        this.columnInfo = columnInfo;
     }
 
     /**
@@ -630,8 +630,8 @@ public final class RealmObjectSchema {
             }
             return columnIndices;
         } else {
-            Long fieldIndex = getFieldIndex(fieldDescription);
-            if (fieldIndex == null) {
+            long fieldIndex = columnInfo.getColumnIndex(fieldDescription);
+            if (fieldIndex < 0) {
                 throw new IllegalArgumentException(String.format("Field '%s' does not exist.", fieldDescription));
             }
             RealmFieldType tableColumnType = table.getColumnType(fieldIndex);
@@ -659,7 +659,8 @@ public final class RealmObjectSchema {
      * @return column index or null if it doesn't exists.
      */
     Long getFieldIndex(String fieldName) {
-        return columnIndices.get(fieldName);
+        long index = columnInfo.getColumnIndex(fieldName);
+        return index < 0 ? null : index;
     }
 
     /**
@@ -670,13 +671,23 @@ public final class RealmObjectSchema {
      * @throws IllegalArgumentException if the field does not exists.
      */
     long getAndCheckFieldIndex(String fieldName) {
-        Long index = columnIndices.get(fieldName);
-        if (index == null) {
+        long index = columnInfo.getColumnIndex(fieldName);
+        if (index < 0) {
             throw new IllegalArgumentException("Field does not exist: " + fieldName);
         }
         return index;
     }
 
+    /**
+     * Checks if the field of the given column is annotated with {@code @FullText}.
+     *
+     * @param columnIndex the column index.
+     * @return {@code true} if the field can be searched with {@link RealmQuery#matches(String, String)}.
+     */
+    boolean isFullText(long columnIndex) {
+        return columnInfo.isFullText(columnIndex);
+    }
+
     /**
      * Returns the type used by the underlying storage engine to represent this field.
      *
@@ -707,72 +718,22 @@ public final class RealmObjectSchema {
         }
     }
 
-    static final class DynamicColumnMap implements Map<String, Long> {
+    static final class DynamicColumnInfo extends ColumnInfo {
         private final Table table;
 
-        public DynamicColumnMap(Table table) {
+        public DynamicColumnInfo(Table table) {
             this.table = table;
         }
 
         @Override
-        public Long get(Object key) {
-            long ret = table.getColumnIndex((String) key);
-            return ret < 0 ? null : ret;
-        }
-
-        @Override
-        public void clear() {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public boolean containsKey(Object key) {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public boolean containsValue(Object value) {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Set<Entry<String, Long>> entrySet() {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public boolean isEmpty() {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Set<String> keySet() {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Long put(String key, Long value) {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public void putAll(Map<? extends String, ? extends Long> map) {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Long remove(Object key) {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public int size() {
-            throw new UnsupportedOperationException();
+        public long getColumnIndex(String fieldName) {
+            return table.getColumnIndex(fieldName);
         }
 
+        // Dynamic Realms don't know the annotations of the model classes, so all String fields can be searched.
         @Override
-        public Collection<Long> values() {
-            throw new UnsupportedOperationException();
+        public boolean isFullText(long columnIndex) {
+            return table.getColumnType(columnIndex) == RealmFieldType.STRING;
         }
     }
 }
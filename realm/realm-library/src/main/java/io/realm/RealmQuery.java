@@ -21,6 +21,7 @@ import android.os.Handler;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -33,6 +34,7 @@ import io.realm.internal.LinkView;
 import io.realm.internal.RealmObjectProxy;
 import io.realm.internal.Row;
 import io.realm.internal.SharedRealm;
+import io.realm.internal.SharedRealmPool;
 import io.realm.internal.Table;
 import io.realm.internal.TableOrView;
 import io.realm.internal.TableQuery;
@@ -71,10 +73,16 @@ public final class RealmQuery<E extends RealmModel> {
     private TableQuery query;
     private static final String TYPE_MISMATCH = "Field '%s': type mismatch - %s expected.";
     private static final String EMPTY_VALUES = "Non-empty 'values' must be provided.";
+    private static final RealmFieldType[] NUMBER_FIELD_TYPES =
+            {RealmFieldType.INTEGER, RealmFieldType.FLOAT, RealmFieldType.DOUBLE};
+    private static final RealmFieldType[] DISTINCT_FIELD_TYPES = {RealmFieldType.BOOLEAN, RealmFieldType.INTEGER,
+            RealmFieldType.STRING, RealmFieldType.DATE, RealmFieldType.FLOAT, RealmFieldType.DOUBLE};
 
 
     private final static Long INVALID_NATIVE_POINTER = 0L;
     private ArgumentsHolder argumentsHolder;
+    private long offset = 0;
+    private long limit = Table.INFINITE;
 
     /**
      * Creates a query for objects of a given class from a {@link Realm}.
@@ -1249,6 +1257,36 @@ public final class RealmQuery<E extends RealmModel> {
         return this;
     }
 
+    /**
+     * Condition that the value of a field annotated with {@link io.realm.annotations.FullText} contains all the given
+     * words. Words are sequences of letters and digits, they are compared case insensitive for Latin-1 characters and
+     * can appear in any order. A word ending with {@code *} matches all words starting with it, e.g.
+     * {@code matches("text", "realm data*")} matches "Realm stores data" and "Databases in Realm".
+     * <p>
+     * Like {@link #contains(String, String)} this scans the values of the field, splitting each of them into words, so
+     * it is best used after the conditions which exclude most objects. No index is kept and results are not ranked.
+     *
+     * @param fieldName the field to search.
+     * @param terms the words to search for.
+     * @return the query object.
+     * @throws IllegalArgumentException if the field is not a String field annotated with
+     * {@link io.realm.annotations.FullText}, is a field of a linked object, or if {@code terms} contain no words.
+     */
+    public RealmQuery<E> matches(String fieldName, String terms) {
+        long columnIndices[] = schema.getColumnIndices(fieldName, RealmFieldType.STRING);
+        if (columnIndices.length > 1) {
+            throw new IllegalArgumentException("matches() is not supported on fields of linked objects: " + fieldName);
+        }
+        if (!schema.isFullText(columnIndices[0])) {
+            throw new IllegalArgumentException(String.format("Field '%s' is not annotated with @FullText.", fieldName));
+        }
+        if (terms == null) {
+            throw new IllegalArgumentException("Non-null 'terms' required.");
+        }
+        this.query.matches(columnIndices[0], terms);
+        return this;
+    }
+
     // Grouping
 
     /**
@@ -1293,6 +1331,42 @@ public final class RealmQuery<E extends RealmModel> {
         return this;
     }
 
+    /**
+     * Limits the results of {@code findAll}, {@code findAllSorted} and {@code distinct} and their asynchronous
+     * variants to at most {@code limit} objects. Combined with {@link #offset(long)} it selects a page of the results.
+     * <p>
+     * The limit is applied after sorting and distinct, and the results keep only the objects of their page as they
+     * update. Unsorted queries stop searching as soon as the page is full.
+     *
+     * @param limit the maximum number of objects in the results.
+     * @return the query object.
+     * @throws IllegalArgumentException if {@code limit} is less than 1.
+     */
+    public RealmQuery<E> limit(long limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be at least 1: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Skips the first {@code offset} objects of the results of {@code findAll}, {@code findAllSorted} and
+     * {@code distinct} and their asynchronous variants. Combined with {@link #limit(long)} it selects a page of the
+     * results.
+     *
+     * @param offset the number of objects to skip.
+     * @return the query object.
+     * @throws IllegalArgumentException if {@code offset} is negative.
+     */
+    public RealmQuery<E> offset(long offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("The offset must not be negative: " + offset);
+        }
+        this.offset = offset;
+        return this;
+    }
+
     /**
      * Condition that finds values that are considered "empty" i.e., an empty list, the 0-length string or byte array.
      *
@@ -1321,30 +1395,37 @@ public final class RealmQuery<E extends RealmModel> {
         return this;
     }
 
+    /**
+     * Groups the objects matching this query by the value of a field, so another field can be aggregated per group.
+     *
+     * @param fieldName the field to group by. Only string, integer, boolean and date fields are supported.
+     * @return a {@link RealmGroupBy} to compute the aggregates per group with.
+     * @throws IllegalArgumentException if the field doesn't exist, has an unsupported type or is a field of linked
+     * objects.
+     */
+    public RealmGroupBy groupBy(String fieldName) {
+        realm.checkIfValid();
+        long[] columnIndices = schema.getColumnIndices(fieldName, RealmFieldType.STRING, RealmFieldType.INTEGER,
+                RealmFieldType.BOOLEAN, RealmFieldType.DATE);
+        if (columnIndices.length > 1) {
+            throw new IllegalArgumentException("Grouping by fields of linked objects is not supported: " + fieldName);
+        }
+        return new RealmGroupBy(realm, schema, query, columnIndices[0], schema.table.getColumnType(columnIndices[0]));
+    }
+
     /**
      * Returns a distinct set of objects of a specific class. If the result is sorted, the first
      * object will be returned in case of multiple occurrences, otherwise it is undefined which
      * object is returned.
      *
-     * @param fieldName the field name.
+     * @param fieldName the field name. A field of a linked object can be given as a path like {@code "owner.name"}.
      * @return a non-null {@link RealmResults} containing the distinct objects.
      * @throws IllegalArgumentException if a field is {@code null}, does not exist, is an unsupported type,
-     * is not indexed, or points to linked fields.
+     * or is a field of objects in a list.
+     * @see #distinct(String, String...)
      */
     public RealmResults<E> distinct(String fieldName) {
-        checkQueryIsNotReused();
-        long columnIndex = getAndValidateDistinctColumnIndex(fieldName, this.table.getTable());
-        TableView tableView = this.query.findAll();
-        tableView.distinct(columnIndex);
-
-        RealmResults<E> realmResults;
-        if (isDynamicQuery()) {
-            //noinspection unchecked
-            realmResults = (RealmResults<E>) RealmResults.createFromDynamicTableOrView(realm, tableView, className);
-        } else {
-            realmResults = RealmResults.createFromTableOrView(realm, tableView, clazz);
-        }
-        return realmResults;
+        return distinct(fieldName, new String[0]);
     }
 
     /**
@@ -1352,16 +1433,35 @@ public final class RealmQuery<E extends RealmModel> {
      * sorted, the first object will be returned in case of multiple occurrences, otherwise it is
      * undefined which object is returned.
      *
-     * @param fieldName the field name.
+     * @param fieldName the field name. A field of a linked object can be given as a path like {@code "owner.name"}.
      * @return immediately a {@link RealmResults}. Users need to register a listener
      * {@link io.realm.RealmResults#addChangeListener(RealmChangeListener)} to be notified when the
      * query completes.
      * @throws IllegalArgumentException if a field is {@code null}, does not exist, is an unsupported type,
-     * is not indexed, or points to linked fields.
+     * or is a field of objects in a list.
+     * @see #distinctAsync(String, String...)
      */
     public RealmResults<E> distinctAsync(String fieldName) {
+        return distinctAsync(fieldName, new String[0]);
+    }
+
+    /**
+     * Asynchronously returns a distinct set of objects from a specific class. When multiple distinct fields are
+     * given, all unique combinations of values in the fields will be returned. The distinct is re-evaluated in the
+     * background together with the other async queries every time the Realm changes.
+     *
+     * @param firstFieldName first field name to use when finding distinct objects.
+     * @param remainingFieldNames remaining field names when determining all unique combinations of field values.
+     * @return immediately a {@link RealmResults}. Users need to register a listener
+     * {@link io.realm.RealmResults#addChangeListener(RealmChangeListener)} to be notified when the
+     * query completes.
+     * @throws IllegalArgumentException if a field is {@code null}, does not exist, is an unsupported type,
+     * or is a field of objects in a list.
+     * @see #distinct(String, String...)
+     */
+    public RealmResults<E> distinctAsync(String firstFieldName, String... remainingFieldNames) {
         checkQueryIsNotReused();
-        final long columnIndex = getAndValidateDistinctColumnIndex(fieldName, this.table.getTable());
+        final long[][] columnPaths = getDistinctColumnPaths(schema, firstFieldName, remainingFieldNames);
         final WeakReference<Handler> weakHandler = getWeakReferenceHandler();
 
         // handover the query (to be used by a worker thread)
@@ -1369,7 +1469,11 @@ public final class RealmQuery<E extends RealmModel> {
 
         // save query arguments (for future update)
         argumentsHolder = new ArgumentsHolder(ArgumentsHolder.TYPE_DISTINCT);
-        argumentsHolder.columnIndex = columnIndex;
+        argumentsHolder.distinctColumnPaths = columnPaths;
+        argumentsHolder.offset = offset;
+        argumentsHolder.limit = limit;
+        final long offset = this.offset;
+        final long limit = this.limit;
 
         // we need to use the same configuration to open a background SharedRealm (i.e Realm)
         // to perform the query
@@ -1394,12 +1498,12 @@ public final class RealmQuery<E extends RealmModel> {
                     SharedRealm sharedRealm = null;
 
                     try {
-                        sharedRealm = SharedRealm.getInstance(realmConfiguration);
+                        sharedRealm = SharedRealmPool.acquire(realmConfiguration);
 
                         long handoverTableViewPointer = TableQuery.
                                 findDistinctWithHandover(sharedRealm,
                                         handoverQueryPointer,
-                                        columnIndex);
+                                        columnPaths, offset, limit);
 
                         QueryUpdateTask.Result result = QueryUpdateTask.Result.newRealmResultsResponse();
                         result.updatedTableViews.put(weakRealmResults, handoverTableViewPointer);
@@ -1415,7 +1519,7 @@ public final class RealmQuery<E extends RealmModel> {
 
                     } finally {
                         if (sharedRealm != null && !sharedRealm.isClosed()) {
-                            sharedRealm.close();
+                            SharedRealmPool.release(sharedRealm);
                         }
                     }
                 } else {
@@ -1430,45 +1534,33 @@ public final class RealmQuery<E extends RealmModel> {
         return realmResults;
     }
 
-    // Find and validate the column index for the field name used to create a distinctive TableView.
-    static long getAndValidateDistinctColumnIndex(String fieldName, Table table) {
-        // Check empty field name
-        if (fieldName == null || fieldName.isEmpty()) {
-            throw new IllegalArgumentException("Non-empty field name must be provided.");
-        }
-        long columnIndex = table.getColumnIndex(fieldName);
-        // Check if field exists
-        if (columnIndex == -1) {
-            throw new IllegalArgumentException(String.format("Field name '%s' does not exist.", fieldName));
-        }
-        // Check linked fields
-        if (fieldName.contains(".")) {
-            throw new IllegalArgumentException("Distinct operation on linked properties is not supported: " + fieldName);
-        }
-        // check if the field is indexed
-        if (!table.hasSearchIndex(columnIndex)) {
-            throw new IllegalArgumentException(String.format("Field name '%s' must be indexed in order to use it for distinct queries.", fieldName));
-        }
-        return columnIndex;
-    }
-
     /**
      * Returns a distinct set of objects from a specific class. When multiple distinct fields are
      * given, all unique combinations of values in the fields will be returned. In case of multiple
      * matches, it is undefined which object is returned. Unless the result is sorted, then the
      * first object will be returned.
+     * <p>
+     * The values are compared natively, so the fields don't need to be indexed. Boolean, integer, string, date,
+     * float and double fields are supported, also as fields of linked objects given as a path like
+     * {@code "owner.name"}. The result can be sorted with {@link RealmResults#sort(String)}.
      *
      * @param firstFieldName first field name to use when finding distinct objects.
      * @param remainingFieldNames remaining field names when determining all unique combinations of field values.
      * @return a non-null {@link RealmResults} containing the distinct objects.
      * @throws IllegalArgumentException if field names is empty or {@code null}, does not exist,
-     * is an unsupported type, or points to a linked field.
+     * is an unsupported type, or is a field of objects in a list.
      */
     public RealmResults<E> distinct(String firstFieldName, String... remainingFieldNames) {
         checkQueryIsNotReused();
-        List<Long> columnIndexes = getValidatedColumIndexes(this.table.getTable(), firstFieldName, remainingFieldNames);
-        TableView tableView = this.query.findAll();
-        tableView.distinct(columnIndexes);
+        long[][] columnPaths = getDistinctColumnPaths(schema, firstFieldName, remainingFieldNames);
+        String cacheKey = getResultCacheKey("distinct" + Arrays.deepToString(columnPaths));
+        TableView tableView = getCachedResults(cacheKey);
+        if (tableView == null) {
+            tableView = this.query.findAll();
+            tableView.distinct(columnPaths);
+            cacheResults(cacheKey, tableView);
+        }
+        tableView = getWindow(tableView);
 
         RealmResults<E> realmResults;
         if (isDynamicQuery()) {
@@ -1480,20 +1572,26 @@ public final class RealmQuery<E extends RealmModel> {
         return realmResults;
     }
 
-    // find and validate the column indices of fields for building a distinctive TableView with multi-args
-    static List<Long> getValidatedColumIndexes(Table table, String firstFieldName, String... remainingFieldNames) {
-        List<Long> columnIndexes = new ArrayList<Long>();
-        // find the first index
-        long firstIndex = getAndValidateDistinctColumnIndex(firstFieldName, table);
-        columnIndexes.add(firstIndex);
-        // add remaining of indexes
-        if (remainingFieldNames != null && 0 < remainingFieldNames.length) {
-            for (String field : remainingFieldNames) {
-                long index = getAndValidateDistinctColumnIndex(field, table);
-                columnIndexes.add(index);
+    // Finds and validates the column paths of the fields of a distinct, see TableView.distinct(long[][]). Fields of
+    // linked objects can be given as a path, but not fields of objects in lists.
+    static long[][] getDistinctColumnPaths(RealmObjectSchema schema, String firstFieldName,
+                                           String... remainingFieldNames) {
+        int numberOfFields = 1 + (remainingFieldNames == null ? 0 : remainingFieldNames.length);
+        long[][] columnPaths = new long[numberOfFields][];
+        for (int i = 0; i < numberOfFields; i++) {
+            String fieldName = (i == 0) ? firstFieldName : remainingFieldNames[i - 1];
+            long[] columnPath = schema.getColumnIndices(fieldName, DISTINCT_FIELD_TYPES);
+            Table table = schema.table;
+            for (int j = 0; j < columnPath.length - 1; j++) {
+                if (table.getColumnType(columnPath[j]) != RealmFieldType.OBJECT) {
+                    throw new IllegalArgumentException(
+                            "Distinct on fields of objects in lists is not supported: " + fieldName);
+                }
+                table = table.getLinkTarget(columnPath[j]);
             }
+            columnPaths[i] = columnPath;
         }
-        return columnIndexes;
+        return columnPaths;
     }
 
     // Aggregates
@@ -1503,13 +1601,18 @@ public final class RealmQuery<E extends RealmModel> {
     /**
      * Calculates the sum of a given field.
      *
-     * @param fieldName the field to sum. Only number fields are supported.
+     * @param fieldName the field to sum. Only number fields are supported. A field of linked objects can be given as a
+     *        path like {@code "items.price"}. The values reached through lists are aggregated once for every path
+     *        leading to them.
      * @return the sum of fields of the matching objects. If no objects exist or they all have {@code null} as the value
      *         for the given field, {@code 0} will be returned. When computing the sum, objects with {@code null} values
      *         are ignored.
      * @throws java.lang.IllegalArgumentException if the field is not a number type.
      */
     public Number sum(String fieldName) {
+        if (isLinkPath(fieldName)) {
+            return (Number) aggregateLinkPath(fieldName, TableQuery.AGGREGATE_SUM, NUMBER_FIELD_TYPES);
+        }
         long columnIndex = schema.getAndCheckFieldIndex(fieldName);
         switch (table.getColumnType(columnIndex)) {
             case INTEGER:
@@ -1528,13 +1631,17 @@ public final class RealmQuery<E extends RealmModel> {
     /**
      * Returns the average of a given field.
      *
-     * @param fieldName the field to calculate average on. Only number fields are supported.
+     * @param fieldName the field to calculate average on. Only number fields are supported. A field of linked objects
+     * can be given as a path like {@code "items.price"}.
      * @return the average for the given field amongst objects in query results. This will be of type double for all
      * types of number fields. If no objects exist or they all have {@code null} as the value for the given field,
      * {@code 0} will be returned. When computing the average, objects with {@code null} values are ignored.
      * @throws java.lang.IllegalArgumentException if the field is not a number type.
      */
     public double average(String fieldName) {
+        if (isLinkPath(fieldName)) {
+            return ((Number) aggregateLinkPath(fieldName, TableQuery.AGGREGATE_AVERAGE, NUMBER_FIELD_TYPES)).doubleValue();
+        }
         long columnIndex = schema.getAndCheckFieldIndex(fieldName);
         switch (table.getColumnType(columnIndex)) {
             case INTEGER:
@@ -1553,7 +1660,8 @@ public final class RealmQuery<E extends RealmModel> {
     /**
      * Finds the minimum value of a field.
      *
-     * @param fieldName the field to look for a minimum on. Only number fields are supported.
+     * @param fieldName the field to look for a minimum on. Only number fields are supported. A field of linked objects
+     * can be given as a path like {@code "items.price"}.
      * @return if no objects exist or they all have {@code null} as the value for the given field, {@code null} will be
      * returned. Otherwise the minimum value is returned. When determining the minimum value, objects with {@code null}
      * values are ignored.
@@ -1561,6 +1669,9 @@ public final class RealmQuery<E extends RealmModel> {
      */
     public Number min(String fieldName) {
         realm.checkIfValid();
+        if (isLinkPath(fieldName)) {
+            return (Number) aggregateLinkPath(fieldName, TableQuery.AGGREGATE_MINIMUM, NUMBER_FIELD_TYPES);
+        }
         long columnIndex = schema.getAndCheckFieldIndex(fieldName);
         switch (table.getColumnType(columnIndex)) {
             case INTEGER:
@@ -1577,13 +1688,16 @@ public final class RealmQuery<E extends RealmModel> {
     /**
      * Finds the minimum value of a field.
      *
-     * @param fieldName the field name
+     * @param fieldName the field name. A field of linked objects can be given as a path like {@code "items.date"}.
      * @return if no objects exist or they all have {@code null} as the value for the given date field, {@code null}
      * will be returned. Otherwise the minimum date is returned. When determining the minimum date, objects with
      * {@code null} values are ignored.
      * @throws java.lang.UnsupportedOperationException if the query is not valid ("syntax error").
      */
     public Date minimumDate(String fieldName) {
+        if (isLinkPath(fieldName)) {
+            return toDate(aggregateLinkPath(fieldName, TableQuery.AGGREGATE_MINIMUM, RealmFieldType.DATE));
+        }
         long columnIndex = schema.getAndCheckFieldIndex(fieldName);
         return this.query.minimumDate(columnIndex);
     }
@@ -1593,7 +1707,8 @@ public final class RealmQuery<E extends RealmModel> {
     /**
      * Finds the maximum value of a field.
      *
-     * @param fieldName the field to look for a maximum on. Only number fields are supported.
+     * @param fieldName the field to look for a maximum on. Only number fields are supported. A field of linked objects
+     * can be given as a path like {@code "items.price"}.
      * @return  if no objects exist or they all have {@code null} as the value for the given field, {@code null} will be
      * returned. Otherwise the maximum value is returned. When determining the maximum value, objects with {@code null}
      * values are ignored.
@@ -1601,6 +1716,9 @@ public final class RealmQuery<E extends RealmModel> {
      */
     public Number max(String fieldName) {
         realm.checkIfValid();
+        if (isLinkPath(fieldName)) {
+            return (Number) aggregateLinkPath(fieldName, TableQuery.AGGREGATE_MAXIMUM, NUMBER_FIELD_TYPES);
+        }
         long columnIndex = schema.getAndCheckFieldIndex(fieldName);
         switch (table.getColumnType(columnIndex)) {
             case INTEGER:
@@ -1617,17 +1735,35 @@ public final class RealmQuery<E extends RealmModel> {
     /**
      * Finds the maximum value of a field.
      *
-     * @param fieldName the field name.
+     * @param fieldName the field name. A field of linked objects can be given as a path like {@code "items.date"}.
      * @return if no objects exist or they all have {@code null} as the value for the given date field, {@code null}
      * will be returned. Otherwise the maximum date is returned. When determining the maximum date, objects with
      * {@code null} values are ignored.
      * @throws java.lang.UnsupportedOperationException if the query is not valid ("syntax error").
      */
     public Date maximumDate(String fieldName) {
+        if (isLinkPath(fieldName)) {
+            return toDate(aggregateLinkPath(fieldName, TableQuery.AGGREGATE_MAXIMUM, RealmFieldType.DATE));
+        }
         long columnIndex = schema.getAndCheckFieldIndex(fieldName);
         return this.query.maximumDate(columnIndex);
     }
 
+    private static boolean isLinkPath(String fieldName) {
+        return fieldName != null && fieldName.contains(".");
+    }
+
+    // Aggregates a field of linked objects in one native pass over the matching objects and their links. Every path
+    // to a value is counted, so a value reached through a list of several matching objects is aggregated once for each.
+    private Object aggregateLinkPath(String fieldPath, int operator, RealmFieldType... validFieldTypes) {
+        long[] columnIndices = schema.getColumnIndices(fieldPath, validFieldTypes);
+        return query.aggregateLinkPath(columnIndices, operator);
+    }
+
+    private static Date toDate(Object milliseconds) {
+        return milliseconds == null ? null : new Date((Long) milliseconds);
+    }
+
     /**
      * Counts the number of objects that fulfill the query conditions.
      *
@@ -1638,6 +1774,129 @@ public final class RealmQuery<E extends RealmModel> {
         return this.query.count();
     }
 
+    // Async aggregates
+
+    /**
+     * Counts the number of objects that fulfill the query conditions on a worker thread. The count is re-evaluated
+     * in the background every time the Realm changes. This method is only available from a Looper thread.
+     *
+     * @return immediately a {@link RealmAsyncAggregate}. Users need to register a listener
+     * {@link RealmAsyncAggregate#addChangeListener(RealmChangeListener)} to be notified when the count is available
+     * and when it changes.
+     * @throws IllegalStateException if the query is used from a thread without a Looper or was already used.
+     */
+    public RealmAsyncAggregate<Long> countAsync() {
+        return aggregateAsync(0, TableQuery.AGGREGATE_COUNT);
+    }
+
+    /**
+     * Calculates the sum of a given field on a worker thread, see {@link #sum(String)}. The sum is re-evaluated in the
+     * background every time the Realm changes. This method is only available from a Looper thread.
+     *
+     * @param fieldName the field to sum. Only number fields are supported.
+     * @return immediately a {@link RealmAsyncAggregate} delivering a {@link Long} for integer fields and a
+     * {@link Double} for floating point fields.
+     * @throws IllegalArgumentException if the field doesn't exist, is not a number type or is a field of linked
+     * objects.
+     * @throws IllegalStateException if the query is used from a thread without a Looper or was already used.
+     */
+    public RealmAsyncAggregate<Number> sumAsync(String fieldName) {
+        return aggregateAsync(getAsyncAggregateColumnIndex(fieldName), TableQuery.AGGREGATE_SUM);
+    }
+
+    /**
+     * Calculates the average of a given field on a worker thread, see {@link #average(String)}. The average is
+     * re-evaluated in the background every time the Realm changes. This method is only available from a Looper thread.
+     *
+     * @param fieldName the field to calculate average on. Only number fields are supported.
+     * @return immediately a {@link RealmAsyncAggregate}.
+     * @throws IllegalArgumentException if the field doesn't exist, is not a number type or is a field of linked
+     * objects.
+     * @throws IllegalStateException if the query is used from a thread without a Looper or was already used.
+     */
+    public RealmAsyncAggregate<Double> averageAsync(String fieldName) {
+        return aggregateAsync(getAsyncAggregateColumnIndex(fieldName), TableQuery.AGGREGATE_AVERAGE);
+    }
+
+    /**
+     * Finds the minimum value of a field on a worker thread, see {@link #min(String)}. The minimum is re-evaluated in
+     * the background every time the Realm changes. This method is only available from a Looper thread.
+     *
+     * @param fieldName the field to look for a minimum on. Only number fields are supported.
+     * @return immediately a {@link RealmAsyncAggregate}, its value is {@code null} if no objects have a value for the
+     * field.
+     * @throws IllegalArgumentException if the field doesn't exist, is not a number type or is a field of linked
+     * objects.
+     * @throws IllegalStateException if the query is used from a thread without a Looper or was already used.
+     */
+    public RealmAsyncAggregate<Number> minAsync(String fieldName) {
+        return aggregateAsync(getAsyncAggregateColumnIndex(fieldName), TableQuery.AGGREGATE_MINIMUM);
+    }
+
+    /**
+     * Finds the maximum value of a field on a worker thread, see {@link #max(String)}. The maximum is re-evaluated in
+     * the background every time the Realm changes. This method is only available from a Looper thread.
+     *
+     * @param fieldName the field to look for a maximum on. Only number fields are supported.
+     * @return immediately a {@link RealmAsyncAggregate}, its value is {@code null} if no objects have a value for the
+     * field.
+     * @throws IllegalArgumentException if the field doesn't exist, is not a number type or is a field of linked
+     * objects.
+     * @throws IllegalStateException if the query is used from a thread without a Looper or was already used.
+     */
+    public RealmAsyncAggregate<Number> maxAsync(String fieldName) {
+        return aggregateAsync(getAsyncAggregateColumnIndex(fieldName), TableQuery.AGGREGATE_MAXIMUM);
+    }
+
+    private long getAsyncAggregateColumnIndex(String fieldName) {
+        long[] columnIndices = schema.getColumnIndices(fieldName, NUMBER_FIELD_TYPES);
+        if (columnIndices.length > 1) {
+            throw new IllegalArgumentException("Async aggregates of linked fields are not supported: " + fieldName);
+        }
+        return columnIndices[0];
+    }
+
+    private <T> RealmAsyncAggregate<T> aggregateAsync(long columnIndex, int operator) {
+        checkQueryIsNotReused();
+        realm.checkIfValid();
+        getWeakReferenceHandler(); // async queries need the Looper of the caller thread
+
+        // handover the query (to be used by a worker thread)
+        final long handoverQueryPointer = query.handoverQuery(realm.sharedRealm);
+
+        // save query arguments (for future update)
+        argumentsHolder = new ArgumentsHolder(ArgumentsHolder.TYPE_AGGREGATE);
+        argumentsHolder.columnIndex = columnIndex;
+        argumentsHolder.aggregateOperator = operator;
+
+        RealmAsyncAggregate<T> aggregate = new RealmAsyncAggregate<T>(realm, this, columnIndex, operator);
+        WeakReference<RealmAsyncAggregate<?>> weakAggregate = realm.handlerController.addToAsyncAggregates(aggregate, this);
+
+        // the aggregate runs in a batch of one, later updates are batched with the other async queries of the thread
+        QueryUpdateTask queryUpdateTask = QueryUpdateTask.newBuilder()
+                .realmConfiguration(realm.getConfiguration())
+                .addAggregate(weakAggregate, handoverQueryPointer, argumentsHolder)
+                .sendToHandler(realm.handler, HandlerControllerConstants.COMPLETED_ASYNC_AGGREGATE)
+                .build();
+        aggregate.setPendingTask(Realm.asyncTaskExecutor.submitQueryUpdate(queryUpdateTask));
+        return aggregate;
+    }
+
+    /**
+     * Computes an aggregate on the caller thread, used by {@link RealmAsyncAggregate} when the value is needed
+     * synchronously.
+     *
+     * @param columnIndex the column to aggregate. Ignored for {@link TableQuery#AGGREGATE_COUNT}.
+     * @param operator one of the {@code TableQuery.AGGREGATE_*} operators.
+     * @return the value boxed like the result delivered by the worker thread.
+     */
+    Object aggregate(long columnIndex, int operator) {
+        if (operator == TableQuery.AGGREGATE_COUNT) {
+            return query.count();
+        }
+        return query.aggregateLinkPath(new long[] {columnIndex}, operator);
+    }
+
     /**
      * Finds all objects that fulfill the query conditions.
      *
@@ -1648,11 +1907,23 @@ public final class RealmQuery<E extends RealmModel> {
     @SuppressWarnings("unchecked")
     public RealmResults<E> findAll() {
         checkQueryIsNotReused();
+        // Rows after the window are never needed, so the query can stop as soon as it reaches the end of the window.
+        long nativeLimit = TableQuery.getLimitIncludingOffset(offset, limit);
+        String cacheKey = getResultCacheKey("findAll" + (nativeLimit == Table.INFINITE ? "" : " " + nativeLimit));
+        TableView tableView = getCachedResults(cacheKey);
+        if (tableView == null) {
+            tableView = query.findAll(0, Table.INFINITE, nativeLimit);
+            cacheResults(cacheKey, tableView);
+        }
+        if (offset > 0) {
+            tableView = tableView.getWindow(offset, Table.INFINITE);
+        }
+
         RealmResults<E> realmResults;
         if (isDynamicQuery()) {
-            realmResults =  (RealmResults<E>) RealmResults.createFromDynamicTableOrView(realm, query.findAll(), className);
+            realmResults =  (RealmResults<E>) RealmResults.createFromDynamicTableOrView(realm, tableView, className);
         } else {
-            realmResults = RealmResults.createFromTableOrView(realm, query.findAll(), clazz);
+            realmResults = RealmResults.createFromTableOrView(realm, tableView, clazz);
         }
         return realmResults;
     }
@@ -1674,6 +1945,10 @@ public final class RealmQuery<E extends RealmModel> {
 
         // save query arguments (for future update)
         argumentsHolder = new ArgumentsHolder(ArgumentsHolder.TYPE_FIND_ALL);
+        argumentsHolder.offset = offset;
+        argumentsHolder.limit = limit;
+        final long offset = this.offset;
+        final long limit = this.limit;
 
         // we need to use the same configuration to open a background SharedRealm (i.e Realm)
         // to perform the query
@@ -1698,13 +1973,13 @@ public final class RealmQuery<E extends RealmModel> {
                     SharedRealm sharedRealm = null;
 
                     try {
-                        sharedRealm = SharedRealm.getInstance(realmConfiguration);
+                        sharedRealm = SharedRealmPool.acquire(realmConfiguration);
 
                         // Run the query & handover the table view for the caller thread
                         // Note: the handoverQueryPointer contains the versionID needed by the SG in order
                         // to import it.
                         long handoverTableViewPointer = TableQuery.findAllWithHandover(sharedRealm,
-                                handoverQueryPointer);
+                                handoverQueryPointer, offset, limit);
 
                         QueryUpdateTask.Result result = QueryUpdateTask.Result.newRealmResultsResponse();
                         result.updatedTableViews.put(weakRealmResults, handoverTableViewPointer);
@@ -1725,7 +2000,7 @@ public final class RealmQuery<E extends RealmModel> {
                                 weakHandler, HandlerControllerConstants.REALM_ASYNC_BACKGROUND_EXCEPTION, new Error(e));
                     } finally {
                         if (sharedRealm != null && !sharedRealm.isClosed()) {
-                            sharedRealm.close();
+                            SharedRealmPool.release(sharedRealm);
                         }
                     }
                 } else {
@@ -1756,9 +2031,15 @@ public final class RealmQuery<E extends RealmModel> {
     @SuppressWarnings("unchecked")
     public RealmResults<E> findAllSorted(String fieldName, Sort sortOrder) {
         checkQueryIsNotReused();
-        TableView tableView = query.findAll();
         long columnIndex = getColumnIndexForSort(fieldName);
-        tableView.sort(columnIndex, sortOrder);
+        String cacheKey = getResultCacheKey("sort" + columnIndex + sortOrder);
+        TableView tableView = getCachedResults(cacheKey);
+        if (tableView == null) {
+            tableView = query.findAll();
+            tableView.sort(columnIndex, sortOrder);
+            cacheResults(cacheKey, tableView);
+        }
+        tableView = getWindow(tableView);
 
         RealmResults<E> realmResults;
         if (isDynamicQuery()) {
@@ -1786,6 +2067,10 @@ public final class RealmQuery<E extends RealmModel> {
         argumentsHolder = new ArgumentsHolder(ArgumentsHolder.TYPE_FIND_ALL_SORTED);
         argumentsHolder.sortOrder = sortOrder;
         argumentsHolder.columnIndex = columnIndex;
+        argumentsHolder.offset = offset;
+        argumentsHolder.limit = limit;
+        final long offset = this.offset;
+        final long limit = this.limit;
 
         final WeakReference<Handler> weakHandler = getWeakReferenceHandler();
 
@@ -1813,13 +2098,13 @@ public final class RealmQuery<E extends RealmModel> {
                     SharedRealm sharedRealm = null;
 
                     try {
-                        sharedRealm = SharedRealm.getInstance(realmConfiguration);
+                        sharedRealm = SharedRealmPool.acquire(realmConfiguration);
 
                         long columnIndex = getColumnIndexForSort(fieldName);
 
                         // run the query & handover the table view for the caller thread
                         long handoverTableViewPointer = TableQuery.findAllSortedWithHandover(sharedRealm,
-                                 handoverQueryPointer, columnIndex, sortOrder);
+                                 handoverQueryPointer, columnIndex, sortOrder, offset, limit);
 
                         QueryUpdateTask.Result result = QueryUpdateTask.Result.newRealmResultsResponse();
                         result.updatedTableViews.put(weakRealmResults, handoverTableViewPointer);
@@ -1840,7 +2125,7 @@ public final class RealmQuery<E extends RealmModel> {
 
                     } finally {
                         if (sharedRealm!= null && !sharedRealm.isClosed()) {
-                            sharedRealm.close();
+                            SharedRealmPool.release(sharedRealm);
                         }
                     }
                 } else {
@@ -1904,7 +2189,6 @@ public final class RealmQuery<E extends RealmModel> {
         if (fieldNames.length == 1 && sortOrders.length == 1) {
             return findAllSorted(fieldNames[0], sortOrders[0]);
         } else {
-            TableView tableView = query.findAll();
             List<Long> columnIndices = new ArrayList<Long>();
             //noinspection ForLoopReplaceableByForEach
             for (int i = 0; i < fieldNames.length; i++) {
@@ -1912,7 +2196,14 @@ public final class RealmQuery<E extends RealmModel> {
                 long columnIndex = getColumnIndexForSort(fieldName);
                 columnIndices.add(columnIndex);
             }
-            tableView.sort(columnIndices, sortOrders);
+            String cacheKey = getResultCacheKey("sort" + columnIndices + Arrays.toString(sortOrders));
+            TableView tableView = getCachedResults(cacheKey);
+            if (tableView == null) {
+                tableView = query.findAll();
+                tableView.sort(columnIndices, sortOrders);
+                cacheResults(cacheKey, tableView);
+            }
+            tableView = getWindow(tableView);
 
             RealmResults<E> realmResults;
             if (isDynamicQuery()) {
@@ -1928,6 +2219,43 @@ public final class RealmQuery<E extends RealmModel> {
         return className != null;
     }
 
+    // Returns the window selected by offset() and limit() of the given results. The window keeps the rows it
+    // contains natively and is taken again every time the results are synced.
+    private TableView getWindow(TableView tableView) {
+        if (offset == 0 && limit == Table.INFINITE) {
+            return tableView;
+        }
+        return tableView.getWindow(offset, limit);
+    }
+
+    // Returns the key of the results of this query in the query result cache or null if they cannot be cached.
+    // Queries on views and lists are not cached since the description of the query doesn't include what the query is
+    // restricted to, and queries inside a write transaction aren't since the results change without a new version.
+    private String getResultCacheKey(String operation) {
+        if (view != null || !(table instanceof Table) || realm.sharedRealm.getQueryResultCache() == null
+                || realm.sharedRealm.isInTransaction()) {
+            return null;
+        }
+        String description = query.getDescription();
+        if (description == null) {
+            return null;
+        }
+        return ((Table) table).getName() + "\n" + description + "\n" + operation;
+    }
+
+    private TableView getCachedResults(String cacheKey) {
+        if (cacheKey == null) {
+            return null;
+        }
+        return realm.sharedRealm.getQueryResultCache().get(cacheKey, realm.sharedRealm.getVersionID());
+    }
+
+    private void cacheResults(String cacheKey, TableView tableView) {
+        if (cacheKey != null) {
+            realm.sharedRealm.getQueryResultCache().put(cacheKey, realm.sharedRealm.getVersionID(), tableView);
+        }
+    }
+
     /**
      * Similar to {@link #findAllSorted(String[], Sort[])} but runs asynchronously
      * from a worker thread.
@@ -1966,6 +2294,10 @@ public final class RealmQuery<E extends RealmModel> {
             argumentsHolder = new ArgumentsHolder(ArgumentsHolder.TYPE_FIND_ALL_MULTI_SORTED);
             argumentsHolder.sortOrders = sortOrders;
             argumentsHolder.columnIndices = indices;
+            argumentsHolder.offset = offset;
+            argumentsHolder.limit = limit;
+            final long offset = this.offset;
+            final long limit = this.limit;
 
             // prepare the promise result
             RealmResults<E> realmResults;
@@ -1985,11 +2317,11 @@ public final class RealmQuery<E extends RealmModel> {
                         SharedRealm sharedRealm = null;
 
                         try {
-                            sharedRealm = SharedRealm.getInstance(realmConfiguration);
+                            sharedRealm = SharedRealmPool.acquire(realmConfiguration);
 
                             // run the query & handover the table view for the caller thread
                             long handoverTableViewPointer = TableQuery.findAllMultiSortedWithHandover(sharedRealm,
-                                    handoverQueryPointer, indices, sortOrders);
+                                    handoverQueryPointer, indices, sortOrders, offset, limit);
 
                             QueryUpdateTask.Result result = QueryUpdateTask.Result.newRealmResultsResponse();
                             result.updatedTableViews.put(weakRealmResults, handoverTableViewPointer);
@@ -2010,7 +2342,7 @@ public final class RealmQuery<E extends RealmModel> {
 
                         } finally {
                             if (sharedRealm != null && !sharedRealm.isClosed()) {
-                                sharedRealm.close();
+                                SharedRealmPool.release(sharedRealm);
                             }
                         }
                     } else {
@@ -2122,7 +2454,7 @@ public final class RealmQuery<E extends RealmModel> {
                     SharedRealm sharedRealm = null;
 
                     try {
-                        sharedRealm = SharedRealm.getInstance(realmConfiguration);
+                        sharedRealm = SharedRealmPool.acquire(realmConfiguration);
 
                         long handoverRowPointer = TableQuery.findWithHandover(sharedRealm, handoverQueryPointer);
                         if (handoverRowPointer == 0) { // empty row
@@ -2146,7 +2478,7 @@ public final class RealmQuery<E extends RealmModel> {
 
                     } finally {
                         if (sharedRealm != null && !sharedRealm.isClosed()) {
-                            sharedRealm.close();
+                            SharedRealmPool.release(sharedRealm);
                         }
                     }
                 } else {
@@ -2187,9 +2519,7 @@ public final class RealmQuery<E extends RealmModel> {
     // eg.: The other thread wants to delete Realm when getting notified.
     private void closeSharedRealmAndSendMessageToHandler(SharedRealm sharedRealm, WeakReference<Handler> weakHandler,
                                                          int what, Object obj) {
-        if (sharedRealm != null) {
-            sharedRealm.close();
-        }
+        SharedRealmPool.release(sharedRealm);
         Handler handler = weakHandler.get();
         if (handler != null && handler.getLooper().getThread().isAlive()) {
             handler.obtainMessage(what, obj).sendToTarget();
@@ -0,0 +1,506 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import io.realm.internal.Table;
+import io.realm.internal.TableOrView;
+import io.realm.internal.TableQuery;
+import io.realm.internal.TableView;
+
+/**
+ * A query that is built and validated once and then executed many times with different arguments.
+ * <p>
+ * Predicates are added without values, each one introducing a parameter numbered from {@code 0} in the order the
+ * predicates were added. After {@link #compile()}, values are given with the {@code bind} methods and the query can
+ * be run with {@link #findAll()}, {@link #findFirst()} or {@link #count()}. Field names and types are only resolved
+ * once, and each execution builds and runs the query with a single native call instead of one call per predicate.
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * RealmQueryTemplate<Person> byCityAndAge = realm.queryTemplate(Person.class)
+ *         .equalTo("city")
+ *         .greaterThan("age")
+ *         .compile();
+ *
+ * RealmResults<Person> adults = byCityAndAge.bind(0, "Oslo").bind(1, 17).findAll();
+ * }
+ * </pre>
+ * Bound values are kept between executions. A template is confined to the thread of the {@link Realm} it was created
+ * from.
+ *
+ * @param <E> the class of the objects to be queried.
+ * @see Realm#queryTemplate(Class)
+ */
+public final class RealmQueryTemplate<E extends RealmModel> {
+
+    private static final RealmFieldType[] EQUALITY_TYPES = new RealmFieldType[] {RealmFieldType.INTEGER,
+            RealmFieldType.BOOLEAN, RealmFieldType.FLOAT, RealmFieldType.DOUBLE, RealmFieldType.STRING,
+            RealmFieldType.DATE};
+    private static final RealmFieldType[] COMPARISON_TYPES = new RealmFieldType[] {RealmFieldType.INTEGER,
+            RealmFieldType.FLOAT, RealmFieldType.DOUBLE, RealmFieldType.DATE};
+
+    private final Realm realm;
+    private final Class<E> clazz;
+    private final RealmObjectSchema schema;
+    private final Table table;
+
+    private long[] program = new long[16];
+    private int programSize = 0;
+    private int openGroups = 0;
+    private final List<RealmFieldType> parameterTypes = new ArrayList<RealmFieldType>();
+
+    // Set by compile()
+    private long[] args;
+    private String[] stringArgs;
+    private boolean[] bound;
+
+    RealmQueryTemplate(Realm realm, Class<E> clazz) {
+        this.realm = realm;
+        this.clazz = clazz;
+        this.schema = realm.schema.getSchemaForClass(clazz);
+        this.table = schema.table;
+    }
+
+    /**
+     * Adds an equality predicate for an integer, boolean, float, double, String or Date field.
+     *
+     * @param fieldName the field to compare.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or has an unsupported type.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> equalTo(String fieldName) {
+        return addPredicate(TableQuery.PROGRAM_EQUAL, fieldName, Case.SENSITIVE, EQUALITY_TYPES);
+    }
+
+    /**
+     * Adds an equality predicate for a String field.
+     *
+     * @param fieldName the field to compare.
+     * @param casing how to handle casing. Setting this to {@link Case#INSENSITIVE} only works for Latin-1 characters.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or isn't a String field.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> equalTo(String fieldName, Case casing) {
+        return addPredicate(TableQuery.PROGRAM_EQUAL, fieldName, casing, RealmFieldType.STRING);
+    }
+
+    /**
+     * Adds an inequality predicate for an integer, boolean, float, double, String or Date field.
+     *
+     * @param fieldName the field to compare.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or has an unsupported type.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> notEqualTo(String fieldName) {
+        return addPredicate(TableQuery.PROGRAM_NOT_EQUAL, fieldName, Case.SENSITIVE, EQUALITY_TYPES);
+    }
+
+    /**
+     * Adds an inequality predicate for a String field.
+     *
+     * @param fieldName the field to compare.
+     * @param casing how to handle casing. Setting this to {@link Case#INSENSITIVE} only works for Latin-1 characters.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or isn't a String field.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> notEqualTo(String fieldName, Case casing) {
+        return addPredicate(TableQuery.PROGRAM_NOT_EQUAL, fieldName, casing, RealmFieldType.STRING);
+    }
+
+    /**
+     * Adds a greater-than predicate for an integer, float, double or Date field.
+     *
+     * @param fieldName the field to compare.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or has an unsupported type.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> greaterThan(String fieldName) {
+        return addPredicate(TableQuery.PROGRAM_GREATER, fieldName, Case.SENSITIVE, COMPARISON_TYPES);
+    }
+
+    /**
+     * Adds a greater-than-or-equal-to predicate for an integer, float, double or Date field.
+     *
+     * @param fieldName the field to compare.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or has an unsupported type.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> greaterThanOrEqualTo(String fieldName) {
+        return addPredicate(TableQuery.PROGRAM_GREATER_EQUAL, fieldName, Case.SENSITIVE, COMPARISON_TYPES);
+    }
+
+    /**
+     * Adds a less-than predicate for an integer, float, double or Date field.
+     *
+     * @param fieldName the field to compare.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or has an unsupported type.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> lessThan(String fieldName) {
+        return addPredicate(TableQuery.PROGRAM_LESS, fieldName, Case.SENSITIVE, COMPARISON_TYPES);
+    }
+
+    /**
+     * Adds a less-than-or-equal-to predicate for an integer, float, double or Date field.
+     *
+     * @param fieldName the field to compare.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or has an unsupported type.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> lessThanOrEqualTo(String fieldName) {
+        return addPredicate(TableQuery.PROGRAM_LESS_EQUAL, fieldName, Case.SENSITIVE, COMPARISON_TYPES);
+    }
+
+    /**
+     * Adds a predicate matching String fields that contain the bound value.
+     *
+     * @param fieldName the field to compare.
+     * @param casing how to handle casing. Setting this to {@link Case#INSENSITIVE} only works for Latin-1 characters.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or isn't a String field.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> contains(String fieldName, Case casing) {
+        return addPredicate(TableQuery.PROGRAM_CONTAINS, fieldName, casing, RealmFieldType.STRING);
+    }
+
+    /**
+     * Adds a predicate matching String fields that begin with the bound value.
+     *
+     * @param fieldName the field to compare.
+     * @param casing how to handle casing. Setting this to {@link Case#INSENSITIVE} only works for Latin-1 characters.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or isn't a String field.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> beginsWith(String fieldName, Case casing) {
+        return addPredicate(TableQuery.PROGRAM_BEGINS_WITH, fieldName, casing, RealmFieldType.STRING);
+    }
+
+    /**
+     * Adds a predicate matching String fields that end with the bound value.
+     *
+     * @param fieldName the field to compare.
+     * @param casing how to handle casing. Setting this to {@link Case#INSENSITIVE} only works for Latin-1 characters.
+     * @return this template.
+     * @throws IllegalArgumentException if the field doesn't exist or isn't a String field.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> endsWith(String fieldName, Case casing) {
+        return addPredicate(TableQuery.PROGRAM_ENDS_WITH, fieldName, casing, RealmFieldType.STRING);
+    }
+
+    /**
+     * Begins grouping of predicates ("left parenthesis").
+     *
+     * @return this template.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> beginGroup() {
+        checkNotCompiled();
+        openGroups++;
+        emit(TableQuery.PROGRAM_BEGIN_GROUP);
+        return this;
+    }
+
+    /**
+     * Ends grouping of predicates ("right parenthesis").
+     *
+     * @return this template.
+     * @throws IllegalStateException if the template was already compiled or no group is open.
+     */
+    public RealmQueryTemplate<E> endGroup() {
+        checkNotCompiled();
+        if (openGroups == 0) {
+            throw new IllegalStateException("endGroup() called without a matching beginGroup().");
+        }
+        openGroups--;
+        emit(TableQuery.PROGRAM_END_GROUP);
+        return this;
+    }
+
+    /**
+     * Logical-or two predicates.
+     *
+     * @return this template.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> or() {
+        checkNotCompiled();
+        emit(TableQuery.PROGRAM_OR);
+        return this;
+    }
+
+    /**
+     * Negates the next predicate or group.
+     *
+     * @return this template.
+     * @throws IllegalStateException if the template was already compiled.
+     */
+    public RealmQueryTemplate<E> not() {
+        checkNotCompiled();
+        emit(TableQuery.PROGRAM_NOT);
+        return this;
+    }
+
+    /**
+     * Finishes building the template. Values can be bound and the query executed afterwards, but no more predicates
+     * can be added.
+     *
+     * @return this template.
+     * @throws IllegalStateException if the template was already compiled or a group is still open.
+     */
+    public RealmQueryTemplate<E> compile() {
+        checkNotCompiled();
+        if (openGroups != 0) {
+            throw new IllegalStateException("Missing endGroup() for " + openGroups + " group(s).");
+        }
+        program = Arrays.copyOf(program, programSize);
+        int parameterCount = parameterTypes.size();
+        args = new long[parameterCount];
+        stringArgs = new String[parameterCount];
+        bound = new boolean[parameterCount];
+        return this;
+    }
+
+    /**
+     * Returns the number of parameters, i.e. the number of predicates added so far.
+     */
+    public int getParameterCount() {
+        return parameterTypes.size();
+    }
+
+    /**
+     * Binds a value to an integer parameter.
+     *
+     * @param index the parameter index.
+     * @param value the value.
+     * @return this template.
+     * @throws IllegalArgumentException if the parameter is not for an integer field or the index is out of range.
+     * @throws IllegalStateException if the template wasn't compiled.
+     */
+    public RealmQueryTemplate<E> bind(int index, long value) {
+        checkParameter(index, RealmFieldType.INTEGER, "long");
+        args[index] = value;
+        bound[index] = true;
+        return this;
+    }
+
+    /**
+     * Binds a value to a boolean parameter.
+     *
+     * @param index the parameter index.
+     * @param value the value.
+     * @return this template.
+     * @throws IllegalArgumentException if the parameter is not for a boolean field or the index is out of range.
+     * @throws IllegalStateException if the template wasn't compiled.
+     */
+    public RealmQueryTemplate<E> bind(int index, boolean value) {
+        checkParameter(index, RealmFieldType.BOOLEAN, "boolean");
+        args[index] = value ? 1 : 0;
+        bound[index] = true;
+        return this;
+    }
+
+    /**
+     * Binds a value to a float or double parameter.
+     *
+     * @param index the parameter index.
+     * @param value the value.
+     * @return this template.
+     * @throws IllegalArgumentException if the parameter is not for a float or double field or the index is out of
+     * range.
+     * @throws IllegalStateException if the template wasn't compiled.
+     */
+    public RealmQueryTemplate<E> bind(int index, double value) {
+        checkCompiledAndIndex(index);
+        RealmFieldType type = parameterTypes.get(index);
+        if (type != RealmFieldType.FLOAT && type != RealmFieldType.DOUBLE) {
+            throw typeMismatch(index, "double");
+        }
+        args[index] = Double.doubleToRawLongBits(value);
+        bound[index] = true;
+        return this;
+    }
+
+    /**
+     * Binds a value to a String parameter.
+     *
+     * @param index the parameter index.
+     * @param value the value, {@code null} only matches nullable fields set to {@code null}.
+     * @return this template.
+     * @throws IllegalArgumentException if the parameter is not for a String field or the index is out of range.
+     * @throws IllegalStateException if the template wasn't compiled.
+     */
+    public RealmQueryTemplate<E> bind(int index, String value) {
+        checkParameter(index, RealmFieldType.STRING, "String");
+        stringArgs[index] = value;
+        bound[index] = true;
+        return this;
+    }
+
+    /**
+     * Binds a value to a Date parameter.
+     *
+     * @param index the parameter index.
+     * @param value the value.
+     * @return this template.
+     * @throws IllegalArgumentException if the parameter is not for a Date field, the index is out of range or the
+     * value is {@code null}.
+     * @throws IllegalStateException if the template wasn't compiled.
+     */
+    public RealmQueryTemplate<E> bind(int index, Date value) {
+        checkParameter(index, RealmFieldType.DATE, "Date");
+        if (value == null) {
+            throw new IllegalArgumentException("Date parameters cannot be null.");
+        }
+        args[index] = value.getTime();
+        bound[index] = true;
+        return this;
+    }
+
+    /**
+     * Runs the query with the currently bound values.
+     *
+     * @return an auto-updating {@link RealmResults} with the matching objects.
+     * @throws IllegalStateException if the template wasn't compiled, a parameter isn't bound, or the Realm is closed
+     * or accessed from the wrong thread.
+     */
+    public RealmResults<E> findAll() {
+        checkExecutable();
+        TableView tableView = TableQuery.findAllWithProgram(table, program, args, stringArgs);
+        return RealmResults.createFromTableOrView(realm, tableView, clazz);
+    }
+
+    /**
+     * Runs the query with the currently bound values and returns the first match.
+     *
+     * @return the first matching object or {@code null} if none matched.
+     * @throws IllegalStateException if the template wasn't compiled, a parameter isn't bound, or the Realm is closed
+     * or accessed from the wrong thread.
+     */
+    public E findFirst() {
+        checkExecutable();
+        long rowIndex = TableQuery.findWithProgram(table, program, args, stringArgs);
+        return rowIndex == TableOrView.NO_MATCH ? null : realm.get(clazz, rowIndex);
+    }
+
+    /**
+     * Counts the matches of the query with the currently bound values.
+     *
+     * @return the number of matching objects.
+     * @throws IllegalStateException if the template wasn't compiled, a parameter isn't bound, or the Realm is closed
+     * or accessed from the wrong thread.
+     */
+    public long count() {
+        checkExecutable();
+        return TableQuery.countWithProgram(table, program, args, stringArgs);
+    }
+
+    private RealmQueryTemplate<E> addPredicate(int op, String fieldName, Case casing, RealmFieldType... types) {
+        checkNotCompiled();
+        if (casing == null) {
+            throw new IllegalArgumentException("Casing must be provided.");
+        }
+        long[] columnIndices = schema.getColumnIndices(fieldName, types);
+        RealmFieldType type = getColumnType(columnIndices);
+        if (type == RealmFieldType.BOOLEAN && op != TableQuery.PROGRAM_EQUAL && op != TableQuery.PROGRAM_NOT_EQUAL) {
+            throw new IllegalArgumentException(String.format("Field '%s': type mismatch.", fieldName));
+        }
+
+        emit(op);
+        emit(type.getNativeValue());
+        emit(casing.getValue() ? TableQuery.PROGRAM_FLAG_CASE_SENSITIVE : 0);
+        emit(parameterTypes.size());
+        emit(columnIndices.length);
+        for (long columnIndex : columnIndices) {
+            emit(columnIndex);
+        }
+        parameterTypes.add(type);
+        return this;
+    }
+
+    // Type of the last column of a (link) path
+    private RealmFieldType getColumnType(long[] columnIndices) {
+        Table target = table;
+        for (int i = 0; i < columnIndices.length - 1; i++) {
+            target = target.getLinkTarget(columnIndices[i]);
+        }
+        return target.getColumnType(columnIndices[columnIndices.length - 1]);
+    }
+
+    private void emit(long instruction) {
+        if (programSize == program.length) {
+            program = Arrays.copyOf(program, programSize * 2);
+        }
+        program[programSize++] = instruction;
+    }
+
+    private void checkNotCompiled() {
+        if (args != null) {
+            throw new IllegalStateException("The template is already compiled.");
+        }
+    }
+
+    private void checkCompiledAndIndex(int index) {
+        if (args == null) {
+            throw new IllegalStateException("The template must be compiled before values can be bound.");
+        }
+        if (index < 0 || index >= args.length) {
+            throw new IllegalArgumentException(String.format("Parameter index %d out of range [0, %d[.", index,
+                    args.length));
+        }
+    }
+
+    private void checkParameter(int index, RealmFieldType type, String typeName) {
+        checkCompiledAndIndex(index);
+        if (parameterTypes.get(index) != type) {
+            throw typeMismatch(index, typeName);
+        }
+    }
+
+    private IllegalArgumentException typeMismatch(int index, String typeName) {
+        return new IllegalArgumentException(String.format("Parameter %d: type mismatch. Was %s, expected %s.", index,
+                parameterTypes.get(index), typeName));
+    }
+
+    private void checkExecutable() {
+        realm.checkIfValid();
+        if (args == null) {
+            throw new IllegalStateException("The template must be compiled before it can be executed.");
+        }
+        for (int i = 0; i < bound.length; i++) {
+            if (!bound[i]) {
+                throw new IllegalStateException("No value bound to parameter " + i + ".");
+            }
+        }
+    }
+}
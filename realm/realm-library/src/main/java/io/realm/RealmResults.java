@@ -31,6 +31,7 @@ import java.util.NoSuchElementException;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 
+import io.realm.internal.CollectionChangeSet;
 import io.realm.internal.InvalidRow;
 import io.realm.internal.RealmObjectProxy;
 import io.realm.internal.Table;
@@ -83,11 +84,20 @@ public final class RealmResults<E extends RealmModel> extends AbstractList<E> im
     private long currentTableViewVersion = TABLE_VIEW_VERSION_NONE;
     private final TableQuery query;
     private final List<RealmChangeListener<RealmResults<E>>> listeners = new CopyOnWriteArrayList<RealmChangeListener<RealmResults<E>>>();
+    private final List<OrderedRealmCollectionChangeListener<RealmResults<E>>> collectionChangeListeners =
+            new CopyOnWriteArrayList<OrderedRealmCollectionChangeListener<RealmResults<E>>>();
     private Future<Long> pendingQuery;
     private boolean asyncQueryCompleted = false;
     // Keep track of changes to the RealmResult. Is updated after a call to `syncIfNeeded()`. Calling notifyListeners will
     // clear it.
     private boolean viewUpdated = false;
+    // Snapshot of the currently delivered results, used by the worker thread to compute the next change set.
+    private long[] collectionSnapshot;
+    // Change set computed by the worker thread for the pending notification. Only valid if changeSetAvailable is true.
+    private CollectionChangeSet pendingChangeSet;
+    private boolean changeSetAvailable = false;
+    // True from setCollectionSnapshot() until the next syncIfNeeded(), which picks up the view the change set is for.
+    private boolean changeSetJustSet = false;
 
 
     static <E extends RealmModel> RealmResults<E> createFromTableQuery(BaseRealm realm, TableQuery query, Class<E> clazz) {
@@ -287,6 +297,21 @@ public final class RealmResults<E extends RealmModel> extends AbstractList<E> im
         return new RealmResultsIterator();
     }
 
+    /**
+     * Returns a cursor over the results of a query which reuses a single object and a single native row accessor for
+     * all elements, so iterating doesn't allocate. The object returned by the cursor must not be kept after the cursor
+     * has moved. Any change to Realm while moving will cause the cursor to throw a
+     * {@link java.util.ConcurrentModificationException}.
+     *
+     * @return a cursor placed before the first element of this list.
+     * @throws IllegalStateException if the Realm is closed or called from an incorrect thread.
+     * @see RealmCursor
+     */
+    public RealmCursor<E> cursor() {
+        realm.checkIfValid();
+        return new RealmCursor<E>(this);
+    }
+
     /**
      * Returns a list iterator for the results of a query. Any change to Realm while iterating will cause the iterator
      * to throw a {@link java.util.ConcurrentModificationException} if accessed.
@@ -495,26 +520,116 @@ public final class RealmResults<E extends RealmModel> extends AbstractList<E> im
         }
     }
 
+    // Bulk reads
+
+    /**
+     * Copies the values of an integer field of the objects in this result into an array with a single native call,
+     * which is considerably faster than reading the field of each object through its accessor. Values are copied
+     * starting with the first object of the result until either the result or the array runs out. {@code null}
+     * values are copied as {@code 0}.
+     *
+     * @param fieldName the name of an integer field.
+     * @param dst the array to copy the values into.
+     * @param offset the position in {@code dst} to copy the first value to.
+     * @return the number of values copied.
+     * @throws IllegalArgumentException if the field does not exist or is not an integer field.
+     * @throws IndexOutOfBoundsException if {@code offset} is outside of {@code dst}.
+     */
+    public int getLongs(String fieldName, long[] dst, int offset) {
+        realm.checkIfValid();
+        long columnIndex = getColumnIndexForSort(fieldName);
+        if (table.getColumnType(columnIndex) != RealmFieldType.INTEGER) {
+            throw new IllegalArgumentException(String.format(TYPE_MISMATCH, fieldName, "int"));
+        }
+        int count = getBulkCount(dst.length, offset);
+        if (count > 0) {
+            table.getLongs(columnIndex, 0, dst, offset, count);
+        }
+        return count;
+    }
+
+    /**
+     * Copies the values of a floating point field of the objects in this result into an array with a single native
+     * call. Values are copied starting with the first object of the result until either the result or the array runs
+     * out. Float fields are widened to double and {@code null} values are copied as {@link Double#NaN}.
+     *
+     * @param fieldName the name of a float or double field.
+     * @param dst the array to copy the values into.
+     * @param offset the position in {@code dst} to copy the first value to.
+     * @return the number of values copied.
+     * @throws IllegalArgumentException if the field does not exist or is not a float or double field.
+     * @throws IndexOutOfBoundsException if {@code offset} is outside of {@code dst}.
+     */
+    public int getDoubles(String fieldName, double[] dst, int offset) {
+        realm.checkIfValid();
+        long columnIndex = getColumnIndexForSort(fieldName);
+        RealmFieldType type = table.getColumnType(columnIndex);
+        if (type != RealmFieldType.DOUBLE && type != RealmFieldType.FLOAT) {
+            throw new IllegalArgumentException(String.format(TYPE_MISMATCH, fieldName, "float or double"));
+        }
+        int count = getBulkCount(dst.length, offset);
+        if (count > 0) {
+            table.getDoubles(columnIndex, 0, dst, offset, count);
+        }
+        return count;
+    }
+
+    /**
+     * Copies the values of a String field of the objects in this result into an array with a single native call.
+     * Values are copied starting with the first object of the result until either the result or the array runs out.
+     *
+     * @param fieldName the name of a String field.
+     * @param dst the array to copy the values into.
+     * @param offset the position in {@code dst} to copy the first value to.
+     * @return the number of values copied.
+     * @throws IllegalArgumentException if the field does not exist or is not a String field.
+     * @throws IndexOutOfBoundsException if {@code offset} is outside of {@code dst}.
+     */
+    public int getStrings(String fieldName, String[] dst, int offset) {
+        realm.checkIfValid();
+        long columnIndex = getColumnIndexForSort(fieldName);
+        if (table.getColumnType(columnIndex) != RealmFieldType.STRING) {
+            throw new IllegalArgumentException(String.format(TYPE_MISMATCH, fieldName, "String"));
+        }
+        int count = getBulkCount(dst.length, offset);
+        if (count > 0) {
+            table.getStrings(columnIndex, 0, dst, offset, count);
+        }
+        return count;
+    }
+
+    // aux. method used by the bulk reads
+    private int getBulkCount(int length, int offset) {
+        if (offset < 0 || offset > length) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is outside of the destination array of length "
+                    + length + ".");
+        }
+        return Math.min(size(), length - offset);
+    }
+
     /**
      * Returns a distinct set of objects of a specific class. If the result is sorted, the first
      * object will be returned in case of multiple occurrences, otherwise it is undefined which
      * object is returned.
      *
-     * @param fieldName the field name.
+     * @param fieldName the field name. A field of a linked object can be given as a path like {@code "owner.name"}.
      * @return a non-null {@link RealmResults} containing the distinct objects.
      * @throws IllegalArgumentException if a field is null, does not exist, is an unsupported type,
-     * is not indexed, or points to linked fields.
+     * or is a field of objects in a list.
+     * @see RealmQuery#distinct(String, String...)
      */
     public RealmResults<E> distinct(String fieldName) {
         realm.checkIfValid();
-        long columnIndex = RealmQuery.getAndValidateDistinctColumnIndex(fieldName, this.table.getTable());
+        RealmObjectSchema schema = (classSpec != null) ? realm.schema.getSchemaForClass(classSpec)
+                : realm.schema.getSchemaForClass(className);
+        long[][] columnPaths = RealmQuery.getDistinctColumnPaths(schema, fieldName);
 
         TableOrView tableOrView = getTable();
         if (tableOrView instanceof Table) {
-            this.table = ((Table) tableOrView).getDistinctView(columnIndex);
-        } else {
-            ((TableView) tableOrView).distinct(columnIndex);
+            tableOrView = ((Table) tableOrView).where().findAll();
+            this.table = tableOrView;
         }
+        ((TableView) tableOrView).distinct(columnPaths);
         return this;
     }
 
@@ -523,17 +638,34 @@ public final class RealmResults<E extends RealmModel> extends AbstractList<E> im
      * sorted, the first object will be returned in case of multiple occurrences, otherwise it is
      * undefined which object is returned.
      *
-     * @param fieldName the field name.
+     * @param fieldName the field name. A field of a linked object can be given as a path like {@code "owner.name"}.
      * @return immediately a {@link RealmResults}. Users need to register a listener
      * {@link io.realm.RealmResults#addChangeListener(RealmChangeListener)} to be notified when the
      * query completes.
      * @throws IllegalArgumentException if a field is null, does not exist, is an unsupported type,
-     * is not indexed, or points to linked fields.
+     * or is a field of objects in a list.
      */
     public RealmResults<E> distinctAsync(String fieldName) {
         return where().distinctAsync(fieldName);
     }
 
+    /**
+     * Asynchronously returns a distinct set of objects from a specific class. When multiple distinct fields are
+     * given, all unique combinations of values in the fields will be returned.
+     *
+     * @param firstFieldName first field name to use when finding distinct objects.
+     * @param remainingFieldNames remaining field names when determining all unique combinations of field values.
+     * @return immediately a {@link RealmResults}. Users need to register a listener
+     * {@link io.realm.RealmResults#addChangeListener(RealmChangeListener)} to be notified when the
+     * query completes.
+     * @throws IllegalArgumentException if field names is empty or {@code null}, does not exist,
+     * is an unsupported type, or is a field of objects in a list.
+     * @see RealmQuery#distinctAsync(String, String...)
+     */
+    public RealmResults<E> distinctAsync(String firstFieldName, String... remainingFieldNames) {
+        return where().distinctAsync(firstFieldName, remainingFieldNames);
+    }
+
     /**
      * Returns a distinct set of objects from a specific class. When multiple distinct fields are
      * given, all unique combinations of values in the fields will be returned. In case of multiple
@@ -544,7 +676,7 @@ public final class RealmResults<E extends RealmModel> extends AbstractList<E> im
      * @param remainingFieldNames remaining field names when determining all unique combinations of field values.
      * @return a non-null {@link RealmResults} containing the distinct objects.
      * @throws IllegalArgumentException if field names is empty or {@code null}, does not exist,
-     * is an unsupported type, or points to a linked field.
+     * is an unsupported type, or is a field of objects in a list.
      */
     public RealmResults<E> distinct(String firstFieldName, String... remainingFieldNames) {
         return where().distinct(firstFieldName, remainingFieldNames);
@@ -638,6 +770,12 @@ public final class RealmResults<E extends RealmModel> extends AbstractList<E> im
         long newVersion = table.syncIfNeeded();
         viewUpdated = newVersion != currentTableViewVersion;
         currentTableViewVersion = newVersion;
+        if (viewUpdated && !changeSetJustSet) {
+            // The view changed without a change set, e.g. after a local commit, so a pending change set describes an
+            // older state.
+            discardChangeSet();
+        }
+        changeSetJustSet = false;
     }
 
     /**
@@ -943,6 +1081,31 @@ public final class RealmResults<E extends RealmModel> extends AbstractList<E> im
         }
     }
 
+    /**
+     * Adds a change listener to this RealmResults which is notified with the details of what changed in the
+     * collection.
+     * <p>
+     * The change set is computed on a worker thread, so it is only available for results obtained asynchronously. See
+     * {@link OrderedRealmCollectionChangeListener} for when it can be {@code null}.
+     *
+     * @param listener the change listener to be notified.
+     * @throws IllegalArgumentException if the change listener is {@code null}.
+     * @throws IllegalStateException if you try to add a listener from a non-Looper or {@link IntentService} thread.
+     */
+    public void addChangeListener(OrderedRealmCollectionChangeListener<RealmResults<E>> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener should not be null");
+        }
+        realm.checkIfValid();
+        if (!realm.handlerController.isAutoRefreshEnabled()) {
+            throw new IllegalStateException("You can't register a listener from a non-Looper thread or IntentService thread. ");
+        }
+        if (!collectionChangeListeners.contains(listener)) {
+            collectionChangeListeners.add(listener);
+            discardChangeSet();
+        }
+    }
+
     /**
      * Removes a previously registered listener.
      *
@@ -958,12 +1121,73 @@ public final class RealmResults<E extends RealmModel> extends AbstractList<E> im
         listeners.remove(listener);
     }
 
+    /**
+     * Removes a previously registered {@link OrderedRealmCollectionChangeListener}.
+     *
+     * @param listener the instance to be removed.
+     * @throws IllegalArgumentException if the change listener is {@code null}.
+     * @throws IllegalStateException if you try to remove a listener from a non-Looper Thread.
+     */
+    public void removeChangeListener(OrderedRealmCollectionChangeListener<RealmResults<E>> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener should not be null");
+        }
+        realm.checkIfValid();
+        if (collectionChangeListeners.remove(listener)) {
+            discardChangeSet();
+        }
+    }
+
     /**
      * Removes all registered listeners.
      */
     public void removeChangeListeners() {
         realm.checkIfValid();
         listeners.clear();
+        collectionChangeListeners.clear();
+        discardChangeSet();
+    }
+
+    // The next notification delivers no change set, and change sets computed against the current snapshot are
+    // dropped when they arrive. Called when the listeners change, as the listeners haven't all seen the same state
+    // then, or when the view changed without a change set.
+    private void discardChangeSet() {
+        collectionSnapshot = null;
+        pendingChangeSet = null;
+        changeSetAvailable = false;
+    }
+
+    /**
+     * Returns {@code true} if the worker thread should compute change sets for this RealmResults.
+     */
+    boolean hasCollectionChangeListeners() {
+        return !collectionChangeListeners.isEmpty();
+    }
+
+    /**
+     * Returns the snapshot of the results as delivered to the listeners, or {@code null} if there is none.
+     */
+    long[] getCollectionSnapshot() {
+        return collectionSnapshot;
+    }
+
+    /**
+     * Sets the snapshot and the change set computed by the worker thread which produced the current table view. The
+     * change set is consumed by the next call to {@link #notifyChangeListeners(boolean)} which notifies listeners.
+     *
+     * @param previousSnapshot the snapshot the change set was computed against.
+     * @param snapshot snapshot of the new results.
+     * @param changeSet the changes since the previous snapshot, or {@code null} if there was no previous snapshot.
+     */
+    void setCollectionSnapshot(long[] previousSnapshot, long[] snapshot, CollectionChangeSet changeSet) {
+        // The change set is only valid if it was computed against what the listeners have seen last, not against a
+        // snapshot discarded since or one of a change set which is still pending. The listeners get no change set
+        // otherwise.
+        boolean valid = !changeSetAvailable && previousSnapshot != null && previousSnapshot == collectionSnapshot;
+        collectionSnapshot = snapshot;
+        pendingChangeSet = valid ? changeSet : null;
+        changeSetAvailable = true;
+        changeSetJustSet = true;
     }
 
     /**
@@ -1014,15 +1238,31 @@ public final class RealmResults<E extends RealmModel> extends AbstractList<E> im
      * NOTE: Remember to call `syncIfNeeded` before calling this method.
      */
     void notifyChangeListeners(boolean forceNotify) {
-        if (!listeners.isEmpty()) {
+        if (!listeners.isEmpty() || !collectionChangeListeners.isEmpty()) {
             // table might be null (if the async query didn't complete
             // but we have already registered listeners for it)
             if (pendingQuery != null && !asyncQueryCompleted) return;
             if (!viewUpdated && !forceNotify) return;
             viewUpdated = false;
+            // The change set is only consumed when it is delivered, a notification which returned early above leaves
+            // it pending for the next one.
+            CollectionChangeSet changeSet = pendingChangeSet;
+            boolean hasChangeSet = changeSetAvailable;
+            pendingChangeSet = null;
+            changeSetAvailable = false;
+            if (!hasChangeSet) {
+                // The results changed without a change set (e.g. local commit), the snapshot is no longer what the
+                // listeners have seen, so the next change set cannot be computed from it.
+                collectionSnapshot = null;
+            }
             for (RealmChangeListener listener : listeners) {
                 listener.onChange(this);
             }
+            if (changeSet == null || !changeSet.isEmpty()) {
+                for (OrderedRealmCollectionChangeListener<RealmResults<E>> listener : collectionChangeListeners) {
+                    listener.onChange(this, changeSet);
+                }
+            }
         }
     }
 }
@@ -70,8 +70,8 @@ public final class RealmSchema {
         String internalClassName = TABLE_PREFIX + className;
         if (realm.sharedRealm.hasTable(internalClassName)) {
             Table table = realm.sharedRealm.getTable(internalClassName);
-            RealmObjectSchema.DynamicColumnMap columnIndices = new RealmObjectSchema.DynamicColumnMap(table);
-            return new RealmObjectSchema(realm, table, columnIndices);
+            RealmObjectSchema.DynamicColumnInfo columnInfo = new RealmObjectSchema.DynamicColumnInfo(table);
+            return new RealmObjectSchema(realm, table, columnInfo);
         } else {
             return null;
         }
@@ -91,8 +91,8 @@ public final class RealmSchema {
                 continue;
             }
             Table table = realm.sharedRealm.getTable(tableName);
-            RealmObjectSchema.DynamicColumnMap columnIndices = new RealmObjectSchema.DynamicColumnMap(table);
-            schemas.add(new RealmObjectSchema(realm, table, columnIndices));
+            RealmObjectSchema.DynamicColumnInfo columnInfo = new RealmObjectSchema.DynamicColumnInfo(table);
+            schemas.add(new RealmObjectSchema(realm, table, columnInfo));
         }
         return schemas;
     }
@@ -113,8 +113,8 @@ public final class RealmSchema {
             throw new IllegalArgumentException("Class already exists: " + className);
         }
         Table table = realm.sharedRealm.getTable(internalTableName);
-        RealmObjectSchema.DynamicColumnMap columnIndices = new RealmObjectSchema.DynamicColumnMap(table);
-        return new RealmObjectSchema(realm, table, columnIndices);
+        RealmObjectSchema.DynamicColumnInfo columnInfo = new RealmObjectSchema.DynamicColumnInfo(table);
+        return new RealmObjectSchema(realm, table, columnInfo);
     }
 
     /**
@@ -167,8 +167,8 @@ public final class RealmSchema {
             table.setPrimaryKey(pkField);
         }
 
-        RealmObjectSchema.DynamicColumnMap columnIndices = new RealmObjectSchema.DynamicColumnMap(table);
-        return new RealmObjectSchema(realm, table, columnIndices);
+        RealmObjectSchema.DynamicColumnInfo columnInfo = new RealmObjectSchema.DynamicColumnInfo(table);
+        return new RealmObjectSchema(realm, table, columnInfo);
     }
 
     /**
@@ -245,7 +245,7 @@ public final class RealmSchema {
             }
             if (classSchema == null) {
                 Table table = getTable(clazz);
-                classSchema = new RealmObjectSchema(realm, table, columnIndices.getColumnInfo(originalClass).getIndicesMap());
+                classSchema = new RealmObjectSchema(realm, table, columnIndices.getColumnInfo(originalClass));
                 classToSchema.put(originalClass, classSchema);
             }
             if (isProxyClass(originalClass, clazz)) {
@@ -269,8 +269,8 @@ public final class RealmSchema {
                 throw new IllegalArgumentException("The class " + className + " doesn't exist in this Realm.");
             }
             Table table = realm.sharedRealm.getTable(className);
-            RealmObjectSchema.DynamicColumnMap columnIndices = new RealmObjectSchema.DynamicColumnMap(table);
-            dynamicSchema = new RealmObjectSchema(realm, table, columnIndices);
+            RealmObjectSchema.DynamicColumnInfo columnInfo = new RealmObjectSchema.DynamicColumnInfo(table);
+            dynamicSchema = new RealmObjectSchema(realm, table, columnInfo);
             dynamicClassToSchema.put(className, dynamicSchema);
         }
         return dynamicSchema;
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import io.realm.internal.log.RealmLog;
+
+/**
+ * Group-commit writer for async transactions. Pending {@link Realm.Transaction}s for the same Realm file are drained
+ * by one worker and executed inside a single write transaction, up to the batch size and latency configured with
+ * {@link RealmConfiguration.Builder#groupAsyncTransactions(int, long, java.util.concurrent.TimeUnit)}.
+ * <p>
+ * If a transaction of a batch throws, the batch is rolled back, the transactions before the failing one are executed
+ * again and committed together, only the failing one is reported as failed, and the transactions after it form the
+ * next batch. {@link Realm.Transaction#execute(Realm)} may therefore be called more than once for the same
+ * transaction, but only one of those calls is ever committed.
+ * <p>
+ * A batch which isn't full yet waits on a timer rather than on a write thread, so other Realm files can use the write
+ * lane in the meantime.
+ */
+final class RealmWriteQueue {
+
+    // One queue per Realm file, transactions for the same file are serialized by the write lock anyway.
+    private static final ConcurrentHashMap<String, RealmWriteQueue> queues = new ConcurrentHashMap<String, RealmWriteQueue>();
+
+    // Arms the delayed flushes of all queues. Its tasks only hand the drain over to the write lane.
+    private static final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "RealmWriteQueue flush");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private static final int COMMITTED = -1;
+
+    private final RealmConfiguration configuration;
+    private final LinkedList<PendingTransaction> pendingTransactions = new LinkedList<PendingTransaction>();
+    // Guarded by pendingTransactions. The drain is either submitted to the write lane or waiting for the flush timer.
+    private boolean drainScheduled;
+    private ScheduledFuture<?> flushTimer;
+    // Only accessed by the drain, which never runs concurrently for the same file.
+    private Throwable groupFailure;
+
+    // Statistics, guarded by pendingTransactions
+    private long committedBatches;
+    private long committedTransactions;
+
+    private RealmWriteQueue(RealmConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Returns the write queue for the Realm file described by the given configuration.
+     */
+    static RealmWriteQueue getInstance(RealmConfiguration configuration) {
+        RealmWriteQueue queue = queues.get(configuration.getPath());
+        if (queue == null) {
+            RealmWriteQueue newQueue = new RealmWriteQueue(configuration);
+            queue = queues.putIfAbsent(configuration.getPath(), newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Adds a transaction to the queue and schedules a drain of the queue if none is pending.
+     *
+     * @param callerRealm the Realm on whose thread the callbacks are to be delivered.
+     * @param transaction the transaction to execute.
+     * @param onSuccess the success callback, or {@code null}.
+     * @param onError the error callback, or {@code null}.
+     * @return a {@link RealmAsyncTask} that can be used to cancel the transaction while it is still queued.
+     */
+    RealmAsyncTask enqueue(Realm callerRealm, Realm.Transaction transaction, Realm.Transaction.OnSuccess onSuccess,
+                           Realm.Transaction.OnError onError) {
+        PendingTransaction pendingTransaction = new PendingTransaction(callerRealm, transaction, onSuccess, onError);
+        synchronized (pendingTransactions) {
+            pendingTransactions.add(pendingTransaction);
+            if (!drainScheduled) {
+                scheduleDrainLocked();
+            }
+        }
+        return new RealmAsyncTask(pendingTransaction);
+    }
+
+    /**
+     * Returns the number of batches committed so far.
+     */
+    long getCommittedBatchCount() {
+        synchronized (pendingTransactions) {
+            return committedBatches;
+        }
+    }
+
+    /**
+     * Returns the number of transactions committed so far as part of a batch.
+     */
+    long getCommittedTransactionCount() {
+        synchronized (pendingTransactions) {
+            return committedTransactions;
+        }
+    }
+
+    // Submits the drain to the write lane once the batch is full or the oldest transaction has waited long enough,
+    // otherwise arms the flush timer for that moment. No thread is blocked while the batch fills up.
+    private void scheduleDrainLocked() {
+        if (pendingTransactions.isEmpty()) {
+            return;
+        }
+        long delay = pendingTransactions.getFirst().enqueuedAt + configuration.getAsyncTransactionBatchLatency()
+                - SystemClock.uptimeMillis();
+        if (pendingTransactions.size() >= configuration.getAsyncTransactionBatchSize() || delay <= 0) {
+            if (flushTimer != null) {
+                flushTimer.cancel(false);
+                flushTimer = null;
+            }
+            drainScheduled = true;
+            Realm.asyncTaskExecutor.submitTransaction(configuration.getPath(), drainTask);
+        } else if (flushTimer == null) {
+            flushTimer = flushScheduler.schedule(flushTask, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (pendingTransactions) {
+                flushTimer = null;
+                if (!drainScheduled) {
+                    scheduleDrainLocked();
+                }
+            }
+        }
+    };
+
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                List<PendingTransaction> batch = takeBatch();
+                if (!batch.isEmpty()) {
+                    executeBatch(batch);
+                }
+            } finally {
+                synchronized (pendingTransactions) {
+                    drainScheduled = false;
+                    scheduleDrainLocked();
+                }
+            }
+        }
+    };
+
+    // Removes the next batch from the queue. Cancelled transactions are dropped.
+    private List<PendingTransaction> takeBatch() {
+        final int maxBatchSize = configuration.getAsyncTransactionBatchSize();
+        synchronized (pendingTransactions) {
+            List<PendingTransaction> batch = new ArrayList<PendingTransaction>(
+                    Math.min(maxBatchSize, pendingTransactions.size()));
+            while (batch.size() < maxBatchSize && !pendingTransactions.isEmpty()) {
+                PendingTransaction pendingTransaction = pendingTransactions.removeFirst();
+                if (!pendingTransaction.isCancelled()) {
+                    batch.add(pendingTransaction);
+                }
+            }
+            return batch;
+        }
+    }
+
+    // Commits the batch, or if a transaction throws, commits the transactions before it, fails only the one that threw
+    // and continues with the transactions after it. Transactions before the failing one are therefore executed again.
+    private void executeBatch(List<PendingTransaction> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int failedIndex = commitGroup(batch);
+        if (failedIndex == COMMITTED) {
+            synchronized (pendingTransactions) {
+                committedBatches++;
+                committedTransactions += batch.size();
+            }
+            for (PendingTransaction pendingTransaction : batch) {
+                pendingTransaction.complete(true, null);
+            }
+            return;
+        }
+
+        Throwable exception = groupFailure;
+        groupFailure = null;
+        if (failedIndex == batch.size()) {
+            // Opening the Realm or the commit itself failed, running the transactions again won't help.
+            for (PendingTransaction pendingTransaction : batch) {
+                pendingTransaction.complete(false, exception);
+            }
+            return;
+        }
+        RealmLog.d("Async transaction " + failedIndex + " of a batch of " + batch.size() + " failed: " + exception);
+        executeBatch(batch.subList(0, failedIndex));
+        batch.get(failedIndex).complete(false, exception);
+        executeBatch(batch.subList(failedIndex + 1, batch.size()));
+    }
+
+    // Executes the transactions inside one write transaction. Returns COMMITTED, or the index of the transaction that
+    // threw, or the size of the group if the commit failed. Nothing is committed in the latter two cases, and the
+    // exception is left in groupFailure.
+    private int commitGroup(List<PendingTransaction> group) {
+        Realm bgRealm;
+        try {
+            bgRealm = Realm.getInstance(configuration);
+        } catch (Throwable e) {
+            groupFailure = e;
+            return group.size();
+        }
+        int index = 0;
+        try {
+            bgRealm.beginTransaction();
+            for (; index < group.size(); index++) {
+                group.get(index).transaction.execute(bgRealm);
+            }
+            bgRealm.commitAsyncTransaction();
+            return COMMITTED;
+        } catch (Throwable e) {
+            groupFailure = e;
+            if (bgRealm.isInTransaction()) {
+                bgRealm.cancelTransaction();
+            }
+            return index;
+        } finally {
+            // The bgRealm needs to be closed before posting the REALM_CHANGED event to the callers
+            bgRealm.close();
+        }
+    }
+
+    // A queued transaction. Extends FutureTask so it can back a RealmAsyncTask, the task itself is never run.
+    private static final class PendingTransaction extends FutureTask<Void> {
+        private static final Runnable NO_OP = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+
+        final Realm callerRealm;
+        final Realm.Transaction transaction;
+        final Realm.Transaction.OnSuccess onSuccess;
+        final Realm.Transaction.OnError onError;
+        final long enqueuedAt;
+
+        PendingTransaction(Realm callerRealm, Realm.Transaction transaction, Realm.Transaction.OnSuccess onSuccess,
+                           Realm.Transaction.OnError onError) {
+            super(NO_OP, null);
+            this.callerRealm = callerRealm;
+            this.transaction = transaction;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+            this.enqueuedAt = SystemClock.uptimeMillis();
+        }
+
+        void complete(boolean committed, Throwable exception) {
+            // Callbacks are not delivered to callers that cancelled while the batch was running.
+            if (!isCancelled()) {
+                boolean delivered = callerRealm.postAsyncTransactionResult(committed, exception, onSuccess, onError);
+                if (!delivered && exception != null) {
+                    // Don't throw on the worker, it would fail the remaining transactions of the batch.
+                    RealmLog.e("Async transaction failed and the calling thread is no longer available: " + exception);
+                }
+            }
+            set(null);
+        }
+    }
+}
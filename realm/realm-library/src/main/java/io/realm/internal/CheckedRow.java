@@ -16,6 +16,8 @@
 
 package io.realm.internal;
 
+import java.nio.ByteBuffer;
+
 import io.realm.RealmFieldType;
 
 /**
@@ -124,6 +126,11 @@ public class CheckedRow extends UncheckedRow {
     protected native String nativeGetString(long nativePtr, long columnIndex);
     protected native boolean nativeIsNullLink(long nativeRowPtr, long columnIndex);
     protected native byte[] nativeGetByteArray(long nativePtr, long columnIndex);
+    protected native long nativeGetBinarySize(long nativePtr, long columnIndex);
+    protected native long nativeCopyToByteBuffer(long nativePtr, long columnIndex, ByteBuffer destination,
+                                                 int position, int length);
+    protected native long nativeCopyToByteArrayRegion(long nativePtr, long columnIndex, byte[] destination,
+                                                      int offset, int length);
     public static native long nativeGetLinkView(long nativePtr, long columnIndex);
     protected native void nativeSetLong(long nativeRowPtr, long columnIndex, long value);
     protected native void nativeSetBoolean(long nativeRowPtr, long columnIndex, boolean value);
@@ -133,6 +140,10 @@ public class CheckedRow extends UncheckedRow {
     protected native void nativeSetTimestamp(long nativeRowPtr, long columnIndex, long dateTimeValue);
     protected native void nativeSetString(long nativeRowPtr, long columnIndex, String value);
     protected native void nativeSetByteArray(long nativePtr, long columnIndex, byte[] data);
+    protected native void nativeSetByteBuffer(long nativePtr, long columnIndex, ByteBuffer data, int position,
+                                              int length);
+    protected native void nativeSetByteArrayRegion(long nativePtr, long columnIndex, byte[] data, int offset,
+                                                   int length);
     protected native void nativeSetLink(long nativeRowPtr, long columnIndex, long value);
     protected native void nativeNullifyLink(long nativeRowPtr, long columnIndex);
 }
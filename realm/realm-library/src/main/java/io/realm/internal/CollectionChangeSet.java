@@ -0,0 +1,264 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.internal;
+
+import java.util.Arrays;
+
+import io.realm.OrderedCollectionChangeSet;
+
+/**
+ * Implementation of {@link OrderedCollectionChangeSet} computed by comparing two snapshots of the same query.
+ * <p>
+ * A snapshot is a flat array of {@code (source row index, row content hash)} pairs in the order of the query result,
+ * created by {@link TableQuery#batchUpdateQueries(SharedRealm, long[], long[][], long[][], boolean[][], long[][][], long[][],
+ * Object[])}.
+ * Objects are identified by their source row index. Since deleting a row moves the last row of the table into its
+ * place, the same row index can point to another object in the new version. The content hash will differ in that
+ * case, so the position is reported as changed which is still correct for anyone re-rendering it.
+ * <p>
+ * Rows found in both snapshots but not in the same relative order are reported as a deletion followed by an
+ * insertion. The rows considered unmoved are the longest increasing subsequence of their old positions, which keeps
+ * the change set small.
+ */
+public class CollectionChangeSet implements OrderedCollectionChangeSet {
+
+    private static final int[] EMPTY_INDICES = new int[0];
+    private static final Range[] EMPTY_RANGES = new Range[0];
+
+    private final int[] deletions;
+    private final int[] insertions;
+    private final int[] changes;
+
+    /**
+     * Calculates the changes between two snapshots of a query result.
+     *
+     * @param oldSnapshot the snapshot of the result delivered previously.
+     * @param newSnapshot the snapshot of the new result.
+     * @return the change set between the two snapshots.
+     */
+    public static CollectionChangeSet calculate(long[] oldSnapshot, long[] newSnapshot) {
+        final int oldSize = oldSnapshot.length / 2;
+        final int newSize = newSnapshot.length / 2;
+
+        RowPositionMap oldPositions = new RowPositionMap(oldSize);
+        for (int i = 0; i < oldSize; i++) {
+            oldPositions.putIfAbsent(oldSnapshot[i * 2], i);
+        }
+
+        // Old position of every new row, or -1 if the row was not part of the old result.
+        int[] oldPositionOf = new int[newSize];
+        for (int j = 0; j < newSize; j++) {
+            oldPositionOf[j] = oldPositions.get(newSnapshot[j * 2]);
+        }
+
+        boolean[] unmoved = longestIncreasingSubsequence(oldPositionOf);
+        boolean[] oldKept = new boolean[oldSize];
+        int[] insertions = new int[newSize];
+        int insertionCount = 0;
+        int[] changes = new int[newSize];
+        int changeCount = 0;
+        for (int j = 0; j < newSize; j++) {
+            if (unmoved[j]) {
+                int i = oldPositionOf[j];
+                oldKept[i] = true;
+                if (oldSnapshot[i * 2 + 1] != newSnapshot[j * 2 + 1]) {
+                    changes[changeCount++] = j;
+                }
+            } else {
+                insertions[insertionCount++] = j;
+            }
+        }
+
+        int[] deletions = new int[oldSize];
+        int deletionCount = 0;
+        for (int i = 0; i < oldSize; i++) {
+            if (!oldKept[i]) {
+                deletions[deletionCount++] = i;
+            }
+        }
+
+        return new CollectionChangeSet(trim(deletions, deletionCount), trim(insertions, insertionCount),
+                trim(changes, changeCount));
+    }
+
+    private CollectionChangeSet(int[] deletions, int[] insertions, int[] changes) {
+        this.deletions = deletions;
+        this.insertions = insertions;
+        this.changes = changes;
+    }
+
+    /**
+     * @return {@code true} if nothing changed in the collection, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return deletions.length == 0 && insertions.length == 0 && changes.length == 0;
+    }
+
+    @Override
+    public int[] getDeletions() {
+        return deletions.clone();
+    }
+
+    @Override
+    public int[] getInsertions() {
+        return insertions.clone();
+    }
+
+    @Override
+    public int[] getChanges() {
+        return changes.clone();
+    }
+
+    @Override
+    public Range[] getDeletionRanges() {
+        return toRanges(deletions);
+    }
+
+    @Override
+    public Range[] getInsertionRanges() {
+        return toRanges(insertions);
+    }
+
+    @Override
+    public Range[] getChangeRanges() {
+        return toRanges(changes);
+    }
+
+    @Override
+    public String toString() {
+        return "Deletions: " + Arrays.toString(deletions) + " Insertions: " + Arrays.toString(insertions) +
+                " Changes: " + Arrays.toString(changes);
+    }
+
+    // Returns, for each element of the sequence, if it is part of the longest strictly increasing subsequence.
+    // Negative values are never part of it. O(n log n).
+    private static boolean[] longestIncreasingSubsequence(int[] sequence) {
+        final int size = sequence.length;
+        // tails[k] is the index of the smallest tail of all increasing subsequences of length k + 1
+        int[] tails = new int[size];
+        int[] predecessors = new int[size];
+        int length = 0;
+        for (int j = 0; j < size; j++) {
+            int value = sequence[j];
+            if (value < 0) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sequence[tails[mid]] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            predecessors[j] = (low > 0) ? tails[low - 1] : -1;
+            tails[low] = j;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        boolean[] result = new boolean[size];
+        int j = (length > 0) ? tails[length - 1] : -1;
+        while (j >= 0) {
+            result[j] = true;
+            j = predecessors[j];
+        }
+        return result;
+    }
+
+    private static int[] trim(int[] indices, int count) {
+        if (count == 0) {
+            return EMPTY_INDICES;
+        }
+        return (count == indices.length) ? indices : Arrays.copyOf(indices, count);
+    }
+
+    private static Range[] toRanges(int[] indices) {
+        if (indices.length == 0) {
+            return EMPTY_RANGES;
+        }
+        int rangeCount = 1;
+        for (int i = 1; i < indices.length; i++) {
+            if (indices[i] != indices[i - 1] + 1) {
+                rangeCount++;
+            }
+        }
+        Range[] ranges = new Range[rangeCount];
+        int rangeIndex = 0;
+        int start = indices[0];
+        for (int i = 1; i <= indices.length; i++) {
+            if (i == indices.length || indices[i] != indices[i - 1] + 1) {
+                ranges[rangeIndex++] = new Range(start, indices[i - 1] - start + 1);
+                if (i < indices.length) {
+                    start = indices[i];
+                }
+            }
+        }
+        return ranges;
+    }
+
+    // Open addressing map from row index to position, avoids boxing every row of large results.
+    private static class RowPositionMap {
+        private static final long EMPTY_KEY = -1;
+
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        RowPositionMap(int expectedSize) {
+            int capacity = 2;
+            while (capacity < expectedSize * 2) {
+                capacity <<= 1;
+            }
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY_KEY);
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        void putIfAbsent(long key, int value) {
+            int slot = slot(key);
+            while (keys[slot] != EMPTY_KEY) {
+                if (keys[slot] == key) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        int get(long key) {
+            int slot = slot(key);
+            while (keys[slot] != EMPTY_KEY) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
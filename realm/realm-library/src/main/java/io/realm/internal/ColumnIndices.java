@@ -44,8 +44,7 @@ public class ColumnIndices {
     public long getColumnIndex(Class<? extends RealmModel> clazz, String fieldName) {
         final ColumnInfo columnInfo = classes.get(clazz);
         if (columnInfo != null) {
-            Long index = columnInfo.getIndicesMap().get(fieldName);
-            return (index != null) ? index : -1;
+            return columnInfo.getColumnIndex(fieldName);
         } else {
             return -1;
         }
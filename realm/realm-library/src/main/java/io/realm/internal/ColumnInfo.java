@@ -16,29 +16,133 @@
 
 package io.realm.internal;
 
-import java.util.Collections;
-import java.util.Map;
-
 import io.realm.exceptions.RealmMigrationNeededException;
 
+/**
+ * Column indices of a model class in a given Realm. Subclasses are generated by the annotation processor and expose
+ * one field per column index. Lookups by field name go through an open addressing hash table of field ordinals which
+ * is computed at compile time, so they neither allocate nor box.
+ */
 public class ColumnInfo {
-    private Map<String, Long> indicesMap;
-
-    protected final long getValidColumnIndex(String realmPath, Table table,
-                                             String className, String columnName) {
-        final long columnIndex = table.getColumnIndex(columnName);
-        if (columnIndex == -1) {
-            throw new RealmMigrationNeededException(realmPath,
-                    "Field '" + columnName + "' not found for type " + className);
+
+    /**
+     * Marks an empty slot in the field slots table.
+     */
+    protected static final int NO_FIELD = -1;
+
+    private final String[] fieldNames;
+    private final int[] fieldSlots;
+    private final long[] columnIndices;
+    // Whether the field with a given ordinal is annotated with @FullText, null if none is.
+    private boolean[] fullTextFields;
+
+    protected ColumnInfo() {
+        this(new String[0], new int[] {NO_FIELD}, new long[0]);
+    }
+
+    /**
+     * @param fieldNames the field names by ordinal.
+     * @param fieldSlots the hash table of field ordinals, built by the annotation processor.
+     * @param columnIndices the column indices by ordinal.
+     */
+    protected ColumnInfo(String[] fieldNames, int[] fieldSlots, long[] columnIndices) {
+        this.fieldNames = fieldNames;
+        this.fieldSlots = fieldSlots;
+        this.columnIndices = columnIndices;
+    }
+
+    /**
+     * Returns the column indices of the given fields, resolved with a single native call.
+     *
+     * @throws RealmMigrationNeededException if one of the fields doesn't exist in the table.
+     */
+    protected static long[] getValidColumnIndices(String realmPath, Table table, String className,
+                                                  String[] columnNames) {
+        final long[] indices = table.getColumnIndices(columnNames);
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] == -1) {
+                throw new RealmMigrationNeededException(realmPath,
+                        "Field '" + columnNames[i] + "' not found for type " + className);
+            }
+        }
+        return indices;
+    }
+
+    // Must match the hash used by the annotation processor.
+    private static int hashSlot(String fieldName, int mask) {
+        int hash = fieldName.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the column index of the given field.
+     *
+     * @param fieldName the name of the field.
+     * @return the column index or {@code -1} if the class has no such field.
+     */
+    public long getColumnIndex(String fieldName) {
+        final int mask = fieldSlots.length - 1;
+        int slot = hashSlot(fieldName, mask);
+        for (int probes = 0; probes < fieldSlots.length; probes++) {
+            int ordinal = fieldSlots[slot];
+            if (ordinal == NO_FIELD) {
+                return -1;
+            }
+            if (fieldNames[ordinal].equals(fieldName)) {
+                return columnIndices[ordinal];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Marks the field with the given ordinal as annotated with {@code @FullText}.
+     */
+    protected final void setFullText(int fieldOrdinal) {
+        if (fullTextFields == null) {
+            fullTextFields = new boolean[fieldNames.length];
         }
-        return columnIndex;
+        fullTextFields[fieldOrdinal] = true;
     }
 
-    protected final void setIndicesMap(Map<String, Long> indicesMap) {
-        this.indicesMap = Collections.unmodifiableMap(indicesMap);
+    /**
+     * Checks if full-text search is enabled for a column.
+     *
+     * @param columnIndex the column index.
+     * @return {@code true} if the field of the column is annotated with {@code @FullText}, {@code false} otherwise.
+     */
+    public boolean isFullText(long columnIndex) {
+        if (fullTextFields == null) {
+            return false;
+        }
+        for (int ordinal = 0; ordinal < fullTextFields.length; ordinal++) {
+            if (fullTextFields[ordinal] && columnIndices[ordinal] == columnIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the column index of the field with the given ordinal, i.e. its position in the model class.
+     *
+     * @param fieldOrdinal the ordinal of the field.
+     * @return the column index.
+     * @throws IllegalArgumentException if there is no field with the given ordinal, e.g. for dynamic Realms which
+     * don't know the model classes.
+     */
+    public final long getColumnIndexByOrdinal(int fieldOrdinal) {
+        if (fieldOrdinal < 0 || fieldOrdinal >= columnIndices.length) {
+            throw new IllegalArgumentException("Unknown field ordinal: " + fieldOrdinal);
+        }
+        return columnIndices[fieldOrdinal];
     }
 
-    public Map<String, Long> getIndicesMap() {
-        return indicesMap;
+    /**
+     * Returns the number of fields described by this object.
+     */
+    public int getFieldCount() {
+        return fieldNames.length;
     }
 }
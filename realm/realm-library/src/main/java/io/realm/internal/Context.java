@@ -16,120 +16,140 @@
 
 package io.realm.internal;
 
-import java.lang.ref.ReferenceQueue;
+import android.os.Handler;
+import android.os.Looper;
+
 import java.util.ArrayList;
 import java.util.List;
 
 public class Context {
 
-    // Pool to hold the phantom references.
-    // The size of array for storing phantom references will never decrease. Instead, we use another array to hold the
-    // index of the free slot. When adding the reference, pick the last index from freeIndexList and put the reference
-    // to the corresponding slot. When removing the reference, simply add the index to the end of freeIndexList without
-    // setting the corresponding slot to null for efficiency reasons. The reference will be freed finally when the slot
-    // gets overwritten or the whole context gets freed.
-    private static class ReferencesPool {
-        ArrayList<NativeObjectReference> pool = new ArrayList<NativeObjectReference>();
-        ArrayList<Integer> freeIndexList = new ArrayList<Integer>();
-
-        void add(NativeObjectReference ref) {
-            if (pool.size() <= ref.refIndex) {
-                pool.add(ref);
-            } else {
-                pool.set(ref.refIndex, ref);
-            }
-        }
-
-        Integer getFreeIndex() {
-            Integer index;
-            int freeIndexListSize = freeIndexList.size();
-            if (freeIndexListSize == 0) {
-                index = pool.size();
-            } else {
-                index = freeIndexList.remove(freeIndexListSize - 1);
-            }
-            return index;
-        }
-    }
-
     // Each group of related Realm objects will have a Context object in the root.
     // The root can be a table, a group, or a shared group.
     // The Context object is used to store a list of native pointers 
     // whose disposal need to be handed over from the garbage 
     // collection thread to the users thread.
+    // Rows and link views are handed over by the NativeObjectReclaimer thread.
+    // Everything is freed on the users thread only. If it has a looper, the
+    // disposal is posted to it as soon as something is pending, so an idle
+    // thread doesn't keep the native memory until its next call into Realm.
+    // Otherwise it is freed on the next call, like before.
 
     private List<Long> abandonedTables = new ArrayList<Long>();
     private List<Long> abandonedTableViews = new ArrayList<Long>();
     private List<Long> abandonedQueries = new ArrayList<Long>();
-
-    private ReferencesPool referencesPool = new ReferencesPool();
-    private ReferenceQueue<NativeObject> referenceQueue = new ReferenceQueue<NativeObject>();
+    private List<NativeObjectReference> abandonedReferences = new ArrayList<NativeObjectReference>();
+    // Size of the lists above, so executeDelayedDisposal() doesn't have to take the lock when there is nothing to do.
+    private volatile int pendingDisposalCount = 0;
 
     private boolean isFinalized = false;
 
-    public synchronized void addReference(int type, NativeObject referent) {
-        referencesPool.add(new NativeObjectReference(type, referent, referenceQueue, referencesPool.getFreeIndex()));
+    // Handler of the looper of the thread which created this context, or null if that thread has no looper.
+    private final Handler ownerHandler;
+    private final Runnable disposalRunnable = new Runnable() {
+        @Override
+        public void run() {
+            executeDelayedDisposal();
+        }
+    };
+
+    public Context() {
+        Looper looper = Looper.myLooper();
+        ownerHandler = (looper != null) ? new Handler(looper) : null;
     }
 
-    public synchronized void executeDelayedDisposal() {
-        for (int i = 0; i < abandonedTables.size(); i++) {
-            long nativePointer = abandonedTables.get(i);
-            Table.nativeClose(nativePointer);
-        }
-        abandonedTables.clear();
+    public void addReference(int type, NativeObject referent) {
+        NativeObjectReclaimer.register(type, referent, this);
+    }
 
-        for (int i = 0; i < abandonedTableViews.size(); i++) {
-            long nativePointer = abandonedTableViews.get(i);
-            TableView.nativeClose(nativePointer);
-        }
-        abandonedTableViews.clear();
+    /**
+     * Returns the number of native tables, views, queries, rows and link views which were garbage collected and are
+     * waiting to be freed by the next call to {@link #executeDelayedDisposal()}.
+     *
+     * @return the number of pending disposals.
+     */
+    public int getPendingDisposalCount() {
+        return pendingDisposalCount;
+    }
 
-        for (int i = 0; i < abandonedQueries.size(); i++) {
-            long nativePointer = abandonedQueries.get(i);
-            TableQuery.nativeClose(nativePointer);
+    public void executeDelayedDisposal() {
+        if (pendingDisposalCount == 0) {
+            return;
         }
-        abandonedQueries.clear();
+        synchronized (this) {
+            for (int i = 0; i < abandonedTables.size(); i++) {
+                long nativePointer = abandonedTables.get(i);
+                Table.nativeClose(nativePointer);
+            }
+            abandonedTables.clear();
 
-        cleanNativeReferences();
-    }
+            for (int i = 0; i < abandonedTableViews.size(); i++) {
+                long nativePointer = abandonedTableViews.get(i);
+                TableView.nativeClose(nativePointer);
+            }
+            abandonedTableViews.clear();
 
-    private void cleanNativeReferences() {
-        NativeObjectReference reference = (NativeObjectReference) referenceQueue.poll();
-        while (reference != null) {
-            // Dealloc the native resources
-            reference.cleanup();
-            // Inline referencesPool.remove() to make it faster.
-            // referencesPool.pool.set(index, null); is not really needed. Make it faster by not
-            // setting the slot to null.
-            referencesPool.freeIndexList.add(reference.refIndex);
-            reference = (NativeObjectReference) referenceQueue.poll();
+            for (int i = 0; i < abandonedQueries.size(); i++) {
+                long nativePointer = abandonedQueries.get(i);
+                TableQuery.nativeClose(nativePointer);
+            }
+            abandonedQueries.clear();
+
+            for (int i = 0; i < abandonedReferences.size(); i++) {
+                abandonedReferences.get(i).cleanup();
+            }
+            NativeObjectReclaimer.onReclaimed(abandonedReferences.size());
+            abandonedReferences.clear();
+
+            pendingDisposalCount = 0;
         }
     }
 
-    public void asyncDisposeTable(long nativePointer, boolean isRoot) {
+    public synchronized void asyncDisposeTable(long nativePointer, boolean isRoot) {
         if (isRoot || isFinalized) {
             Table.nativeClose(nativePointer);
         }
         else {
             abandonedTables.add(nativePointer);
+            onDisposalPending();
         }
     }
 
-    public void asyncDisposeTableView(long nativePointer) {
+    public synchronized void asyncDisposeTableView(long nativePointer) {
         if (isFinalized) {
             TableView.nativeClose(nativePointer);
         }
         else {
             abandonedTableViews.add(nativePointer);
+            onDisposalPending();
         }
     }
 
-    public void asyncDisposeQuery(long nativePointer) {
+    public synchronized void asyncDisposeQuery(long nativePointer) {
         if (isFinalized) {
             TableQuery.nativeClose(nativePointer);
         }
         else {
             abandonedQueries.add(nativePointer);
+            onDisposalPending();
+        }
+    }
+
+    synchronized void asyncDisposeReference(NativeObjectReference reference) {
+        if (isFinalized) {
+            reference.cleanup();
+            NativeObjectReclaimer.onReclaimed(1);
+        }
+        else {
+            abandonedReferences.add(reference);
+            onDisposalPending();
+        }
+    }
+
+    // Must be called with the lock held.
+    private void onDisposalPending() {
+        if (pendingDisposalCount++ == 0 && ownerHandler != null) {
+            ownerHandler.post(disposalRunnable);
         }
     }
 
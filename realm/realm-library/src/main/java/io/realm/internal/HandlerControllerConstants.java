@@ -27,4 +27,7 @@ public final class HandlerControllerConstants {
     public static final int COMPLETED_ASYNC_REALM_OBJECT = 63245986;
     public static final int REALM_ASYNC_BACKGROUND_EXCEPTION = 102334155;
     public static final int LOCAL_COMMIT = 165580141;
+    public static final int COALESCED_REALM_CHANGED = 267914296;
+    public static final int COMPLETED_ASYNC_AGGREGATE = 433494437;
+    public static final int COMPLETED_UPDATE_ASYNC_AGGREGATES = 701408733;
 }
@@ -16,6 +16,7 @@
 
 package io.realm.internal;
 
+import java.nio.ByteBuffer;
 import java.util.Date;
 
 import io.realm.RealmFieldType;
@@ -93,6 +94,16 @@ public enum InvalidRow implements Row {
         throw getStubException();
     }
 
+    @Override
+    public long getBinarySize(long columnIndex) {
+        throw getStubException();
+    }
+
+    @Override
+    public long getBinaryByteBuffer(long columnIndex, ByteBuffer destination) {
+        throw getStubException();
+    }
+
     @Override
     public long getLink(long columnIndex) {
         throw getStubException();
@@ -143,6 +154,11 @@ public enum InvalidRow implements Row {
         throw getStubException();
     }
 
+    @Override
+    public void setBinaryByteBuffer(long columnIndex, ByteBuffer data) {
+        throw getStubException();
+    }
+
     @Override
     public void setLink(long columnIndex, long value) {
         throw getStubException();
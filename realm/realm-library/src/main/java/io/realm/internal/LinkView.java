@@ -121,6 +121,17 @@ public class LinkView extends NativeObject {
         }
     }
 
+    /**
+     * Aggregates a field of the objects in this list natively, without building a query or a view of the list.
+     *
+     * @param columnIndex the column in the target table to aggregate.
+     * @param operator one of the {@code TableQuery.AGGREGATE_*} operators.
+     * @return the result boxed like {@link TableQuery#aggregateLinkPath(long[], int)} does.
+     */
+    public Object aggregate(long columnIndex, int operator) {
+        return nativeAggregate(nativePointer, columnIndex, operator);
+    }
+
     public boolean isAttached() {
         return nativeIsAttached(nativePointer);
     }
@@ -184,4 +195,5 @@ public class LinkView extends NativeObject {
     private native void nativeRemoveTargetRow(long nativeLinkViewPtr, long rowIndex);
     private native void nativeRemoveAllTargetRows(long nativeLinkViewPtr);
     private native long nativeGetTargetTable(long nativeLinkViewPtr);
+    private native Object nativeAggregate(long nativeLinkViewPtr, long columnIndex, int operator);
 }
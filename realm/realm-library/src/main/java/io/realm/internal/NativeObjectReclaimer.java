@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.internal;
+
+import java.lang.ref.ReferenceQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.realm.log.RealmLog;
+
+/**
+ * Hands the {@link NativeObjectReference}s of garbage collected {@link NativeObject}s over to the {@link Context} of
+ * the thread which created them, using a daemon thread blocking on a process wide reference queue.
+ * <p>
+ * If that thread has a looper, the context posts {@link Context#executeDelayedDisposal()} to it as soon as something
+ * is pending, so the accessors are freed by their owner even if it doesn't call into Realm anymore. Otherwise they
+ * are freed on the next call of the owner, as the daemon thread must never free them itself: destroying a link view
+ * writes to the transaction log and to accessor lists of its column which only the owner may touch.
+ * <p>
+ * The references are kept reachable by a process wide pool until they are handed over, otherwise the garbage
+ * collector would collect the references themselves and never enqueue them. From then on the context holds them, so
+ * if the context is garbage collected without being drained its finalizer frees them, like it always did.
+ */
+public final class NativeObjectReclaimer implements Runnable {
+
+    private static final String THREAD_NAME = "RealmNativeObjectReclaimer";
+
+    private static final ReferenceQueue<NativeObject> referenceQueue = new ReferenceQueue<NativeObject>();
+    private static final ReferencesPool referencesPool = new ReferencesPool();
+    private static final AtomicLong reclaimedCount = new AtomicLong();
+
+    static {
+        Thread thread = new Thread(new NativeObjectReclaimer(), THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Pool to hold the phantom references.
+    // The slots of freed references are recycled through a stack of free slot indices, so registering and freeing a
+    // reference never allocates unless the pool has to grow, and doesn't box the indices.
+    private static final class ReferencesPool {
+        private static final int INITIAL_CAPACITY = 256;
+
+        private NativeObjectReference[] references = new NativeObjectReference[INITIAL_CAPACITY];
+        // Always as long as references, so it can hold every slot.
+        private int[] freeSlots = new int[INITIAL_CAPACITY];
+        private int freeSlotCount;
+        // Number of slots used so far, free or not.
+        private int slotCount;
+
+        synchronized void add(int type, NativeObject referent, ReferenceQueue<NativeObject> queue, Context context) {
+            int slot;
+            if (freeSlotCount > 0) {
+                slot = freeSlots[--freeSlotCount];
+            } else {
+                if (slotCount == references.length) {
+                    grow();
+                }
+                slot = slotCount++;
+            }
+            references[slot] = new NativeObjectReference(type, referent, queue, slot, context);
+        }
+
+        synchronized void remove(NativeObjectReference reference) {
+            references[reference.refIndex] = null;
+            freeSlots[freeSlotCount++] = reference.refIndex;
+        }
+
+        synchronized int getLiveCount() {
+            return slotCount - freeSlotCount;
+        }
+
+        private void grow() {
+            int capacity = references.length * 2;
+            NativeObjectReference[] newReferences = new NativeObjectReference[capacity];
+            System.arraycopy(references, 0, newReferences, 0, references.length);
+            references = newReferences;
+            int[] newFreeSlots = new int[capacity];
+            System.arraycopy(freeSlots, 0, newFreeSlots, 0, freeSlotCount);
+            freeSlots = newFreeSlots;
+        }
+    }
+
+    private NativeObjectReclaimer() {
+    }
+
+    /**
+     * Registers a native object, its native resources are freed by the given context after it has been garbage
+     * collected.
+     *
+     * @param type the type of the native object, one of the {@code NativeObjectReference.TYPE_*} constants.
+     * @param referent the object holding the native pointer.
+     * @param context the context of the thread which created the native object.
+     */
+    static void register(int type, NativeObject referent, Context context) {
+        referencesPool.add(type, referent, referenceQueue, context);
+    }
+
+    static void onReclaimed(int count) {
+        reclaimedCount.addAndGet(count);
+    }
+
+    /**
+     * Returns the number of native objects which are registered and not handed over to their context yet, including
+     * the ones which are already garbage collected but not processed by the reclaimer thread yet.
+     *
+     * @return the number of live native objects.
+     */
+    public static int getLiveCount() {
+        return referencesPool.getLiveCount();
+    }
+
+    /**
+     * Returns the number of garbage collected native objects freed by their context since the process started.
+     *
+     * @return the number of reclaimed native objects.
+     */
+    public static long getReclaimedCount() {
+        return reclaimedCount.get();
+    }
+
+    @Override
+    public void run() {
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            try {
+                NativeObjectReference reference = (NativeObjectReference) referenceQueue.remove();
+                // Hand over everything which is already enqueued before blocking again.
+                while (reference != null) {
+                    referencesPool.remove(reference);
+                    reference.context.asyncDisposeReference(reference);
+                    reference = (NativeObjectReference) referenceQueue.poll();
+                }
+            } catch (InterruptedException e) {
+                // The thread is a daemon and must outlive all native objects, so it cannot be stopped.
+                RealmLog.w(THREAD_NAME + " was interrupted, it keeps running.");
+            }
+        }
+    }
+}
@@ -33,17 +33,21 @@ public final class NativeObjectReference extends PhantomReference<NativeObject>
     // The pointer to the native object to be handled
     final long nativePointer;
     final int type;
-    // Use boxed type to avoid box/un-box when access the freeIndexList
-    final Integer refIndex;
+    // The slot of this reference in the pool of NativeObjectReclaimer
+    final int refIndex;
+    // The context of the thread which created the native object, and which has to free it
+    final Context context;
 
     NativeObjectReference(int type,
                           NativeObject referent,
                           ReferenceQueue<? super NativeObject> referenceQueue,
-                          Integer index) {
+                          int index,
+                          Context context) {
         super(referent, referenceQueue);
         this.type = type;
         this.nativePointer = referent.nativePointer;
         refIndex = index;
+        this.context = context;
     }
 
     /**
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Cache of query results of a {@link SharedRealm}, so repeating a query which has already been run on the current
+ * version of the Realm doesn't run it again.
+ * <p>
+ * Entries are keyed by a description of the query (see {@link TableQuery#getDescription()}) and only stay valid for
+ * the version of the Realm they were created for. The whole cache is cleared as soon as it is used on another
+ * version. The least recently used entries are evicted when the estimated native memory used by the cached views
+ * exceeds the budget.
+ * <p>
+ * The cache keeps its own copy of every view and hands out copies of it, so sorting or removing rows from a result
+ * never changes what the cache returns later. Like the {@link SharedRealm} it belongs to, it must only be used from one
+ * thread.
+ */
+public final class QueryResultCache {
+
+    // Rough estimate of the native memory used by a view besides the row indices.
+    private static final long VIEW_OVERHEAD_BYTES = 128;
+    private static final long ROW_INDEX_BYTES = 8;
+
+    private final long maxSizeInBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private SharedRealm.VersionID version;
+    private long sizeInBytes;
+    private long hitCount;
+    private long missCount;
+
+    private static class Entry {
+        final TableView view;
+        final long sizeInBytes;
+
+        Entry(TableView view, long sizeInBytes) {
+            this.view = view;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSizeInBytes the estimated native memory the cached views may use.
+     * @throws IllegalArgumentException if {@code maxSizeInBytes} is not positive.
+     */
+    public QueryResultCache(long maxSizeInBytes) {
+        if (maxSizeInBytes <= 0) {
+            throw new IllegalArgumentException("The size of the query result cache must be positive: " + maxSizeInBytes);
+        }
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    /**
+     * Returns the cached results of a query.
+     *
+     * @param key the key of the query.
+     * @param currentVersion the version of the Realm the results are needed for.
+     * @return a copy of the cached view or {@code null} if there is none for this version.
+     */
+    public TableView get(String key, SharedRealm.VersionID currentVersion) {
+        invalidateIfVersionChanged(currentVersion);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.view.copy();
+    }
+
+    /**
+     * Caches the results of a query. Results larger than the whole budget are not cached.
+     *
+     * @param key the key of the query.
+     * @param currentVersion the version of the Realm the results were found on.
+     * @param view the results. The cache stores a copy, so the view can still be modified by the caller.
+     */
+    public void put(String key, SharedRealm.VersionID currentVersion, TableView view) {
+        invalidateIfVersionChanged(currentVersion);
+        long entrySize = VIEW_OVERHEAD_BYTES + view.size() * ROW_INDEX_BYTES;
+        if (entrySize > maxSizeInBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(key, new Entry(view.copy(), entrySize));
+        if (previous != null) {
+            release(previous);
+        }
+        sizeInBytes += entrySize;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (sizeInBytes > maxSizeInBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            release(eldest);
+        }
+    }
+
+    /**
+     * Removes all entries and releases their native views. The hit and miss counts are kept.
+     */
+    public void clear() {
+        for (Entry entry : entries.values()) {
+            entry.view.close();
+        }
+        entries.clear();
+        sizeInBytes = 0;
+        version = null;
+    }
+
+    /**
+     * @return the number of lookups which found cached results.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of lookups which did not find cached results.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of cached results.
+     */
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated native memory used by the cached views.
+     */
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * @return the estimated native memory the cached views may use.
+     */
+    public long getMaxSizeInBytes() {
+        return maxSizeInBytes;
+    }
+
+    private void invalidateIfVersionChanged(SharedRealm.VersionID currentVersion) {
+        if (!currentVersion.equals(version)) {
+            clear();
+            version = currentVersion;
+        }
+    }
+
+    private void release(Entry entry) {
+        entry.view.close();
+        sizeInBytes -= entry.sizeInBytes;
+    }
+}
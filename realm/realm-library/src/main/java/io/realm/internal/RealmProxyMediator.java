@@ -59,6 +59,29 @@ public abstract class RealmProxyMediator {
      */
     public abstract ColumnInfo validateTable(Class<? extends RealmModel> clazz, SharedRealm sharedRealm);
 
+    /**
+     * Creates the field indices map for the given RealmObject class without validating the backing table. This must
+     * only be used when the table is known to match the model class, i.e. when {@link #getSchemaFingerprint()}
+     * matches the fingerprint stored in the Realm file by an earlier successful validation.
+     *
+     * @param clazz the {@link RealmObject} model class.
+     * @param sharedRealm the read transaction for the Realm containing the table.
+     * @return the field indices map.
+     */
+    public ColumnInfo createColumnInfo(Class<? extends RealmModel> clazz, SharedRealm sharedRealm) {
+        return validateTable(clazz, sharedRealm);
+    }
+
+    /**
+     * Returns a hash of the model classes and their fields as seen by {@link #validateTable(Class, SharedRealm)}.
+     * Subclasses created by the annotation processor return a value computed at compile time.
+     *
+     * @return the fingerprint of the schema, or {@code 0} if it is unknown and the schema must always be validated.
+     */
+    public long getSchemaFingerprint() {
+        return 0;
+    }
+
     /**
      * Returns a map of non-obfuscated object field names to their internal Realm name.
      *
@@ -16,6 +16,7 @@
 
 package io.realm.internal;
 
+import java.nio.ByteBuffer;
 import java.util.Date;
 
 import io.realm.RealmFieldType;
@@ -69,6 +70,27 @@ public interface Row {
 
     byte[] getBinaryByteArray(long columnIndex);
 
+    /**
+     * Returns the size of a binary value in bytes.
+     *
+     * @param columnIndex 0 based index value of a binary column.
+     * @return the size of the value, or {@code -1} if the value is {@code null}.
+     */
+    long getBinarySize(long columnIndex);
+
+    /**
+     * Copies a binary value straight from the Realm file into the given buffer, starting at its position, and advances
+     * the position past it. No intermediate buffer is allocated.
+     *
+     * @param columnIndex 0 based index value of a binary column.
+     * @param destination the buffer to copy the value into.
+     * @return the size of the value, or {@code -1} if the value is {@code null}.
+     * @throws java.nio.BufferOverflowException if the value is larger than the remaining bytes of the buffer. Nothing
+     *         is copied then.
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only.
+     */
+    long getBinaryByteBuffer(long columnIndex, ByteBuffer destination);
+
     long getLink(long columnIndex);
 
     boolean isNullLink(long columnIndex);
@@ -89,6 +111,15 @@ public interface Row {
 
     void setBinaryByteArray(long columnIndex, byte[] data);
 
+    /**
+     * Sets a binary value from the remaining bytes of a buffer. Direct buffers are copied into the Realm file without
+     * an intermediate Java array. The position of the buffer is not changed.
+     *
+     * @param columnIndex 0 based index value of a binary column.
+     * @param data the value, or {@code null}.
+     */
+    void setBinaryByteBuffer(long columnIndex, ByteBuffer data);
+
     void setLink(long columnIndex, long value);
 
     void nullifyLink(long columnIndex);
@@ -181,6 +212,16 @@ public interface Row {
             throw new IllegalStateException(UNLOADED_ROW_MESSAGE);
         }
 
+        @Override
+        public long getBinarySize(long columnIndex) {
+            throw new IllegalStateException(UNLOADED_ROW_MESSAGE);
+        }
+
+        @Override
+        public long getBinaryByteBuffer(long columnIndex, ByteBuffer destination) {
+            throw new IllegalStateException(UNLOADED_ROW_MESSAGE);
+        }
+
         @Override
         public long getLink(long columnIndex) {
             throw new IllegalStateException(UNLOADED_ROW_MESSAGE);
@@ -241,6 +282,11 @@ public interface Row {
             throw new IllegalStateException(UNLOADED_ROW_MESSAGE);
         }
 
+        @Override
+        public void setBinaryByteBuffer(long columnIndex, ByteBuffer data) {
+            throw new IllegalStateException(UNLOADED_ROW_MESSAGE);
+        }
+
         @Override
         public void setLink(long columnIndex, long value) {
             throw new IllegalStateException(UNLOADED_ROW_MESSAGE);
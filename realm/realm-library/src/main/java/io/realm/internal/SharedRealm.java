@@ -20,6 +20,7 @@ import java.io.Closeable;
 import java.io.File;
 
 import io.realm.RealmConfiguration;
+import io.realm.RealmFieldType;
 import io.realm.internal.async.BadVersionException;
 
 public final class SharedRealm implements Closeable {
@@ -32,6 +33,10 @@ public final class SharedRealm implements Closeable {
     public static final byte FILE_EXCEPTION_KIND_IMCOMPATIBLE_LOCK_FILE = 4;
     public static final byte FILE_EXCEPTION_KIND_FORMAT_UPGRADE_REQUIRED = 5;
 
+    // There is deliberately no level between FULL and MEM_ONLY. Core syncs the data and then the new top reference on
+    // every commit, and the only way to skip that is the process wide disable_sync_to_disk(), which is meant for tests
+    // and can corrupt files on power loss. Batching commits with RealmConfiguration.Builder#groupAsyncTransactions()
+    // amortizes the sync instead, without giving up crash consistency.
     public enum Durability {
         FULL(0),
         MEM_ONLY(1);
@@ -121,8 +126,14 @@ public final class SharedRealm implements Closeable {
         }
     }
 
+    private static final String FINGERPRINT_MODEL_COLUMN_NAME = "model_fingerprint";
+    private static final long FINGERPRINT_MODEL_COLUMN_INDEX = 0;
+    private static final String FINGERPRINT_SCHEMA_HASH_COLUMN_NAME = "schema_hash";
+    private static final long FINGERPRINT_SCHEMA_HASH_COLUMN_INDEX = 1;
+
     private long nativePtr;
     private RealmConfiguration configuration;
+    private QueryResultCache queryResultCache;
     final Context context;
 
     private SharedRealm(long nativePtr, RealmConfiguration configuration) {
@@ -212,6 +223,14 @@ public final class SharedRealm implements Closeable {
         nativeRefresh(nativePtr);
     }
 
+    /**
+     * Ends the current read transaction, so this instance no longer keeps its version from being reclaimed. The next
+     * {@link #refresh()} starts a new read transaction at the latest version. Tables obtained before are detached.
+     */
+    public void invalidate() {
+        nativeInvalidate(nativePtr);
+    }
+
     public void refresh(SharedRealm.VersionID version) throws BadVersionException {
         // FIXME: This will have a different behaviour compared to refresh to the latest version.
         // In the JNI this will just advance read the corresponding SharedGroup to the specific version without notifier
@@ -225,6 +244,19 @@ public final class SharedRealm implements Closeable {
         return new SharedRealm.VersionID(versionId[0], versionId[1]);
     }
 
+    /**
+     * Returns the query result cache of this Realm. It is created on first use.
+     *
+     * @return the cache or {@code null} if query results should not be cached.
+     * @see RealmConfiguration.Builder#queryResultCache(long)
+     */
+    public QueryResultCache getQueryResultCache() {
+        if (queryResultCache == null && configuration.getQueryResultCacheSize() > 0) {
+            queryResultCache = new QueryResultCache(configuration.getQueryResultCacheSize());
+        }
+        return queryResultCache;
+    }
+
     public boolean isClosed() {
         return nativePtr == 0 || nativeIsClosed(nativePtr);
     }
@@ -248,10 +280,76 @@ public final class SharedRealm implements Closeable {
         return nativeCompact(nativePtr);
     }
 
+    /**
+     * Returns the number of bytes used by the data of the version this Realm is reading. The rest of the file is free
+     * space, which is reclaimed by {@link #compact()}.
+     *
+     * @return the used bytes.
+     */
+    public long getUsedBytes() {
+        return nativeGetUsedBytes(nativePtr);
+    }
+
+    /**
+     * Checks if the schema of this Realm was validated against the given model fingerprint and hasn't changed since.
+     *
+     * @param fingerprint the fingerprint of the model classes, see {@link RealmProxyMediator#getSchemaFingerprint()}.
+     * @return {@code true} if the tables are known to match the model classes, {@code false} if they must be
+     * validated.
+     */
+    public boolean isSchemaFingerprintValid(long fingerprint) {
+        if (fingerprint == 0 || !hasTable(Table.SCHEMA_FINGERPRINT_TABLE_NAME)) {
+            return false;
+        }
+        Table table = getTable(Table.SCHEMA_FINGERPRINT_TABLE_NAME);
+        if (table.getColumnCount() != 2 || table.size() != 1) {
+            return false;
+        }
+        return table.getLong(FINGERPRINT_MODEL_COLUMN_INDEX, 0) == fingerprint
+                && table.getLong(FINGERPRINT_SCHEMA_HASH_COLUMN_INDEX, 0) == getSchemaHash();
+    }
+
+    /**
+     * Records that the schema of this Realm was successfully validated against the given model fingerprint. Must be
+     * called in a write transaction after all changes to the schema have been made.
+     *
+     * @param fingerprint the fingerprint of the model classes, see {@link RealmProxyMediator#getSchemaFingerprint()}.
+     * @return {@code true} if the stored fingerprint was changed, {@code false} if it was already up to date.
+     */
+    public boolean setSchemaFingerprint(long fingerprint) {
+        Table table = getTable(Table.SCHEMA_FINGERPRINT_TABLE_NAME);
+        if (table.getColumnCount() == 0) {
+            table.addColumn(RealmFieldType.INTEGER, FINGERPRINT_MODEL_COLUMN_NAME);
+            table.addColumn(RealmFieldType.INTEGER, FINGERPRINT_SCHEMA_HASH_COLUMN_NAME);
+        }
+        if (table.size() == 0) {
+            table.addEmptyRow();
+        }
+        long schemaHash = getSchemaHash();
+        if (table.getLong(FINGERPRINT_MODEL_COLUMN_INDEX, 0) == fingerprint
+                && table.getLong(FINGERPRINT_SCHEMA_HASH_COLUMN_INDEX, 0) == schemaHash) {
+            return false;
+        }
+        table.setLong(FINGERPRINT_MODEL_COLUMN_INDEX, 0, fingerprint);
+        table.setLong(FINGERPRINT_SCHEMA_HASH_COLUMN_INDEX, 0, schemaHash);
+        return true;
+    }
+
+    /**
+     * Returns a hash of the names, columns, column attributes and primary keys of all tables in the Realm, excluding
+     * the fingerprint table itself.
+     */
+    long getSchemaHash() {
+        return nativeGetSchemaHash(nativePtr, Table.SCHEMA_FINGERPRINT_TABLE_NAME);
+    }
+
     @Override
     public void close() {
         synchronized (context) {
             if (nativePtr != 0) {
+                if (queryResultCache != null) {
+                    queryResultCache.clear();
+                }
                 nativeCloseSharedRealm(nativePtr);
                 nativePtr = 0;
             }
@@ -288,6 +386,7 @@ public final class SharedRealm implements Closeable {
     private static native boolean nativeIsEmpty(long nativeSharedRealmPtr);
     private static native void nativeRefresh(long nativeSharedRealmPtr);
     private static native void nativeRefresh(long nativeSharedRealmPtr, long version, long index);
+    private static native void nativeInvalidate(long nativeSharedRealmPtr);
     private static native long[]  nativeGetVersionID(long nativeSharedRealmPtr);
     private static native long nativeGetTable(long nativeSharedRealmPtr, String tableName);
     private static native String nativeGetTableName(long nativeSharedRealmPtr, int index);
@@ -295,8 +394,10 @@ public final class SharedRealm implements Closeable {
     private static native void nativeRenameTable(long nativeSharedRealmPtr, String oldTableName, String newTableName);
     private static native void nativeRemoveTable(long nativeSharedRealmPtr, String tableName);
     private static native long nativeSize(long nativeSharedRealmPtr);
+    private static native long nativeGetUsedBytes(long nativeSharedRealmPtr);
     private static native void nativeWriteCopy(long nativeSharedRealmPtr, String path, byte[] key);
     private static native boolean nativeWaitForChange(long nativeSharedRealmPtr);
     private static native void nativeStopWaitForChange(long nativeSharedRealmPtr);
     private static native boolean nativeCompact(long nativeSharedRealmPtr);
+    private static native long nativeGetSchemaHash(long nativeSharedRealmPtr, String excludedTableName);
 }
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.internal;
+
+import android.os.SystemClock;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.realm.RealmConfiguration;
+
+/**
+ * Pool of {@link SharedRealm}s used by the background threads running async queries. Opening a SharedRealm pays for
+ * opening the file, validating the schema and pinning a version, which dominates the cost of small async queries.
+ * Instead each worker thread keeps its SharedRealm open between tasks and only refreshes it to the latest version.
+ * <p>
+ * A pooled SharedRealm is acquired, released and closed only by the thread that opened it. When it is released its
+ * read transaction is ended, so an idle instance doesn't keep old versions from being reclaimed. Other threads never
+ * close it: {@link #evict(String)} and {@link #evict(String, long)} mark the instances of a file, and the owner closes
+ * them on its next call to the pool. Worker threads call {@link #closeEvicted()} after every task and
+ * {@link #closeIdle()} once they run out of work, so an idle worker doesn't keep any file open and eviction only has
+ * to wait for the tasks still running.
+ */
+public final class SharedRealmPool {
+
+    // Entries of the current thread by Realm path.
+    private static final ThreadLocal<Map<String, Entry>> threadEntries = new ThreadLocal<Map<String, Entry>>() {
+        @Override
+        protected Map<String, Entry> initialValue() {
+            return new HashMap<String, Entry>();
+        }
+    };
+
+    // All open entries of all threads, used by evict.
+    private static final Set<Entry> allEntries =
+            Collections.newSetFromMap(new ConcurrentHashMap<Entry, Boolean>());
+
+    private SharedRealmPool() {
+    }
+
+    /**
+     * Returns an open {@link SharedRealm} at the latest version for the given configuration, bound to the calling
+     * thread. It must be given back with {@link #release(SharedRealm)} on the same thread instead of being closed.
+     *
+     * @param configuration the configuration of the Realm.
+     * @return the SharedRealm to use.
+     */
+    public static SharedRealm acquire(RealmConfiguration configuration) {
+        Map<String, Entry> entries = threadEntries.get();
+        closeEvicted(entries);
+
+        Entry entry = entries.get(configuration.getPath());
+        if (entry != null && (!entry.configuration.equals(configuration) || !entry.markInUse())) {
+            entries.remove(configuration.getPath());
+            entry.close();
+            entry = null;
+        }
+        if (entry == null) {
+            entry = new Entry(configuration, SharedRealm.getInstance(configuration));
+            entries.put(configuration.getPath(), entry);
+            allEntries.add(entry);
+            return entry.sharedRealm;
+        }
+
+        try {
+            // Also starts a new read transaction, the previous one was ended on release.
+            entry.sharedRealm.refresh();
+        } catch (RuntimeException e) {
+            entries.remove(configuration.getPath());
+            entry.close();
+            throw e;
+        }
+        return entry.sharedRealm;
+    }
+
+    /**
+     * Gives a {@link SharedRealm} obtained from {@link #acquire(RealmConfiguration)} back to the pool. Releasing an
+     * instance that is not in use is a no-op, so it is safe to release in both a success path and a finally block.
+     * SharedRealms not obtained from the pool are closed.
+     *
+     * @param sharedRealm the SharedRealm to release.
+     */
+    public static void release(SharedRealm sharedRealm) {
+        if (sharedRealm == null) {
+            return;
+        }
+        Map<String, Entry> entries = threadEntries.get();
+        Entry entry = entries.get(sharedRealm.getPath());
+        if (entry == null || entry.sharedRealm != sharedRealm) {
+            if (!sharedRealm.isClosed()) {
+                sharedRealm.close();
+            }
+            return;
+        }
+
+        if (entry.isInUse() && !entry.evicted) {
+            try {
+                sharedRealm.invalidate();
+            } catch (RuntimeException e) {
+                entries.remove(sharedRealm.getPath());
+                entry.close();
+                throw e;
+            }
+        }
+        entry.markIdle();
+        closeEvicted(entries);
+    }
+
+    /**
+     * Closes the idle pooled SharedRealms of the calling thread which have been evicted by another thread.
+     */
+    public static void closeEvicted() {
+        closeEvicted(threadEntries.get());
+    }
+
+    /**
+     * Closes all idle pooled SharedRealms of the calling thread. Worker threads call this before waiting for more
+     * work, so the files are not kept open by threads that might stay idle for a long time.
+     */
+    public static void closeIdle() {
+        Map<String, Entry> entries = threadEntries.get();
+        if (entries.isEmpty()) {
+            return;
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.isInUse()) {
+                iterator.remove();
+                entry.close();
+            }
+        }
+    }
+
+    /**
+     * Marks the pooled SharedRealms of the given Realm file of all threads to be closed by their owners, and closes the
+     * idle ones of the calling thread.
+     *
+     * @param path the canonical path of the Realm file.
+     * @return {@code true} if no pooled instance of the file is open anymore, {@code false} if some are still open.
+     */
+    public static boolean evict(String path) {
+        return evict(path, 0);
+    }
+
+    /**
+     * Marks the pooled SharedRealms of the given Realm file of all threads to be closed by their owners, and waits for
+     * them to be closed. Worker threads close them once their current task is done. Use this before operations which
+     * need the file to be closed, like compacting or deleting it.
+     *
+     * @param path the canonical path of the Realm file.
+     * @param timeoutMillis how long to wait for the instances of other threads to be closed.
+     * @return {@code true} if no pooled instance of the file is open anymore, {@code false} if some are still open
+     *         after the timeout, or are in use by the calling thread.
+     */
+    public static boolean evict(String path, long timeoutMillis) {
+        final long deadline = SystemClock.uptimeMillis() + timeoutMillis;
+        boolean allClosed = true;
+        for (Entry entry : allEntries) {
+            if (entry.configuration.getPath().equals(path)) {
+                entry.markEvicted();
+            }
+        }
+        closeEvicted(threadEntries.get());
+        for (Entry entry : allEntries) {
+            if (entry.configuration.getPath().equals(path)) {
+                allClosed &= entry.awaitClosed(deadline);
+            }
+        }
+        return allClosed;
+    }
+
+    /**
+     * Returns the number of SharedRealms currently kept open by the pool.
+     */
+    public static int size() {
+        return allEntries.size();
+    }
+
+    private static void closeEvicted(Map<String, Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.evicted && !entry.isInUse()) {
+                iterator.remove();
+                entry.close();
+            }
+        }
+    }
+
+    // Only the owner thread acquires, releases and closes an entry. The state is guarded by the monitor of the entry,
+    // so other threads can mark it as evicted and wait for it to be closed.
+    private static final class Entry {
+        final RealmConfiguration configuration;
+        final SharedRealm sharedRealm;
+        final Thread owner;
+        volatile boolean evicted;
+        private boolean inUse;
+        private boolean closed;
+
+        Entry(RealmConfiguration configuration, SharedRealm sharedRealm) {
+            this.configuration = configuration;
+            this.sharedRealm = sharedRealm;
+            this.owner = Thread.currentThread();
+            this.inUse = true;
+        }
+
+        // Returns false if the entry can't be used anymore and has to be replaced.
+        synchronized boolean markInUse() {
+            if (closed || evicted) {
+                return false;
+            }
+            inUse = true;
+            return true;
+        }
+
+        synchronized boolean isInUse() {
+            return inUse;
+        }
+
+        synchronized void markIdle() {
+            inUse = false;
+        }
+
+        synchronized void markEvicted() {
+            evicted = true;
+        }
+
+        // Returns true if the entry is closed, waiting until the deadline for the owner to close it. The owner can't
+        // close an entry it is still using, so it doesn't wait for itself.
+        synchronized boolean awaitClosed(long deadline) {
+            if (owner != Thread.currentThread()) {
+                long remaining = deadline - SystemClock.uptimeMillis();
+                while (!closed && remaining > 0) {
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    remaining = deadline - SystemClock.uptimeMillis();
+                }
+            }
+            return closed;
+        }
+
+        // Called by the owner only.
+        synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            allEntries.remove(this);
+            if (!sharedRealm.isClosed()) {
+                sharedRealm.close();
+            }
+            // Wakes up threads waiting in evict.
+            notifyAll();
+        }
+    }
+}
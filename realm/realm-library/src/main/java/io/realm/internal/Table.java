@@ -43,6 +43,7 @@ public class Table implements TableOrView, TableSchema {
     public static final boolean NOT_NULLABLE = false;
 
     private static final String PRIMARY_KEY_TABLE_NAME = "pk";
+    static final String SCHEMA_FINGERPRINT_TABLE_NAME = "schema_fingerprint";
     private static final String PRIMARY_KEY_CLASS_COLUMN_NAME = "pk_table";
     private static final long PRIMARY_KEY_CLASS_COLUMN_INDEX = 0;
     private static final String PRIMARY_KEY_FIELD_COLUMN_NAME = "pk_property";
@@ -50,7 +51,7 @@ public class Table implements TableOrView, TableSchema {
     private static final long NO_PRIMARY_KEY = -2;
 
     long nativePtr;
-    private final Context context;
+    final Context context;
     private final SharedRealm sharedRealm;
     private long cachedPrimaryKeyColumnIndex = NO_MATCH;
 
@@ -84,6 +85,13 @@ public class Table implements TableOrView, TableSchema {
         this.nativePtr = nativePointer;
     }
 
+    /**
+     * Returns the Realm this table belongs to, {@code null} for tables which are not part of a Realm.
+     */
+    SharedRealm getSharedRealm() {
+        return sharedRealm;
+    }
+
     @Override
     public Table getTable() {
         return this;
@@ -332,6 +340,21 @@ public class Table implements TableOrView, TableSchema {
         return nativeGetColumnIndex(nativePtr, columnName);
     }
 
+    /**
+     * Returns the 0-based indices of several columns with a single native call.
+     *
+     * @param columnNames the column names.
+     * @return the indices in the same order as the names, {@link #NO_MATCH} for names that were not found.
+     */
+    public long[] getColumnIndices(String[] columnNames) {
+        for (String columnName : columnNames) {
+            if (columnName == null) {
+                throw new IllegalArgumentException("Column name can not be null.");
+            }
+        }
+        return nativeGetColumnIndices(nativePtr, columnNames);
+    }
+
     /**
      * Gets the type of a column identified by the columnIndex.
      *
@@ -702,6 +725,21 @@ public class Table implements TableOrView, TableSchema {
         return nativeGetString(nativePtr, columnIndex, rowIndex);
     }
 
+    @Override
+    public void getLongs(long columnIndex, long fromRow, long[] dst, int offset, int count) {
+        nativeGetLongs(nativePtr, columnIndex, fromRow, dst, offset, count);
+    }
+
+    @Override
+    public void getDoubles(long columnIndex, long fromRow, double[] dst, int offset, int count) {
+        nativeGetDoubles(nativePtr, columnIndex, fromRow, dst, offset, count);
+    }
+
+    @Override
+    public void getStrings(long columnIndex, long fromRow, String[] dst, int offset, int count) {
+        nativeGetStrings(nativePtr, columnIndex, fromRow, dst, offset, count);
+    }
+
     @Override
     public byte[] getBinaryByteArray(long columnIndex, long rowIndex) {
         return nativeGetByteArray(nativePtr, columnIndex, rowIndex);
@@ -816,6 +854,68 @@ public class Table implements TableOrView, TableSchema {
         }
     }
 
+    /**
+     * Sets the values of consecutive rows of a column with a single native call. Must not be used on primary key
+     * columns since uniqueness is not checked.
+     *
+     * @param columnIndex 0 based index value of an integer column.
+     * @param rowStart 0 based index value of the first row to set.
+     * @param values the values to set.
+     */
+    public void setLongs(long columnIndex, long rowStart, long[] values) {
+        checkImmutable();
+        nativeSetLongs(nativePtr, columnIndex, rowStart, values);
+    }
+
+    /**
+     * Sets the values of consecutive rows of a boolean column with a single native call.
+     *
+     * @param columnIndex 0 based index value of a boolean column.
+     * @param rowStart 0 based index value of the first row to set.
+     * @param values the values to set.
+     */
+    public void setBooleans(long columnIndex, long rowStart, boolean[] values) {
+        checkImmutable();
+        nativeSetBooleans(nativePtr, columnIndex, rowStart, values);
+    }
+
+    /**
+     * Sets the values of consecutive rows of a float column with a single native call.
+     *
+     * @param columnIndex 0 based index value of a float column.
+     * @param rowStart 0 based index value of the first row to set.
+     * @param values the values to set.
+     */
+    public void setFloats(long columnIndex, long rowStart, float[] values) {
+        checkImmutable();
+        nativeSetFloats(nativePtr, columnIndex, rowStart, values);
+    }
+
+    /**
+     * Sets the values of consecutive rows of a double column with a single native call.
+     *
+     * @param columnIndex 0 based index value of a double column.
+     * @param rowStart 0 based index value of the first row to set.
+     * @param values the values to set.
+     */
+    public void setDoubles(long columnIndex, long rowStart, double[] values) {
+        checkImmutable();
+        nativeSetDoubles(nativePtr, columnIndex, rowStart, values);
+    }
+
+    /**
+     * Sets the values of consecutive rows of a String column with a single native call. Must not be used on primary
+     * key columns since uniqueness is not checked.
+     *
+     * @param columnIndex 0 based index value of a String column.
+     * @param rowStart 0 based index value of the first row to set.
+     * @param values the values to set, {@code null} elements are only allowed for nullable columns.
+     */
+    public void setStrings(long columnIndex, long rowStart, String[] values) {
+        checkImmutable();
+        nativeSetStrings(nativePtr, columnIndex, rowStart, values);
+    }
+
     @Override
     public void setBinaryByteArray(long columnIndex, long rowIndex, byte[] data) {
         checkImmutable();
@@ -1269,7 +1369,8 @@ public class Table implements TableOrView, TableSchema {
      * Checks if a given table name is a meta-table, i.e. a table used by Realm to track its internal state.
      */
     public static boolean isMetaTable(String tableName) {
-        return (tableName.equals(METADATA_TABLE_NAME) || tableName.equals(PRIMARY_KEY_TABLE_NAME));
+        return (tableName.equals(METADATA_TABLE_NAME) || tableName.equals(PRIMARY_KEY_TABLE_NAME)
+                || tableName.equals(SCHEMA_FINGERPRINT_TABLE_NAME));
     }
 
     /**
@@ -1306,6 +1407,7 @@ public class Table implements TableOrView, TableSchema {
     private native long nativeGetColumnCount(long nativeTablePtr);
     private native String nativeGetColumnName(long nativeTablePtr, long columnIndex);
     private native long nativeGetColumnIndex(long nativeTablePtr, String columnName);
+    private native long[] nativeGetColumnIndices(long nativeTablePtr, String[] columnNames);
     private native int nativeGetColumnType(long nativeTablePtr, long columnIndex);
     private native void nativeRemove(long nativeTablePtr, long rowIndex);
     private native void nativeRemoveLast(long nativeTablePtr);
@@ -1318,6 +1420,11 @@ public class Table implements TableOrView, TableSchema {
     private native double nativeGetDouble(long nativeTablePtr, long columnIndex, long rowIndex);
     private native long nativeGetTimestamp(long nativeTablePtr, long columnIndex, long rowIndex);
     private native String nativeGetString(long nativePtr, long columnIndex, long rowIndex);
+    private native void nativeGetLongs(long nativePtr, long columnIndex, long rowStart, long[] dst, int offset, int count);
+    private native void nativeGetDoubles(long nativePtr, long columnIndex, long rowStart, double[] dst, int offset,
+                                         int count);
+    private native void nativeGetStrings(long nativePtr, long columnIndex, long rowStart, String[] dst, int offset,
+                                         int count);
     private native byte[] nativeGetByteArray(long nativePtr, long columnIndex, long rowIndex);
     private native long nativeGetLink(long nativePtr, long columnIndex, long rowIndex);
     public static native long nativeGetLinkView(long nativePtr, long columnIndex, long rowIndex);
@@ -1329,6 +1436,11 @@ public class Table implements TableOrView, TableSchema {
     public static native void nativeSetDouble(long nativeTablePtr, long columnIndex, long rowIndex, double value);
     public static native void nativeSetTimestamp(long nativeTablePtr, long columnIndex, long rowIndex, long dateTimeValue);
     public static native void nativeSetString(long nativeTablePtr, long columnIndex, long rowIndex, String value);
+    public static native void nativeSetLongs(long nativeTablePtr, long columnIndex, long rowStart, long[] values);
+    public static native void nativeSetBooleans(long nativeTablePtr, long columnIndex, long rowStart, boolean[] values);
+    public static native void nativeSetFloats(long nativeTablePtr, long columnIndex, long rowStart, float[] values);
+    public static native void nativeSetDoubles(long nativeTablePtr, long columnIndex, long rowStart, double[] values);
+    public static native void nativeSetStrings(long nativeTablePtr, long columnIndex, long rowStart, String[] values);
     public static native void nativeSetNull(long nativeTablePtr, long columnIndex, long rowIndex);
     public static native void nativeSetByteArray(long nativePtr, long columnIndex, long rowIndex, byte[] data);
     public static native void nativeSetLink(long nativeTablePtr, long columnIndex, long rowIndex, long value);
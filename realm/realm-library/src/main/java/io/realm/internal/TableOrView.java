@@ -114,6 +114,42 @@ public interface TableOrView {
      */
     String getString(long columnIndex, long rowIndex);
 
+    /**
+     * Copies the long values of {@code count} consecutive rows, starting at {@code fromRow}, into {@code dst} using a
+     * single native call. Null values are copied as {@code 0}.
+     *
+     * @param columnIndex the index of an integer column.
+     * @param fromRow the index of the first row to copy.
+     * @param dst the array to copy the values into.
+     * @param offset the position in {@code dst} of the first value.
+     * @param count the number of values to copy.
+     */
+    void getLongs(long columnIndex, long fromRow, long[] dst, int offset, int count);
+
+    /**
+     * Copies the double values of {@code count} consecutive rows, starting at {@code fromRow}, into {@code dst} using
+     * a single native call. Float columns are widened to double and null values are copied as {@link Double#NaN}.
+     *
+     * @param columnIndex the index of a double or float column.
+     * @param fromRow the index of the first row to copy.
+     * @param dst the array to copy the values into.
+     * @param offset the position in {@code dst} of the first value.
+     * @param count the number of values to copy.
+     */
+    void getDoubles(long columnIndex, long fromRow, double[] dst, int offset, int count);
+
+    /**
+     * Copies the string values of {@code count} consecutive rows, starting at {@code fromRow}, into {@code dst} using
+     * a single native call.
+     *
+     * @param columnIndex the index of a string column.
+     * @param fromRow the index of the first row to copy.
+     * @param dst the array to copy the values into.
+     * @param offset the position in {@code dst} of the first value.
+     * @param count the number of values to copy.
+     */
+    void getStrings(long columnIndex, long fromRow, String[] dst, int offset, int count);
+
     /**
      * Returns the Date value (java.util.Date) for a particular cell specified by the columnIndex and rowIndex of the
      * cell.
@@ -17,6 +17,7 @@
 package io.realm.internal;
 
 import java.io.Closeable;
+import java.util.Arrays;
 import java.util.Date;
 
 import io.realm.Case;
@@ -26,6 +27,36 @@ import io.realm.internal.async.BadVersionException;
 public class TableQuery implements Closeable {
     protected boolean DEBUG = false;
 
+    // Instructions of the query programs built by io.realm.RealmQueryTemplate. A predicate is encoded as
+    // {op, native field type, flags, argument index, path length, column indices...}, the grouping operators as {op}.
+    // Public for static checking in JNI.
+    public static final int PROGRAM_BEGIN_GROUP = 0;
+    public static final int PROGRAM_END_GROUP = 1;
+    public static final int PROGRAM_OR = 2;
+    public static final int PROGRAM_NOT = 3;
+    public static final int PROGRAM_EQUAL = 4;
+    public static final int PROGRAM_NOT_EQUAL = 5;
+    public static final int PROGRAM_GREATER = 6;
+    public static final int PROGRAM_GREATER_EQUAL = 7;
+    public static final int PROGRAM_LESS = 8;
+    public static final int PROGRAM_LESS_EQUAL = 9;
+    public static final int PROGRAM_CONTAINS = 10;
+    public static final int PROGRAM_BEGINS_WITH = 11;
+    public static final int PROGRAM_ENDS_WITH = 12;
+    public static final int PROGRAM_FLAG_CASE_SENSITIVE = 1;
+
+    // What to do with the query built from a program.
+    public static final int PROGRAM_MODE_FIND_ALL = 0;
+    public static final int PROGRAM_MODE_FIND_FIRST = 1;
+    public static final int PROGRAM_MODE_COUNT = 2;
+
+    // Aggregate operators which are evaluated natively over link lists and link paths, see aggregate.hpp.
+    public static final int AGGREGATE_SUM = 0;
+    public static final int AGGREGATE_MINIMUM = 1;
+    public static final int AGGREGATE_MAXIMUM = 2;
+    public static final int AGGREGATE_AVERAGE = 3;
+    public static final int AGGREGATE_COUNT = 4;
+
     protected long nativePtr;
     protected final Table table;
     // Don't convert this into local variable and don't remove this.
@@ -39,6 +70,10 @@ public class TableQuery implements Closeable {
     // the first action to validate the syntax of the query.
     private boolean queryValidated = true;
 
+    // Canonical description of the conditions added so far, used as key by the QueryResultCache. Set to null when the
+    // query is restricted to something which cannot be described, like a TableView.
+    private StringBuilder description = new StringBuilder();
+
     // TODO: Can we protect this?
     public TableQuery(Context context, Table table, long nativeQueryPtr) {
         if (DEBUG) {
@@ -98,31 +133,74 @@ public class TableQuery implements Closeable {
     // Query TableView
     public TableQuery tableview(TableView tv) {
         nativeTableview(nativePtr, tv.nativePtr);
+        description = null;
         return this;
     }
 
+    /**
+     * Returns a description of the conditions of this query. Two queries on the same table with equal descriptions
+     * find the same rows. The description does not include the {@link TableView} or {@link LinkView} the query is
+     * restricted to, if any.
+     *
+     * @return the description or {@code null} if the query cannot be described.
+     */
+    public String getDescription() {
+        return (description != null) ? description.toString() : null;
+    }
+
+    private void describe(String operator) {
+        if (description != null) {
+            description.append(operator).append(';');
+        }
+    }
+
+    private void describe(String operator, long[] columnIndices, Object... values) {
+        if (description == null) {
+            return;
+        }
+        description.append(operator).append('(').append(Arrays.toString(columnIndices));
+        for (Object value : values) {
+            description.append(',');
+            if (value instanceof String) {
+                // Length prefixed, so no value can be mistaken for a separator.
+                description.append(((String) value).length()).append(':').append(value);
+            } else if (value instanceof Date) {
+                description.append(((Date) value).getTime()).append('t');
+            } else if (value instanceof byte[]) {
+                description.append(Arrays.toString((byte[]) value));
+            } else {
+                description.append(value);
+            }
+        }
+        description.append(");");
+    }
+
     // Grouping
 
     public TableQuery group() {
         nativeGroup(nativePtr);
+        describe("group");
         queryValidated = false;
         return this;
     }
 
     public TableQuery endGroup() {
         nativeEndGroup(nativePtr);
+        describe("endGroup");
         queryValidated = false;
         return this;
     }
 
     public TableQuery or() {
         nativeOr(nativePtr);
+        describe("or");
         queryValidated = false;
         return this;
     }
 
     public TableQuery not() {
         nativeNot(nativePtr);
+        describe("not");
         queryValidated = false;
         return this;
     }
@@ -131,42 +209,49 @@ public class TableQuery implements Closeable {
 
     public TableQuery equalTo(long columnIndexes[], long value) {
         nativeEqual(nativePtr, columnIndexes, value);
+        describe("equalTo", columnIndexes, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery notEqualTo(long columnIndex[], long value) {
         nativeNotEqual(nativePtr, columnIndex, value);
+        describe("notEqualTo", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery greaterThan(long columnIndex[], long value) {
         nativeGreater(nativePtr, columnIndex, value);
+        describe("greaterThan", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery greaterThanOrEqual(long columnIndex[], long value) {
         nativeGreaterEqual(nativePtr, columnIndex, value);
+        describe("greaterThanOrEqual", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery lessThan(long columnIndex[], long value) {
         nativeLess(nativePtr, columnIndex, value);
+        describe("lessThan", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery lessThanOrEqual(long columnIndex[], long value) {
         nativeLessEqual(nativePtr, columnIndex, value);
+        describe("lessThanOrEqual", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery between(long columnIndex[], long value1, long value2) {
         nativeBetween(nativePtr, columnIndex, value1, value2);
+        describe("between", columnIndex, value1, value2);
         queryValidated = false;
         return this;
     }
@@ -175,42 +260,49 @@ public class TableQuery implements Closeable {
 
     public TableQuery equalTo(long columnIndex[], float value) {
         nativeEqual(nativePtr, columnIndex, value);
+        describe("equalTo", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery notEqualTo(long columnIndex[], float value) {
         nativeNotEqual(nativePtr, columnIndex, value);
+        describe("notEqualTo", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery greaterThan(long columnIndex[], float value) {
         nativeGreater(nativePtr, columnIndex, value);
+        describe("greaterThan", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery greaterThanOrEqual(long columnIndex[], float value) {
         nativeGreaterEqual(nativePtr, columnIndex, value);
+        describe("greaterThanOrEqual", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery lessThan(long columnIndex[], float value) {
         nativeLess(nativePtr, columnIndex, value);
+        describe("lessThan", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery lessThanOrEqual(long columnIndex[], float value) {
         nativeLessEqual(nativePtr, columnIndex, value);
+        describe("lessThanOrEqual", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery between(long columnIndex[], float value1, float value2) {
         nativeBetween(nativePtr, columnIndex, value1, value2);
+        describe("between", columnIndex, value1, value2);
         queryValidated = false;
         return this;
     }
@@ -219,42 +311,49 @@ public class TableQuery implements Closeable {
 
     public TableQuery equalTo(long columnIndex[], double value) {
         nativeEqual(nativePtr, columnIndex, value);
+        describe("equalTo", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery notEqualTo(long columnIndex[], double value) {
         nativeNotEqual(nativePtr, columnIndex, value);
+        describe("notEqualTo", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery greaterThan(long columnIndex[], double value) {
         nativeGreater(nativePtr, columnIndex, value);
+        describe("greaterThan", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery greaterThanOrEqual(long columnIndex[], double value) {
         nativeGreaterEqual(nativePtr, columnIndex, value);
+        describe("greaterThanOrEqual", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery lessThan(long columnIndex[], double value) {
         nativeLess(nativePtr, columnIndex, value);
+        describe("lessThan", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery lessThanOrEqual(long columnIndex[], double value) {
         nativeLessEqual(nativePtr, columnIndex, value);
+        describe("lessThanOrEqual", columnIndex, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery between(long columnIndex[], double value1, double value2) {
         nativeBetween(nativePtr, columnIndex, value1, value2);
+        describe("between", columnIndex, value1, value2);
         queryValidated = false;
         return this;
     }
@@ -263,6 +362,7 @@ public class TableQuery implements Closeable {
 
     public TableQuery equalTo(long columnIndex[], boolean value) {
         nativeEqual(nativePtr, columnIndex, value);
+        describe("equalTo", columnIndex, value);
         queryValidated = false;
         return this;
     }
@@ -277,6 +377,7 @@ public class TableQuery implements Closeable {
         } else {
             nativeEqualTimestamp(nativePtr, columnIndex, value.getTime());
         }
+        describe("equalTo", columnIndex, value);
         queryValidated = false;
         return this;
     }
@@ -285,6 +386,7 @@ public class TableQuery implements Closeable {
         if (value == null)
             throw new IllegalArgumentException(DATE_NULL_ERROR_MESSAGE);
         nativeNotEqualTimestamp(nativePtr, columnIndex, value.getTime());
+        describe("notEqualTo", columnIndex, value);
         queryValidated = false;
         return this;
     }
@@ -293,6 +395,7 @@ public class TableQuery implements Closeable {
         if (value == null)
             throw new IllegalArgumentException(DATE_NULL_ERROR_MESSAGE);
         nativeGreaterTimestamp(nativePtr, columnIndex, value.getTime());
+        describe("greaterThan", columnIndex, value);
         queryValidated = false;
         return this;
     }
@@ -301,6 +404,7 @@ public class TableQuery implements Closeable {
         if (value == null)
             throw new IllegalArgumentException(DATE_NULL_ERROR_MESSAGE);
         nativeGreaterEqualTimestamp(nativePtr, columnIndex, value.getTime());
+        describe("greaterThanOrEqual", columnIndex, value);
         queryValidated = false;
         return this;
     }
@@ -309,6 +413,7 @@ public class TableQuery implements Closeable {
         if (value == null)
             throw new IllegalArgumentException(DATE_NULL_ERROR_MESSAGE);
         nativeLessTimestamp(nativePtr, columnIndex, value.getTime());
+        describe("lessThan", columnIndex, value);
         queryValidated = false;
         return this;
     }
@@ -317,6 +422,7 @@ public class TableQuery implements Closeable {
         if (value == null)
             throw new IllegalArgumentException(DATE_NULL_ERROR_MESSAGE);
         nativeLessEqualTimestamp(nativePtr, columnIndex, value.getTime());
+        describe("lessThanOrEqual", columnIndex, value);
         queryValidated = false;
         return this;
     }
@@ -325,6 +431,7 @@ public class TableQuery implements Closeable {
         if (value1 == null || value2 == null)
             throw new IllegalArgumentException("Date values in query criteria must not be null."); // Different text
         nativeBetweenTimestamp(nativePtr, columnIndex, value1.getTime(), value2.getTime());
+        describe("between", columnIndex, value1, value2);
         queryValidated = false;
         return this;
     }
@@ -333,12 +440,14 @@ public class TableQuery implements Closeable {
 
     public TableQuery equalTo(long[] columnIndices, byte[] value) {
         nativeEqual(nativePtr, columnIndices, value);
+        describe("equalTo", columnIndices, value);
         queryValidated = false;
         return this;
     }
 
     public TableQuery notEqualTo(long[] columnIndices, byte[] value) {
         nativeNotEqual(nativePtr, columnIndices, value);
+        describe("notEqualTo", columnIndices, value);
         queryValidated = false;
         return this;
     }
@@ -350,12 +459,14 @@ public class TableQuery implements Closeable {
     // Equal
     public TableQuery equalTo(long[] columnIndexes, String value, Case caseSensitive) {
         nativeEqual(nativePtr, columnIndexes, value, caseSensitive.getValue());
+        describe("equalTo", columnIndexes, value, caseSensitive);
         queryValidated = false;
         return this;
     }
 
     public TableQuery equalTo(long[] columnIndexes, String value) {
         nativeEqual(nativePtr, columnIndexes, value, true);
+        describe("equalTo", columnIndexes, value, Case.SENSITIVE);
         queryValidated = false;
         return this;
     }
@@ -363,53 +474,77 @@ public class TableQuery implements Closeable {
     // Not Equal
     public TableQuery notEqualTo(long columnIndex[], String value, Case caseSensitive) {
         nativeNotEqual(nativePtr, columnIndex, value, caseSensitive.getValue());
+        describe("notEqualTo", columnIndex, value, caseSensitive);
         queryValidated = false;
         return this;
     }
     public TableQuery notEqualTo(long columnIndex[], String value) {
         nativeNotEqual(nativePtr, columnIndex, value, true);
+        describe("notEqualTo", columnIndex, value, Case.SENSITIVE);
         queryValidated = false;
         return this;
     }
 
     public TableQuery beginsWith(long columnIndices[], String value, Case caseSensitive) {
         nativeBeginsWith(nativePtr, columnIndices, value, caseSensitive.getValue());
+        describe("beginsWith", columnIndices, value, caseSensitive);
         queryValidated = false;
         return this;
     }
 
     public TableQuery beginsWith(long columnIndices[], String value) {
         nativeBeginsWith(nativePtr, columnIndices, value, true);
+        describe("beginsWith", columnIndices, value, Case.SENSITIVE);
         queryValidated = false;
         return this;
     }
 
     public TableQuery endsWith(long columnIndices[], String value, Case caseSensitive) {
         nativeEndsWith(nativePtr, columnIndices, value, caseSensitive.getValue());
+        describe("endsWith", columnIndices, value, caseSensitive);
         queryValidated = false;
         return this;
     }
 
     public TableQuery endsWith(long columnIndices[], String value) {
         nativeEndsWith(nativePtr, columnIndices, value, true);
+        describe("endsWith", columnIndices, value, Case.SENSITIVE);
         queryValidated = false;
         return this;
     }
 
     public TableQuery contains(long columnIndices[], String value, Case caseSensitive) {
         nativeContains(nativePtr, columnIndices, value, caseSensitive.getValue());
+        describe("contains", columnIndices, value, caseSensitive);
         queryValidated = false;
         return this;
     }
 
     public TableQuery contains(long columnIndices[], String value) {
         nativeContains(nativePtr, columnIndices, value, true);
+        describe("contains", columnIndices, value, Case.SENSITIVE);
+        queryValidated = false;
+        return this;
+    }
+
+    /**
+     * Adds a condition that a String column contains all the words of the given search terms. See {@code RealmQuery.matches(String, String)} for the syntax.
+     *
+     * @param columnIndex the String column to search.
+     * @param terms the search terms.
+     * @return this query.
+     * @throws IllegalArgumentException if the terms contain no words.
+     */
+    public TableQuery matches(long columnIndex, String terms) {
+        nativeMatches(nativePtr, columnIndex, terms);
+        describe("matches", new long[] {columnIndex}, terms);
         queryValidated = false;
         return this;
     }
 
     public TableQuery isEmpty(long[] columnIndices) {
         nativeIsEmpty(nativePtr, columnIndices);
+        describe("isEmpty", columnIndices);
         queryValidated = false;
         return this;
     }
@@ -473,28 +608,62 @@ public class TableQuery implements Closeable {
     // handover find* methods
     // this will use a background SharedGroup to import the query (using the handover object)
     // run the query, and return the table view to the caller SharedGroup using the handover object.
-    public static long findAllWithHandover(SharedRealm sharedRealm, long ptrQuery) throws BadVersionException {
-        return nativeFindAllWithHandover(sharedRealm.getNativePtr(), ptrQuery, 0, Table.INFINITE, Table.INFINITE);
+    // The offset and limit select the window of the results which is handed over, see TableView.getWindow().
+    public static long findAllWithHandover(SharedRealm sharedRealm, long ptrQuery, long offset, long limit) throws BadVersionException {
+        // Rows after the window are never needed, so the query can stop as soon as it reaches the end of the window.
+        return nativeFindAllWithHandover(sharedRealm.getNativePtr(), ptrQuery, 0, Table.INFINITE,
+                getLimitIncludingOffset(offset, limit), offset, Table.INFINITE);
     }
 
-    public static long findDistinctWithHandover(SharedRealm sharedRealm, long ptrQuery, long columnIndex) throws BadVersionException {
-        return nativeGetDistinctViewWithHandover(sharedRealm.getNativePtr(), ptrQuery, columnIndex);
+    // columnPaths are the column indices of the distinct fields, see TableView.distinct(long[][]).
+    public static long findDistinctWithHandover(SharedRealm sharedRealm, long ptrQuery, long[][] columnPaths, long offset, long limit) throws BadVersionException {
+        return nativeGetDistinctViewWithHandover(sharedRealm.getNativePtr(), ptrQuery, columnPaths, offset, limit);
     }
 
-    public static long findAllSortedWithHandover(SharedRealm sharedRealm, long ptrQuery, long columnIndex, Sort sortOrder) throws BadVersionException {
-        return nativeFindAllSortedWithHandover(sharedRealm.getNativePtr(), ptrQuery, 0, Table.INFINITE, Table.INFINITE, columnIndex, sortOrder.getValue());
+    public static long findAllSortedWithHandover(SharedRealm sharedRealm, long ptrQuery, long columnIndex, Sort sortOrder, long offset, long limit) throws BadVersionException {
+        return nativeFindAllSortedWithHandover(sharedRealm.getNativePtr(), ptrQuery, 0, Table.INFINITE, Table.INFINITE, columnIndex, sortOrder.getValue(), offset, limit);
     }
 
-    public static long findAllMultiSortedWithHandover(SharedRealm sharedRealm, long ptrQuery, long[] columnIndices, Sort[] sortOrders) throws BadVersionException {
+    public static long findAllMultiSortedWithHandover(SharedRealm sharedRealm, long ptrQuery, long[] columnIndices, Sort[] sortOrders, long offset, long limit) throws BadVersionException {
         boolean[] ascendings = getNativeSortOrderValues(sortOrders);
-        return nativeFindAllMultiSortedWithHandover(sharedRealm.getNativePtr(), ptrQuery, 0, Table.INFINITE, Table.INFINITE, columnIndices, ascendings);
+        return nativeFindAllMultiSortedWithHandover(sharedRealm.getNativePtr(), ptrQuery, 0, Table.INFINITE, Table.INFINITE, columnIndices, ascendings, offset, limit);
     }
 
+    /**
+     * Returns how many rows an unsorted query has to find to fill a window of its results.
+     *
+     * @param offset the number of results before the window.
+     * @param limit the size of the window or {@link Table#INFINITE}.
+     * @return the limit to run the query with.
+     */
+    public static long getLimitIncludingOffset(long offset, long limit) {
+        if (limit == Table.INFINITE || limit > Long.MAX_VALUE - offset) {
+            return Table.INFINITE;
+        }
+        return offset + limit;
+    }
+
+    /**
+     * Runs a batch of handover queries against the latest version of the Realm and handovers the results.
+     *
+     * @param sharedRealm the worker {@link SharedRealm}.
+     * @param handoverQueries pointers to the handover queries.
+     * @param parameters type and parameters of each query, see {@link io.realm.internal.async.QueryUpdateTask}.
+     * @param queriesParameters column indices of the multi sorted queries.
+     * @param multiSortOrder sort orders of the multi sorted queries.
+     * @param distinctColumnPaths column paths of the distinct queries, see {@link TableView#distinct(long[][])}.
+     * @param snapshots output array. For each query requesting it, a snapshot of the result is written at the same
+     *                  index. See {@link CollectionChangeSet} for the format of the snapshot.
+     * @param aggregateResults output array. For each aggregate query, the boxed result is written at the same index.
+     * @return pointers to the handover table views, {@code 0} for aggregate queries.
+     */
     public static long[] batchUpdateQueries(SharedRealm sharedRealm, long[] handoverQueries, long[][] parameters,
-                                            long[][] queriesParameters, boolean[][] multiSortOrder)
+                                            long[][] queriesParameters, boolean[][] multiSortOrder,
+                                            long[][][] distinctColumnPaths, long[][] snapshots,
+                                            Object[] aggregateResults)
             throws BadVersionException {
         return nativeBatchUpdateQueries(sharedRealm.getNativePtr(), handoverQueries, parameters, queriesParameters,
-                multiSortOrder);
+                multiSortOrder, distinctColumnPaths, snapshots, aggregateResults);
     }
     /**
      * Imports a TableView from a worker thread to the caller thread.
@@ -691,15 +860,49 @@ public class TableQuery implements Closeable {
         return null;
     }
 
+    /**
+     * Aggregates a field at the end of a link path over all objects matching this query, in one native pass which
+     * follows the links of every matching object. If the path goes through lists, a value is aggregated once for every
+     * path which leads to it.
+     *
+     * @param columnIndices the link and link list columns of the path followed by the aggregated column.
+     * @param operator one of the {@code AGGREGATE_*} operators.
+     * @return a {@link Long} for integer and date fields, a {@link Double} for sums and averages of floating point
+     * fields, a {@link Float} or {@link Double} for minimum and maximum of floating point fields. Minimum and maximum
+     * return {@code null} if no values were found.
+     */
+    public Object aggregateLinkPath(long[] columnIndices, int operator) {
+        validateQuery();
+        return nativeAggregateLinkPath(nativePtr, columnIndices, operator);
+    }
+
+    /**
+     * Groups the objects matching this query by the value of a field and aggregates another field per group natively.
+     *
+     * @param keyColumnIndex the string, integer, boolean or date column to group by.
+     * @param valueColumnIndex the column to aggregate. Ignored for {@link #AGGREGATE_COUNT}.
+     * @param operator one of the {@code AGGREGATE_*} operators.
+     * @return the groups ordered by key as the parallel arrays {keys, key is null, values, value is null}. The keys are
+     * a {@code String[]}, {@code boolean[]} or {@code long[]} (integers and dates in milliseconds), the values a
+     * {@code long[]} for counts and for sums, minimums and maximums of integer and date columns, otherwise a
+     * {@code double[]}.
+     */
+    public Object[] groupBy(long keyColumnIndex, long valueColumnIndex, int operator) {
+        validateQuery();
+        return nativeGroupBy(nativePtr, keyColumnIndex, valueColumnIndex, operator);
+    }
+
     // isNull and isNotNull
     public TableQuery isNull(long columnIndices[]) {
         nativeIsNull(nativePtr, columnIndices);
+        describe("isNull", columnIndices);
         queryValidated = false;
         return this;
     }
 
     public TableQuery isNotNull(long columnIndices[]) {
         nativeIsNotNull(nativePtr, columnIndices);
+        describe("isNotNull", columnIndices);
         queryValidated = false;
         return this;
     }
@@ -717,6 +920,38 @@ public class TableQuery implements Closeable {
         return nativeCount(nativePtr, 0, Table.INFINITE, Table.INFINITE);
     }
 
+    // Query programs. Floating point arguments are passed as the raw bits of a double, dates as milliseconds and
+    // booleans as 0 or 1. String arguments use the same index in stringArgs.
+
+    /**
+     * Builds the query encoded in {@code program} and returns all matches, all in a single native call.
+     */
+    public static TableView findAllWithProgram(Table table, long[] program, long[] args, String[] stringArgs) {
+        // Execute the disposal of abandoned realm objects each time a new realm object is created
+        table.context.executeDelayedDisposal();
+        long nativeViewPtr = nativeExecuteProgram(table.nativePtr, PROGRAM_MODE_FIND_ALL, program, args, stringArgs);
+        try {
+            return new TableView(table.context, table, nativeViewPtr);
+        } catch (RuntimeException e) {
+            TableView.nativeClose(nativeViewPtr);
+            throw e;
+        }
+    }
+
+    /**
+     * Builds the query encoded in {@code program} and returns the index of the first match or {@link TableOrView#NO_MATCH}.
+     */
+    public static long findWithProgram(Table table, long[] program, long[] args, String[] stringArgs) {
+        return nativeExecuteProgram(table.nativePtr, PROGRAM_MODE_FIND_FIRST, program, args, stringArgs);
+    }
+
+    /**
+     * Builds the query encoded in {@code program} and returns the number of matches.
+     */
+    public static long countWithProgram(Table table, long[] program, long[] args, String[] stringArgs) {
+        return nativeExecuteProgram(table.nativePtr, PROGRAM_MODE_COUNT, program, args, stringArgs);
+    }
+
     // Deletion.
     public long remove(long start, long end) {
         validateQuery();
@@ -788,6 +1023,7 @@ public class TableQuery implements Closeable {
     private native void nativeBeginsWith(long nativeQueryPtr, long columnIndices[], String value, boolean caseSensitive);
     private native void nativeEndsWith(long nativeQueryPtr, long columnIndices[], String value, boolean caseSensitive);
     private native void nativeContains(long nativeQueryPtr, long columnIndices[], String value, boolean caseSensitive);
+    private native void nativeMatches(long nativeQueryPtr, long columnIndex, String terms);
     private native void nativeIsEmpty(long nativePtr, long[] columnIndices);
     private native long nativeFind(long nativeQueryPtr, long fromTableRow);
     private native long nativeFindAll(long nativeQueryPtr, long start, long end, long limit);
@@ -805,18 +1041,22 @@ public class TableQuery implements Closeable {
     private native double nativeAverageDouble(long nativeQueryPtr, long columnIndex, long start, long end, long limit);
     private native Long nativeMaximumTimestamp(long nativeQueryPtr, long columnIndex, long start, long end, long limit);
     private native Long nativeMinimumTimestamp(long nativeQueryPtr, long columnIndex, long start, long end, long limit);
+    private native Object nativeAggregateLinkPath(long nativeQueryPtr, long[] columnIndices, int operator);
+    private native Object[] nativeGroupBy(long nativeQueryPtr, long keyColumnIndex, long valueColumnIndex, int operator);
     private native void nativeIsNull(long nativePtr, long columnIndices[]);
     private native void nativeIsNotNull(long nativePtr, long columnIndices[]);
     private native long nativeCount(long nativeQueryPtr, long start, long end, long limit);
     private native long nativeRemove(long nativeQueryPtr, long start, long end, long limit);
     private native long nativeImportHandoverTableViewIntoSharedGroup(long handoverTableViewPtr, long callerSharedRealmPtr) throws BadVersionException;
     private native long nativeHandoverQuery(long callerSharedRealmPtr, long nativeQueryPtr);
-    private static native long nativeFindAllSortedWithHandover(long bgSharedRealmPtr, long nativeQueryPtr, long start, long end, long limit, long columnIndex, boolean ascending) throws BadVersionException;
-    private static native long nativeFindAllWithHandover(long bgSharedRealmPtr, long nativeQueryPtr, long start, long end, long limit) throws BadVersionException;
-    private  static native long nativeGetDistinctViewWithHandover(long bgSharedRealmPtr, long nativeQueryPtr, long columnIndex) throws BadVersionException;
+    private static native long nativeFindAllSortedWithHandover(long bgSharedRealmPtr, long nativeQueryPtr, long start, long end, long limit, long columnIndex, boolean ascending, long windowOffset, long windowLimit) throws BadVersionException;
+    private static native long nativeFindAllWithHandover(long bgSharedRealmPtr, long nativeQueryPtr, long start, long end, long limit, long windowOffset, long windowLimit) throws BadVersionException;
+    private  static native long nativeGetDistinctViewWithHandover(long bgSharedRealmPtr, long nativeQueryPtr, long[][] columnPaths, long windowOffset, long windowLimit) throws BadVersionException;
     private static native long nativeFindWithHandover(long bgSharedRealmPtr, long nativeQueryPtr, long fromTableRow);
-    private static native long nativeFindAllMultiSortedWithHandover(long bgSharedRealmPtr, long nativeQueryPtr, long start, long end, long limit, long[] columnIndices, boolean[] ascending) throws BadVersionException;
+    private static native long nativeFindAllMultiSortedWithHandover(long bgSharedRealmPtr, long nativeQueryPtr, long start, long end, long limit, long[] columnIndices, boolean[] ascending, long windowOffset, long windowLimit) throws BadVersionException;
     private static native long nativeImportHandoverRowIntoSharedGroup(long handoverRowPtr, long callerSharedRealmPtr);
     public static native void nativeCloseQueryHandover(long nativePtr);
-    private static native long[] nativeBatchUpdateQueries(long bgSharedRealmPtr, long[] handoverQueries, long[][] parameters, long[][] queriesParameters, boolean[][] multiSortOrder) throws BadVersionException;
+    private static native long nativeExecuteProgram(long nativeTablePtr, int mode, long[] program, long[] args,
+                                                    String[] stringArgs);
+    private static native long[] nativeBatchUpdateQueries(long bgSharedRealmPtr, long[] handoverQueries, long[][] parameters, long[][] queriesParameters, boolean[][] multiSortOrder, long[][][] distinctColumnPaths, long[][] snapshots, Object[] aggregateResults) throws BadVersionException;
 }
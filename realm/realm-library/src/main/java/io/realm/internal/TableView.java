@@ -84,6 +84,50 @@ public class TableView implements TableOrView {
         }
     }
 
+    /**
+     * Creates an independent copy of this view. The copy has the same rows in the same order and is re-run by the same
+     * query, but sorting or removing rows from one does not affect the other.
+     *
+     * @return the copy.
+     */
+    TableView copy() {
+        // Execute the disposal of abandoned realm objects each time a new realm object is created
+        context.executeDelayedDisposal();
+        long nativeCopyPtr = nativeCopy(nativePtr);
+        try {
+            return new TableView(context, parent, nativeCopyPtr, query);
+        } catch (RuntimeException e) {
+            nativeClose(nativeCopyPtr);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a view of the {@code limit} rows of this view starting at position {@code offset}. The window is found
+     * by a query restricted to this view, so syncing it re-runs and re-sorts this view before the window is taken
+     * again, and only the rows of the window are kept in the returned view.
+     *
+     * @param offset the position in this view of the first row of the window.
+     * @param limit the maximum number of rows in the window or {@link Table#INFINITE}.
+     * @return the window.
+     */
+    public TableView getWindow(long offset, long limit) {
+        // A query restricted to a view must still start within the table.
+        return where().findAll(Math.min(offset, parent.size()), Table.INFINITE, limit);
+    }
+
+    /**
+     * Releases the native view right away instead of waiting for the finalizer. The view cannot be used afterwards.
+     */
+    void close() {
+        synchronized (context) {
+            if (nativePtr != 0) {
+                nativeClose(nativePtr);
+                nativePtr = 0;
+            }
+        }
+    }
+
     /**
      * Checks whether this table is empty or not.
      *
@@ -231,6 +275,21 @@ public class TableView implements TableOrView {
         return nativeGetString(nativePtr, columnIndex, rowIndex);
     }
 
+    @Override
+    public void getLongs(long columnIndex, long fromRow, long[] dst, int offset, int count) {
+        nativeGetLongs(nativePtr, columnIndex, fromRow, dst, offset, count);
+    }
+
+    @Override
+    public void getDoubles(long columnIndex, long fromRow, double[] dst, int offset, int count) {
+        nativeGetDoubles(nativePtr, columnIndex, fromRow, dst, offset, count);
+    }
+
+    @Override
+    public void getStrings(long columnIndex, long fromRow, String[] dst, int offset, int count) {
+        nativeGetStrings(nativePtr, columnIndex, fromRow, dst, offset, count);
+    }
+
     /**
      * Gets the  value of a (binary) cell.
      *
@@ -743,12 +802,9 @@ public class TableView implements TableOrView {
      *
      * @param columnIndex the column index.
      * @throws IllegalArgumentException if the type of the column is unsupported.
-     * @throws UnsupportedOperationException if a column is not indexed.
      */
     public void distinct(long columnIndex) {
-        // Execute the disposal of abandoned realm objects each time a new realm object is created
-        this.context.executeDelayedDisposal();
-        nativeDistinct(nativePtr, columnIndex);
+        distinct(new long[][] {{columnIndex}});
     }
 
     /**
@@ -758,16 +814,32 @@ public class TableView implements TableOrView {
      * and then apply distinct() on that, invalidating previous distinct().
      *
      * @param columnIndexes the column indexes.
-     * @throws IllegalArgumentException if a column is unsupported type, or is not indexed.
+     * @throws IllegalArgumentException if a column is unsupported type.
      */
     public void distinct(List<Long> columnIndexes) {
-        // Execute the disposal of abandoned realm objects each time a new realm object is created
-        this.context.executeDelayedDisposal();
-        long[] indexes = new long[columnIndexes.size()];
+        long[][] columnPaths = new long[columnIndexes.size()][];
         for (int i = 0; i < columnIndexes.size(); i++) {
-            indexes[i] = columnIndexes.get(i);
+            columnPaths[i] = new long[] {columnIndexes.get(i)};
         }
-        nativeDistinctMulti(nativePtr, indexes);
+        distinct(columnPaths);
+    }
+
+    /**
+     * Removes rows that are duplicated with respect to the given columns, which can be columns of linked rows.
+     * The values are compared natively, so the columns don't need a search index. If two rows are identical, then
+     * the last row is removed unless sorted, in which case the first object is returned. Each time distinct() gets
+     * called, it will first fetch the full original TableView contents and then apply distinct() on that,
+     * invalidating previous distinct().
+     *
+     * @param columnPaths the column indices of each distinct field. All but the last index of a path are link columns
+     * leading to the table of the last column, like the column indices returned for a field path like
+     * {@code "owner.name"}.
+     * @throws IllegalArgumentException if a column is of an unsupported type or a path goes through a list.
+     */
+    public void distinct(long[][] columnPaths) {
+        // Execute the disposal of abandoned realm objects each time a new realm object is created
+        this.context.executeDelayedDisposal();
+        nativeDistinct(nativePtr, columnPaths);
     }
 
     @Override
@@ -777,6 +849,7 @@ public class TableView implements TableOrView {
     }
 
     static native void nativeClose(long nativeViewPtr);
+    private static native long nativeCopy(long nativeViewPtr);
     private native long nativeSize(long nativeViewPtr);
     private native long nativeGetSourceRowIndex(long nativeViewPtr, long rowIndex);
     private native long nativeGetColumnCount(long nativeViewPtr);
@@ -789,6 +862,11 @@ public class TableView implements TableOrView {
     private native double nativeGetDouble(long nativeViewPtr, long columnIndex, long rowIndex);
     private native long nativeGetTimestamp(long nativeViewPtr, long columnIndex, long rowIndex);
     private native String nativeGetString(long nativeViewPtr, long columnIndex, long rowIndex);
+    private native void nativeGetLongs(long nativeViewPtr, long columnIndex, long rowStart, long[] dst, int offset, int count);
+    private native void nativeGetDoubles(long nativeViewPtr, long columnIndex, long rowStart, double[] dst, int offset,
+                                         int count);
+    private native void nativeGetStrings(long nativeViewPtr, long columnIndex, long rowStart, String[] dst, int offset,
+                                         int count);
     private native byte[] nativeGetByteArray(long nativePtr, long columnIndex, long rowIndex);
     private native long nativeGetLink(long nativeViewPtr, long columnIndex, long rowIndex);
     private native void nativeSetLong(long nativeViewPtr, long columnIndex, long rowIndex, long value);
@@ -836,8 +914,7 @@ public class TableView implements TableOrView {
     private native String nativeToJson(long nativeViewPtr);
     private native long nativeWhere(long nativeViewPtr);
     private native void nativePivot(long nativeTablePtr, long stringCol, long intCol, int pivotType, long result);
-    private native void nativeDistinct(long nativeViewPtr, long columnIndex);
+    private native void nativeDistinct(long nativeViewPtr, long[][] columnPaths);
     private native long nativeSyncIfNeeded(long nativeTablePtr);
-    private native void nativeDistinctMulti(long nativeViewPtr, long[] columnIndexes);
     private native long nativeSync(long nativeTablePtr);
 }
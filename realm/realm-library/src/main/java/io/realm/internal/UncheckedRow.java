@@ -16,6 +16,9 @@
 
 package io.realm.internal;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.Date;
 
 import io.realm.RealmFieldType;
@@ -87,6 +90,17 @@ public class UncheckedRow extends NativeObject implements Row {
         return row;
     }
 
+    /**
+     * Points this row at another row of the same table, reusing the native row accessor instead of allocating a new
+     * one. This is meant for cursors which visit many rows through a single accessor, any other holder of this row
+     * will see the new row as well.
+     *
+     * @param rowIndex the index of the row in the parent table.
+     */
+    public void moveTo(long rowIndex) {
+        nativeMoveTo(nativePointer, parent.nativePtr, rowIndex);
+    }
+
     @Override
     public long getColumnCount() {
         return nativeGetColumnCount(nativePointer);
@@ -158,6 +172,35 @@ public class UncheckedRow extends NativeObject implements Row {
         return nativeGetByteArray(nativePointer, columnIndex);
     }
 
+    @Override
+    public long getBinarySize(long columnIndex) {
+        return nativeGetBinarySize(nativePointer, columnIndex);
+    }
+
+    @Override
+    public long getBinaryByteBuffer(long columnIndex, ByteBuffer destination) {
+        if (destination.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        // Writable heap buffers always expose their array. The value is only copied if it fits.
+        final int position = destination.position();
+        final int remaining = destination.remaining();
+        long size;
+        if (destination.isDirect()) {
+            size = nativeCopyToByteBuffer(nativePointer, columnIndex, destination, position, remaining);
+        } else {
+            size = nativeCopyToByteArrayRegion(nativePointer, columnIndex, destination.array(),
+                    destination.arrayOffset() + position, remaining);
+        }
+        if (size > remaining) {
+            throw new BufferOverflowException();
+        }
+        if (size > 0) {
+            destination.position(position + (int) size);
+        }
+        return size;
+    }
+
     @Override
     public long getLink(long columnIndex) {
         return nativeGetLink(nativePointer, columnIndex);
@@ -235,6 +278,24 @@ public class UncheckedRow extends NativeObject implements Row {
         nativeSetByteArray(nativePointer, columnIndex, data);
     }
 
+    @Override
+    public void setBinaryByteBuffer(long columnIndex, ByteBuffer data) {
+        parent.checkImmutable();
+        if (data == null) {
+            nativeSetByteArray(nativePointer, columnIndex, null);
+        } else if (data.isDirect()) {
+            nativeSetByteBuffer(nativePointer, columnIndex, data, data.position(), data.remaining());
+        } else if (data.hasArray()) {
+            nativeSetByteArrayRegion(nativePointer, columnIndex, data.array(), data.arrayOffset() + data.position(),
+                    data.remaining());
+        } else {
+            // Read-only heap buffers don't expose their array
+            byte[] bytes = new byte[data.remaining()];
+            data.duplicate().get(bytes);
+            nativeSetByteArray(nativePointer, columnIndex, bytes);
+        }
+    }
+
     @Override
     public void setLink(long columnIndex, long value) {
         parent.checkImmutable();
@@ -296,6 +357,11 @@ public class UncheckedRow extends NativeObject implements Row {
     protected native String nativeGetString(long nativePtr, long columnIndex);
     protected native boolean nativeIsNullLink(long nativeRowPtr, long columnIndex);
     protected native byte[] nativeGetByteArray(long nativePtr, long columnIndex);
+    protected native long nativeGetBinarySize(long nativePtr, long columnIndex);
+    protected native long nativeCopyToByteBuffer(long nativePtr, long columnIndex, ByteBuffer destination,
+                                                 int position, int length);
+    protected native long nativeCopyToByteArrayRegion(long nativePtr, long columnIndex, byte[] destination,
+                                                      int offset, int length);
     public static native long nativeGetLinkView(long nativePtr, long columnIndex);
     protected native void nativeSetLong(long nativeRowPtr, long columnIndex, long value);
     protected native void nativeSetBoolean(long nativeRowPtr, long columnIndex, boolean value);
@@ -305,9 +371,14 @@ public class UncheckedRow extends NativeObject implements Row {
     protected native void nativeSetTimestamp(long nativeRowPtr, long columnIndex, long dateTimeValue);
     protected native void nativeSetString(long nativeRowPtr, long columnIndex, String value);
     protected native void nativeSetByteArray(long nativePtr, long columnIndex, byte[] data);
+    protected native void nativeSetByteBuffer(long nativePtr, long columnIndex, ByteBuffer data, int position,
+                                              int length);
+    protected native void nativeSetByteArrayRegion(long nativePtr, long columnIndex, byte[] data, int offset,
+                                                   int length);
     protected native void nativeSetLink(long nativeRowPtr, long columnIndex, long value);
     protected native void nativeNullifyLink(long nativeRowPtr, long columnIndex);
     static native void nativeClose(long nativeRowPtr);
+    static native void nativeMoveTo(long nativeRowPtr, long nativeTablePtr, long rowIndex);
     protected native boolean nativeIsAttached(long nativeRowPtr);
     protected native boolean nativeHasColumn(long nativeRowPtr, String columnName);
     protected native boolean nativeIsNull(long nativeRowPtr, long columnIndex);
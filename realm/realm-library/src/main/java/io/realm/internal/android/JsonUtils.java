@@ -16,8 +16,16 @@
 
 package io.realm.internal.android;
 
+import android.annotation.TargetApi;
+import android.os.Build;
 import android.util.Base64;
+import android.util.JsonReader;
 
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.util.Date;
@@ -79,4 +87,58 @@ public class JsonUtils {
         if (str == null || str.length() == 0) return new byte[0];
         return Base64.decode(str, Base64.DEFAULT);
     }
+
+    /**
+     * Reads the next JSON object from a stream into a {@link JSONObject}. Only this object is held in memory, which
+     * allows processing arrays of objects one element at a time.
+     *
+     * @param reader the reader positioned at the start of a JSON object.
+     * @return the object read.
+     * @throws IOException if reading from the stream fails.
+     * @throws JSONException if the object cannot be represented as a {@link JSONObject}.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    public static JSONObject readJsonObject(JsonReader reader) throws IOException, JSONException {
+        JSONObject object = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            object.put(name, readJsonValue(reader));
+        }
+        reader.endObject();
+        return object;
+    }
+
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static Object readJsonValue(JsonReader reader) throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readJsonObject(reader);
+            case BEGIN_ARRAY:
+                JSONArray array = new JSONArray();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    array.put(readJsonValue(reader));
+                }
+                reader.endArray();
+                return array;
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NUMBER:
+                String number = reader.nextString();
+                if (numericOnly.matcher(number).matches()) {
+                    try {
+                        return Long.parseLong(number);
+                    } catch (NumberFormatException ignored) {
+                        // Too large for a long, fall through to double
+                    }
+                }
+                return Double.parseDouble(number);
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
 }
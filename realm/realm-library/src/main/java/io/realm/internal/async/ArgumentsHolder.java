@@ -17,6 +17,7 @@
 package io.realm.internal.async;
 
 import io.realm.Sort;
+import io.realm.internal.Table;
 
 /**
  * Value holder class to encapsulate the arguments of a RealmQuery (in case we want to re-query).
@@ -27,12 +28,17 @@ public class ArgumentsHolder {
     public final static int TYPE_FIND_ALL_MULTI_SORTED = 2;
     public final static int TYPE_FIND_FIRST = 3;
     public final static int TYPE_DISTINCT = 4;
+    public final static int TYPE_AGGREGATE = 5;
 
     public final int type;
     public long columnIndex;
     public Sort sortOrder;
     public long[] columnIndices;
     public Sort[] sortOrders;
+    public long[][] distinctColumnPaths;
+    public long offset = 0;
+    public long limit = Table.INFINITE;
+    public int aggregateOperator;
 
     public ArgumentsHolder(int type) {
         this.type = type;
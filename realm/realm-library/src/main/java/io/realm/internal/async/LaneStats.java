@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.internal.async;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics for one lane of the {@link RealmThreadPoolExecutor}. All counters are updated without locking, so a
+ * snapshot read across several getters is not guaranteed to be consistent.
+ */
+public final class LaneStats {
+    private final String name;
+    private final AtomicInteger queueDepth = new AtomicInteger(0);
+    private final AtomicLong submittedTasks = new AtomicLong(0);
+    private final AtomicLong startedTasks = new AtomicLong(0);
+    private final AtomicLong totalWaitNanos = new AtomicLong(0);
+    private final AtomicLong maxWaitNanos = new AtomicLong(0);
+
+    LaneStats(String name) {
+        this.name = name;
+    }
+
+    void taskSubmitted() {
+        submittedTasks.incrementAndGet();
+        queueDepth.incrementAndGet();
+    }
+
+    void taskRemoved() {
+        queueDepth.decrementAndGet();
+    }
+
+    void taskStarted(long waitNanos) {
+        queueDepth.decrementAndGet();
+        startedTasks.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        long max = maxWaitNanos.get();
+        while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+            max = maxWaitNanos.get();
+        }
+    }
+
+    /**
+     * @return the number of tasks currently waiting in this lane.
+     */
+    public int getQueueDepth() {
+        return Math.max(0, queueDepth.get());
+    }
+
+    /**
+     * @return the number of tasks submitted to this lane so far.
+     */
+    public long getSubmittedTaskCount() {
+        return submittedTasks.get();
+    }
+
+    /**
+     * @return the number of tasks that have started executing so far.
+     */
+    public long getStartedTaskCount() {
+        return startedTasks.get();
+    }
+
+    /**
+     * @return the average time in nanoseconds a task waited in this lane before it started executing.
+     */
+    public long getAverageWaitNanos() {
+        long started = startedTasks.get();
+        return started == 0 ? 0 : totalWaitNanos.get() / started;
+    }
+
+    /**
+     * @return the longest time in nanoseconds a task waited in this lane before it started executing.
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return name + "[queueDepth: " + getQueueDepth()
+                + ", submitted: " + getSubmittedTaskCount()
+                + ", started: " + getStartedTaskCount()
+                + ", averageWait: " + getAverageWaitNanos() + "ns"
+                + ", maxWait: " + getMaxWaitNanos() + "ns]";
+    }
+}
@@ -23,12 +23,15 @@ import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
 
+import io.realm.RealmAsyncAggregate;
 import io.realm.RealmConfiguration;
 import io.realm.RealmModel;
 import io.realm.RealmResults;
+import io.realm.internal.CollectionChangeSet;
 import io.realm.internal.HandlerControllerConstants;
 import io.realm.internal.RealmObjectProxy;
 import io.realm.internal.SharedRealm;
+import io.realm.internal.SharedRealmPool;
 import io.realm.internal.Table;
 import io.realm.internal.TableQuery;
 import io.realm.internal.log.RealmLog;
@@ -71,19 +74,25 @@ public class QueryUpdateTask implements Runnable {
     public void run() {
         SharedRealm sharedRealm = null;
         try {
-            sharedRealm = SharedRealm.getInstance(realmConfiguration);
+            sharedRealm = SharedRealmPool.acquire(realmConfiguration);
 
             Result result;
             boolean updateSuccessful;
             if (updateMode == MODE_UPDATE_REALM_RESULTS) {
                 result = Result.newRealmResultsResponse();
                 AlignedQueriesParameters alignedParameters = prepareQueriesParameters();
+                long[][] snapshots = new long[realmResultsEntries.size()][];
+                Object[] aggregateResults = new Object[realmResultsEntries.size()];
                 long[] handoverTableViewPointer = TableQuery.batchUpdateQueries(sharedRealm,
                         alignedParameters.handoverQueries,
                         alignedParameters.queriesParameters,
                         alignedParameters.multiSortColumnIndices,
-                        alignedParameters.multiSortOrder);
-                swapPointers(result, handoverTableViewPointer);
+                        alignedParameters.multiSortOrder,
+                        alignedParameters.distinctColumnPaths,
+                        snapshots,
+                        aggregateResults);
+                swapPointers(result, handoverTableViewPointer, aggregateResults);
+                calculateChangeSets(result, snapshots);
                 updateSuccessful = true;
                 result.versionID = sharedRealm.getVersionID();
 
@@ -111,17 +120,16 @@ public class QueryUpdateTask implements Runnable {
             }
 
         } finally {
-            if (sharedRealm != null) {
-                sharedRealm.close();
-            }
+            SharedRealmPool.release(sharedRealm);
         }
     }
 
     private AlignedQueriesParameters prepareQueriesParameters() {
         long[] handoverQueries = new long[realmResultsEntries.size()];
-        long[][] queriesParameters = new long[realmResultsEntries.size()][6];
+        long[][] queriesParameters = new long[realmResultsEntries.size()][9];
         long[][] multiSortColumnIndices = new long[realmResultsEntries.size()][];
         boolean[][] multiSortOrder = new boolean[realmResultsEntries.size()][];
+        long[][][] distinctColumnPaths = new long[realmResultsEntries.size()][][];
 
         int i = 0;
         for (Builder.QueryEntry  queryEntry : realmResultsEntries) {
@@ -131,13 +139,16 @@ public class QueryUpdateTask implements Runnable {
                     queriesParameters[i][0] = ArgumentsHolder.TYPE_FIND_ALL;
                     queriesParameters[i][1] = 0;
                     queriesParameters[i][2] = Table.INFINITE;
-                    queriesParameters[i][3] = Table.INFINITE;
+                    queriesParameters[i][3] = TableQuery.getLimitIncludingOffset(
+                            queryEntry.queryArguments.offset, queryEntry.queryArguments.limit);
+                    queriesParameters[i][7] = queryEntry.queryArguments.offset;
+                    queriesParameters[i][8] = Table.INFINITE;
                     break;
                 }
                 case ArgumentsHolder.TYPE_DISTINCT: {
                     handoverQueries[i] = queryEntry.handoverQueryPointer;
                     queriesParameters[i][0] = ArgumentsHolder.TYPE_DISTINCT;
-                    queriesParameters[i][1] = queryEntry.queryArguments.columnIndex;
+                    distinctColumnPaths[i] = queryEntry.queryArguments.distinctColumnPaths;
                     break;
                 }
                 case ArgumentsHolder.TYPE_FIND_ALL_SORTED: {
@@ -159,9 +170,23 @@ public class QueryUpdateTask implements Runnable {
                     multiSortColumnIndices[i] = queryEntry.queryArguments.columnIndices;
                     multiSortOrder[i] = TableQuery.getNativeSortOrderValues(queryEntry.queryArguments.sortOrders);
                     break;
+                case ArgumentsHolder.TYPE_AGGREGATE:
+                    handoverQueries[i] = queryEntry.handoverQueryPointer;
+                    queriesParameters[i][0] = ArgumentsHolder.TYPE_AGGREGATE;
+                    queriesParameters[i][1] = queryEntry.queryArguments.columnIndex;
+                    queriesParameters[i][2] = queryEntry.queryArguments.aggregateOperator;
+                    break;
                 default:
                     throw new IllegalArgumentException("Query mode " + queryEntry.queryArguments.type + " not supported");
             }
+            if (queryEntry.queryArguments.type != ArgumentsHolder.TYPE_FIND_ALL
+                    && queryEntry.queryArguments.type != ArgumentsHolder.TYPE_AGGREGATE) {
+                // the window of the results to hand over, taken after sorting or distinct
+                queriesParameters[i][7] = queryEntry.queryArguments.offset;
+                queriesParameters[i][8] = queryEntry.queryArguments.limit;
+            }
+            // request a snapshot of the result to compute the change set
+            queriesParameters[i][6] = queryEntry.collectChangeSet ? 1 : 0;
             i++;
         }
         AlignedQueriesParameters alignedParameters = new AlignedQueriesParameters();
@@ -169,15 +194,36 @@ public class QueryUpdateTask implements Runnable {
         alignedParameters.handoverQueries = handoverQueries;
         alignedParameters.multiSortColumnIndices = multiSortColumnIndices;
         alignedParameters.multiSortOrder = multiSortOrder;
+        alignedParameters.distinctColumnPaths = distinctColumnPaths;
         alignedParameters.queriesParameters = queriesParameters;
 
         return alignedParameters;
     }
 
-    private void swapPointers(Result result, long[] handoverTableViewPointer) {
+    private void swapPointers(Result result, long[] handoverTableViewPointer, Object[] aggregateResults) {
         int i = 0;
         for (Builder.QueryEntry  queryEntry : realmResultsEntries) {
-            result.updatedTableViews.put(queryEntry.element, handoverTableViewPointer[i++]);
+            if (queryEntry.queryArguments.type == ArgumentsHolder.TYPE_AGGREGATE) {
+                result.updatedAggregates.put(queryEntry.element, aggregateResults[i++]);
+            } else {
+                result.updatedTableViews.put(queryEntry.element, handoverTableViewPointer[i++]);
+            }
+        }
+    }
+
+    // Runs on the worker thread, so the cost of comparing the results is not paid by the caller thread.
+    private void calculateChangeSets(Result result, long[][] snapshots) {
+        int i = 0;
+        for (Builder.QueryEntry queryEntry : realmResultsEntries) {
+            long[] snapshot = snapshots[i++];
+            if (queryEntry.collectChangeSet && snapshot != null) {
+                result.snapshots.put(queryEntry.element, snapshot);
+                if (queryEntry.previousSnapshot != null) {
+                    result.previousSnapshots.put(queryEntry.element, queryEntry.previousSnapshot);
+                    result.changeSets.put(queryEntry.element,
+                            CollectionChangeSet.calculate(queryEntry.previousSnapshot, snapshot));
+                }
+            }
         }
     }
 
@@ -213,11 +259,23 @@ public class QueryUpdateTask implements Runnable {
     public static class Result {
         public IdentityHashMap<WeakReference<RealmResults<? extends RealmModel>>, Long> updatedTableViews;
         public IdentityHashMap<WeakReference<RealmObjectProxy>, Long> updatedRow;
+        // snapshots of the updated RealmResults which requested a change set
+        public IdentityHashMap<WeakReference<RealmResults<? extends RealmModel>>, long[]> snapshots;
+        // change sets of the updated RealmResults which had a previous snapshot
+        public IdentityHashMap<WeakReference<RealmResults<? extends RealmModel>>, CollectionChangeSet> changeSets;
+        // the previous snapshots the change sets were computed against
+        public IdentityHashMap<WeakReference<RealmResults<? extends RealmModel>>, long[]> previousSnapshots;
+        // new values of the updated RealmAsyncAggregates, can be null
+        public IdentityHashMap<WeakReference<RealmAsyncAggregate<?>>, Object> updatedAggregates;
         public SharedRealm.VersionID versionID;
 
         public static Result newRealmResultsResponse() {
             Result result = new Result();
             result.updatedTableViews = new IdentityHashMap<WeakReference<RealmResults<? extends RealmModel>>, Long>(1);
+            result.snapshots = new IdentityHashMap<WeakReference<RealmResults<? extends RealmModel>>, long[]>(1);
+            result.changeSets = new IdentityHashMap<WeakReference<RealmResults<? extends RealmModel>>, CollectionChangeSet>(1);
+            result.previousSnapshots = new IdentityHashMap<WeakReference<RealmResults<? extends RealmModel>>, long[]>(1);
+            result.updatedAggregates = new IdentityHashMap<WeakReference<RealmAsyncAggregate<?>>, Object>(1);
             return result;
         }
 
@@ -232,6 +290,7 @@ public class QueryUpdateTask implements Runnable {
         long[][] queriesParameters;
         long[][] multiSortColumnIndices;
         boolean[][] multiSortOrder;
+        long[][][] distinctColumnPaths;
     }
     /*
       This uses the step builder pattern to guide the caller throughout the creation of the instance
@@ -241,6 +300,7 @@ public class QueryUpdateTask implements Runnable {
          .realmConfiguration(null, null)
          .add(null, 0, null)
          .add(null, 0, null)
+         .addAggregate(null, 0, null)
          .sendToHandler(null, 0)
          .build();
 
@@ -259,6 +319,14 @@ public class QueryUpdateTask implements Runnable {
             RealmResultsQueryStep add(WeakReference<RealmResults<? extends RealmModel>> weakReference,
                                           long handoverQueryPointer,
                                           ArgumentsHolder queryArguments);
+            RealmResultsQueryStep add(WeakReference<RealmResults<? extends RealmModel>> weakReference,
+                                          long handoverQueryPointer,
+                                          ArgumentsHolder queryArguments,
+                                          boolean collectChangeSet,
+                                          long[] previousSnapshot);
+            RealmResultsQueryStep addAggregate(WeakReference<RealmAsyncAggregate<?>> weakReference,
+                                               long handoverQueryPointer,
+                                               ArgumentsHolder queryArguments);
             HandlerStep addObject(WeakReference<? extends RealmModel> weakReference,
                                   long handoverQueryPointer,
                                   ArgumentsHolder queryArguments);// can only update 1 element
@@ -268,6 +336,14 @@ public class QueryUpdateTask implements Runnable {
             RealmResultsQueryStep add(WeakReference<RealmResults<? extends RealmModel>> weakReference,
                                           long handoverQueryPointer,
                                           ArgumentsHolder queryArguments);
+            RealmResultsQueryStep add(WeakReference<RealmResults<? extends RealmModel>> weakReference,
+                                          long handoverQueryPointer,
+                                          ArgumentsHolder queryArguments,
+                                          boolean collectChangeSet,
+                                          long[] previousSnapshot);
+            RealmResultsQueryStep addAggregate(WeakReference<RealmAsyncAggregate<?>> weakReference,
+                                               long handoverQueryPointer,
+                                               ArgumentsHolder queryArguments);
             BuilderStep sendToHandler(Handler handler, int message);
         }
 
@@ -296,10 +372,32 @@ public class QueryUpdateTask implements Runnable {
             public RealmResultsQueryStep add(WeakReference<RealmResults<?>> weakReference,
                                              long handoverQueryPointer,
                                              ArgumentsHolder queryArguments) {
+                return add(weakReference, handoverQueryPointer, queryArguments, false, null);
+            }
+
+            @Override
+            public RealmResultsQueryStep add(WeakReference<RealmResults<?>> weakReference,
+                                             long handoverQueryPointer,
+                                             ArgumentsHolder queryArguments,
+                                             boolean collectChangeSet,
+                                             long[] previousSnapshot) {
+                if (this.realmResultsEntries == null) {
+                    this.realmResultsEntries = new ArrayList<QueryEntry>(1);
+                }
+                this.realmResultsEntries.add(new QueryEntry(weakReference, handoverQueryPointer, queryArguments,
+                        collectChangeSet, previousSnapshot));
+                return this;
+            }
+
+            @Override
+            public RealmResultsQueryStep addAggregate(WeakReference<RealmAsyncAggregate<?>> weakReference,
+                                                      long handoverQueryPointer,
+                                                      ArgumentsHolder queryArguments) {
                 if (this.realmResultsEntries == null) {
                     this.realmResultsEntries = new ArrayList<QueryEntry>(1);
                 }
-                this.realmResultsEntries.add(new QueryEntry(weakReference, handoverQueryPointer, queryArguments));
+                this.realmResultsEntries.add(new QueryEntry(weakReference, handoverQueryPointer, queryArguments,
+                        false, null));
                 return this;
             }
 
@@ -308,7 +406,7 @@ public class QueryUpdateTask implements Runnable {
                                          long handoverQueryPointer,
                                          ArgumentsHolder queryArguments) {
                 realmObjectEntry =
-                        new QueryEntry(weakReference, handoverQueryPointer, queryArguments);
+                        new QueryEntry(weakReference, handoverQueryPointer, queryArguments, false, null);
                 return this;
             }
 
@@ -335,11 +433,18 @@ public class QueryUpdateTask implements Runnable {
             final WeakReference element;
             long handoverQueryPointer;
             final ArgumentsHolder queryArguments;
+            // true if a snapshot of the result should be taken to compute a change set
+            final boolean collectChangeSet;
+            // snapshot of the result currently delivered to the caller thread, can be null
+            final long[] previousSnapshot;
 
-            private QueryEntry(WeakReference element, long handoverQueryPointer, ArgumentsHolder queryArguments) {
+            private QueryEntry(WeakReference element, long handoverQueryPointer, ArgumentsHolder queryArguments,
+                               boolean collectChangeSet, long[] previousSnapshot) {
                 this.element = element;
                 this.handoverQueryPointer = handoverQueryPointer;
                 this.queryArguments = queryArguments;
+                this.collectChangeSet = collectChangeSet;
+                this.previousSnapshot = previousSnapshot;
             }
         }
     }
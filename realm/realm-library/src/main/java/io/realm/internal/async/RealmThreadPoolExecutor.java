@@ -16,60 +16,137 @@
 
 package io.realm.internal.async;
 
-import java.util.concurrent.ArrayBlockingQueue;
+import android.os.Looper;
+
+import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import io.realm.Realm;
+import io.realm.internal.SharedRealmPool;
 
 /**
  * Custom thread pool settings, instances of this executor can be paused, and resumed, this will also set
  * appropriate number of Threads & wrap submitted tasks to set the thread priority according to
  * <a href="https://developer.android.com/training/multiple-threads/define-runnable.html"> Androids recommendation</a>.
+ * <p>
+ * Work is split in two lanes so writers waiting for the write lock cannot starve readers:
+ * <ul>
+ * <li>The query lane is this pool itself. Query updates are run before new queries, and once the lane holds
+ * {@code queueSize} tasks, submitting from a thread without a Looper blocks until there is room again instead of
+ * throwing a {@link java.util.concurrent.RejectedExecutionException}. Looper threads are never blocked.</li>
+ * <li>The write lane runs transactions on a separate set of threads, serialized per Realm file, since writes to the
+ * same file are serialized by the write lock anyway.</li>
+ * </ul>
  */
 public class RealmThreadPoolExecutor extends ThreadPoolExecutor {
     // reduce context switch by using a number of thread proportionate to the number of cores
     // from AOSP https://android.googlesource.com/platform/frameworks/base/+/refs/heads/master/core/java/android/os/AsyncTask.java#182
     private static final int CORE_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2 + 1;
+    // Write lanes of different files take turns on these threads, so tasks of the write lane must never wait for more
+    // work to arrive. Grouped transactions wait for their batch on a timer and are only submitted once it is due.
+    private static final int WRITE_POOL_SIZE = 2;
     private static final int QUEUE_SIZE = 100;
+    private static final long WRITE_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+    // Query updates re-run queries whose results are already shown, and the thread holding them will not deliver
+    // any change notifications until they complete. They are therefore run ahead of new queries.
+    private static final int PRIORITY_QUERY_UPDATE = 0;
+    private static final int PRIORITY_QUERY = 1;
+
+    private static final AtomicLong taskSequence = new AtomicLong(0);
+
+    private final int queueSize;
+    private final LaneStats queryLaneStats = new LaneStats("query lane");
+    private final LaneStats writeLaneStats = new LaneStats("write lane");
+    private final ThreadPoolExecutor writeExecutor;
+    private final ConcurrentHashMap<String, WriteLane> writeLanes = new ConcurrentHashMap<String, WriteLane>();
 
     private boolean isPaused;
     private ReentrantLock pauseLock = new ReentrantLock();
     private Condition unpaused = pauseLock.newCondition();
 
+    private final ReentrantLock capacityLock = new ReentrantLock();
+    private final Condition notFull = capacityLock.newCondition();
+
     /**
      * Creates a default RealmThreadPool that is bounded by the number of available cores.
      */
     public static RealmThreadPoolExecutor newDefaultExecutor() {
-        return new RealmThreadPoolExecutor(CORE_POOL_SIZE, CORE_POOL_SIZE);
+        return new RealmThreadPoolExecutor(CORE_POOL_SIZE, WRITE_POOL_SIZE, QUEUE_SIZE);
     }
 
     /**
      * Creates a RealmThreadPool with only 1 thread. This is primarily useful for testing.
      */
     public static RealmThreadPoolExecutor newSingleThreadExecutor() {
-        return new RealmThreadPoolExecutor(1, 1);
+        return new RealmThreadPoolExecutor(1, 1, QUEUE_SIZE);
+    }
+
+    /**
+     * Creates a RealmThreadPool with the given lane sizes.
+     *
+     * @param queryThreads number of threads running queries.
+     * @param writeThreads number of threads running transactions, transactions on the same Realm file are always
+     *                     run one at a time.
+     * @param queueSize number of queued queries above which submitting from a thread without a Looper blocks.
+     * @throws IllegalArgumentException if any of the sizes is less than 1.
+     */
+    public static RealmThreadPoolExecutor newExecutor(int queryThreads, int writeThreads, int queueSize) {
+        if (queryThreads < 1 || writeThreads < 1 || queueSize < 1) {
+            throw new IllegalArgumentException("Thread counts and queue size must be 1 or higher.");
+        }
+        return new RealmThreadPoolExecutor(queryThreads, writeThreads, queueSize);
     }
 
-    private RealmThreadPoolExecutor(int corePoolSize, int maxPoolSize) {
-        super(corePoolSize, maxPoolSize,
+    private RealmThreadPoolExecutor(int queryThreads, int writeThreads, int queueSize) {
+        super(queryThreads, queryThreads,
                 0L, TimeUnit.MILLISECONDS, //terminated idle thread
-                new ArrayBlockingQueue<Runnable>(QUEUE_SIZE));
+                new QueryLaneQueue());
+        ((QueryLaneQueue) getQueue()).stats = queryLaneStats;
+        this.queueSize = queueSize;
+        this.writeExecutor = new ThreadPoolExecutor(writeThreads, writeThreads,
+                WRITE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        this.writeExecutor.allowCoreThreadTimeOut(true);
     }
 
     /**
-     * Submits a runnable for executing a transaction.
+     * Submits a runnable for executing a transaction on the write lane of the given Realm file. Transactions for the
+     * same file are run one at a time in submission order.
      *
+     * @param realmPath the canonical path of the Realm file written to.
      * @param task the task to submit
      * @return a future representing pending completion of the task
      */
-    public Future<?> submitTransaction(Runnable task) {
-        Future<?> future = super.submit(new BgPriorityRunnable(task));
-        return future;
+    public Future<?> submitTransaction(String realmPath, Runnable task) {
+        LaneTask<Object> future = new LaneTask<Object>(new BgPriorityRunnable(task), null, PRIORITY_QUERY);
+        writeLaneStats.taskSubmitted();
+        // A lane removes itself once it ran out of tasks, a new one is created for the path then.
+        while (true) {
+            WriteLane lane = writeLanes.get(realmPath);
+            if (lane == null) {
+                WriteLane newLane = new WriteLane(realmPath);
+                lane = writeLanes.putIfAbsent(realmPath, newLane);
+                if (lane == null) {
+                    lane = newLane;
+                }
+            }
+            if (lane.add(future)) {
+                return future;
+            }
+        }
     }
 
     /**
@@ -79,7 +156,9 @@ public class RealmThreadPoolExecutor extends ThreadPoolExecutor {
      * @return a future representing pending completion of the task
      */
     public Future<?> submitQueryUpdate(Runnable task) {
-        return super.submit(new BgPriorityRunnable(task));
+        LaneTask<Object> future = new LaneTask<Object>(new BgPriorityRunnable(task), null, PRIORITY_QUERY_UPDATE);
+        enqueueQuery(future);
+        return future;
     }
 
     /**
@@ -89,7 +168,88 @@ public class RealmThreadPoolExecutor extends ThreadPoolExecutor {
      * @return a future representing pending completion of the task
      */
     public <T> Future<T> submitQuery(Callable<T> task) {
-        return super.submit(new BgPriorityCallable<T>(task));
+        LaneTask<T> future = new LaneTask<T>(new BgPriorityCallable<T>(task), PRIORITY_QUERY);
+        enqueueQuery(future);
+        return future;
+    }
+
+    /**
+     * Returns the statistics of the query lane.
+     */
+    public LaneStats getQueryLaneStats() {
+        return queryLaneStats;
+    }
+
+    /**
+     * Returns the statistics of the write lane, summed over all Realm files.
+     */
+    public LaneStats getWriteLaneStats() {
+        return writeLaneStats;
+    }
+
+    /**
+     * Checks if any task is queued or running in either lane.
+     *
+     * @return {@code true} if a task is queued or running, {@code false} otherwise.
+     */
+    public boolean hasPendingTasks() {
+        return !writeLanes.isEmpty() || !getQueue().isEmpty() || getActiveCount() > 0;
+    }
+
+    /**
+     * Returns the number of Realm files with transactions queued or running on the write lane.
+     */
+    int getWriteLaneCount() {
+        return writeLanes.size();
+    }
+
+    /**
+     * Returns the approximate number of threads actively executing tasks in either lane.
+     */
+    @Override
+    public int getActiveCount() {
+        return super.getActiveCount() + writeExecutor.getActiveCount();
+    }
+
+    @Override
+    public void shutdown() {
+        writeExecutor.shutdown();
+        super.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        writeExecutor.shutdownNow();
+        return super.shutdownNow();
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new LaneTask<T>(runnable, value, PRIORITY_QUERY);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new LaneTask<T>(callable, PRIORITY_QUERY);
+    }
+
+    // Back-pressure: blocks threads without a Looper while the query lane is full.
+    private void enqueueQuery(LaneTask<?> future) {
+        if (Looper.myLooper() == null) {
+            capacityLock.lock();
+            try {
+                while (getQueue().size() >= queueSize && !isShutdown()) {
+                    // Tasks might also leave the queue by being cancelled, so don't rely on being signalled.
+                    notFull.await(100, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                capacityLock.unlock();
+            }
+        }
+        queryLaneStats.taskSubmitted();
+        execute(future);
     }
 
     /**
@@ -101,6 +261,37 @@ public class RealmThreadPoolExecutor extends ThreadPoolExecutor {
     @Override
     protected void beforeExecute(Thread t, Runnable r) {
         super.beforeExecute(t, r);
+        if (r instanceof LaneTask) {
+            queryLaneStats.taskStarted(System.nanoTime() - ((LaneTask) r).submittedAtNanos);
+        }
+        capacityLock.lock();
+        try {
+            notFull.signal();
+        } finally {
+            capacityLock.unlock();
+        }
+        awaitUnpaused(t);
+    }
+
+    /**
+     * Method invoked on the worker thread after running the given Runnable. Pooled SharedRealms can only be closed by
+     * the thread which opened them, so the ones evicted meanwhile are closed here, and all of them once the query lane
+     * has no more work for the thread.
+     *
+     * @param r the task that was executed
+     * @param t the exception that caused termination, or null if execution completed normally
+     */
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        super.afterExecute(r, t);
+        if (getQueue().isEmpty()) {
+            SharedRealmPool.closeIdle();
+        } else {
+            SharedRealmPool.closeEvicted();
+        }
+    }
+
+    private void awaitUnpaused(Thread t) {
         pauseLock.lock();
         try {
             while (isPaused) unpaused.await();
@@ -135,4 +326,97 @@ public class RealmThreadPoolExecutor extends ThreadPoolExecutor {
             pauseLock.unlock();
         }
     }
+
+    // Future ordered by priority first and submission order second.
+    private static class LaneTask<V> extends FutureTask<V> implements Comparable<LaneTask<?>> {
+        private final int priority;
+        private final long sequence = taskSequence.getAndIncrement();
+        private final long submittedAtNanos = System.nanoTime();
+
+        LaneTask(Runnable runnable, V result, int priority) {
+            super(runnable, result);
+            this.priority = priority;
+        }
+
+        LaneTask(Callable<V> callable, int priority) {
+            super(callable);
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(LaneTask<?> other) {
+            if (priority != other.priority) {
+                return priority < other.priority ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    // Queue of the query lane, keeps the queue depth statistics right when cancelled tasks are removed.
+    private static class QueryLaneQueue extends PriorityBlockingQueue<Runnable> {
+        private LaneStats stats;
+
+        @Override
+        public boolean remove(Object o) {
+            boolean removed = super.remove(o);
+            if (removed && stats != null) {
+                stats.taskRemoved();
+            }
+            return removed;
+        }
+    }
+
+    // Serializes the transactions of one Realm file. At most one task of a lane is queued on the write executor at any
+    // time, so lanes for different files take turns on the write threads. A task that blocks keeps its thread from
+    // every other lane, which is why lane tasks must only run work that is ready.
+    private class WriteLane implements Runnable {
+        private final String realmPath;
+        private final LinkedList<LaneTask<?>> tasks = new LinkedList<LaneTask<?>>();
+        private boolean scheduled;
+        // Set once the lane removed itself from writeLanes, it doesn't accept tasks anymore.
+        private boolean removed;
+
+        WriteLane(String realmPath) {
+            this.realmPath = realmPath;
+        }
+
+        // Returns false if the lane was removed, the task must be added to a new lane then.
+        boolean add(LaneTask<?> task) {
+            synchronized (tasks) {
+                if (removed) {
+                    return false;
+                }
+                tasks.add(task);
+                if (!scheduled) {
+                    scheduled = true;
+                    writeExecutor.execute(this);
+                }
+                return true;
+            }
+        }
+
+        @Override
+        public void run() {
+            LaneTask<?> task;
+            synchronized (tasks) {
+                task = tasks.poll();
+            }
+            if (task != null) {
+                writeLaneStats.taskStarted(System.nanoTime() - task.submittedAtNanos);
+                awaitUnpaused(Thread.currentThread());
+                task.run(); // No-op if the task was cancelled
+            }
+            synchronized (tasks) {
+                if (tasks.isEmpty()) {
+                    // Idle lanes are removed, otherwise there would be one for every Realm file ever written to.
+                    // Nothing runs for the path until a new lane is created, so transactions stay serialized.
+                    scheduled = false;
+                    removed = true;
+                    writeLanes.remove(realmPath, this);
+                } else {
+                    writeExecutor.execute(this);
+                }
+            }
+        }
+    }
 }
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -69,6 +70,29 @@ public class CompositeMediator extends RealmProxyMediator {
         return mediator.validateTable(clazz, sharedRealm);
     }
 
+    @Override
+    public ColumnInfo createColumnInfo(Class<? extends RealmModel> clazz, SharedRealm sharedRealm) {
+        RealmProxyMediator mediator = getMediator(clazz);
+        return mediator.createColumnInfo(clazz, sharedRealm);
+    }
+
+    @Override
+    public long getSchemaFingerprint() {
+        Set<RealmProxyMediator> uniqueMediators =
+                Collections.newSetFromMap(new IdentityHashMap<RealmProxyMediator, Boolean>());
+        uniqueMediators.addAll(mediators.values());
+        // Summed so the result doesn't depend on the iteration order. Unknown if any of the mediators is unknown.
+        long fingerprint = 0;
+        for (RealmProxyMediator mediator : uniqueMediators) {
+            long mediatorFingerprint = mediator.getSchemaFingerprint();
+            if (mediatorFingerprint == 0) {
+                return 0;
+            }
+            fingerprint += mediatorFingerprint;
+        }
+        return fingerprint;
+    }
+
     @Override
     public List<String> getFieldNames(Class<? extends RealmModel> clazz) {
         RealmProxyMediator mediator = getMediator(clazz);
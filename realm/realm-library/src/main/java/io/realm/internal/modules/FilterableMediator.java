@@ -22,6 +22,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -84,6 +85,30 @@ public class FilterableMediator extends RealmProxyMediator {
         return originalMediator.validateTable(clazz, sharedRealm);
     }
 
+    @Override
+    public ColumnInfo createColumnInfo(Class<? extends RealmModel> clazz, SharedRealm sharedRealm) {
+        checkSchemaHasClass(clazz);
+        return originalMediator.createColumnInfo(clazz, sharedRealm);
+    }
+
+    @Override
+    public long getSchemaFingerprint() {
+        long fingerprint = originalMediator.getSchemaFingerprint();
+        if (fingerprint == 0) {
+            return 0;
+        }
+        // The same module filtered differently validates a different set of tables.
+        List<String> tableNames = new ArrayList<String>();
+        for (Class<? extends RealmModel> clazz : allowedClasses) {
+            tableNames.add(originalMediator.getTableName(clazz));
+        }
+        Collections.sort(tableNames);
+        for (String tableName : tableNames) {
+            fingerprint = 31 * fingerprint + tableName.hashCode();
+        }
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
     @Override
     public List<String> getFieldNames(Class<? extends RealmModel> clazz) {
         checkSchemaHasClass(clazz);
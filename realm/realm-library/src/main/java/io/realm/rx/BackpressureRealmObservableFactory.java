@@ -0,0 +1,304 @@
+/*
+ * Copyright 2016 Realm Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.realm.rx;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.realm.DynamicRealm;
+import io.realm.DynamicRealmObject;
+import io.realm.Realm;
+import io.realm.RealmChangeListener;
+import io.realm.RealmConfiguration;
+import io.realm.RealmModel;
+import io.realm.RealmResults;
+import rx.Observable;
+import rx.Producer;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * Factory class for creating back-pressure aware Observables of {@link RealmResults} for RxJava (&lt;=1.1.*).
+ * <p>
+ * The Observables created by {@link RealmObservableFactory} call {@code onNext} for every change, so a slow subscriber
+ * receives a backlog of emissions of the same live collection. The Observables of this factory honour
+ * {@link Subscriber#request(long)} with latest-wins semantics instead: changes arriving while a subscriber hasn't
+ * requested more items are merged into a single emission, which is delivered as soon as it does.
+ * <p>
+ * All subscriptions to the same RealmResults on a thread share one change listener and one Realm instance, which is
+ * kept open until the last of them is unsubscribed.
+ * <p>
+ * Live RealmResults are confined to their thread. Use {@link #snapshotsFrom(Realm, RealmResults)} to get unmanaged
+ * copies that can be observed on other schedulers.
+ * <p>
+ * Enable it with {@link RealmConfiguration.Builder#rxFactory(RxObservableFactory)}. Observables of Realms and objects
+ * behave like the ones of {@link RealmObservableFactory}.
+ */
+public class BackpressureRealmObservableFactory extends RealmObservableFactory {
+
+    // Shared sources of the RealmResults subscribed to on each thread. Keeping the sources also keeps strong references
+    // to the RealmResults while they are subscribed to, so they aren't GC'ed too early.
+    private final ThreadLocal<Map<RealmResults, SharedResults>> sharedResults =
+            new ThreadLocal<Map<RealmResults, SharedResults>>() {
+                @Override
+                protected Map<RealmResults, SharedResults> initialValue() {
+                    return new IdentityHashMap<RealmResults, SharedResults>();
+                }
+            };
+
+    @Override
+    public <E extends RealmModel> Observable<RealmResults<E>> from(final Realm realm, final RealmResults<E> results) {
+        return createObservable(realm.getConfiguration(), false, results,
+                new Func1<SharedResults<E>, RealmResults<E>>() {
+                    @Override
+                    public RealmResults<E> call(SharedResults<E> source) {
+                        return source.results;
+                    }
+                });
+    }
+
+    @Override
+    public Observable<RealmResults<DynamicRealmObject>> from(DynamicRealm realm,
+                                                             final RealmResults<DynamicRealmObject> results) {
+        return createObservable(realm.getConfiguration(), true, results,
+                new Func1<SharedResults<DynamicRealmObject>, RealmResults<DynamicRealmObject>>() {
+                    @Override
+                    public RealmResults<DynamicRealmObject> call(SharedResults<DynamicRealmObject> source) {
+                        return source.results;
+                    }
+                });
+    }
+
+    /**
+     * Creates a back-pressure aware Observable emitting unmanaged copies of the given RealmResults, made with
+     * {@link Realm#copyFromRealm(Iterable)} when the initial state and each later change are delivered. The copies are
+     * not tied to the Realm thread, so they can be handed to other schedulers with {@code observeOn()}. The copies are
+     * made through the Realm instance kept open for the subscription, so they can still be made after the given
+     * {@code realm} is closed.
+     * <p>
+     * Copies are only made for changes that are actually delivered, so a subscriber requesting slowly doesn't pay for
+     * the changes it skips. Copying still takes time and memory proportional to the size of the results.
+     *
+     * @param realm {@link Realm} instance results are coming from.
+     * @param results {@link RealmResults} to listen to changes for.
+     * @return Rx observable that emits snapshots of the results on subscription and after each change.
+     */
+    public <E extends RealmModel> Observable<List<E>> snapshotsFrom(final Realm realm, final RealmResults<E> results) {
+        return createObservable(realm.getConfiguration(), false, results, new Func1<SharedResults<E>, List<E>>() {
+            @Override
+            public List<E> call(SharedResults<E> source) {
+                return source.realm.copyFromRealm(source.results);
+            }
+        });
+    }
+
+    private <E extends RealmModel, T> Observable<T> createObservable(final RealmConfiguration realmConfig,
+                                                                     final boolean dynamic,
+                                                                     final RealmResults<E> results,
+                                                                     final Func1<SharedResults<E>, T> valueFactory) {
+        return Observable.create(new Observable.OnSubscribe<T>() {
+            @Override
+            public void call(final Subscriber<? super T> subscriber) {
+                Looper looper = Looper.myLooper();
+                if (looper == null) {
+                    throw new IllegalStateException("RealmResults can only be observed from a Looper thread.");
+                }
+                final SharedResults<E> source = acquireSharedResults(realmConfig, dynamic, results);
+                final LatestEmitter<E, T> emitter = new LatestEmitter<E, T>(subscriber, source, valueFactory,
+                        new Handler(looper));
+                source.emitters.add(emitter);
+                subscriber.add(Subscriptions.create(new Action0() {
+                    @Override
+                    public void call() {
+                        emitter.release();
+                    }
+                }));
+                // The subscriber requests its initial demand immediately, which delivers the current value.
+                subscriber.setProducer(emitter);
+            }
+        });
+    }
+
+    private <E extends RealmModel> SharedResults<E> acquireSharedResults(RealmConfiguration realmConfig,
+                                                                          boolean dynamic, RealmResults<E> results) {
+        Map<RealmResults, SharedResults> sources = sharedResults.get();
+        @SuppressWarnings("unchecked")
+        SharedResults<E> source = sources.get(results);
+        if (source == null) {
+            // Get instance to make sure that the Realm is open for as long as the results are subscribed to.
+            if (dynamic) {
+                source = new SharedResults<E>(sources, results, null, DynamicRealm.getInstance(realmConfig));
+            } else {
+                source = new SharedResults<E>(sources, results, Realm.getInstance(realmConfig), null);
+            }
+            results.addChangeListener(source);
+            sources.put(results, source);
+        }
+        source.refCount++;
+        return source;
+    }
+
+    @Override
+    public int hashCode() {
+        return 41;
+    }
+
+    // The single change listener of a RealmResults, forwarding changes to all of its subscribers. Only used on the
+    // thread of the RealmResults.
+    private static final class SharedResults<E extends RealmModel> implements RealmChangeListener<RealmResults<E>> {
+        private final Map<RealmResults, SharedResults> sources;
+        private final RealmResults<E> results;
+        // Only one of them is set, depending on the kind of the results.
+        private final Realm realm;
+        private final DynamicRealm dynamicRealm;
+        private final List<LatestEmitter<E, ?>> emitters = new CopyOnWriteArrayList<LatestEmitter<E, ?>>();
+        private int refCount;
+
+        SharedResults(Map<RealmResults, SharedResults> sources, RealmResults<E> results, Realm realm,
+                      DynamicRealm dynamicRealm) {
+            this.sources = sources;
+            this.results = results;
+            this.realm = realm;
+            this.dynamicRealm = dynamicRealm;
+        }
+
+        @Override
+        public void onChange(RealmResults<E> element) {
+            for (LatestEmitter<E, ?> emitter : emitters) {
+                emitter.onChange();
+            }
+        }
+
+        void release(LatestEmitter<E, ?> emitter) {
+            emitters.remove(emitter);
+            if (--refCount == 0) {
+                results.removeChangeListener(this);
+                sources.remove(results);
+                if (realm != null) {
+                    realm.close();
+                } else {
+                    dynamicRealm.close();
+                }
+            }
+        }
+    }
+
+    // Delivers the latest value to one subscriber when it has requested it. Requests may come from any thread, values
+    // are only read and emitted on the thread of the RealmResults.
+    private static final class LatestEmitter<E extends RealmModel, T> implements Producer {
+        private final Subscriber<? super T> subscriber;
+        private final SharedResults<E> source;
+        private final Func1<SharedResults<E>, T> valueFactory;
+        private final Handler handler;
+        private final AtomicLong requested = new AtomicLong();
+        private final Runnable drainRunnable = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+        private final Runnable releaseRunnable = new Runnable() {
+            @Override
+            public void run() {
+                release();
+            }
+        };
+
+        // Only accessed on the thread of the RealmResults. The current value is pending until it is first delivered.
+        private boolean pending = true;
+        private boolean released;
+
+        LatestEmitter(Subscriber<? super T> subscriber, SharedResults<E> source,
+                      Func1<SharedResults<E>, T> valueFactory, Handler handler) {
+            this.subscriber = subscriber;
+            this.source = source;
+            this.valueFactory = valueFactory;
+            this.handler = handler;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n < 0) {
+                throw new IllegalArgumentException("n >= 0 required but it was " + n);
+            }
+            if (n == 0) {
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n;
+                if (next < 0) {
+                    // Overflow, the demand is unbounded.
+                    next = Long.MAX_VALUE;
+                }
+            } while (!requested.compareAndSet(current, next));
+
+            if (isOnLooperThread()) {
+                drain();
+            } else {
+                handler.post(drainRunnable);
+            }
+        }
+
+        void onChange() {
+            pending = true;
+            drain();
+        }
+
+        private void drain() {
+            if (released || !pending || subscriber.isUnsubscribed()) {
+                return;
+            }
+            long current;
+            do {
+                current = requested.get();
+                if (current == 0) {
+                    // The change stays pending and is delivered with the latest value on the next request.
+                    return;
+                }
+            } while (current != Long.MAX_VALUE && !requested.compareAndSet(current, current - 1));
+            pending = false;
+            subscriber.onNext(valueFactory.call(source));
+        }
+
+        void release() {
+            if (!isOnLooperThread()) {
+                // Subscribers may unsubscribe on another scheduler, but the listener can only be removed on its thread.
+                handler.post(releaseRunnable);
+                return;
+            }
+            if (!released) {
+                released = true;
+                source.release(this);
+            }
+        }
+
+        private boolean isOnLooperThread() {
+            return handler.getLooper() == Looper.myLooper();
+        }
+    }
+}
@@ -295,7 +295,8 @@ public class RealmObservableFactory implements RxObservableFactory {
 
     @Override
     public boolean equals(Object o) {
-        return o instanceof RealmObservableFactory;
+        // Subclasses create different Observables, so they are never equal to this factory.
+        return o != null && o.getClass() == getClass();
     }
 
     @Override